@@ -1,53 +1,62 @@
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
+import controller.BusquedaController;
 import controller.CampeonController;
+import controller.EnrutadorConexiones;
+import controller.EstadisticasController;
+import controller.FabricaDiferida;
+import controller.FichaCampeonController;
 import controller.HabilidadController;
+import controller.MetricasPool;
+import controller.ReceptoresCatalogo;
 import controller.RegionController;
-import org.hibernate.HibernateException;
-import org.hibernate.SessionFactory;
-import org.hibernate.boot.Metadata;
-import org.hibernate.boot.MetadataSources;
-import org.hibernate.boot.registry.StandardServiceRegistry;
-import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import index.AlmacenColumnar;
+import index.BuscadorDifuso;
+import index.FiltroColumnar;
+import index.IndicePertenencias;
+import index.IndiceInvertido;
+import index.IndicePrefijos;
+import index.TipoEntidad;
+import instantanea.EscritorInstantanea;
+import instantanea.Instantanea;
+import invalidacion.BusInvalidacion;
+import invalidacion.TransporteLocal;
+import invalidacion.TransportePostgres;
+import model.Diccionario;
 import view.Menu;
 
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
 
 /**
  * Esta clase representa el punto de entrada principal del programa.
  * Contiene el método principal {@link #main(String[])} que permite interactuar
  * con el usuario mediante un menú de opciones para realizar diversas operaciones
  * relacionadas con las regiones, campeones y habilidades.
- * Además, proporciona métodos para crear la sesión de la fábrica de entidades,
+ * Además, proporciona el método para crear la fábrica de entidades,
  * lo que permite la interacción con la base de datos mediante Hibernate.
+ * <p>
+ * Con el argumento {@code sin-conexion [fichero]} el programa no se conecta a la base de datos: las
+ * consultas se sirven desde la {@link Instantanea} guardada tras la última carga de los CSV y las
+ * opciones que modifican el catálogo no están disponibles.
  */
 public class Main {
 
-    /**
-     * Fábrica de sesiones para la interacción con la base de datos mediante Hibernate.
-     */
-    static SessionFactory sessionFactoryObj;
+    /** Opciones del menú que solo consultan el catálogo y se pueden usar en el modo sin conexión. */
+    private static final Set<Integer> OPCIONES_SIN_CONEXION = new HashSet<>(Arrays.asList(1, 2, 3, 5, 6, 7, 8, 9, 10, 11, 12, 13, 23, 25, 26, 27, 0));
 
-    /**
-     * Construye y devuelve una fábrica de sesiones para la interacción con la base de datos.
-     * Esta fábrica se configura utilizando el archivo de configuración "hibernate.cfg.xml".
-     *
-     * @return la fábrica de sesiones configurada
-     * @throws HibernateException si ocurre un error al crear la fábrica de sesiones
-     */
-    private static SessionFactory buildSessionFactory() {
-        try {
-            StandardServiceRegistry standardRegistry = new StandardServiceRegistryBuilder()
-                    .configure("hibernate.cfg.xml").build();
-            Metadata metadata = new MetadataSources(standardRegistry).getMetadataBuilder().build();
-            return metadata.getSessionFactoryBuilder().build();
-        } catch (HibernateException he) {
-            System.out.println("Session Factory creation failure");
-            throw he;
-        }
-    }
+    /** Opciones del menú que consultan los índices en memoria, que se cargan al terminar de arrancar Hibernate. */
+    private static final Set<Integer> OPCIONES_CON_INDICES = new HashSet<>(Arrays.asList(8, 11, 13, 23, 25, 26));
 
     /**
      * Crea y devuelve la fábrica de entidades para la interacción con la base de datos
@@ -59,6 +68,8 @@ public class Main {
         EntityManagerFactory emf;
         try {
             emf = Persistence.createEntityManagerFactory("JPAMagazines");
+            // Rol, raza y dificultad se leen de los diccionarios, que se cargan de la primaria
+            Diccionario.conectar(EnrutadorConexiones.primaria(emf));
         } catch (Throwable ex) {
             System.err.println("Failed to create EntityManagerFactory object." + ex);
             throw new ExceptionInInitializerError(ex);
@@ -71,20 +82,94 @@ public class Main {
      * Permite interactuar con el usuario mediante un menú de opciones para realizar
      * diversas operaciones relacionadas con las regiones, campeones y habilidades.
      *
-     * @param args argumentos de la línea de comandos (no se utilizan)
+     * @param args {@code sin-conexion [fichero]} para consultar la instantánea del catálogo sin base de datos
      * @throws IOException si ocurre un error de entrada/salida al leer la entrada del usuario
      */
     public static void main(String[] args) throws IOException {
-        EntityManagerFactory entityManagerFactory = createEntityManagerFactory();
-        RegionController regionController = new RegionController(entityManagerFactory);
-        CampeonController campeonController = new CampeonController(entityManagerFactory);
-        HabilidadController habilidadController = new HabilidadController(entityManagerFactory, campeonController);
+        boolean sinConexion = args.length > 0 && args[0].equals("sin-conexion");
+        Path rutaInstantanea = Paths.get(args.length > 1 ? args[1] : Instantanea.RUTA_POR_DEFECTO);
+        Instantanea instantanea = null;
+        if (sinConexion) {
+            instantanea = Instantanea.abrir(rutaInstantanea);
+            System.out.println("Modo sin conexión. " + instantanea.describir());
+        }
+
+        // Hibernate arranca en segundo plano mientras se muestra el menú; la primera opción que use la base de datos lo espera
+        FabricaDiferida entityManagerFactory = new FabricaDiferida(sinConexion
+                ? () -> { throw new PersistenceException("Modo sin conexión: el catálogo es de solo lectura"); }
+                : Main::createEntityManagerFactory);
+        // Los tres controladores comparten los receptores: un borrado en cascada avisa a los de cada entidad eliminada
+        ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+        RegionController regionController = new RegionController(entityManagerFactory, receptores);
+        CampeonController campeonController = new CampeonController(entityManagerFactory, receptores);
+        BuscadorDifuso buscadorDifuso = new BuscadorDifuso();
+        HabilidadController habilidadController = new HabilidadController(entityManagerFactory, campeonController, buscadorDifuso);
+        IndiceInvertido indiceInvertido = new IndiceInvertido();
+        IndicePrefijos indicePrefijos = new IndicePrefijos();
+        regionController.addCatalogoListener(indiceInvertido);
+        campeonController.addCatalogoListener(indiceInvertido);
+        habilidadController.addCatalogoListener(indiceInvertido);
+        regionController.addCatalogoListener(indicePrefijos);
+        campeonController.addCatalogoListener(indicePrefijos);
+        habilidadController.addCatalogoListener(indicePrefijos);
+        campeonController.addCatalogoListener(buscadorDifuso);
+        AlmacenColumnar almacenColumnar = new AlmacenColumnar();
+        campeonController.addCatalogoListener(almacenColumnar);
+        campeonController.usarAlmacenColumnar(almacenColumnar);
+        IndicePertenencias indicePertenencias = new IndicePertenencias();
+        campeonController.addCatalogoListener(regionController.getResumenRegiones());
+        regionController.addCatalogoListener(indicePertenencias);
+        campeonController.addCatalogoListener(indicePertenencias);
+        regionController.usarIndicePertenencias(indicePertenencias);
+        EstadisticasController estadisticasController = new EstadisticasController(entityManagerFactory);
+        regionController.addCatalogoListener(estadisticasController);
+        campeonController.addCatalogoListener(estadisticasController);
+        habilidadController.addCatalogoListener(buscadorDifuso);
+        BusquedaController busquedaController = new BusquedaController(entityManagerFactory, indiceInvertido, indicePrefijos, buscadorDifuso);
+        FichaCampeonController fichaCampeonController = new FichaCampeonController(entityManagerFactory);
+        if (instantanea != null) {
+            regionController.usarInstantanea(instantanea);
+            campeonController.usarInstantanea(instantanea);
+            habilidadController.usarInstantanea(instantanea);
+            estadisticasController.usarInstantanea(instantanea);
+            busquedaController.reconstruirIndices(instantanea);
+            campeonController.reconstruirAlmacenColumnar();
+            regionController.reconstruirIndicePertenencias();
+        }
+        AtomicReference<BusInvalidacion> busInvalidacion = new AtomicReference<>();
+        entityManagerFactory.iniciar(fabrica -> {
+            // Avisa a las demás instancias de los cambios hechos aquí y aplica los suyos a los índices
+            String url = (String) fabrica.getProperties().get("javax.persistence.jdbc.url");
+            BusInvalidacion bus = new BusInvalidacion(entityManagerFactory,
+                    url != null && url.startsWith("jdbc:postgresql:") ? TransportePostgres.desde(fabrica) : new TransporteLocal());
+            regionController.addCatalogoListener(bus);
+            campeonController.addCatalogoListener(bus);
+            habilidadController.addCatalogoListener(bus);
+            bus.addReceptor(indiceInvertido);
+            bus.addReceptor(indicePrefijos);
+            bus.addReceptor(buscadorDifuso);
+            bus.addReceptor(almacenColumnar);
+            bus.addReceptor(indicePertenencias);
+            bus.addReceptor(estadisticasController);
+            busInvalidacion.set(bus);
+            regionController.getResumenRegiones().refrescarTodo();
+            busquedaController.reconstruirIndices();
+            campeonController.reconstruirAlmacenColumnar();
+            regionController.reconstruirIndicePertenencias();
+        });
         int opcio;
         Scanner input = new Scanner(System.in);
         do {
             Menu menu = new Menu();
 
             opcio = menu.mainMenu();
+            if (sinConexion && !OPCIONES_SIN_CONEXION.contains(opcio)) {
+                System.out.println("Opción no disponible en el modo sin conexión.");
+                continue;
+            }
+            if (!sinConexion && OPCIONES_CON_INDICES.contains(opcio)) {
+                esperarIndices(entityManagerFactory);
+            }
             switch (opcio) {
 
                 case 1:
@@ -100,13 +185,10 @@ public class Main {
                     System.out.println(habilidadController.listarHabilidades());
                     break;
                 case 4:
-                    System.out.println("Borrando y creando todas las tablas...");
-                    habilidadController.eliminarTablaHabilidad();
-                    regionController.eliminarTablaRegion();
-                    campeonController.eliminarTablaCampeon();
-                    campeonController.crearTablaCampeon();
-                    regionController.crearTablaRegion();
-                    habilidadController.crearTablaHabilidad();
+                    System.out.println("Vaciando el catálogo...");
+                    habilidadController.vaciarTablaHabilidad();
+                    campeonController.vaciarTablaCampeon();
+                    regionController.vaciarTablaRegion();
                     break;
                 case 5:
                     System.out.println("Introduce el texto a buscar en las regiones:");
@@ -124,7 +206,9 @@ public class Main {
                     break;
                 case 8:
                     System.out.println("Introduce el texto a buscar en los campeones:");
-                    System.out.println(campeonController.buscarCampeonPorTexto(input.next()));
+                    String textoCampeon = input.next();
+                    System.out.println(campeonController.buscarCampeonPorTexto(textoCampeon));
+                    System.out.println(busquedaController.autocompletar(textoCampeon, TipoEntidad.CAMPEON, 5));
                     break;
                 case 9:
                     System.out.println("Introduce el rol para buscar campeones:");
@@ -133,11 +217,16 @@ public class Main {
                 case 10:
                     System.out.println("Introduce el ID del campeón a obtener:");
                     input.next();
-                    System.out.println(campeonController.obtenerCampeonPorId(input.nextInt()));
+                    int idCampeon = input.nextInt();
+                    System.out.println(sinConexion
+                            ? campeonController.obtenerDetalleCampeon(idCampeon)
+                            : fichaCampeonController.obtenerFichaCampeon(idCampeon));
                     break;
                 case 11:
                     System.out.println("Introduce el texto a buscar en las habilidades:");
-                    System.out.println(habilidadController.buscarHabilidadPorTexto(input.next()));
+                    String textoHabilidad = input.next();
+                    System.out.println(habilidadController.buscarHabilidadPorTexto(textoHabilidad));
+                    System.out.println(busquedaController.autocompletar(textoHabilidad, TipoEntidad.HABILIDAD, 5));
                     break;
                 case 12:
                     System.out.println("Introduce el ID del campeón para buscar habilidades:");
@@ -146,7 +235,9 @@ public class Main {
                     break;
                 case 13:
                     System.out.println("Introduce el nombre de la habilidad a obtener:");
-                    System.out.println(habilidadController.obtenerHabilidadPorNombre(input.next()));
+                    String nombreHabilidad = input.next();
+                    System.out.println(busquedaController.autocompletar(nombreHabilidad, TipoEntidad.HABILIDAD, 5));
+                    System.out.println(habilidadController.obtenerHabilidadPorNombre(nombreHabilidad));
                     break;
                 case 14:
                     System.out.println("Introduce el ID de la región a modificar:");
@@ -189,14 +280,106 @@ public class Main {
                     campeonController.readCampeonFromFile("src/main/resources/Campeons.csv");;
                     regionController.readRegionFromFile("src/main/resources/Regiones.csv");
                     habilidadController.readHabilidadFromFile("src/main/resources/Habilidades.csv");
+                    guardarInstantanea(entityManagerFactory, rutaInstantanea);
                     break;
                 case 23:
+                    System.out.println("Introduce el texto a buscar en todo el catálogo:");
+                    System.out.println(busquedaController.buscarEnCatalogo(input.next(), 20));
+                    break;
+                case 24:
+                    System.out.println(MetricasPool.describir());
+                    System.out.println(EnrutadorConexiones.describirReplicas(entityManagerFactory));
+                    break;
+                case 25:
+                    FiltroColumnar filtro = new FiltroColumnar();
+                    System.out.println("Introduce el rol (- para cualquiera):");
+                    String rol = input.next();
+                    filtro.setRol(rol.equals("-") ? null : rol);
+                    System.out.println("Introduce la dificultad (- para cualquiera):");
+                    String dificultad = input.next();
+                    filtro.setDificultad(dificultad.equals("-") ? null : dificultad);
+                    System.out.println("Introduce el número mínimo de aspectos:");
+                    filtro.setMinimoAspectos(input.nextInt());
+                    System.out.println(campeonController.filtrarCampeones(filtro));
+                    break;
+                case 26:
+                    System.out.println("Elige la consulta: 1. Campeones de todas las regiones, 2. De alguna región, "
+                            + "3. De ninguna región, 4. Regiones de los campeones");
+                    int consulta = input.nextInt();
+                    System.out.println("Introduce los IDs separados por comas:");
+                    List<Integer> ids = leerIds(input.next());
+                    switch (consulta) {
+                        case 1:
+                            System.out.println(regionController.buscarCampeonesDeTodasLasRegiones(ids));
+                            break;
+                        case 2:
+                            System.out.println(regionController.buscarCampeonesDeAlgunaRegion(ids));
+                            break;
+                        case 3:
+                            System.out.println(regionController.buscarCampeonesFueraDeRegiones(ids));
+                            break;
+                        default:
+                            System.out.println(regionController.buscarRegionesDeCampeones(ids));
+                    }
+                    break;
+                case 27:
+                    System.out.println(estadisticasController.describir());
                     break;
                 default:
+                    if (busInvalidacion.get() != null) {
+                        busInvalidacion.get().cerrar();
+                    }
+                    regionController.cerrar();
+                    fichaCampeonController.cerrar();
                     System.out.println("Adeu!!");
                     System.exit(1);
 
             }
         } while (opcio != 0);
     }
-}
\ No newline at end of file
+    /**
+     * Espera a que termine el arranque de Hibernate, que es cuando se cargan los índices en memoria:
+     * antes de eso las búsquedas sobre ellos no encontrarían nada.
+     *
+     * @param entityManagerFactory la fábrica que se está construyendo en segundo plano
+     */
+    private static void esperarIndices(FabricaDiferida entityManagerFactory) {
+        if (!entityManagerFactory.estaLista()) {
+            System.out.println("Cargando los índices del catálogo...");
+        }
+        try {
+            entityManagerFactory.obtener();
+        } catch (PersistenceException e) {
+            System.out.println("No se pudieron cargar los índices del catálogo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Convierte una lista de IDs separados por comas, como {@code 4,10}, en enteros.
+     *
+     * @param texto los IDs escritos por el usuario
+     * @return los IDs en el orden escrito
+     */
+    private static List<Integer> leerIds(String texto) {
+        return Arrays.stream(texto.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Guarda una instantánea del catálogo para poder consultarlo después en el modo sin conexión.
+     *
+     * @param entityManagerFactory la fábrica de entidades de la base de datos
+     * @param ruta                 el fichero de la instantánea
+     */
+    private static void guardarInstantanea(EntityManagerFactory entityManagerFactory, Path ruta) {
+        try {
+            long bytes = EscritorInstantanea.escribir(entityManagerFactory, ruta);
+            System.out.println("Instantánea del catálogo guardada en " + ruta + " (" + bytes + " bytes)");
+        } catch (IOException | PersistenceException e) {
+            System.out.println("No se pudo guardar la instantánea del catálogo: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package controller;
+
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.CascadeStyle;
+import org.hibernate.engine.spi.CascadingActions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.Type;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de borrado de entidades y de las filas que dependen de ellas.
+ * El plan de borrado se calcula a partir de los metadatos de mapeo de Hibernate (tablas de relación,
+ * claves ajenas y estilos de cascada) y se ejecuta como una secuencia fija de sentencias sobre conjuntos:
+ * cada conjunto de claves se pasa como un único parámetro de tipo array ({@code columna = ANY(?)}),
+ * así que el número de viajes a la base de datos no depende de cuántas filas se borren
+ * y no se carga ninguna entidad. Es el único motor de borrado del catálogo: los borrados por condición
+ * ({@link #eliminarDonde}) leen las claves que cumplen la condición y siguen el mismo plan.
+ * <p>
+ * Los planes se calculan una vez por entidad y política y se guardan en la instancia, así que cada
+ * controlador conserva la suya en lugar de crear una por borrado.
+ * <p>
+ * Al confirmar, cada entidad eliminada se notifica a los receptores de su tipo en el
+ * {@link ReceptoresCatalogo}, también las eliminadas en cascada. Las filas quitadas de una tabla de relación
+ * se notifican con {@link CatalogoListener#relacionesEliminadas} a los receptores de la entidad del otro lado,
+ * con las claves que devuelve el propio borrado.
+ */
+public class BorradoEnGrafo {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReceptoresCatalogo receptores;
+    private final Map<String, Plan> planes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de la clase BorradoEnGrafo.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     * @param receptores           Los receptores a los que notificar las entidades eliminadas, por tipo.
+     */
+    public BorradoEnGrafo(EntityManagerFactory entityManagerFactory, ReceptoresCatalogo receptores) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.receptores = receptores;
+    }
+
+    /**
+     * Elimina las entidades indicadas y sus dependencias según la política.
+     *
+     * @param entidad  La clase de la entidad a eliminar.
+     * @param ids      Las claves primarias de las entidades a eliminar.
+     * @param politica Qué hacer con las filas dependientes.
+     * @return El número de filas eliminadas de cada tabla, indexado por nombre de tabla.
+     */
+    public Map<String, Integer> eliminar(Class<?> entidad, Collection<?> ids, PoliticaBorrado politica) {
+        return eliminar(planificar(entidad, politica), connection -> ids.toArray());
+    }
+
+    /**
+     * Elimina las entidades que cumplen una condición y sus dependencias según la política. Si la entidad no
+     * tiene filas dependientes, una sola sentencia la borra por la condición y devuelve las claves borradas;
+     * si las tiene, sus claves se leen antes con una consulta dentro de la misma transacción, porque las
+     * dependientes se tienen que borrar primero.
+     *
+     * @param entidad    La clase de la entidad a eliminar.
+     * @param politica   Qué hacer con las filas dependientes.
+     * @param condicion  Condición SQL sobre la tabla de la entidad, con parámetros posicionales {@code ?}.
+     * @param parametros Valores de los parámetros de la condición.
+     * @return El número de filas eliminadas de cada tabla, indexado por nombre de tabla.
+     */
+    public Map<String, Integer> eliminarDonde(Class<?> entidad, PoliticaBorrado politica, String condicion, Object... parametros) {
+        Plan plan = planificar(entidad, politica);
+        if (plan.pasos.size() == 1) {
+            return eliminar(plan.porCondicion(borrarDevolviendo(plan.tabla, condicion, plan.clave)), connection -> parametros);
+        }
+        String sql = "SELECT " + plan.clave + " FROM " + plan.tabla + " WHERE " + condicion;
+        return eliminar(plan, connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parametros.length; i++) {
+                    ps.setObject(i + 1, parametros[i]);
+                }
+                List<Object> claves = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        claves.add(rs.getObject(1));
+                    }
+                }
+                return claves.toArray();
+            }
+        });
+    }
+
+    private Map<String, Integer> eliminar(Plan plan, Raiz raiz) {
+        Map<String, Integer> filas = new LinkedHashMap<>();
+        List<Object[]> conjuntos = new ArrayList<>();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            em.unwrap(Session.class).doWork(connection -> {
+                conjuntos.add(raiz.claves(connection));
+                for (Paso paso : plan.pasos) {
+                    ejecutar(connection, paso, conjuntos, filas);
+                }
+            });
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+
+        for (Paso paso : plan.pasos) {
+            if (paso.tipo == TipoPaso.BORRAR_ENTIDAD) {
+                notificar(paso.entidad, conjuntos.get(paso.resultado));
+            } else if (paso.tipo == TipoPaso.BORRAR_RELACION && conjuntos.get(paso.resultado).length > 0) {
+                Set<Object> claves = new LinkedHashSet<>(Arrays.asList(conjuntos.get(paso.resultado)));
+                receptores.de(paso.entidad).forEach(l -> l.relacionesEliminadas(paso.entidad, claves));
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Devuelve el plan de borrado de una entidad como lista de sentencias SQL, para poder revisarlo.
+     *
+     * @param entidad  La clase de la entidad a eliminar.
+     * @param politica Qué hacer con las filas dependientes.
+     * @return Las sentencias del plan en el orden en que se ejecutan.
+     */
+    public List<String> describirPlan(Class<?> entidad, PoliticaBorrado politica) {
+        List<String> sentencias = new ArrayList<>();
+        for (Paso paso : planificar(entidad, politica).pasos) {
+            sentencias.add(paso.sql);
+        }
+        return sentencias;
+    }
+
+    private Plan planificar(Class<?> entidad, PoliticaBorrado politica) {
+        return planes.computeIfAbsent(entidad.getName() + "#" + politica, clave -> {
+            MetamodelImplementor metamodelo = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel();
+            AbstractEntityPersister persister = (AbstractEntityPersister) metamodelo.entityPersister(entidad);
+            Plan plan = new Plan(persister.getTableName(), persister.getIdentifierColumnNames()[0], tipoArray(persister));
+            planificar(metamodelo, persister, 0, plan.clave, politica, plan, new HashSet<>());
+            return plan;
+        });
+    }
+
+    /**
+     * Añade al plan los pasos para borrar las filas de la entidad cuya columna indicada está en el conjunto.
+     * Primero se resuelven las colecciones (hijos y tablas de relación) y al final se borra la propia tabla,
+     * devolviendo las claves borradas. Las claves de la entidad solo se leen antes si tiene colecciones y la
+     * columna no es su clave primaria; un hijo sin colecciones se borra directamente por su clave ajena.
+     */
+    private void planificar(MetamodelImplementor metamodelo, AbstractEntityPersister persister, int conjunto, String columna,
+                            PoliticaBorrado politica, Plan plan, Set<String> visitadas) {
+        visitadas.add(persister.getEntityName());
+        String[] propiedades = persister.getPropertyNames();
+        Type[] tipos = persister.getPropertyTypes();
+        CascadeStyle[] cascadas = persister.getPropertyCascadeStyles();
+        String identificador = persister.getIdentifierColumnNames()[0];
+        if (!columna.equals(identificador) && Arrays.stream(tipos).anyMatch(Type::isCollectionType)) {
+            conjunto = plan.seleccionar("SELECT " + identificador + " FROM " + persister.getTableName()
+                    + " WHERE " + columna + " = ANY(?)", conjunto, tipoArray(persister));
+            columna = identificador;
+        }
+
+        for (int i = 0; i < propiedades.length; i++) {
+            if (!tipos[i].isCollectionType()) {
+                continue;
+            }
+            AbstractCollectionPersister coleccion = (AbstractCollectionPersister)
+                    metamodelo.collectionPersister(((CollectionType) tipos[i]).getRole());
+            String tabla = coleccion.getTableName();
+            String clave = coleccion.getKeyColumnNames()[0];
+            AbstractEntityPersister hijo = (AbstractEntityPersister) coleccion.getElementPersister();
+            // Las colecciones uno a muchos y las muchos a muchos con tabla de relación propia pertenecen
+            // a la entidad; por una asociación inversa (mappedBy) nunca se propaga el borrado.
+            boolean propietaria = coleccion.isOneToMany() || !coleccion.isInverse();
+            boolean seguir = politica == PoliticaBorrado.ELIMINAR_DEPENDIENTES && propietaria
+                    && cascadas[i].doCascade(CascadingActions.DELETE)
+                    && !visitadas.contains(hijo.getEntityName());
+
+            if (coleccion.isManyToMany()) {
+                if (seguir) {
+                    int hijos = plan.seleccionar("SELECT " + coleccion.getElementColumnNames()[0] + " FROM " + tabla
+                            + " WHERE " + clave + " = ANY(?)", conjunto, tipoArray(hijo));
+                    planificar(metamodelo, hijo, hijos, hijo.getIdentifierColumnNames()[0], politica, plan, visitadas);
+                }
+                plan.borrar(TipoPaso.BORRAR_RELACION, borrarDevolviendo(tabla, clave + " = ANY(?)", coleccion.getElementColumnNames()[0]),
+                        conjunto, tabla, hijo.getMappedClass(), tipoArray(hijo));
+            } else if (seguir) {
+                planificar(metamodelo, hijo, conjunto, clave, politica, plan, visitadas);
+            } else {
+                plan.actualizar("UPDATE " + tabla + " SET " + clave + " = NULL WHERE " + clave + " = ANY(?)", conjunto, tabla);
+            }
+        }
+
+        plan.borrar(TipoPaso.BORRAR_ENTIDAD, borrarDevolviendo(persister.getTableName(), columna + " = ANY(?)", identificador), conjunto,
+                persister.getTableName(), persister.getMappedClass(), tipoArray(persister));
+        visitadas.remove(persister.getEntityName());
+    }
+
+    /**
+     * Sentencia que borra las filas que cumplen la condición y devuelve la columna indicada de cada una:
+     * {@code DELETE ... RETURNING} en PostgreSQL y la tabla {@code OLD TABLE} del estándar en el resto (H2).
+     */
+    private String borrarDevolviendo(String tabla, String condicion, String columna) {
+        Dialect dialecto = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        String borrado = "DELETE FROM " + tabla + " WHERE " + condicion;
+        return dialecto instanceof PostgreSQL81Dialect
+                ? borrado + " RETURNING " + columna
+                : "SELECT " + columna + " FROM OLD TABLE (" + borrado + ")";
+    }
+
+    private static String tipoArray(AbstractEntityPersister persister) {
+        Class<?> clase = persister.getIdentifierType().getReturnedClass();
+        return Number.class.isAssignableFrom(clase) || clase.isPrimitive() ? "integer" : "varchar";
+    }
+
+    private static void ejecutar(Connection connection, Paso paso, List<Object[]> conjuntos, Map<String, Integer> filas) throws SQLException {
+        Object[] claves = conjuntos.get(paso.conjunto);
+        if (claves.length == 0 && !paso.porCondicion) {
+            if (paso.tipo != TipoPaso.ACTUALIZAR) {
+                conjuntos.add(new Object[0]);
+            }
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(paso.sql)) {
+            if (paso.porCondicion) {
+                for (int i = 0; i < claves.length; i++) {
+                    ps.setObject(i + 1, claves[i]);
+                }
+            } else {
+                Array array = connection.createArrayOf(paso.tipoArray, claves);
+                ps.setArray(1, array);
+            }
+            if (paso.tipo == TipoPaso.ACTUALIZAR) {
+                filas.merge(paso.tabla, ps.executeUpdate(), Integer::sum);
+                return;
+            }
+            List<Object> resultado = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    resultado.add(rs.getObject(1));
+                }
+            }
+            conjuntos.add(resultado.toArray());
+            if (paso.tipo != TipoPaso.SELECCIONAR) {
+                filas.merge(paso.tabla, resultado.size(), Integer::sum);
+            }
+        }
+    }
+
+    private void notificar(Class<?> entidad, Object[] claves) {
+        List<CatalogoListener> listeners = receptores.de(entidad);
+        for (Object clave : claves) {
+            if (entidad == Campeon.class) {
+                listeners.forEach(l -> l.campeonEliminado(((Number) clave).intValue()));
+            } else if (entidad == Region.class) {
+                listeners.forEach(l -> l.regionEliminada(((Number) clave).intValue()));
+            } else if (entidad == Habilidad.class) {
+                listeners.forEach(l -> l.habilidadEliminada((String) clave));
+            }
+        }
+    }
+
+    /**
+     * Lee el conjunto de claves de partida del borrado.
+     */
+    private interface Raiz {
+        Object[] claves(Connection connection) throws SQLException;
+    }
+
+    private enum TipoPaso {
+        /** Lee un nuevo conjunto de claves a partir de otro. */
+        SELECCIONAR,
+        /** Desvincula las filas de una tabla hija. */
+        ACTUALIZAR,
+        /** Borra filas de una tabla de relación y produce el conjunto de las claves del otro lado. */
+        BORRAR_RELACION,
+        /** Borra las filas de una entidad y produce el conjunto de sus claves borradas. */
+        BORRAR_ENTIDAD
+    }
+
+    /**
+     * Sentencia del plan; su único parámetro es el conjunto de claves número {@code conjunto}, salvo en un
+     * borrado por condición, cuyos parámetros son los valores de la condición.
+     */
+    private static final class Paso {
+        TipoPaso tipo;
+        String sql;
+        int conjunto;
+        int resultado = -1;
+        boolean porCondicion;
+        String tipoArray;
+        String tabla;
+        Class<?> entidad;
+    }
+
+    /**
+     * Lista ordenada de pasos. El conjunto 0 son las claves recibidas y cada paso que no es
+     * {@link TipoPaso#ACTUALIZAR} produce el siguiente conjunto.
+     */
+    private static final class Plan {
+        final String tabla;
+        final String clave;
+        final List<Paso> pasos = new ArrayList<>();
+        final List<String> tiposConjunto = new ArrayList<>();
+
+        Plan(String tabla, String clave, String tipoRaiz) {
+            this.tabla = tabla;
+            this.clave = clave;
+            tiposConjunto.add(tipoRaiz);
+        }
+
+        int seleccionar(String sql, int conjunto, String tipoResultado) {
+            nuevo(TipoPaso.SELECCIONAR, sql, conjunto);
+            tiposConjunto.add(tipoResultado);
+            return tiposConjunto.size() - 1;
+        }
+
+        Paso actualizar(String sql, int conjunto, String tabla) {
+            Paso paso = nuevo(TipoPaso.ACTUALIZAR, sql, conjunto);
+            paso.tabla = tabla;
+            return paso;
+        }
+
+        void borrar(TipoPaso tipo, String sql, int conjunto, String tabla, Class<?> entidad, String tipoResultado) {
+            Paso paso = nuevo(tipo, sql, conjunto);
+            paso.tabla = tabla;
+            paso.entidad = entidad;
+            tiposConjunto.add(tipoResultado);
+            paso.resultado = tiposConjunto.size() - 1;
+        }
+
+        /**
+         * Plan de un solo paso que borra la entidad raíz por una condición en lugar de por sus claves;
+         * solo vale para un plan sin más pasos que el borrado de la raíz.
+         */
+        Plan porCondicion(String sql) {
+            Paso original = pasos.get(0);
+            Plan plan = new Plan(tabla, clave, tiposConjunto.get(0));
+            plan.borrar(TipoPaso.BORRAR_ENTIDAD, sql, 0, original.tabla, original.entidad, tiposConjunto.get(0));
+            plan.pasos.get(0).porCondicion = true;
+            return plan;
+        }
+
+        private Paso nuevo(TipoPaso tipo, String sql, int conjunto) {
+            Paso paso = new Paso();
+            paso.tipo = tipo;
+            paso.sql = sql;
+            paso.conjunto = conjunto;
+            paso.tipoArray = tiposConjunto.get(conjunto);
+            pasos.add(paso);
+            return paso;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package controller;
+
+import index.BuscadorDifuso;
+import index.IndiceInvertido;
+import index.IndicePrefijos;
+import index.Resultado;
+import index.TipoEntidad;
+import instantanea.Instantanea;
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Controlador para las búsquedas de texto sobre todo el catálogo.
+ * Las consultas se resuelven en los índices en memoria del paquete {@code index},
+ * sin acceder a la base de datos.
+ */
+public class BusquedaController {
+
+    private final Sesiones sesiones;
+    private final IndiceInvertido indiceInvertido;
+    private final IndicePrefijos indicePrefijos;
+    private final BuscadorDifuso buscadorDifuso;
+
+    /**
+     * Constructor que inicializa el controlador con una {@code EntityManagerFactory} y los índices a consultar.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar para reconstruir los índices.
+     * @param indiceInvertido      El índice invertido compartido con el resto de controladores.
+     * @param indicePrefijos       El índice de prefijos compartido con el resto de controladores.
+     * @param buscadorDifuso       El buscador aproximado de nombres compartido con el resto de controladores.
+     */
+    public BusquedaController(EntityManagerFactory entityManagerFactory, IndiceInvertido indiceInvertido, IndicePrefijos indicePrefijos, BuscadorDifuso buscadorDifuso) {
+        this.sesiones = new Sesiones(entityManagerFactory);
+        this.indiceInvertido = indiceInvertido;
+        this.indicePrefijos = indicePrefijos;
+        this.buscadorDifuso = buscadorDifuso;
+    }
+
+    /**
+     * Vuelve a cargar los índices con el contenido actual de la base de datos.
+     * Solo es necesario al arrancar con datos ya existentes; después los índices se mantienen
+     * al día a través de {@link CatalogoListener}.
+     */
+    public void reconstruirIndices() {
+        sesiones.leer(em -> {
+            limpiarIndices();
+            List<CatalogoListener> indices = Arrays.asList(indiceInvertido, indicePrefijos, buscadorDifuso);
+            for (Campeon campeon : em.createQuery("SELECT c FROM Campeon c", Campeon.class).getResultList()) {
+                indices.forEach(i -> i.campeonGuardado(campeon));
+            }
+            for (Region region : em.createQuery("SELECT r FROM Region r", Region.class).getResultList()) {
+                indices.forEach(i -> i.regionGuardada(region));
+            }
+            for (Habilidad habilidad : em.createQuery("SELECT h FROM Habilidad h", Habilidad.class).getResultList()) {
+                indices.forEach(i -> i.habilidadGuardada(habilidad));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Vuelve a cargar los índices con el contenido de una instantánea del catálogo, sin consultar
+     * la base de datos. Se usa en el modo sin conexión.
+     *
+     * @param instantanea La instantánea a indexar.
+     */
+    public void reconstruirIndices(Instantanea instantanea) {
+        limpiarIndices();
+        instantanea.notificar(indiceInvertido, indicePrefijos, buscadorDifuso);
+    }
+
+    /**
+     * Vacía los tres índices antes de volver a cargarlos, para que no conserven entradas de entidades que
+     * ya no existen.
+     */
+    private void limpiarIndices() {
+        indiceInvertido.limpiar();
+        indicePrefijos.limpiar();
+        buscadorDifuso.limpiar();
+    }
+
+    /**
+     * Busca el texto en campeones, regiones y habilidades a la vez.
+     *
+     * @param texto  El texto a buscar.
+     * @param limite El número máximo de resultados a mostrar.
+     * @return Una cadena que representa los resultados ordenados por relevancia.
+     */
+    public String buscarEnCatalogo(String texto, int limite) {
+        List<Resultado> resultados = indiceInvertido.buscar(texto, limite);
+
+        StringBuilder result = new StringBuilder();
+        result.append("| Tipo      | Clave                 | Nombre                | Relevancia |\n");
+        result.append("|-----------|-----------------------|-----------------------|------------|\n");
+        for (Resultado resultado : resultados) {
+            result.append("| ")
+                    .append(padRight(resultado.getTipo().name(), 9))
+                    .append(" | ")
+                    .append(padRight(String.valueOf(resultado.getClave()), 21))
+                    .append(" | ")
+                    .append(padRight(resultado.getTitulo(), 21))
+                    .append(" | ")
+                    .append(padRight(String.format("%.3f", resultado.getPuntuacion()), 10))
+                    .append(" |\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Sugiere nombres que empiezan por el texto escrito, ordenados por su peso.
+     *
+     * @param prefijo El comienzo del nombre escrito por el usuario.
+     * @param tipo    El tipo de entidad a completar, o {@code null} para todos.
+     * @param limite  El número máximo de sugerencias.
+     * @return Una cadena con las sugerencias separadas por comas.
+     */
+    public String autocompletar(String prefijo, TipoEntidad tipo, int limite) {
+        List<Resultado> sugerencias = indicePrefijos.completar(prefijo, tipo, limite);
+        StringBuilder result = new StringBuilder("Sugerencias: ");
+        for (int i = 0; i < sugerencias.size(); i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(sugerencias.get(i).getTitulo());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Rellena una cadena con espacios en blanco para que tenga una longitud específica.
+     *
+     * @param input  La cadena a rellenar.
+     * @param length La longitud deseada de la cadena.
+     * @return La cadena rellenada con espacios en blanco.
+     */
+    private String padRight(String input, int length) {
+        if (input == null) {
+            input = "";
+        }
+        if (input.length() >= length) {
+            return input;
+        }
+        StringBuilder padded = new StringBuilder(input);
+        while (padded.length() < length) {
+            padded.append(" ");
+        }
+        return padded.toString();
+    }
+}
@@ -1,7 +1,12 @@
 package controller;
 
+import index.AlmacenColumnar;
+import index.FiltroColumnar;
+import instantanea.Instantanea;
 import model.Campeon;
+import model.Diccionario;
 import model.Habilidad;
+import model.Region;
 
 import javax.persistence.*;
 import javax.swing.*;
@@ -11,30 +16,123 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Controlador para la gestión de campeones en la base de datos.
  */
 public class CampeonController {
 
-    private int idCounter = 1;
+    /** Pista JPA para cargar exactamente los atributos de un grafo de entidad. */
+    static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    /** Atributos de {@code Campeon} que se pueden asignar con {@link #actualizarCampeones}. */
+    private static final Set<String> ATRIBUTOS_MODIFICABLES = new HashSet<>(Arrays.asList(
+            "nombre", "apodo", "campeones_con_relacion", "biografia", "apariencion_en_cinematicas",
+            "numero_de_relatos_cortos", "rol", "raza", "numero_de_aspectos", "dificultad"));
+
+    /** Diccionarios de los atributos modificables que se guardan como clave de una tabla de consulta. */
+    private static final Map<String, Diccionario> DICCIONARIOS = Map.of(
+            "rol", Diccionario.ROL, "raza", Diccionario.RAZA, "dificultad", Diccionario.DIFICULTAD);
+
+    private final AtomicInteger idCounter = new AtomicInteger(1);
     private EntityManagerFactory entityManagerFactory;
-    private EntityManager entityManager;
-    private EntityTransaction transaction;
+    private Sesiones sesiones;
+    private BorradoEnGrafo borrado;
+    private ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+    private List<CatalogoListener> listeners = receptores.de(Campeon.class);
+    private volatile Instantanea instantanea;
+    private volatile AlmacenColumnar almacenColumnar;
 
     public CampeonController() { }
 
     /**
      * Constructor que inicializa el controlador con una {@code EntityManagerFactory}.
+     * El controlador no guarda ningún entity manager: cada operación abre el suyo y lo cierra
+     * al terminar, así que puede usarse desde varios hilos a la vez.
      *
      * @param entityManagerFactory La fábrica de entity manager a utilizar.
      */
     public CampeonController(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, new ReceptoresCatalogo());
+    }
+
+    /**
+     * Constructor que además recibe el registro de receptores compartido con los demás controladores, al que
+     * se avisa también de las habilidades eliminadas en cascada con un campeón.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     * @param receptores           El registro de receptores compartido.
+     */
+    public CampeonController(EntityManagerFactory entityManagerFactory, ReceptoresCatalogo receptores) {
         this.entityManagerFactory = entityManagerFactory;
-        this.entityManager = entityManagerFactory.createEntityManager();
-        this.transaction = entityManager.getTransaction();
+        this.sesiones = new Sesiones(entityManagerFactory);
+        this.receptores = receptores;
+        this.listeners = receptores.de(Campeon.class);
+        this.borrado = new BorradoEnGrafo(entityManagerFactory, receptores);
+    }
+
+    /**
+     * Obtiene el registro de receptores de este controlador, para compartirlo con el de habilidades.
+     *
+     * @return El registro de receptores.
+     */
+    public ReceptoresCatalogo getReceptores() {
+        return receptores;
+    }
+
+    /**
+     * Registra un receptor que será notificado de los cambios de campeones.
+     *
+     * @param listener El receptor a registrar.
+     */
+    public void addCatalogoListener(CatalogoListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sirve las consultas ({@code listar*}, {@code buscar*} y {@code obtener*}) desde una instantánea
+     * del catálogo en lugar de la base de datos, para el modo sin conexión.
+     *
+     * @param instantanea La instantánea a consultar, o {@code null} para volver a usar la base de datos.
+     */
+    public void usarInstantanea(Instantanea instantanea) {
+        this.instantanea = instantanea;
+    }
+
+    /**
+     * Resuelve los filtros combinados de {@link #filtrarCampeones} en un almacén columnar en memoria.
+     * El almacén se tiene que registrar también como receptor para seguir los cambios del catálogo.
+     *
+     * @param almacenColumnar El almacén a consultar.
+     */
+    public void usarAlmacenColumnar(AlmacenColumnar almacenColumnar) {
+        this.almacenColumnar = almacenColumnar;
+    }
+
+    /**
+     * Vuelve a cargar el almacén columnar con todos los campeones, de la instantánea en el modo sin conexión
+     * o de la base de datos. Solo es necesario al arrancar; después se mantiene al día como receptor.
+     */
+    public void reconstruirAlmacenColumnar() {
+        AlmacenColumnar almacen = almacenColumnar;
+        if (almacen == null) {
+            return;
+        }
+        Instantanea copia = instantanea;
+        almacen.cargar(copia != null ? copia.campeones() : sesiones.recorrer(session -> session
+                .createNamedQuery(Campeon.TODOS, Campeon.class)
+                .getResultList()));
     }
 
     /**
@@ -48,23 +146,18 @@ public class CampeonController {
         builder.append(String.format("│ %-9s │ %-13s │ %-18s │ %-13s │ %-28s │\n", "ID", "Nombre", "Apodo", "Rol", "Dificultad"));
         builder.append("├───────────┼──────────────┼─────────────────────┼───────────────┼──────────────────────────────────┤\n");
 
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            Query query = em.createQuery("SELECT c FROM Campeon c");
-            List<Campeon> campeones = query.getResultList();
-
-            for (Campeon campeon : campeones) {
-                builder.append(String.format("│ %-9s │ %-13s │ %-18s │ %-13s │ %-28s │\n",
-                        campeon.getId_campeon(),
-                        (campeon.getNombre().length() > 13) ? campeon.getNombre().substring(0, 10) + "..." : campeon.getNombre(),
-                        (campeon.getApodo().length() > 18) ? campeon.getApodo().substring(0, 15) + "..." : campeon.getApodo(),
-                        (campeon.getRol().length() > 13) ? campeon.getRol().substring(0, 10) + "..." : campeon.getRol(),
-                        (campeon.getDificultad().length() > 28) ? campeon.getDificultad().substring(0, 25) + "..." : campeon.getDificultad()));
-            }
-            em.getTransaction().commit();
-        } finally {
-            em.close();
+        Instantanea copia = instantanea;
+        List<Campeon> campeones = copia != null ? copia.campeones() : sesiones.recorrer(session -> session
+                .createNamedQuery(Campeon.TODOS, Campeon.class)
+                .getResultList());
+
+        for (Campeon campeon : campeones) {
+            builder.append(String.format("│ %-9s │ %-13s │ %-18s │ %-13s │ %-28s │\n",
+                    campeon.getId_campeon(),
+                    (campeon.getNombre().length() > 13) ? campeon.getNombre().substring(0, 10) + "..." : campeon.getNombre(),
+                    (campeon.getApodo().length() > 18) ? campeon.getApodo().substring(0, 15) + "..." : campeon.getApodo(),
+                    (campeon.getRol().length() > 13) ? campeon.getRol().substring(0, 10) + "..." : campeon.getRol(),
+                    (campeon.getDificultad().length() > 28) ? campeon.getDificultad().substring(0, 25) + "..." : campeon.getDificultad()));
         }
 
         builder.append("└───────────┴──────────────┴─────────────────────┴───────────────┴──────────────────────────────────┘\n");
@@ -78,14 +171,23 @@ public class CampeonController {
      * @throws IOException Si ocurre un error de lectura del archivo.
      */
     public void readCampeonFromFile(String filePath) throws IOException {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        em.getTransaction().begin();
-
+        List<String> lineas = new ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
             // Ignoramos la primera línea que contiene los encabezados
             br.readLine();
+            String line;
             while ((line = br.readLine()) != null) {
+                lineas.add(line);
+            }
+        }
+
+        // El fichero ya está leído: la transacción solo dura lo que tardan las inserciones
+        List<Campeon> importados = sesiones.escribir(em -> {
+            // Los datos se conservan entre ejecuciones, así que las IDs nuevas siguen a la mayor existente
+            Integer maximo = em.createQuery("SELECT MAX(c.id_campeon) FROM Campeon c", Integer.class).getSingleResult();
+            idCounter.accumulateAndGet(maximo == null ? 1 : maximo + 1, Math::max);
+            List<Campeon> nuevos = new ArrayList<>();
+            for (String line : lineas) {
                 String[] data = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1); // Expresión regular para evitar separar comas dentro de comillas
                 if (data.length == 10) { // Comprobamos que haya 10 elementos en la línea
                     try {
@@ -96,7 +198,7 @@ public class CampeonController {
 
                         // Creamos el campeón con los datos del archivo
                         Campeon campeon = new Campeon(
-                                idCounter++,
+                                idCounter.getAndIncrement(),
                                 data[0].replaceAll("\"", "").trim(), // nombre
                                 data[1].replaceAll("\"", "").trim(), // apodo
                                 campeones_con_relacion,
@@ -110,8 +212,10 @@ public class CampeonController {
                                 new ArrayList<>()
                         );
 
-                        // Guardar el campeón en la base de datos
+                        // Guardar el campeón en la base de datos, con sus valores nuevos de rol, raza y dificultad
+                        Diccionario.registrar(em, campeon);
                         em.persist(campeon);
+                        nuevos.add(campeon);
                         System.out.println("Campeon añadido a la base de datos");
                     } catch (NumberFormatException e) {
                         // Manejar excepción si no se puede convertir un valor numérico
@@ -121,89 +225,62 @@ public class CampeonController {
                     System.err.println("Formato incorrecto de la línea: " + line);
                 }
             }
-            // Commit de la transacción después de procesar todas las líneas del archivo
-            em.getTransaction().commit();
+            return nuevos;
+        });
+        for (Campeon campeon : importados) {
+            listeners.forEach(l -> l.campeonGuardado(campeon));
         }
     }
 
     /**
-     * Elimina la tabla de campeones de la base de datos.
+     * Elimina todos los campeones de la base de datos, junto con sus habilidades y sus pertenencias a regiones.
+     * El esquema no se toca: lo mantienen las {@link Migraciones}.
      */
-    public void eliminarTablaCampeon() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
+    public void vaciarTablaCampeon() {
         try {
-            transaction.begin();
-            em.createNativeQuery("DROP TABLE IF EXISTS campeon").executeUpdate();
-            transaction.commit();
-            System.out.println("Tabla 'campeon' eliminada correctamente.");
-        } catch (PersistenceException e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
-            System.out.println("Error al eliminar la tabla 'campeon': " + e.getMessage());
-        } finally {
-            em.close();
+            Map<String, Integer> filas = borrado.eliminarDonde(Campeon.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES, "1 = 1");
+            System.out.println("Campeones eliminados correctamente. Filas eliminadas: " + filas);
+        } catch (Exception e) {
+            System.out.println("Error al vaciar la tabla 'campeon': " + e.getMessage());
         }
     }
 
     /**
-     * Crea la tabla de campeones en la base de datos.
+     * Busca campeones cuyos nombres o apodos contienen el texto especificado.
+     * Devuelve como mucho {@link Sesiones#LIMITE_POR_DEFECTO} resultados.
+     *
+     * @param texto El texto a buscar en los nombres y apodos de los campeones.
+     * @return Una cadena que representa los campeones encontrados.
      */
-    public void crearTablaCampeon() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
-        try {
-            transaction.begin();
-            em.createNativeQuery("CREATE TABLE campeon (id_campeon INT PRIMARY KEY, nombre VARCHAR(255), apodo VARCHAR(255), rol VARCHAR(255), dificultad VARCHAR(255))").executeUpdate();
-            transaction.commit();
-            System.out.println("Tabla 'campeon' creada correctamente.");
-        } catch (PersistenceException e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
-            System.out.println("Error al crear la tabla 'campeon': " + e.getMessage());
-        } finally {
-            em.close();
-        }
+    public String buscarCampeonPorTexto(String texto) {
+        return buscarCampeonPorTexto(texto, Sesiones.LIMITE_POR_DEFECTO);
     }
 
     /**
      * Busca campeones cuyos nombres o apodos contienen el texto especificado.
+     * Los resultados se ordenan en la base de datos: primero las coincidencias exactas,
+     * después las que empiezan por el texto y por último el resto, y dentro de cada grupo
+     * por número de aspectos. Solo se leen los {@code limite} primeros.
      *
-     * @param texto El texto a buscar en los nombres y apodos de los campeones.
+     * @param texto  El texto a buscar en los nombres y apodos de los campeones.
+     * @param limite El número máximo de campeones a devolver.
      * @return Una cadena que representa los campeones encontrados.
      */
-    public String buscarCampeonPorTexto(String texto) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            String queryStr = "SELECT c FROM Campeon c WHERE c.nombre LIKE :texto OR c.apodo LIKE :texto";
-            Query query = em.createQuery(queryStr);
+    public String buscarCampeonPorTexto(String texto, int limite) {
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return formatearCampeones(copia.buscarCampeones(texto, limite));
+        }
+        return sesiones.leer(em -> {
+            TypedQuery<Campeon> query = em.createNamedQuery(Campeon.POR_TEXTO, Campeon.class);
             query.setParameter("texto", "%" + texto + "%");
+            query.setParameter("exacto", texto);
+            query.setParameter("prefijo", texto + "%");
+            query.setMaxResults(limite);
+            query.setHint(FETCH_GRAPH, em.getEntityGraph(Campeon.GRAFO_LISTADO));
             List<Campeon> campeones = query.getResultList();
-            em.getTransaction().commit();
-
-            StringBuilder result = new StringBuilder();
-            result.append("| ID | Nombre                | Apodo             | Rol            | Dificultad |\n");
-            result.append("|----|-----------------------|-------------------|----------------|------------|\n");
-            for (Campeon campeon : campeones) {
-                result.append("| ")
-                        .append(padRight(String.valueOf(campeon.getId_campeon()), 3))
-                        .append(" | ")
-                        .append(padRight(campeon.getNombre(), 23))
-                        .append(" | ")
-                        .append(padRight(campeon.getApodo(), 17))
-                        .append(" | ")
-                        .append(padRight(campeon.getRol(), 15))
-                        .append(" | ")
-                        .append(campeon.getDificultad())
-                        .append("          |\n");
-            }
-            return result.toString();
-        } finally {
-            em.close();
-        }
+            return formatearCampeones(campeones);
+        });
     }
 
     /**
@@ -213,35 +290,54 @@ public class CampeonController {
      * @return Una cadena que representa los campeones encontrados.
      */
     public String buscarCampeonesPorRol(String rol) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            String queryStr = "SELECT c FROM Campeon c WHERE c.rol = :rol";
-            Query query = em.createQuery(queryStr);
-            query.setParameter("rol", rol);
-            List<Campeon> campeones = query.getResultList();
-            em.getTransaction().commit();
-
-            StringBuilder result = new StringBuilder();
-            result.append("| ID | Nombre                | Apodo             | Rol            | Dificultad |\n");
-            result.append("|----|-----------------------|-------------------|----------------|------------|\n");
-            for (Campeon campeon : campeones) {
-                result.append("| ")
-                        .append(padRight(String.valueOf(campeon.getId_campeon()), 3))
-                        .append(" | ")
-                        .append(padRight(campeon.getNombre(), 23))
-                        .append(" | ")
-                        .append(padRight(campeon.getApodo(), 17))
-                        .append(" | ")
-                        .append(padRight(campeon.getRol(), 15))
-                        .append(" | ")
-                        .append(campeon.getDificultad())
-                        .append("          |\n");
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return formatearCampeones(copia.campeonesPorRol(rol));
+        }
+        return sesiones.leer(em -> {
+            // El rol se compara por su clave del diccionario; un rol que no está en él no tiene campeones
+            List<Campeon> campeones = Collections.emptyList();
+            if (Diccionario.ROL.buscar(rol) != null) {
+                TypedQuery<Campeon> query = em.createNamedQuery(Campeon.POR_ROL, Campeon.class);
+                query.setParameter("rol", rol);
+                query.setHint(FETCH_GRAPH, em.getEntityGraph(Campeon.GRAFO_LISTADO));
+                campeones = query.getResultList();
             }
-            return result.toString();
-        } finally {
-            em.close();
+            return formatearCampeones(campeones);
+        });
+    }
+
+    /**
+     * Busca los campeones que cumplen a la vez todos los criterios del filtro (por ejemplo, rol Y dificultad
+     * Y un mínimo de aspectos). El filtro se evalúa en el almacén columnar sin consultar la base de datos;
+     * solo se cargan los campeones que se muestran.
+     *
+     * @param filtro Los criterios a cumplir.
+     * @return Una cadena con los primeros campeones encontrados, cuántos hay por rol y el resumen de sus aspectos.
+     */
+    public String filtrarCampeones(FiltroColumnar filtro) {
+        AlmacenColumnar almacen = almacenColumnar;
+        if (almacen == null) {
+            return "El almacén columnar de campeones no está disponible.";
+        }
+        int[] ids = almacen.ids(filtro);
+        List<Integer> mostrados = new ArrayList<>();
+        for (int i = 0; i < Math.min(ids.length, Sesiones.LIMITE_POR_DEFECTO); i++) {
+            mostrados.add(ids[i]);
+        }
+        IntSummaryStatistics aspectos = almacen.resumir(AlmacenColumnar.Columna.ASPECTOS, filtro);
+
+        StringBuilder result = new StringBuilder(formatearCampeones(obtenerCampeonesPorIds(mostrados)));
+        result.append(ids.length).append(" campeones cumplen el filtro");
+        if (ids.length > mostrados.size()) {
+            result.append(" (se muestran los ").append(mostrados.size()).append(" primeros)");
+        }
+        result.append("\nPor rol: ").append(almacen.contarPor(AlmacenColumnar.Columna.ROL, filtro)).append('\n');
+        if (aspectos.getCount() > 0) {
+            result.append(String.format("Aspectos: mínimo %d, máximo %d, media %.2f%n",
+                    aspectos.getMin(), aspectos.getMax(), aspectos.getAverage()));
         }
+        return result.toString();
     }
 
     /**
@@ -251,15 +347,111 @@ public class CampeonController {
      * @return Una cadena que representa la información del campeón encontrado.
      */
     public String obtenerCampeonPorId(int id) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            Campeon campeon = em.find(Campeon.class, id);
-            em.getTransaction().commit();
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return obtenerFila(copia.campeon(id));
+        }
+        return sesiones.leer(em -> {
+            Campeon campeon = em.find(Campeon.class, id,
+                    Collections.singletonMap(FETCH_GRAPH, em.getEntityGraph(Campeon.GRAFO_LISTADO)));
+
+            return obtenerFila(campeon);
+        });
+    }
 
-            StringBuilder result = new StringBuilder();
-            result.append("| ID | Nombre                | Apodo             | Rol            | Dificultad |\n");
-            result.append("|----|-----------------------|-------------------|----------------|------------|\n");
+    /**
+     * Obtiene la ficha completa de un campeón: sus datos, sus habilidades y sus regiones.
+     * Se hacen exactamente dos consultas, una por colección, para no multiplicar
+     * habilidades por regiones en un único join.
+     *
+     * @param id El ID del campeón a buscar.
+     * @return Una cadena que representa la ficha del campeón.
+     */
+    public String obtenerDetalleCampeon(int id) {
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            Campeon campeon = copia.campeon(id);
+            return campeon == null
+                    ? "No se encontró ningún campeón con el ID: " + id
+                    : formatearDetalle(campeon, copia.habilidadesDeCampeon(id), copia.regionesDeCampeon(id));
+        }
+        return sesiones.leer(em -> {
+            Campeon campeon = em.find(Campeon.class, id,
+                    Collections.singletonMap(FETCH_GRAPH, em.getEntityGraph(Campeon.GRAFO_CON_HABILIDADES)));
+            if (campeon == null) {
+                return "No se encontró ningún campeón con el ID: " + id;
+            }
+            // Inicializa las regiones de la misma instancia gestionada
+            em.createNamedQuery(Campeon.POR_ID, Campeon.class)
+                    .setParameter("id", id)
+                    .setHint(FETCH_GRAPH, em.getEntityGraph(Campeon.GRAFO_CON_REGIONES))
+                    .getSingleResult();
+
+            return formatearDetalle(campeon, campeon.getHabilidades(), campeon.getRegiones());
+        });
+    }
+
+    /**
+     * Construye la ficha de un campeón con sus habilidades y sus regiones.
+     *
+     * @param campeon     El campeón.
+     * @param habilidades Sus habilidades.
+     * @param regiones    Las regiones a las que pertenece.
+     * @return Una cadena que representa la ficha del campeón.
+     */
+    private String formatearDetalle(Campeon campeon, Collection<Habilidad> habilidades, Collection<Region> regiones) {
+        StringBuilder result = new StringBuilder(obtenerFila(campeon));
+        result.append("Habilidades:\n");
+        for (Habilidad habilidad : habilidades) {
+            result.append("  - ").append(habilidad.getAsignacion_de_tecla()).append(": ")
+                    .append(habilidad.getNombre()).append("\n");
+        }
+        result.append("Regiones:\n");
+        for (Region region : regiones) {
+            result.append("  - ").append(region.getNombre_region()).append("\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Obtiene varios campeones a partir de sus IDs con consultas {@code IN} por lotes,
+     * en lugar de una consulta y una transacción por campeón.
+     *
+     * @param ids Los IDs de los campeones a obtener.
+     * @return Los campeones encontrados, en el mismo orden que los IDs; los IDs inexistentes se omiten.
+     */
+    public List<Campeon> obtenerCampeonesPorIds(Collection<Integer> ids) {
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return copia.campeones(ids);
+        }
+        return sesiones.leer(em -> {
+            List<Campeon> campeones = CargaPorLotes.cargar(em, Campeon.class, "id_campeon", ids);
+            return campeones;
+        });
+    }
+
+    /**
+     * Construye la tabla de una sola fila con los datos básicos de un campeón.
+     *
+     * @param campeon El campeón a representar.
+     * @return Una cadena con la cabecera y la fila del campeón.
+     */
+    private String obtenerFila(Campeon campeon) {
+        return formatearCampeones(Collections.singletonList(campeon));
+    }
+
+    /**
+     * Construye la tabla con los datos básicos de varios campeones.
+     *
+     * @param campeones Los campeones a representar.
+     * @return Una cadena con la cabecera y una fila por campeón.
+     */
+    private String formatearCampeones(List<Campeon> campeones) {
+        StringBuilder result = new StringBuilder();
+        result.append("| ID | Nombre                | Apodo             | Rol            | Dificultad |\n");
+        result.append("|----|-----------------------|-------------------|----------------|------------|\n");
+        for (Campeon campeon : campeones) {
             result.append("| ")
                     .append(padRight(String.valueOf(campeon.getId_campeon()), 3))
                     .append(" | ")
@@ -271,10 +463,8 @@ public class CampeonController {
                     .append(" | ")
                     .append(campeon.getDificultad())
                     .append("          |\n");
-            return result.toString();
-        } finally {
-            em.close();
         }
+        return result.toString();
     }
 
     /**
@@ -296,99 +486,165 @@ public class CampeonController {
     }
 
     /**
-     * Modifica la información de un campeón por su ID.
+     * Modifica la información de un campeón por su ID, pidiendo los nuevos valores por la entrada estándar.
+     * Los valores se leen antes de abrir la transacción, así que no se retiene ninguna conexión mientras se espera al usuario.
      *
      * @param id El ID del campeón a modificar.
      */
     public void modificarCampeonPorId(int id) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
         Scanner scanner = new Scanner(System.in);
         try {
-            transaction.begin();
-            Campeon campeon = em.find(Campeon.class, id);
-            if (campeon != null) {
-                System.out.println("Ingrese los nuevos valores para el campeón con ID " + id + ":");
-
-                // Modificar el nombre
-                System.out.print("Nombre (dejar vacío para mantener el valor anterior): ");
-                String nombre = scanner.nextLine();
-                if (!nombre.isEmpty()) {
-                    campeon.setNombre(nombre);
-                }
+            if (!sesiones.leer(em -> em.find(Campeon.class, id) != null)) {
+                System.out.println("No se encontró ningún campeón con la ID especificada.");
+                return;
+            }
+            System.out.println("Ingrese los nuevos valores para el campeón con ID " + id + ":");
+            System.out.print("Nombre (dejar vacío para mantener el valor anterior): ");
+            String nombre = scanner.nextLine();
+            System.out.print("Apodo (dejar vacío para mantener el valor anterior): ");
+            String apodo = scanner.nextLine();
+            System.out.print("Rol (dejar vacío para mantener el valor anterior): ");
+            String rol = scanner.nextLine();
+            System.out.print("Dificultad (dejar vacío para mantener el valor anterior): ");
+            String dificultad = scanner.nextLine();
+
+            if (modificarCampeon(id, nombre, apodo, rol, dificultad)) {
+                System.out.println("Registro modificado correctamente.");
+            } else {
+                System.out.println("No se encontró ningún campeón con la ID especificada.");
+            }
+        } catch (Exception e) {
+            System.out.println("Error al modificar el campeón: " + e.getMessage());
+        }
+    }
 
-                // Modificar el apodo
-                System.out.print("Apodo (dejar vacío para mantener el valor anterior): ");
-                String apodo = scanner.nextLine();
-                if (!apodo.isEmpty()) {
-                    campeon.setApodo(apodo);
+    /**
+     * Modifica el nombre, el apodo, el rol y la dificultad de un campeón en una sola transacción.
+     * Los valores vacíos o {@code null} mantienen el valor anterior.
+     *
+     * @param id         El ID del campeón a modificar.
+     * @param nombre     El nuevo nombre.
+     * @param apodo      El nuevo apodo.
+     * @param rol        El nuevo rol.
+     * @param dificultad La nueva dificultad.
+     * @return {@code true} si el campeón existía y se ha modificado.
+     */
+    public boolean modificarCampeon(int id, String nombre, String apodo, String rol, String dificultad) {
+        Campeon campeon = sesiones.escribir(em -> {
+            Campeon encontrado = em.find(Campeon.class, id);
+            if (encontrado != null) {
+                if (nombre != null && !nombre.isEmpty()) {
+                    encontrado.setNombre(nombre);
                 }
-
-                // Modificar el rol
-                System.out.print("Rol (dejar vacío para mantener el valor anterior): ");
-                String rol = scanner.nextLine();
-                if (!rol.isEmpty()) {
-                    campeon.setRol(rol);
+                if (apodo != null && !apodo.isEmpty()) {
+                    encontrado.setApodo(apodo);
                 }
-
-                // Modificar la dificultad
-                System.out.print("Dificultad (dejar vacío para mantener el valor anterior): ");
-                String dificultad = scanner.nextLine();
-                if (!dificultad.isEmpty()) {
-                    campeon.setDificultad(dificultad);
+                if (rol != null && !rol.isEmpty()) {
+                    encontrado.setRol(rol);
+                }
+                if (dificultad != null && !dificultad.isEmpty()) {
+                    encontrado.setDificultad(dificultad);
                 }
+                Diccionario.registrar(em, encontrado);
+            }
+            return encontrado;
+        });
+        if (campeon == null) {
+            return false;
+        }
+        listeners.forEach(l -> l.campeonGuardado(campeon));
+        return true;
+    }
 
-                em.merge(campeon);
-                transaction.commit();
-                System.out.println("Registro modificado correctamente.");
-            } else {
-                System.out.println("No se encontró ningún campeón con la ID especificada.");
+    /**
+     * Modifica a la vez todos los campeones que cumplen el filtro con una única sentencia
+     * {@code UPDATE}, dentro de una transacción.
+     * Por ejemplo, para reclasificar el rol de los campeones de una región tras un parche de equilibrio.
+     *
+     * @param filtro       Los criterios que deben cumplir los campeones a modificar.
+     * @param asignaciones Los nuevos valores, indexados por el nombre del atributo de {@code Campeon}.
+     * @return El número de campeones modificados.
+     * @throws IllegalArgumentException Si no hay asignaciones o alguna no corresponde a un atributo modificable.
+     */
+    public int actualizarCampeones(FiltroCampeon filtro, Map<String, Object> asignaciones) {
+        if (asignaciones.isEmpty()) {
+            throw new IllegalArgumentException("No se ha indicado ningún atributo a modificar.");
+        }
+        Map<String, Object> valores = new LinkedHashMap<>(asignaciones);
+        StringBuilder set = new StringBuilder();
+        int indice = 0;
+        for (String atributo : valores.keySet()) {
+            if (!ATRIBUTOS_MODIFICABLES.contains(atributo)) {
+                throw new IllegalArgumentException("Atributo no modificable: " + atributo);
             }
-        } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
+            set.append(indice == 0 ? "" : ", ").append("c.").append(atributo).append(" = :valor").append(indice++);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        int modificados = sesiones.escribir(em -> {
+            // Los IDs se leen antes porque el UPDATE puede cambiar los campos del filtro
+            TypedQuery<Integer> seleccion = em.createQuery("SELECT c.id_campeon FROM Campeon c WHERE " + filtro.condicion("c"), Integer.class);
+            filtro.aplicar(seleccion);
+            ids.addAll(seleccion.getResultList());
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Query update = em.createQuery("UPDATE Campeon c SET " + set + " WHERE " + filtro.condicion("c"));
+            filtro.aplicar(update);
+            int parametro = 0;
+            for (Map.Entry<String, Object> valor : valores.entrySet()) {
+                Diccionario diccionario = DICCIONARIOS.get(valor.getKey());
+                update.setParameter("valor" + parametro++, diccionario != null
+                        ? diccionario.registrar(em, (String) valor.getValue()) : valor.getValue());
+            }
+            return update.executeUpdate();
+        });
+
+        if (!listeners.isEmpty() && !ids.isEmpty()) {
+            for (Campeon campeon : sesiones.leer(em -> CargaPorLotes.cargar(em, Campeon.class, "id_campeon", ids))) {
+                listeners.forEach(l -> l.campeonGuardado(campeon));
             }
-            System.out.println("Error al modificar el campeón: " + e.getMessage());
-        } finally {
-            em.close();
         }
+        return modificados;
     }
 
     /**
-     * Elimina un campeón de la base de datos por su ID.
+     * Elimina un campeón de la base de datos por su ID junto con sus habilidades.
+     * Sus pertenencias a regiones se eliminan, pero las regiones se conservan.
      *
      * @param id El ID del campeón a eliminar.
      */
     public void eliminarCampeonPorId(int id) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
+        eliminarCampeonPorId(id, PoliticaBorrado.ELIMINAR_DEPENDIENTES);
+    }
+
+    /**
+     * Elimina un campeón de la base de datos por su ID con sentencias sobre conjuntos,
+     * sin cargar el campeón ni sus habilidades.
+     *
+     * @param id       El ID del campeón a eliminar.
+     * @param politica Si las habilidades del campeón se eliminan o solo se desvinculan.
+     */
+    public void eliminarCampeonPorId(int id, PoliticaBorrado politica) {
         try {
-            transaction.begin();
-            Campeon campeon = em.find(Campeon.class, id);
-            if (campeon != null) {
-                em.remove(campeon);
-                transaction.commit();
-                System.out.println("Registro eliminado correctamente.");
+            Map<String, Integer> filas = borrado.eliminar(Campeon.class, Collections.singletonList(id), politica);
+            if (filas.getOrDefault("campeon", 0) > 0) {
+                System.out.println("Registro eliminado correctamente. Filas eliminadas: " + filas);
             } else {
                 System.out.println("No se encontró ningún campeón con la ID especificada.");
             }
         } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
             System.out.println("Error al eliminar el campeón: " + e.getMessage());
-        } finally {
-            em.close();
         }
     }
 
     /**
      * Elimina campeones de la base de datos que aparecen o no en cinemáticas, según la respuesta del usuario.
+     * Las habilidades de los campeones y sus pertenencias a regiones se borran antes con sentencias
+     * {@code DELETE} sobre conjuntos; las regiones se conservan.
      */
     public void eliminarCampeonPorCinematicas() {
         Scanner scanner = new Scanner(System.in);
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
 
         try {
             // Solicitar al usuario si el campeón aparece en cinemáticas
@@ -396,32 +652,12 @@ public class CampeonController {
             char respuesta = scanner.next().charAt(0);
             boolean apareceEnCinematicas = (respuesta == 's' || respuesta == 'S');
 
-            // Iniciar transacción
-            transaction.begin();
-
-            // Consultar los campeones que aparecen o no en cinemáticas
-            String queryString = "SELECT c FROM Campeon c WHERE c.apareceEnCinematicas = :apareceEnCinematicas";
-            Query query = em.createQuery(queryString);
-            query.setParameter("apareceEnCinematicas", apareceEnCinematicas);
-            List<Campeon> campeones = query.getResultList();
+            Map<String, Integer> filas = borrado.eliminarDonde(Campeon.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES,
+                    "apariencion_en_cinematicas = ?", String.valueOf(apareceEnCinematicas));
 
-            // Eliminar los campeones obtenidos
-            for (Campeon campeon : campeones) {
-                em.remove(campeon);
-            }
-
-            // Confirmar la transacción
-            transaction.commit();
-
-            System.out.println("Campeones eliminados correctamente.");
+            System.out.println("Campeones eliminados correctamente. Filas eliminadas: " + filas);
         } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
             System.out.println("Error al eliminar los campeones: " + e.getMessage());
-        } finally {
-            // Cerrar el EntityManager
-            em.close();
         }
     }
 }
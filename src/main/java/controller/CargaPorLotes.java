@@ -0,0 +1,60 @@
+package controller;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carga de varias entidades por clave primaria con consultas {@code IN} troceadas.
+ * Las claves se piden en lotes de como mucho {@link #TAMANO_LOTE} claves; la unidad de persistencia no
+ * tiene caché de segundo nivel, así que no hay ninguna que consultar antes. Con la propiedad
+ * {@code hibernate.query.in_clause_parameter_padding} activa, Hibernate rellena cada lista hasta la siguiente
+ * potencia de dos, de modo que la caché de planes de consulta solo guarda unas pocas variantes.
+ */
+final class CargaPorLotes {
+
+    /** Número máximo de claves por consulta; es potencia de dos para no desperdiciar el relleno. */
+    static final int TAMANO_LOTE = 512;
+
+    private CargaPorLotes() { }
+
+    /**
+     * Carga las entidades cuyas claves se indican.
+     *
+     * @param em       El entity manager con el que cargar las entidades.
+     * @param clase    La clase de la entidad.
+     * @param atributo El nombre del atributo identificador en JPQL.
+     * @param claves   Las claves a cargar; las repetidas se cargan una sola vez.
+     * @param <T>      El tipo de la entidad.
+     * @return Las entidades encontradas en el mismo orden que las claves; las claves inexistentes se omiten.
+     */
+    static <T> List<T> cargar(EntityManager em, Class<T> clase, String atributo, Collection<?> claves) {
+        Map<Object, T> encontradas = new HashMap<>();
+        List<Object> pendientes = new ArrayList<>(new LinkedHashSet<>(claves));
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        String jpql = "SELECT e FROM " + clase.getSimpleName() + " e WHERE e." + atributo + " IN :claves";
+        for (int i = 0; i < pendientes.size(); i += TAMANO_LOTE) {
+            List<T> lote = em.createQuery(jpql, clase)
+                    .setParameter("claves", pendientes.subList(i, Math.min(i + TAMANO_LOTE, pendientes.size())))
+                    .getResultList();
+            for (T entidad : lote) {
+                encontradas.put(util.getIdentifier(entidad), entidad);
+            }
+        }
+
+        List<T> resultado = new ArrayList<>(encontradas.size());
+        for (Object clave : new LinkedHashSet<>(claves)) {
+            T entidad = encontradas.get(clave);
+            if (entidad != null) {
+                resultado.add(entidad);
+            }
+        }
+        return resultado;
+    }
+}
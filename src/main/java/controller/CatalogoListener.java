@@ -0,0 +1,67 @@
+package controller;
+
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import java.util.Set;
+
+/**
+ * Receptor de los cambios que los controladores realizan sobre el catálogo.
+ * Permite mantener sincronizadas las estructuras en memoria (índices, cachés...)
+ * con las importaciones, modificaciones y eliminaciones hechas en la base de datos.
+ * Todos los métodos tienen una implementación vacía por defecto.
+ */
+public interface CatalogoListener {
+
+    /**
+     * Se invoca después de confirmar el alta o la modificación de un campeón.
+     *
+     * @param campeon El campeón guardado.
+     */
+    default void campeonGuardado(Campeon campeon) { }
+
+    /**
+     * Se invoca después de confirmar la eliminación de un campeón.
+     *
+     * @param id El ID del campeón eliminado.
+     */
+    default void campeonEliminado(int id) { }
+
+    /**
+     * Se invoca después de confirmar el alta o la modificación de una región.
+     *
+     * @param region La región guardada.
+     */
+    default void regionGuardada(Region region) { }
+
+    /**
+     * Se invoca después de confirmar la eliminación de una región.
+     *
+     * @param id El ID de la región eliminada.
+     */
+    default void regionEliminada(int id) { }
+
+    /**
+     * Se invoca después de confirmar el alta o la modificación de una habilidad.
+     *
+     * @param habilidad La habilidad guardada.
+     */
+    default void habilidadGuardada(Habilidad habilidad) { }
+
+    /**
+     * Se invoca después de confirmar la eliminación de una habilidad.
+     *
+     * @param nombre El nombre (clave primaria) de la habilidad eliminada.
+     */
+    default void habilidadEliminada(String nombre) { }
+
+    /**
+     * Se invoca después de confirmar un borrado que ha quitado filas de una tabla de relación muchos a muchos,
+     * como las de {@code region_campeon} al eliminar un campeón, con las entidades del otro lado de esas filas.
+     *
+     * @param entidad La clase de las entidades que han perdido alguna relación.
+     * @param claves  Sus claves primarias.
+     */
+    default void relacionesEliminadas(Class<?> entidad, Set<Object> claves) { }
+}
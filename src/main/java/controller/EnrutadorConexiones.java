@@ -0,0 +1,303 @@
+package controller;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hikaricp.internal.HikariConfigurationUtil;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Proveedor de conexiones que envía las lecturas a réplicas y el resto de operaciones a la base de datos primaria.
+ * Cada base de datos tiene su propio pool HikariCP, configurado con las mismas propiedades
+ * {@code hibernate.hikari.*}; sin réplicas configuradas se comporta como un único pool sobre la primaria.
+ * <p>
+ * Una operación es de lectura si se ejecuta dentro de {@link Sesiones#leer} o {@link Sesiones#recorrer}.
+ * Las réplicas se comprueban periódicamente y las que no responden dejan de usarse hasta que se recuperan;
+ * si no queda ninguna, las lecturas van a la primaria. Una réplica que no da una conexión en
+ * {@value #ESPERA_REPLICA_MS} ms se marca como caída en ese momento y la lectura pasa a la siguiente réplica sana
+ * o a la primaria, sin esperar a la próxima comprobación.
+ * Si se activa la lectura de las propias escrituras, durante un tiempo después de que un hilo confirme una
+ * escritura con {@link Sesiones#escribir} las lecturas de ese mismo hilo van a la primaria, para no leer datos
+ * que la réplica todavía no ha recibido; las lecturas de los demás hilos siguen yendo a las réplicas.
+ * <p>
+ * Propiedades del {@code persistence.xml}:
+ * <ul>
+ *     <li>{@value #REPLICAS}: URLs JDBC de las réplicas separadas por comas.</li>
+ *     <li>{@value #BALANCEO}: {@code ROUND_ROBIN} (por defecto) o {@code MENOS_CARGADA}.</li>
+ *     <li>{@value #LECTURA_TRAS_ESCRITURA}: milisegundos tras una escritura en los que el hilo que la hizo lee de la primaria; 0 lo desactiva.</li>
+ *     <li>{@value #COMPROBACION}: milisegundos entre comprobaciones de las réplicas.</li>
+ *     <li>{@value #MIGRAR}: si es {@code true}, al arrancar se aplican las {@link Migraciones} pendientes sobre
+ *     la primaria, antes de que Hibernate valide el esquema.</li>
+ * </ul>
+ */
+public class EnrutadorConexiones implements ConnectionProvider, Configurable, Stoppable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String REPLICAS = "catalogo.replicas.urls";
+    public static final String BALANCEO = "catalogo.replicas.balanceo";
+    public static final String LECTURA_TRAS_ESCRITURA = "catalogo.replicas.lecturaTrasEscrituraMs";
+    public static final String COMPROBACION = "catalogo.replicas.comprobacionMs";
+    public static final String MIGRAR = "catalogo.migraciones.aplicar";
+
+    /** Milisegundos que se espera una conexión de una réplica antes de darla por caída (el mínimo de HikariCP). */
+    public static final long ESPERA_REPLICA_MS = 250;
+
+    /**
+     * Forma de repartir las lecturas entre las réplicas sanas.
+     */
+    public enum Balanceo {
+        /** Cada lectura va a la siguiente réplica. */
+        ROUND_ROBIN,
+        /** Cada lectura va a la réplica con menos conexiones en uso. */
+        MENOS_CARGADA
+    }
+
+    private static final ThreadLocal<Boolean> LECTURA = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<Long> ULTIMA_ESCRITURA = new ThreadLocal<>();
+
+    private HikariDataSource primaria;
+    private final List<Replica> replicas = new ArrayList<>();
+    private Balanceo balanceo = Balanceo.ROUND_ROBIN;
+    private long lecturaTrasEscrituraMs;
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private ScheduledExecutorService comprobaciones;
+
+    /**
+     * Marca el hilo actual como en una operación de lectura.
+     *
+     * @return El estado anterior, que debe pasarse a {@link #terminarLectura(boolean)}.
+     */
+    static boolean empezarLectura() {
+        boolean anterior = LECTURA.get();
+        LECTURA.set(Boolean.TRUE);
+        return anterior;
+    }
+
+    /**
+     * Restablece el estado del hilo actual al terminar una operación de lectura.
+     *
+     * @param anterior El valor devuelto por {@link #empezarLectura()}.
+     */
+    static void terminarLectura(boolean anterior) {
+        if (anterior) {
+            LECTURA.set(Boolean.TRUE);
+        } else {
+            LECTURA.remove();
+        }
+    }
+
+    /**
+     * Anota que el hilo actual acaba de confirmar una escritura, para que sus próximas lecturas vayan a la
+     * primaria durante {@value #LECTURA_TRAS_ESCRITURA} milisegundos.
+     */
+    static void registrarEscritura() {
+        ULTIMA_ESCRITURA.set(System.currentTimeMillis());
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // Firma de la interfaz Configurable de Hibernate
+    public void configure(Map configurationValues) throws HibernateException {
+        Map<?, ?> props = configurationValues;
+        try {
+            HikariConfig configuracion = HikariConfigurationUtil.loadConfiguration(props);
+            primaria = new HikariDataSource(configuracion);
+            if (Boolean.parseBoolean(String.valueOf(props.get(MIGRAR)))) {
+                Migraciones.aplicar(primaria);
+            }
+
+            String urls = (String) props.get(REPLICAS);
+            if (urls != null && !urls.trim().isEmpty()) {
+                for (String url : urls.split(",")) {
+                    HikariConfig copia = new HikariConfig();
+                    configuracion.copyStateTo(copia);
+                    copia.setJdbcUrl(url.trim());
+                    copia.setPoolName(primaria.getPoolName() + "-replica-" + (replicas.size() + 1));
+                    // Una réplica caída no debe impedir arrancar la aplicación
+                    copia.setInitializationFailTimeout(-1);
+                    copia.setConnectionTimeout(ESPERA_REPLICA_MS);
+                    replicas.add(new Replica(new HikariDataSource(copia)));
+                }
+            }
+            if (props.get(BALANCEO) != null) {
+                balanceo = Balanceo.valueOf(((String) props.get(BALANCEO)).trim());
+            }
+            lecturaTrasEscrituraMs = Long.parseLong(valor(props, LECTURA_TRAS_ESCRITURA, "0").trim());
+            long intervalo = Long.parseLong(valor(props, COMPROBACION, "5000").trim());
+
+            if (!replicas.isEmpty()) {
+                comprobaciones = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                    Thread hilo = new Thread(tarea, primaria.getPoolName() + "-comprobacion-replicas");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+                comprobaciones.scheduleWithFixedDelay(this::comprobarReplicas, 0, intervalo, TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException e) {
+            stop();
+            throw new HibernateException(e);
+        }
+    }
+
+    private static String valor(Map<?, ?> props, String clave, String porDefecto) {
+        Object valor = props.get(clave);
+        return valor == null ? porDefecto : String.valueOf(valor);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (LECTURA.get() && !leerDePrimaria()) {
+            // Una réplica que falla se marca como caída y se prueba la siguiente, así que el bucle termina
+            for (Replica replica = elegirReplica(); replica != null; replica = elegirReplica()) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.sana = false;
+                }
+            }
+        }
+        return primaria.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection conn) throws SQLException {
+        conn.close();
+    }
+
+    /**
+     * Obtiene la base de datos primaria de la fábrica, por ejemplo para conectar los {@link model.Diccionario}
+     * al arrancar: es donde se registran sus valores nuevos.
+     *
+     * @param entityManagerFactory La fábrica de entity manager.
+     * @return El pool de conexiones de la primaria.
+     */
+    public static DataSource primaria(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class).unwrap(DataSource.class);
+    }
+
+    /**
+     * Indica si las réplicas de la fábrica están sanas, en el orden de la propiedad {@value #REPLICAS}.
+     *
+     * @param entityManagerFactory La fábrica de entity manager cuyas réplicas se consultan.
+     * @return Una cadena con una línea por réplica, vacía si la fábrica no usa este proveedor o no tiene réplicas.
+     */
+    public static String describirReplicas(EntityManagerFactory entityManagerFactory) {
+        ConnectionProvider proveedor = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        StringBuilder result = new StringBuilder();
+        if (proveedor.isUnwrappableAs(EnrutadorConexiones.class)) {
+            for (Replica replica : proveedor.unwrap(EnrutadorConexiones.class).replicas) {
+                result.append(replica.dataSource.getPoolName()).append(": ")
+                        .append(replica.sana ? "sana" : "caída").append("\n");
+            }
+        }
+        return result.toString();
+    }
+
+    private boolean leerDePrimaria() {
+        Long ultimaEscritura = ULTIMA_ESCRITURA.get();
+        return lecturaTrasEscrituraMs > 0 && ultimaEscritura != null
+                && System.currentTimeMillis() - ultimaEscritura < lecturaTrasEscrituraMs;
+    }
+
+    private Replica elegirReplica() {
+        Replica elegida = null;
+        if (balanceo == Balanceo.MENOS_CARGADA) {
+            int menorCarga = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (replica.sana && replica.dataSource.getHikariPoolMXBean() != null) {
+                    int carga = replica.dataSource.getHikariPoolMXBean().getActiveConnections();
+                    if (carga < menorCarga) {
+                        menorCarga = carga;
+                        elegida = replica;
+                    }
+                }
+            }
+        } else {
+            int inicio = Math.floorMod(siguiente.getAndIncrement(), Math.max(replicas.size(), 1));
+            for (int i = 0; i < replicas.size() && elegida == null; i++) {
+                Replica replica = replicas.get((inicio + i) % replicas.size());
+                if (replica.sana) {
+                    elegida = replica;
+                }
+            }
+        }
+        return elegida;
+    }
+
+    private void comprobarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conexion = replica.dataSource.getConnection()) {
+                replica.sana = conexion.isValid(2);
+            } catch (SQLException | RuntimeException e) {
+                replica.sana = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // Firma de la interfaz Wrapped de Hibernate
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || EnrutadorConexiones.class.isAssignableFrom(unwrapType)
+                || DataSource.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (ConnectionProvider.class.equals(unwrapType) || EnrutadorConexiones.class.isAssignableFrom(unwrapType)) {
+            return (T) this;
+        } else if (DataSource.class.isAssignableFrom(unwrapType)) {
+            return (T) primaria;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (comprobaciones != null) {
+            comprobaciones.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        if (primaria != null) {
+            primaria.close();
+        }
+    }
+
+    /**
+     * Pool de una réplica y su último estado conocido.
+     */
+    private static final class Replica {
+        final HikariDataSource dataSource;
+        volatile boolean sana = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package controller;
+
+import instantanea.Instantanea;
+import model.Campeon;
+import model.Region;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Controlador de las estadísticas del catálogo: campeones por rol, raza, dificultad y región,
+ * distribución del número de aspectos y regiones con más historias.
+ * <p>
+ * Cada agregado se calcula con una sola consulta {@code GROUP BY} en la base de datos, que devuelve
+ * una fila por grupo en lugar de una por campeón. El resultado se guarda en memoria hasta la siguiente
+ * escritura: el controlador se registra como {@link CatalogoListener} y cada cambio de campeones o
+ * regiones avanza una generación que invalida todos los agregados. Un agregado calculado mientras se
+ * confirmaba un cambio se guarda con la generación anterior, así que tampoco se reutiliza.
+ * Los resultados son mapas no modificables que se pueden consultar tantas veces como se quiera.
+ */
+public class EstadisticasController implements CatalogoListener {
+
+    /** Número de regiones que muestra {@link #describir()}. */
+    public static final int REGIONES_DESTACADAS = 5;
+
+    private final Sesiones sesiones;
+    private final AtomicLong generacion = new AtomicLong();
+    private final Map<String, Calculado> calculados = new ConcurrentHashMap<>();
+    private volatile Instantanea instantanea;
+
+    /**
+     * Constructor que inicializa el controlador con una {@code EntityManagerFactory}.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     */
+    public EstadisticasController(EntityManagerFactory entityManagerFactory) {
+        this.sesiones = new Sesiones(entityManagerFactory);
+    }
+
+    /**
+     * Calcula las estadísticas a partir de una instantánea del catálogo en lugar de la base de datos,
+     * para el modo sin conexión.
+     *
+     * @param instantanea La instantánea a consultar, o {@code null} para volver a usar la base de datos.
+     */
+    public void usarInstantanea(Instantanea instantanea) {
+        this.instantanea = instantanea;
+        invalidar();
+    }
+
+    /**
+     * Cuenta los campeones de cada rol.
+     *
+     * @return El número de campeones por rol, de más a menos campeones.
+     */
+    public Map<String, Long> contarCampeonesPorRol() {
+        return contarCampeonesPor("rol", Campeon::getRol);
+    }
+
+    /**
+     * Cuenta los campeones de cada raza.
+     *
+     * @return El número de campeones por raza, de más a menos campeones.
+     */
+    public Map<String, Long> contarCampeonesPorRaza() {
+        return contarCampeonesPor("raza", Campeon::getRaza);
+    }
+
+    /**
+     * Cuenta los campeones de cada dificultad.
+     *
+     * @return El número de campeones por dificultad, de más a menos campeones.
+     */
+    public Map<String, Long> contarCampeonesPorDificultad() {
+        return contarCampeonesPor("dificultad", Campeon::getDificultad);
+    }
+
+    /**
+     * Cuenta los campeones de cada región, incluidas las regiones sin campeones. Las regiones se
+     * identifican por su ID, así que dos regiones con el mismo nombre se cuentan por separado.
+     *
+     * @return El nombre y el número de campeones por ID de región, de más a menos campeones.
+     */
+    public Map<Integer, CantidadRegion> contarCampeonesPorRegion() {
+        return calcular("region", () -> {
+            Instantanea copia = instantanea;
+            List<Object[]> filas = copia != null
+                    ? copia.regiones().stream()
+                    .map(r -> new Object[]{r.getId_region(), r.getNombre_region(), (long) r.getCampeones().size()})
+                    .collect(Collectors.toList())
+                    : sesiones.leer(em -> em.createNamedQuery(Region.CAMPEONES_POR_REGION, Object[].class)
+                    .getResultList());
+            filas = new ArrayList<>(filas);
+            filas.sort(Comparator.<Object[]>comparingLong(fila -> -((Number) fila[2]).longValue())
+                    .thenComparing(fila -> String.valueOf(fila[1]))
+                    .thenComparingInt(fila -> (Integer) fila[0]));
+            return porRegion(filas);
+        });
+    }
+
+    /**
+     * Obtiene la distribución del número de aspectos de los campeones.
+     *
+     * @return Cuántos campeones tienen cada número de aspectos, ordenado por número de aspectos.
+     */
+    public Map<Integer, Long> distribucionDeAspectos() {
+        return calcular("aspectos", () -> {
+            Instantanea copia = instantanea;
+            if (copia != null) {
+                return Collections.unmodifiableMap(copia.campeones().stream()
+                        .collect(Collectors.groupingBy(Campeon::getNumero_de_aspectos, TreeMap::new, Collectors.counting())));
+            }
+            Map<Integer, Long> distribucion = new TreeMap<>();
+            for (Object[] fila : sesiones.leer(em -> em.createNamedQuery(Campeon.DISTRIBUCION_DE_ASPECTOS, Object[].class)
+                    .getResultList())) {
+                distribucion.put((Integer) fila[0], (Long) fila[1]);
+            }
+            return Collections.unmodifiableMap(distribucion);
+        });
+    }
+
+    /**
+     * Obtiene las regiones con más historias relacionadas.
+     *
+     * @param limite El número máximo de regiones.
+     * @return El nombre y las historias relacionadas por ID de región, de más a menos historias; a igualdad, por ID.
+     */
+    public Map<Integer, CantidadRegion> regionesConMasHistorias(int limite) {
+        return calcular("historias:" + limite, () -> {
+            Instantanea copia = instantanea;
+            List<Object[]> filas = copia != null
+                    ? copia.regiones().stream()
+                    .sorted(Comparator.comparingInt(Region::getHistorias_relacionadas).reversed()
+                            .thenComparingInt(Region::getId_region))
+                    .limit(limite)
+                    .map(r -> new Object[]{r.getId_region(), r.getNombre_region(), r.getHistorias_relacionadas()})
+                    .collect(Collectors.toList())
+                    : sesiones.leer(em -> em.createNamedQuery(Region.POR_HISTORIAS, Object[].class)
+                    .setMaxResults(limite)
+                    .getResultList());
+            return porRegion(filas);
+        });
+    }
+
+    /**
+     * Construye un resumen con todas las estadísticas, para mostrarlo en el menú o en un panel.
+     *
+     * @return Una cadena con una sección por estadística.
+     */
+    public String describir() {
+        StringBuilder result = new StringBuilder();
+        seccion(result, "Campeones por rol", contarCampeonesPorRol());
+        seccion(result, "Campeones por raza", contarCampeonesPorRaza());
+        seccion(result, "Campeones por dificultad", contarCampeonesPorDificultad());
+        seccionRegiones(result, "Campeones por región", contarCampeonesPorRegion());
+        seccion(result, "Campeones por número de aspectos", distribucionDeAspectos());
+        seccionRegiones(result, "Regiones con más historias", regionesConMasHistorias(REGIONES_DESTACADAS));
+        return result.toString();
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        invalidar();
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        invalidar();
+    }
+
+    @Override
+    public void regionGuardada(Region region) {
+        invalidar();
+    }
+
+    @Override
+    public void regionEliminada(int id) {
+        invalidar();
+    }
+
+    /**
+     * Descarta todos los agregados calculados; se vuelven a calcular la próxima vez que se pidan.
+     */
+    public void invalidar() {
+        generacion.incrementAndGet();
+        calculados.clear();
+    }
+
+    private Map<String, Long> contarCampeonesPor(String atributo, Function<Campeon, String> valor) {
+        return calcular(atributo, () -> {
+            Instantanea copia = instantanea;
+            List<Object[]> filas = copia != null
+                    ? copia.campeones().stream()
+                    .collect(Collectors.groupingBy(c -> String.valueOf(valor.apply(c)), Collectors.counting()))
+                    .entrySet().stream()
+                    .map(e -> new Object[]{e.getKey(), e.getValue()})
+                    .collect(Collectors.toList())
+                    : sesiones.leer(em -> em.createQuery(conteoPor(atributo), Object[].class).getResultList());
+            return ordenarPorCantidad(filas);
+        });
+    }
+
+    /**
+     * Construye la consulta que cuenta los campeones por cada valor de un atributo. Es pública para que
+     * {@code herramientas.ComprobadorPlanes} explique la misma consulta que se ejecuta.
+     *
+     * @param atributo El atributo de {@code Campeon} por el que agrupar.
+     * @return La consulta JPQL, con el valor y el número de campeones en cada fila.
+     */
+    public static String conteoPor(String atributo) {
+        return "SELECT c." + atributo + ", COUNT(c) FROM Campeon c GROUP BY c." + atributo;
+    }
+
+    /**
+     * Devuelve el agregado guardado si sigue siendo de la generación actual, o lo calcula y lo guarda.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T calcular(String clave, Supplier<T> calculo) {
+        long actual = generacion.get();
+        Calculado guardado = calculados.get(clave);
+        if (guardado != null && guardado.generacion == actual) {
+            return (T) guardado.valor;
+        }
+        T valor = calculo.get();
+        calculados.put(clave, new Calculado(actual, valor));
+        return valor;
+    }
+
+    /**
+     * Convierte filas {@code [grupo, cantidad]} en un mapa ordenado de más a menos cantidad y, a igualdad, por grupo.
+     */
+    private static Map<String, Long> ordenarPorCantidad(List<Object[]> filas) {
+        List<Object[]> ordenadas = new ArrayList<>(filas);
+        ordenadas.sort(Comparator.<Object[]>comparingLong(fila -> -((Number) fila[1]).longValue())
+                .thenComparing(fila -> String.valueOf(fila[0])));
+        Map<String, Long> grupos = new LinkedHashMap<>();
+        for (Object[] fila : ordenadas) {
+            grupos.put(String.valueOf(fila[0]), ((Number) fila[1]).longValue());
+        }
+        return Collections.unmodifiableMap(grupos);
+    }
+
+    /**
+     * Convierte filas {@code [id, nombre, cantidad]} en un mapa por ID de región que conserva su orden.
+     */
+    private static Map<Integer, CantidadRegion> porRegion(List<Object[]> filas) {
+        Map<Integer, CantidadRegion> regiones = new LinkedHashMap<>();
+        for (Object[] fila : filas) {
+            regiones.put((Integer) fila[0], new CantidadRegion((String) fila[1], ((Number) fila[2]).longValue()));
+        }
+        return Collections.unmodifiableMap(regiones);
+    }
+
+    private static void seccion(StringBuilder result, String titulo, Map<?, ? extends Number> valores) {
+        result.append(titulo).append(":\n");
+        for (Map.Entry<?, ? extends Number> entrada : valores.entrySet()) {
+            result.append(String.format("  %-25s %5d%n", entrada.getKey(), entrada.getValue().longValue()));
+        }
+    }
+
+    private static void seccionRegiones(StringBuilder result, String titulo, Map<Integer, CantidadRegion> regiones) {
+        result.append(titulo).append(":\n");
+        for (CantidadRegion region : regiones.values()) {
+            result.append(String.format("  %-25s %5d%n", region.getNombre(), region.getCantidad()));
+        }
+    }
+
+    /**
+     * Nombre de una región junto con la cantidad contada para ella.
+     */
+    public static final class CantidadRegion {
+        private final String nombre;
+        private final long cantidad;
+
+        CantidadRegion(String nombre, long cantidad) {
+            this.nombre = nombre;
+            this.cantidad = cantidad;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public long getCantidad() {
+            return cantidad;
+        }
+    }
+
+    /**
+     * Agregado guardado junto con la generación del catálogo en la que se empezó a calcular.
+     */
+    private static final class Calculado {
+        final long generacion;
+        final Object valor;
+
+        Calculado(long generacion, Object valor) {
+            this.generacion = generacion;
+            this.valor = valor;
+        }
+    }
+}
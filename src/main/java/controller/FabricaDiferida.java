@@ -0,0 +1,194 @@
+package controller;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Query;
+import javax.persistence.SynchronizationType;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.metamodel.Metamodel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fábrica de entity manager que se construye en segundo plano.
+ * Se puede pasar a los controladores nada más arrancar: construirlos no necesita la base de datos,
+ * y la primera operación que use la fábrica espera a que Hibernate termine de arrancar.
+ * Así el menú se muestra mientras se leen los mapeos, se aplican las migraciones y se valida el esquema.
+ * <p>
+ * Al terminar de construirse se ejecuta una preparación (registrar receptores, cargar índices...)
+ * antes de dejar pasar al resto de hilos; durante la preparación, el hilo de arranque ya puede usarla.
+ * Si la preparación falla, la fábrica construida se cierra y todos los usos fallan con el mismo error.
+ */
+public class FabricaDiferida implements EntityManagerFactory {
+
+    private final Supplier<EntityManagerFactory> constructor;
+    private final CompletableFuture<EntityManagerFactory> fabrica = new CompletableFuture<>();
+    private volatile Thread hiloArranque;
+    private volatile EntityManagerFactory enPreparacion;
+
+    /**
+     * Constructor de la clase FabricaDiferida. La fábrica no se empieza a construir hasta llamar a {@link #iniciar}.
+     *
+     * @param constructor La función que construye la fábrica real.
+     */
+    public FabricaDiferida(Supplier<EntityManagerFactory> constructor) {
+        this.constructor = constructor;
+    }
+
+    /**
+     * Empieza a construir la fábrica en un hilo en segundo plano.
+     *
+     * @param preparacion Lo que hay que hacer con la fábrica construida antes de que la usen otros hilos.
+     */
+    public void iniciar(Consumer<EntityManagerFactory> preparacion) {
+        Thread hilo = new Thread(() -> {
+            EntityManagerFactory construida = null;
+            try {
+                construida = constructor.get();
+                enPreparacion = construida;
+                preparacion.accept(construida);
+                fabrica.complete(construida);
+            } catch (Throwable e) {
+                // Si falla la preparación nadie llegará a usar la fábrica construida: se cierra con sus conexiones
+                if (construida != null) {
+                    try {
+                        construida.close();
+                    } catch (RuntimeException cierre) {
+                        e.addSuppressed(cierre);
+                    }
+                }
+                fabrica.completeExceptionally(e);
+            } finally {
+                enPreparacion = null;
+            }
+        }, "arranque-hibernate");
+        hilo.setDaemon(true);
+        hiloArranque = hilo;
+        hilo.start();
+    }
+
+    /**
+     * Indica si la fábrica ya se ha construido, con o sin error.
+     *
+     * @return {@code true} si usarla ya no tiene que esperar.
+     */
+    public boolean estaLista() {
+        return fabrica.isDone();
+    }
+
+    /**
+     * Obtiene la fábrica real, esperando a que se termine de construir.
+     *
+     * @return La fábrica construida.
+     * @throws PersistenceException Si no se pudo construir.
+     */
+    public EntityManagerFactory obtener() {
+        EntityManagerFactory preparada = enPreparacion;
+        if (preparada != null && Thread.currentThread() == hiloArranque) {
+            return preparada;
+        }
+        boolean interrumpido = false;
+        try {
+            while (true) {
+                try {
+                    return fabrica.get();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof PersistenceException
+                            ? (PersistenceException) e.getCause()
+                            : new PersistenceException("No se pudo arrancar la unidad de persistencia", e.getCause());
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public EntityManager createEntityManager() {
+        return obtener().createEntityManager();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // Firma de la interfaz EntityManagerFactory de JPA
+    public EntityManager createEntityManager(Map map) {
+        return obtener().createEntityManager(map);
+    }
+
+    @Override
+    public EntityManager createEntityManager(SynchronizationType synchronizationType) {
+        return obtener().createEntityManager(synchronizationType);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // Firma de la interfaz EntityManagerFactory de JPA
+    public EntityManager createEntityManager(SynchronizationType synchronizationType, Map map) {
+        return obtener().createEntityManager(synchronizationType, map);
+    }
+
+    @Override
+    public CriteriaBuilder getCriteriaBuilder() {
+        return obtener().getCriteriaBuilder();
+    }
+
+    @Override
+    public Metamodel getMetamodel() {
+        return obtener().getMetamodel();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return obtener().isOpen();
+    }
+
+    /**
+     * Cierra la fábrica; si aún se está construyendo, espera a que termine para cerrarla.
+     * Si no se llegó a iniciar o la construcción falló no hay nada que cerrar.
+     */
+    @Override
+    public void close() {
+        if (hiloArranque != null && !fabrica.isCompletedExceptionally()) {
+            obtener().close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+        return obtener().getProperties();
+    }
+
+    @Override
+    public Cache getCache() {
+        return obtener().getCache();
+    }
+
+    @Override
+    public PersistenceUnitUtil getPersistenceUnitUtil() {
+        return obtener().getPersistenceUnitUtil();
+    }
+
+    @Override
+    public void addNamedQuery(String name, Query query) {
+        obtener().addNamedQuery(name, query);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> cls) {
+        return cls.isInstance(this) ? cls.cast(this) : obtener().unwrap(cls);
+    }
+
+    @Override
+    public <T> void addNamedEntityGraph(String graphName, EntityGraph<T> entityGraph) {
+        obtener().addNamedEntityGraph(graphName, entityGraph);
+    }
+}
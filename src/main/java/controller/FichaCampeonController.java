@@ -0,0 +1,205 @@
+package controller;
+
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controlador de la ficha completa de un campeón: datos básicos, habilidades, regiones y biografía.
+ * Las cuatro lecturas son independientes, así que se lanzan a la vez, cada una con su propio
+ * {@link EntityManager} y su propia conexión, y la ficha tarda lo que la más lenta en lugar de la suma.
+ * Si una lectura falla o no termina a tiempo, su sección se marca como no disponible y el resto
+ * de la ficha se muestra igualmente. Con una {@link FabricaDiferida} el tiempo máximo empieza a contar
+ * cuando la fábrica termina de arrancar, no mientras se espera a que lo haga.
+ */
+public class FichaCampeonController {
+
+    /** Tiempo máximo de espera por la ficha completa, en milisegundos. */
+    public static final long TIEMPO_MAXIMO_MS = 2000;
+
+    private static final int LECTURAS = 4;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Sesiones sesiones;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor de la clase FichaCampeonController.
+     * Crea un grupo de hilos propio con un hilo por lectura de la ficha.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     */
+    public FichaCampeonController(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, Executors.newFixedThreadPool(LECTURAS, hilosDemonio()));
+    }
+
+    /**
+     * Constructor de la clase FichaCampeonController.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     * @param executor             El ejecutor en el que lanzar las lecturas; su tamaño no debería
+     *                             superar el del pool de conexiones.
+     */
+    public FichaCampeonController(EntityManagerFactory entityManagerFactory, ExecutorService executor) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.sesiones = new Sesiones(entityManagerFactory);
+        this.executor = executor;
+    }
+
+    /**
+     * Obtiene la ficha completa de un campeón.
+     *
+     * @param id El ID del campeón.
+     * @return Una cadena con la ficha del campeón, o un mensaje si no existe.
+     */
+    public String obtenerFichaCampeon(int id) {
+        if (entityManagerFactory instanceof FabricaDiferida) {
+            try {
+                ((FabricaDiferida) entityManagerFactory).obtener();
+            } catch (PersistenceException e) {
+                return "No se pudo cargar la ficha del campeón con ID: " + id + " (" + e.getMessage() + ")";
+            }
+        }
+        List<Callable<List<?>>> lecturas = Arrays.asList(
+                () -> sesiones.leer(em -> em.createNamedQuery(Campeon.FICHA, Object[].class)
+                        .setParameter("id", id)
+                        .getResultList()),
+                () -> sesiones.leer(em -> em.createNamedQuery(Habilidad.TECLAS_DE_CAMPEON, Object[].class)
+                        .setParameter("id", id)
+                        .getResultList()),
+                () -> sesiones.leer(em -> em.createNamedQuery(Region.NOMBRES_DE_CAMPEON, String.class)
+                        .setParameter("id", id)
+                        .getResultList()),
+                () -> sesiones.leer(em -> em.createNamedQuery(Campeon.BIOGRAFIA, String.class)
+                        .setParameter("id", id)
+                        .getResultList()));
+
+        List<Future<List<?>>> futuros;
+        try {
+            futuros = executor.invokeAll(lecturas, TIEMPO_MAXIMO_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Se interrumpió la carga de la ficha del campeón con ID: " + id;
+        }
+
+        Seccion datos = resolver(futuros.get(0));
+        if (datos.filas != null && datos.filas.isEmpty()) {
+            return "No se encontró ningún campeón con el ID: " + id;
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append("| ID | Nombre                | Apodo             | Rol            | Dificultad |\n");
+        result.append("|----|-----------------------|-------------------|----------------|------------|\n");
+        if (datos.error != null) {
+            result.append("(datos no disponibles: ").append(datos.error).append(")\n");
+        } else {
+            Object[] fila = (Object[]) datos.filas.get(0);
+            result.append("| ")
+                    .append(padRight(String.valueOf(fila[0]), 3))
+                    .append(" | ")
+                    .append(padRight((String) fila[1], 23))
+                    .append(" | ")
+                    .append(padRight((String) fila[2], 17))
+                    .append(" | ")
+                    .append(padRight((String) fila[3], 15))
+                    .append(" | ")
+                    .append(fila[4])
+                    .append("          |\n");
+        }
+
+        result.append("Habilidades:\n");
+        Seccion habilidades = resolver(futuros.get(1));
+        if (habilidades.error != null) {
+            result.append("  (no disponibles: ").append(habilidades.error).append(")\n");
+        } else {
+            for (Object fila : habilidades.filas) {
+                Object[] habilidad = (Object[]) fila;
+                result.append("  - ").append(habilidad[0]).append(": ").append(habilidad[1]).append("\n");
+            }
+        }
+
+        result.append("Regiones:\n");
+        Seccion regiones = resolver(futuros.get(2));
+        if (regiones.error != null) {
+            result.append("  (no disponibles: ").append(regiones.error).append(")\n");
+        } else {
+            for (Object region : regiones.filas) {
+                result.append("  - ").append(region).append("\n");
+            }
+        }
+
+        result.append("Biografía:\n");
+        Seccion biografia = resolver(futuros.get(3));
+        if (biografia.error != null) {
+            result.append("  (no disponible: ").append(biografia.error).append(")\n");
+        } else if (!biografia.filas.isEmpty() && biografia.filas.get(0) != null) {
+            result.append(biografia.filas.get(0)).append("\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Detiene los hilos de este controlador. Las fichas pedidas después fallarán.
+     */
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+
+    private static Seccion resolver(Future<List<?>> futuro) {
+        Seccion seccion = new Seccion();
+        try {
+            seccion.filas = futuro.get();
+        } catch (CancellationException e) {
+            seccion.error = "tiempo de espera agotado";
+        } catch (ExecutionException e) {
+            seccion.error = String.valueOf(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            seccion.error = "interrumpido";
+        }
+        return seccion;
+    }
+
+    private static ThreadFactory hilosDemonio() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "ficha-campeon-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    /**
+     * Rellena una cadena con espacios a la derecha hasta alcanzar la longitud especificada.
+     *
+     * @param s La cadena a rellenar.
+     * @param n La longitud deseada.
+     * @return La cadena rellenada.
+     */
+    private String padRight(String s, int n) {
+        return String.format("%-" + n + "s", s);
+    }
+
+    /**
+     * Resultado de una de las lecturas: sus filas o el motivo por el que no está disponible.
+     */
+    private static final class Seccion {
+        List<?> filas;
+        String error;
+    }
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import model.Diccionario;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtro de campeones por rol, raza, dificultad y región para las operaciones masivas.
+ * Los criterios sin valor ({@code null}) no se aplican; un filtro vacío selecciona todos los campeones.
+ * Rol, raza y dificultad se comparan por su clave del {@link Diccionario}: un valor que no está en él
+ * no selecciona ningún campeón y tampoco se registra.
+ */
+public class FiltroCampeon {
+
+    private String rol;
+    private String raza;
+    private String dificultad;
+    private Integer idRegion;
+
+    /**
+     * Constructor vacío de la clase FiltroCampeon.
+     */
+    public FiltroCampeon() {
+    }
+
+    public String getRol() {
+        return rol;
+    }
+
+    public void setRol(String rol) {
+        this.rol = rol;
+    }
+
+    public String getRaza() {
+        return raza;
+    }
+
+    public void setRaza(String raza) {
+        this.raza = raza;
+    }
+
+    public String getDificultad() {
+        return dificultad;
+    }
+
+    public void setDificultad(String dificultad) {
+        this.dificultad = dificultad;
+    }
+
+    public Integer getIdRegion() {
+        return idRegion;
+    }
+
+    /**
+     * Restringe el filtro a los campeones que pertenecen a la región indicada.
+     *
+     * @param idRegion el ID de la región
+     */
+    public void setIdRegion(Integer idRegion) {
+        this.idRegion = idRegion;
+    }
+
+    /**
+     * Construye la condición JPQL del filtro sobre la entidad {@code Campeon}.
+     *
+     * @param alias El alias con el que aparece {@code Campeon} en la consulta.
+     * @return La condición, o una condición siempre cierta si el filtro está vacío.
+     */
+    public String condicion(String alias) {
+        List<String> partes = new ArrayList<>();
+        if (rol != null) {
+            partes.add(Diccionario.ROL.buscar(rol) != null ? alias + ".rol = :filtroRol" : "1 = 0");
+        }
+        if (raza != null) {
+            partes.add(Diccionario.RAZA.buscar(raza) != null ? alias + ".raza = :filtroRaza" : "1 = 0");
+        }
+        if (dificultad != null) {
+            partes.add(Diccionario.DIFICULTAD.buscar(dificultad) != null ? alias + ".dificultad = :filtroDificultad" : "1 = 0");
+        }
+        if (idRegion != null) {
+            partes.add(alias + ".id_campeon IN (SELECT fc.id_campeon FROM Region fr JOIN fr.campeones fc WHERE fr.id_region = :filtroRegion)");
+        }
+        return partes.isEmpty() ? "1 = 1" : String.join(" AND ", partes);
+    }
+
+    /**
+     * Asigna a la consulta los parámetros usados en {@link #condicion(String)}.
+     *
+     * @param query La consulta construida con la condición de este filtro.
+     */
+    public void aplicar(Query query) {
+        if (rol != null && Diccionario.ROL.buscar(rol) != null) {
+            query.setParameter("filtroRol", rol);
+        }
+        if (raza != null && Diccionario.RAZA.buscar(raza) != null) {
+            query.setParameter("filtroRaza", raza);
+        }
+        if (dificultad != null && Diccionario.DIFICULTAD.buscar(dificultad) != null) {
+            query.setParameter("filtroDificultad", dificultad);
+        }
+        if (idRegion != null) {
+            query.setParameter("filtroRegion", idRegion);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package controller;
 
+import index.BuscadorDifuso;
+import index.Resultado;
+import index.TipoEntidad;
+import instantanea.Instantanea;
 import model.Campeon;
 import model.Habilidad;
 import org.apache.commons.lang3.StringUtils;
@@ -9,14 +13,24 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 /**
  * Controlador para la gestión de habilidades en la base de datos.
  */
 public class HabilidadController {
 
+  /** Distancia de edición máxima para sugerir habilidades cuando el nombre no existe. */
+  private static final int DISTANCIA_MAXIMA = 2;
+
   private EntityManagerFactory entityManagerFactory;
   private CampeonController campeonController;
+  private BuscadorDifuso buscadorDifuso;
+  private Sesiones sesiones;
+  private BorradoEnGrafo borrado;
+  private List<CatalogoListener> listeners = new CopyOnWriteArrayList<>();
+  private volatile Instantanea instantanea;
 
   /**
    * Constructor vacío de la clase HabilidadController.
@@ -24,7 +38,8 @@ public class HabilidadController {
   public HabilidadController() { }
 
   /**
-   * Constructor que inicializa el controlador con una {@code EntityManagerFactory} y un {@code CampeonController}.
+   * Constructor que inicializa el controlador con una {@code EntityManagerFactory} y un {@code CampeonController},
+   * con el que comparte el registro de receptores.
    *
    * @param entityManagerFactory La fábrica de entity manager a utilizar.
    * @param campeonController     El controlador de campeones asociado.
@@ -32,6 +47,41 @@ public class HabilidadController {
   public HabilidadController(EntityManagerFactory entityManagerFactory, CampeonController campeonController) {
     this.entityManagerFactory = entityManagerFactory;
     this.campeonController = campeonController;
+    this.sesiones = new Sesiones(entityManagerFactory);
+    ReceptoresCatalogo receptores = campeonController != null ? campeonController.getReceptores() : new ReceptoresCatalogo();
+    this.listeners = receptores.de(Habilidad.class);
+    this.borrado = new BorradoEnGrafo(entityManagerFactory, receptores);
+  }
+
+  /**
+   * Constructor que además recibe el buscador aproximado usado para corregir nombres mal escritos.
+   *
+   * @param entityManagerFactory La fábrica de entity manager a utilizar.
+   * @param campeonController     El controlador de campeones asociado.
+   * @param buscadorDifuso        El buscador aproximado de nombres de habilidades.
+   */
+  public HabilidadController(EntityManagerFactory entityManagerFactory, CampeonController campeonController, BuscadorDifuso buscadorDifuso) {
+    this(entityManagerFactory, campeonController);
+    this.buscadorDifuso = buscadorDifuso;
+  }
+
+  /**
+   * Registra un receptor que será notificado de los cambios de habilidades.
+   *
+   * @param listener El receptor a registrar.
+   */
+  public void addCatalogoListener(CatalogoListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Sirve las consultas ({@code listar*}, {@code buscar*} y {@code obtener*}) desde una instantánea
+   * del catálogo en lugar de la base de datos, para el modo sin conexión.
+   *
+   * @param instantanea La instantánea a consultar, o {@code null} para volver a usar la base de datos.
+   */
+  public void usarInstantanea(Instantanea instantanea) {
+    this.instantanea = instantanea;
   }
 
   /**
@@ -40,50 +90,60 @@ public class HabilidadController {
    * @return Una cadena que representa la lista de habilidades.
    */
   public String listarHabilidades() {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    try {
-      em.getTransaction().begin();
-      Query query = em.createQuery("SELECT h FROM Habilidad h");
-      List<Habilidad> habilidades = query.getResultList();
-      em.getTransaction().commit();
-
-      // Determinar la longitud máxima para cada columna
-      int maxLengthNombre = 0;
-      int maxLengthPasiva = 5; // Longitud máxima de "Sí/No"
-      int maxLengthTecla = 0;
-      int maxLengthDescripcion = 0;
-      int maxLengthLink = 0;
-      int maxLengthCampeon = 0;
-      for (Habilidad habilidad : habilidades) {
-        maxLengthNombre = Math.max(maxLengthNombre, habilidad.getNombre().length());
-        maxLengthTecla = Math.max(maxLengthTecla, String.valueOf(habilidad.getAsignacion_de_tecla()).length());
-        maxLengthDescripcion = Math.max(maxLengthDescripcion, habilidad.getDescripcion().length());
-        maxLengthLink = Math.max(maxLengthLink, habilidad.getLink().length());
-        maxLengthCampeon = Math.max(maxLengthCampeon, habilidad.getCampeon().getNombre().length());
-      }
+    Instantanea copia = instantanea;
+    if (copia != null) {
+      return formatearListado(copia.habilidades());
+    }
+    return sesiones.recorrer(session -> {
+      // El nombre del campeón aparece en el listado: se trae en la misma consulta
+      List<Habilidad> habilidades = session
+              .createNamedQuery(Habilidad.TODAS_CON_CAMPEON, Habilidad.class)
+              .getResultList();
+      return formatearListado(habilidades);
+    });
+  }
 
-      // Construir la salida como una tabla formateada
-      StringBuilder builder = new StringBuilder();
-      builder.append(StringUtils.rightPad("Nombre", maxLengthNombre)).append(" | ");
-      builder.append(StringUtils.rightPad("Pasiva", maxLengthPasiva)).append(" | ");
-      builder.append(StringUtils.rightPad("Tecla", maxLengthTecla)).append(" | ");
-      builder.append(StringUtils.rightPad("Descripción", maxLengthDescripcion)).append(" | ");
-      builder.append(StringUtils.rightPad("Link", maxLengthLink)).append(" | ");
-      builder.append(StringUtils.rightPad("Campeón", maxLengthCampeon)).append("\n");
-
-      for (Habilidad habilidad : habilidades) {
-        builder.append(StringUtils.rightPad(habilidad.getNombre(), maxLengthNombre)).append(" | ");
-        builder.append(StringUtils.rightPad(habilidad.isPasiva() ? "Sí" : "No", maxLengthPasiva)).append(" | ");
-        builder.append(StringUtils.rightPad(String.valueOf(habilidad.getAsignacion_de_tecla()), maxLengthTecla)).append(" | ");
-        builder.append(StringUtils.rightPad(habilidad.getDescripcion(), maxLengthDescripcion)).append(" | ");
-        builder.append(StringUtils.rightPad(habilidad.getLink(), maxLengthLink)).append(" | ");
-        builder.append(StringUtils.rightPad(habilidad.getCampeon().getNombre(), maxLengthCampeon)).append("\n");
-      }
+  /**
+   * Construye el listado completo de habilidades, con columnas del ancho de su valor más largo.
+   *
+   * @param habilidades Las habilidades a listar, con su campeón cargado.
+   * @return Una cadena que representa la lista de habilidades.
+   */
+  private String formatearListado(List<Habilidad> habilidades) {
+    // Determinar la longitud máxima para cada columna
+    int maxLengthNombre = 0;
+    int maxLengthPasiva = 5; // Longitud máxima de "Sí/No"
+    int maxLengthTecla = 0;
+    int maxLengthDescripcion = 0;
+    int maxLengthLink = 0;
+    int maxLengthCampeon = 0;
+    for (Habilidad habilidad : habilidades) {
+      maxLengthNombre = Math.max(maxLengthNombre, habilidad.getNombre().length());
+      maxLengthTecla = Math.max(maxLengthTecla, String.valueOf(habilidad.getAsignacion_de_tecla()).length());
+      maxLengthDescripcion = Math.max(maxLengthDescripcion, habilidad.getDescripcion().length());
+      maxLengthLink = Math.max(maxLengthLink, habilidad.getLink().length());
+      maxLengthCampeon = Math.max(maxLengthCampeon, habilidad.getCampeon().getNombre().length());
+    }
 
-      return builder.toString();
-    } finally {
-      em.close();
+    // Construir la salida como una tabla formateada
+    StringBuilder builder = new StringBuilder();
+    builder.append(StringUtils.rightPad("Nombre", maxLengthNombre)).append(" | ");
+    builder.append(StringUtils.rightPad("Pasiva", maxLengthPasiva)).append(" | ");
+    builder.append(StringUtils.rightPad("Tecla", maxLengthTecla)).append(" | ");
+    builder.append(StringUtils.rightPad("Descripción", maxLengthDescripcion)).append(" | ");
+    builder.append(StringUtils.rightPad("Link", maxLengthLink)).append(" | ");
+    builder.append(StringUtils.rightPad("Campeón", maxLengthCampeon)).append("\n");
+
+    for (Habilidad habilidad : habilidades) {
+      builder.append(StringUtils.rightPad(habilidad.getNombre(), maxLengthNombre)).append(" | ");
+      builder.append(StringUtils.rightPad(habilidad.isPasiva() ? "Sí" : "No", maxLengthPasiva)).append(" | ");
+      builder.append(StringUtils.rightPad(String.valueOf(habilidad.getAsignacion_de_tecla()), maxLengthTecla)).append(" | ");
+      builder.append(StringUtils.rightPad(habilidad.getDescripcion(), maxLengthDescripcion)).append(" | ");
+      builder.append(StringUtils.rightPad(habilidad.getLink(), maxLengthLink)).append(" | ");
+      builder.append(StringUtils.rightPad(habilidad.getCampeon().getNombre(), maxLengthCampeon)).append("\n");
     }
+
+    return builder.toString();
   }
 
   /**
@@ -92,17 +152,24 @@ public class HabilidadController {
    * @param filePath La ruta del archivo CSV que contiene los datos de las habilidades.
    */
   public void readHabilidadFromFile(String filePath) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    em.getTransaction().begin();
+    List<String> lineas = new ArrayList<>();
+    try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+      br.readLine(); // Saltar el encabezado del CSV
+      String line;
+      while ((line = br.readLine()) != null) {
+        lineas.add(line);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
 
     try {
-      // Leer el archivo CSV
-      String line = "";
-      String cvsSplitBy = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)"; // Expresión regular para evitar dividir comas dentro de comillas dobles
-      try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-        String[] header = br.readLine().split(cvsSplitBy); // Leer el encabezado del CSV
-
-        while ((line = br.readLine()) != null) {
+      // El fichero ya está leído: la transacción solo dura lo que tardan las inserciones
+      List<Habilidad> importadas = sesiones.escribir(em -> {
+        List<Habilidad> nuevas = new ArrayList<>();
+        String cvsSplitBy = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)"; // Expresión regular para evitar dividir comas dentro de comillas dobles
+        for (String line : lineas) {
           String[] data = line.split(cvsSplitBy);
 
           // Crear un objeto Habilidad y asignar los valores desde el CSV
@@ -118,19 +185,18 @@ public class HabilidadController {
 
           // Obtener el campeón asociado a esta habilidad
           String nombreCampeon = data[0].replaceAll("\"", "");
-          Campeon campeon = em.createQuery("SELECT c FROM Campeon c WHERE c.nombre = :nombre", Campeon.class)
+          Campeon campeon = em.createNamedQuery(Campeon.POR_NOMBRE, Campeon.class)
                   .setParameter("nombre", nombreCampeon)
                   .getSingleResult();
 
           habilidad.setCampeon(campeon);
           em.persist(habilidad);
+          nuevas.add(habilidad);
         }
-        em.getTransaction().commit();
-      } catch (IOException e) {
-        e.printStackTrace();
-        em.getTransaction().rollback();
-      } finally {
-        em.close();
+        return nuevas;
+      });
+      for (Habilidad habilidad : importadas) {
+        listeners.forEach(l -> l.habilidadGuardada(habilidad));
       }
     } catch (Exception e) {
       e.printStackTrace();
@@ -138,83 +204,53 @@ public class HabilidadController {
   }
 
   /**
-   * Elimina la tabla de habilidades de la base de datos.
+   * Elimina todas las habilidades de la base de datos.
+   * El esquema no se toca: lo mantienen las {@link Migraciones}.
    */
-  public void eliminarTablaHabilidad() {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    EntityTransaction transaction = em.getTransaction();
+  public void vaciarTablaHabilidad() {
     try {
-      transaction.begin();
-      em.createNativeQuery("DROP TABLE IF EXISTS habilidad").executeUpdate();
-      transaction.commit();
-      System.out.println("Tabla 'habilidad' eliminada correctamente.");
-    } catch (PersistenceException e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
-      }
-      System.out.println("Error al eliminar la tabla 'habilidad': " + e.getMessage());
-    } finally {
-      em.close();
+      Map<String, Integer> filas = borrado.eliminarDonde(Habilidad.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES, "1 = 1");
+      System.out.println("Habilidades eliminadas correctamente: " + filas.getOrDefault("habilidad", 0));
+    } catch (Exception e) {
+      System.out.println("Error al vaciar la tabla 'habilidad': " + e.getMessage());
     }
   }
 
   /**
-   * Crea la tabla de habilidades en la base de datos.
+   * Busca habilidades cuyos nombres o descripciones contienen el texto especificado.
+   * Devuelve como mucho {@link Sesiones#LIMITE_POR_DEFECTO} resultados.
+   *
+   * @param texto El texto a buscar en los nombres y descripciones de las habilidades.
+   * @return Una cadena que representa las habilidades encontradas.
    */
-  public void crearTablaHabilidad() {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    EntityTransaction transaction = em.getTransaction();
-    try {
-      transaction.begin();
-      em.createNativeQuery("CREATE TABLE habilidad (nombre_habilidad VARCHAR(255) PRIMARY KEY, pasiva BOOLEAN, asignacion_de_tecla CHAR, descripcion_habilidad TEXT, link VARCHAR(255), id_campeon INT, FOREIGN KEY (id_campeon) REFERENCES campeon (id_campeon))").executeUpdate();
-      transaction.commit();
-      System.out.println("Tabla 'habilidad' creada correctamente.");
-    } catch (PersistenceException e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
-      }
-      System.out.println("Error al crear la tabla 'habilidad': " + e.getMessage());
-    } finally {
-      em.close();
-    }
+  public String buscarHabilidadPorTexto(String texto) {
+    return buscarHabilidadPorTexto(texto, Sesiones.LIMITE_POR_DEFECTO);
   }
 
   /**
    * Busca habilidades cuyos nombres o descripciones contienen el texto especificado.
+   * Los resultados se ordenan en la base de datos: primero las coincidencias exactas de nombre,
+   * después los nombres que empiezan por el texto y por último el resto, y dentro de cada grupo
+   * por el número de aspectos del campeón. Solo se leen los {@code limite} primeros.
    *
-   * @param texto El texto a buscar en los nombres y descripciones de las habilidades.
+   * @param texto  El texto a buscar en los nombres y descripciones de las habilidades.
+   * @param limite El número máximo de habilidades a devolver.
    * @return Una cadena que representa las habilidades encontradas.
    */
-  public String buscarHabilidadPorTexto(String texto) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    try {
-      em.getTransaction().begin();
-      String queryStr = "SELECT h FROM Habilidad h WHERE h.nombre LIKE :texto OR h.descripcion LIKE :texto";
-      Query query = em.createQuery(queryStr);
+  public String buscarHabilidadPorTexto(String texto, int limite) {
+    Instantanea copia = instantanea;
+    if (copia != null) {
+      return formatearHabilidades(copia.buscarHabilidades(texto, limite));
+    }
+    return sesiones.leer(em -> {
+      TypedQuery<Habilidad> query = em.createNamedQuery(Habilidad.POR_TEXTO, Habilidad.class);
       query.setParameter("texto", "%" + texto + "%");
+      query.setParameter("exacto", texto);
+      query.setParameter("prefijo", texto + "%");
+      query.setMaxResults(limite);
       List<Habilidad> habilidades = query.getResultList();
-      em.getTransaction().commit();
-
-      StringBuilder result = new StringBuilder();
-      result.append("| Nombre                | Pasiva | Tecla | Descripción           | Enlace |\n");
-      result.append("|-----------------------|--------|-------|-----------------------|--------|\n");
-      for (Habilidad habilidad : habilidades) {
-        result.append("| ")
-                .append(padRight(habilidad.getNombre(), 23))
-                .append(" | ")
-                .append(habilidad.isPasiva() ? "Sí    " : "No    ")
-                .append(" | ")
-                .append(habilidad.getAsignacion_de_tecla())
-                .append("     | ")
-                .append(padRight(habilidad.getDescripcion(), 23))
-                .append(" | ")
-                .append(padRight(habilidad.getLink(), 6))
-                .append(" |\n");
-      }
-      return result.toString();
-    } finally {
-      em.close();
-    }
+      return formatearHabilidades(habilidades);
+    });
   }
 
   /**
@@ -224,56 +260,76 @@ public class HabilidadController {
    * @return Una cadena que representa las habilidades encontradas.
    */
   public String buscarHabilidadPorIdCampeon(int idCampeon) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    try {
-      em.getTransaction().begin();
-      String queryStr = "SELECT h FROM Habilidad h WHERE h.campeon.id_campeon = :idCampeon";
-      Query query = em.createQuery(queryStr);
+    Instantanea copia = instantanea;
+    if (copia != null) {
+      return formatearHabilidades(copia.habilidadesDeCampeon(idCampeon));
+    }
+    return sesiones.leer(em -> {
+      TypedQuery<Habilidad> query = em.createNamedQuery(Habilidad.DE_CAMPEON, Habilidad.class);
       query.setParameter("idCampeon", idCampeon);
       List<Habilidad> habilidades = query.getResultList();
-      em.getTransaction().commit();
-
-      StringBuilder result = new StringBuilder();
-      result.append("| Nombre                | Pasiva | Tecla | Descripción           | Enlace |\n");
-      result.append("|-----------------------|--------|-------|-----------------------|--------|\n");
-      for (Habilidad habilidad : habilidades) {
-        result.append("| ")
-                .append(padRight(habilidad.getNombre(), 23))
-                .append(" | ")
-                .append(habilidad.isPasiva() ? "Sí    " : "No    ")
-                .append(" | ")
-                .append(habilidad.getAsignacion_de_tecla())
-                .append("     | ")
-                .append(padRight(habilidad.getDescripcion(), 23))
-                .append(" | ")
-                .append(padRight(habilidad.getLink(), 6))
-                .append(" |\n");
-      }
-      return result.toString();
-    } finally {
-      em.close();
-    }
+      return formatearHabilidades(habilidades);
+    });
   }
 
   /**
    * Obtiene la información de una habilidad por su nombre.
+   * Si el nombre no existe y hay un buscador aproximado disponible, se muestra la habilidad
+   * más parecida cuando solo hay una candidata, o la lista de candidatas en otro caso.
    *
    * @param nombre El nombre de la habilidad a buscar.
    * @return Una cadena que representa la información de la habilidad encontrada.
    */
   public String obtenerHabilidadPorNombre(String nombre) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    try {
-      em.getTransaction().begin();
-      String queryStr = "SELECT h FROM Habilidad h WHERE h.nombre = :nombre";
-      Query query = em.createQuery(queryStr);
-      query.setParameter("nombre", nombre);
-      Habilidad habilidad = (Habilidad) query.getSingleResult();
-      em.getTransaction().commit();
-
-      StringBuilder result = new StringBuilder();
-      result.append("| Nombre                | Pasiva | Tecla | Descripción           | Enlace |\n");
-      result.append("|-----------------------|--------|-------|-----------------------|--------|\n");
+    Instantanea copia = instantanea;
+    if (copia != null) {
+      return describirHabilidad(nombre, copia::habilidad);
+    }
+    return sesiones.leer(em -> describirHabilidad(nombre, clave -> em.find(Habilidad.class, clave)));
+  }
+
+  /**
+   * Construye la ficha de una habilidad, o las sugerencias si el nombre no existe.
+   *
+   * @param nombre El nombre de la habilidad a buscar.
+   * @param buscar La función que obtiene una habilidad por su nombre, o {@code null} si no existe.
+   * @return Una cadena que representa la información de la habilidad encontrada.
+   */
+  private String describirHabilidad(String nombre, Function<String, Habilidad> buscar) {
+    Habilidad habilidad = buscar.apply(nombre);
+    StringBuilder result = new StringBuilder();
+    if (habilidad == null && buscadorDifuso != null) {
+      List<Resultado> parecidas = buscadorDifuso.buscar(nombre, TipoEntidad.HABILIDAD, DISTANCIA_MAXIMA, 5);
+      boolean unica = parecidas.size() == 1
+              || parecidas.size() > 1 && parecidas.get(0).getPuntuacion() > parecidas.get(1).getPuntuacion();
+      if (unica) {
+        habilidad = buscar.apply((String) parecidas.get(0).getClave());
+        result.append("No existe '").append(nombre).append("'; se muestra la habilidad más parecida.\n");
+      } else if (!parecidas.isEmpty()) {
+        result.append("No existe '").append(nombre).append("'. ¿Quizás quisiste decir: ");
+        for (int i = 0; i < parecidas.size(); i++) {
+          result.append(i > 0 ? ", " : "").append(parecidas.get(i).getTitulo());
+        }
+        return result.append("?").toString();
+      }
+    }
+    if (habilidad == null) {
+      return "No se encontró ninguna habilidad con el nombre: " + nombre;
+    }
+    return result.append(formatearHabilidades(Collections.singletonList(habilidad))).toString();
+  }
+
+  /**
+   * Construye la tabla con los datos de varias habilidades.
+   *
+   * @param habilidades Las habilidades a representar.
+   * @return Una cadena con la cabecera y una fila por habilidad.
+   */
+  private String formatearHabilidades(List<Habilidad> habilidades) {
+    StringBuilder result = new StringBuilder();
+    result.append("| Nombre                | Pasiva | Tecla | Descripción           | Enlace |\n");
+    result.append("|-----------------------|--------|-------|-----------------------|--------|\n");
+    for (Habilidad habilidad : habilidades) {
       result.append("| ")
               .append(padRight(habilidad.getNombre(), 23))
               .append(" | ")
@@ -285,10 +341,26 @@ public class HabilidadController {
               .append(" | ")
               .append(padRight(habilidad.getLink(), 6))
               .append(" |\n");
-      return result.toString();
-    } finally {
-      em.close();
     }
+    return result.toString();
+  }
+
+  /**
+   * Obtiene varias habilidades a partir de sus nombres con consultas {@code IN} por lotes,
+   * en lugar de una consulta y una transacción por habilidad.
+   *
+   * @param nombres Los nombres de las habilidades a obtener.
+   * @return Las habilidades encontradas, en el mismo orden que los nombres; los nombres inexistentes se omiten.
+   */
+  public List<Habilidad> obtenerHabilidadesPorNombres(Collection<String> nombres) {
+    Instantanea copia = instantanea;
+    if (copia != null) {
+      return copia.habilidades(nombres);
+    }
+    return sesiones.leer(em -> {
+      List<Habilidad> habilidades = CargaPorLotes.cargar(em, Habilidad.class, "nombre", nombres);
+      return habilidades;
+    });
   }
 
   /**
@@ -310,132 +382,137 @@ public class HabilidadController {
   }
 
   /**
-   * Modifica la información de una habilidad por su ID.
+   * Modifica la información de una habilidad por su ID, pidiendo los nuevos valores por la entrada estándar.
+   * Los valores se leen antes de abrir la transacción, así que no se retiene ninguna conexión mientras se espera al usuario.
    *
    * @param id El ID de la habilidad a modificar.
    */
   public void modificarHabilidadPorId(String id) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    EntityTransaction transaction = em.getTransaction();
     Scanner scanner = new Scanner(System.in);
     try {
-      transaction.begin();
-      Habilidad habilidad = em.find(Habilidad.class, id);
-      if (habilidad != null) {
-        System.out.println("Ingrese los nuevos valores para la habilidad con ID " + id + ":");
-
-        // Modificar el nombre
-        System.out.print("Nombre (dejar vacío para mantener el valor anterior): ");
-        String nombre = scanner.nextLine();
-        if (!nombre.isEmpty()) {
-          habilidad.setNombre(nombre);
-        }
-
-        // Modificar la pasiva
-        System.out.print("Pasiva (true/false) (dejar vacío para mantener el valor anterior): ");
-        String pasivaInput = scanner.nextLine();
-        if (!pasivaInput.isEmpty()) {
-          boolean pasiva = Boolean.parseBoolean(pasivaInput);
-          habilidad.setPasiva(pasiva);
-        }
-
-        // Modificar la asignación de tecla
-        System.out.print("Asignación de tecla (dejar vacío para mantener el valor anterior): ");
-        String asignacionDeTeclaInput = scanner.nextLine();
-        if (!asignacionDeTeclaInput.isEmpty()) {
-          char asignacionDeTecla = asignacionDeTeclaInput.charAt(0);
-          habilidad.setAsignacion_de_tecla(asignacionDeTecla);
-        }
-
-        // Modificar la descripción
-        System.out.print("Descripción (dejar vacío para mantener el valor anterior): ");
-        String descripcion = scanner.nextLine();
-        if (!descripcion.isEmpty()) {
-          habilidad.setDescripcion(descripcion);
-        }
-
-        // Modificar el link
-        System.out.print("Link (dejar vacío para mantener el valor anterior): ");
-        String link = scanner.nextLine();
-        if (!link.isEmpty()) {
-          habilidad.setLink(link);
-        }
-
-        em.merge(habilidad);
-        transaction.commit();
+      if (!sesiones.leer(em -> em.find(Habilidad.class, id) != null)) {
+        System.out.println("No se encontró ninguna habilidad con la ID especificada.");
+        return;
+      }
+      System.out.println("Ingrese los nuevos valores para la habilidad con ID " + id + ":");
+      System.out.print("Nombre (dejar vacío para mantener el valor anterior): ");
+      String nombre = scanner.nextLine();
+      System.out.print("Pasiva (true/false) (dejar vacío para mantener el valor anterior): ");
+      String pasivaInput = scanner.nextLine();
+      System.out.print("Asignación de tecla (dejar vacío para mantener el valor anterior): ");
+      String asignacionDeTeclaInput = scanner.nextLine();
+      System.out.print("Descripción (dejar vacío para mantener el valor anterior): ");
+      String descripcion = scanner.nextLine();
+      System.out.print("Link (dejar vacío para mantener el valor anterior): ");
+      String link = scanner.nextLine();
+
+      if (modificarHabilidad(id, nombre, pasivaInput.isEmpty() ? null : Boolean.parseBoolean(pasivaInput),
+              asignacionDeTeclaInput.isEmpty() ? null : asignacionDeTeclaInput.charAt(0), descripcion, link)) {
         System.out.println("Registro modificado correctamente.");
       } else {
         System.out.println("No se encontró ninguna habilidad con la ID especificada.");
       }
     } catch (Exception e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
-      }
       System.out.println("Error al modificar la habilidad: " + e.getMessage());
-    } finally {
-      em.close();
     }
   }
 
+  /**
+   * Modifica los datos de una habilidad en una sola transacción.
+   * Los valores vacíos o {@code null} mantienen el valor anterior. El nombre es la clave primaria, así que
+   * cambiarlo guarda una habilidad nueva con los datos de la anterior y elimina la anterior.
+   *
+   * @param id                 El ID de la habilidad a modificar.
+   * @param nombre             El nuevo nombre.
+   * @param pasiva             Si la habilidad es pasiva.
+   * @param asignacionDeTecla  La nueva tecla asignada.
+   * @param descripcion        La nueva descripción.
+   * @param link               El nuevo enlace.
+   * @return {@code true} si la habilidad existía y se ha modificado.
+   * @throws IllegalArgumentException Si el nuevo nombre ya es el de otra habilidad.
+   */
+  public boolean modificarHabilidad(String id, String nombre, Boolean pasiva, Character asignacionDeTecla, String descripcion, String link) {
+    Habilidad habilidad = sesiones.escribir(em -> {
+      Habilidad encontrada = em.find(Habilidad.class, id);
+      if (encontrada != null) {
+        if (nombre != null && !nombre.isEmpty() && !nombre.equals(id)) {
+          if (em.find(Habilidad.class, nombre) != null) {
+            throw new IllegalArgumentException("Ya existe una habilidad con el nombre " + nombre);
+          }
+          Habilidad renombrada = new Habilidad(nombre, encontrada.isPasiva(), encontrada.getAsignacion_de_tecla(),
+                  encontrada.getDescripcion(), encontrada.getLink(), encontrada.getCampeon());
+          em.persist(renombrada);
+          em.remove(encontrada);
+          encontrada = renombrada;
+        }
+        if (pasiva != null) {
+          encontrada.setPasiva(pasiva);
+        }
+        if (asignacionDeTecla != null) {
+          encontrada.setAsignacion_de_tecla(asignacionDeTecla);
+        }
+        if (descripcion != null && !descripcion.isEmpty()) {
+          encontrada.setDescripcion(descripcion);
+        }
+        if (link != null && !link.isEmpty()) {
+          encontrada.setLink(link);
+        }
+      }
+      return encontrada;
+    });
+    if (habilidad == null) {
+      return false;
+    }
+    if (!habilidad.getNombre().equals(id)) {
+      listeners.forEach(l -> l.habilidadEliminada(id));
+    }
+    listeners.forEach(l -> l.habilidadGuardada(habilidad));
+    return true;
+  }
+
   /**
    * Elimina una habilidad de la base de datos por su ID.
    *
    * @param id El ID de la habilidad a eliminar.
    */
   public void eliminarHabilidadPorId(String id) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    EntityTransaction transaction = em.getTransaction();
     try {
-      transaction.begin();
-      Habilidad habilidad = em.find(Habilidad.class, id);
-      if (habilidad != null) {
+      boolean eliminada = sesiones.escribir(em -> {
+        Habilidad habilidad = em.find(Habilidad.class, id);
+        if (habilidad == null) {
+          return false;
+        }
         em.remove(habilidad);
-        transaction.commit();
+        return true;
+      });
+      if (eliminada) {
+        listeners.forEach(l -> l.habilidadEliminada(id));
         System.out.println("Registro eliminado correctamente.");
       } else {
         System.out.println("No se encontró ninguna habilidad con la ID especificada.");
       }
     } catch (Exception e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
-      }
       System.out.println("Error al eliminar la habilidad: " + e.getMessage());
-    } finally {
-      em.close();
     }
   }
 
   /**
    * Elimina habilidades de la base de datos que están asignadas a una tecla específica.
+   * El borrado se hace con sentencias sobre conjuntos de {@link BorradoEnGrafo}, sin cargar las habilidades.
    *
    * @param tecla La tecla a la que están asignadas las habilidades a eliminar.
    */
   public void eliminarHabilidadPorTecla(char tecla) {
-    EntityManager em = entityManagerFactory.createEntityManager();
-    EntityTransaction transaction = em.getTransaction();
     try {
-      transaction.begin();
-      String queryStr = "SELECT h FROM Habilidad h WHERE h.asignacion_de_tecla = :tecla";
-      Query query = em.createQuery(queryStr);
-      query.setParameter("tecla", tecla);
-      List<Habilidad> habilidades = query.getResultList();
-
-      if (!habilidades.isEmpty()) {
-        for (Habilidad habilidad : habilidades) {
-          em.remove(habilidad);
-        }
-        transaction.commit();
-        System.out.println("Registros eliminados correctamente.");
+      int eliminadas = borrado.eliminarDonde(Habilidad.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES,
+              "asignacion_de_tecla = ?", String.valueOf(tecla)).getOrDefault("habilidad", 0);
+      if (eliminadas > 0) {
+        System.out.println("Registros eliminados correctamente: " + eliminadas);
       } else {
         System.out.println("No se encontraron habilidades con la tecla especificada.");
       }
     } catch (Exception e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
-      }
       System.out.println("Error al eliminar las habilidades: " + e.getMessage());
-    } finally {
-      em.close();
     }
   }
 }
@@ -0,0 +1,102 @@
+package controller;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del pool de conexiones HikariCP.
+ * HikariCP crea una instancia de esta clase a partir de la propiedad
+ * {@code hibernate.hikari.metricsTrackerFactory} del fichero {@code persistence.xml}, así que las
+ * métricas de cada pool se guardan por nombre en un registro estático y se consultan con {@link #describir()}.
+ * Además del estado del pool (conexiones activas, libres y peticiones en espera), se acumula el tiempo
+ * que se tarda en obtener una conexión y cuánto tiempo la retienen los controladores.
+ */
+public class MetricasPool implements MetricsTrackerFactory {
+
+    private static final Map<String, Registro> REGISTROS = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String nombrePool, PoolStats estado) {
+        Registro registro = new Registro(nombrePool, estado);
+        REGISTROS.put(nombrePool, registro);
+        return registro;
+    }
+
+    /**
+     * Obtiene el estado y las métricas acumuladas de todos los pools creados.
+     *
+     * @return Una cadena con una línea por pool, o un aviso si no se ha creado ningún pool.
+     */
+    public static String describir() {
+        if (REGISTROS.isEmpty()) {
+            return "No hay ningún pool de conexiones con métricas.";
+        }
+        StringBuilder result = new StringBuilder();
+        REGISTROS.forEach((nombre, registro) -> result.append(nombre).append(": ").append(registro).append("\n"));
+        return result.toString();
+    }
+
+    /**
+     * Métricas de un pool. HikariCP llama a estos métodos desde los hilos que piden y devuelven conexiones.
+     */
+    private static final class Registro implements IMetricsTracker {
+        private final String nombrePool;
+        private final PoolStats estado;
+        private final LongAdder obtenidas = new LongAdder();
+        private final LongAdder nanosEspera = new LongAdder();
+        private final LongAccumulator maxNanosEspera = new LongAccumulator(Math::max, 0);
+        private final LongAdder milisUso = new LongAdder();
+        private final LongAccumulator maxMilisUso = new LongAccumulator(Math::max, 0);
+        private final LongAdder agotadas = new LongAdder();
+
+        Registro(String nombrePool, PoolStats estado) {
+            this.nombrePool = nombrePool;
+            this.estado = estado;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long nanos) {
+            obtenidas.increment();
+            nanosEspera.add(nanos);
+            maxNanosEspera.accumulate(nanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long milis) {
+            milisUso.add(milis);
+            maxMilisUso.accumulate(milis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            agotadas.increment();
+        }
+
+        @Override
+        public void close() {
+            REGISTROS.remove(nombrePool, this);
+        }
+
+        @Override
+        public String toString() {
+            long total = obtenidas.sum();
+            return "activas=" + estado.getActiveConnections()
+                    + ", libres=" + estado.getIdleConnections()
+                    + ", total=" + estado.getTotalConnections() + "/" + estado.getMaxConnections()
+                    + ", en espera=" + estado.getPendingThreads()
+                    + ", obtenidas=" + total
+                    + ", espera media=" + (total == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanosEspera.sum() / total)) + " µs"
+                    + ", espera máxima=" + TimeUnit.NANOSECONDS.toMicros(maxNanosEspera.get()) + " µs"
+                    + ", uso medio=" + (total == 0 ? 0 : milisUso.sum() / total) + " ms"
+                    + ", uso máximo=" + maxMilisUso.get() + " ms"
+                    + ", tiempos agotados=" + agotadas.sum();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package controller;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+import javax.sql.DataSource;
+
+/**
+ * Migraciones versionadas del esquema de la base de datos.
+ * Los scripts están en {@value #UBICACION} y se nombran {@code V<versión>__<descripción>.sql}; al arrancar
+ * solo se ejecutan los que aún no constan en la tabla de historial, así que sobre una base de datos al día
+ * el coste es una única consulta. Hibernate se limita después a validar que el mapeo coincide con el esquema.
+ * Una base de datos creada antes de las migraciones (con tablas pero sin historial) se toma como versión 1.
+ */
+public final class Migraciones {
+
+    /** Ubicación de los scripts de migración en el classpath. */
+    public static final String UBICACION = "classpath:db/migration";
+
+    private Migraciones() { }
+
+    /**
+     * Aplica las migraciones pendientes.
+     *
+     * @param dataSource La base de datos a migrar.
+     * @return El número de migraciones ejecutadas.
+     */
+    public static int aplicar(DataSource dataSource) {
+        MigrateResult resultado = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(UBICACION)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+        return resultado.migrationsExecuted;
+    }
+}
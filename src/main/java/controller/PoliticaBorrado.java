@@ -0,0 +1,22 @@
+package controller;
+
+/**
+ * Qué hacer con las filas que dependen de una entidad al eliminarla.
+ */
+public enum PoliticaBorrado {
+
+    /**
+     * Solo se eliminan las filas de las tablas de relación (pertenencias a regiones)
+     * y se desvinculan las entidades hijas poniendo a {@code NULL} su clave ajena.
+     * No se elimina ninguna otra entidad.
+     */
+    DESVINCULAR,
+
+    /**
+     * Además de eliminar las pertenencias, se eliminan las entidades que cuelgan de la borrada
+     * por una asociación con borrado en cascada de la que es propietaria
+     * (las habilidades de un campeón, los campeones de una región).
+     * Nunca se sigue una asociación inversa, por lo que borrar un campeón no borra sus regiones.
+     */
+    ELIMINAR_DEPENDIENTES
+}
@@ -0,0 +1,37 @@
+package controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Receptores de los cambios del catálogo agrupados por tipo de entidad.
+ * Los controladores que comparten un registro dejan cada receptor en la lista de su entidad, y
+ * {@link BorradoEnGrafo} avisa de cada entidad eliminada, también de las eliminadas en cascada, a los
+ * receptores de su tipo, sea cual sea el controlador que empezó el borrado.
+ */
+public class ReceptoresCatalogo {
+
+    private final Map<Class<?>, List<CatalogoListener>> porEntidad = new ConcurrentHashMap<>();
+
+    /**
+     * Registra un receptor de los cambios de un tipo de entidad.
+     *
+     * @param entidad  La clase de la entidad.
+     * @param listener El receptor a registrar.
+     */
+    public void addCatalogoListener(Class<?> entidad, CatalogoListener listener) {
+        de(entidad).add(listener);
+    }
+
+    /**
+     * Obtiene los receptores de un tipo de entidad, en el orden en que se registraron.
+     *
+     * @param entidad La clase de la entidad.
+     * @return La lista de receptores, que se puede recorrer mientras se registran otros.
+     */
+    public List<CatalogoListener> de(Class<?> entidad) {
+        return porEntidad.computeIfAbsent(entidad, clase -> new CopyOnWriteArrayList<>());
+    }
+}
@@ -1,5 +1,7 @@
 package controller;
 
+import index.IndicePertenencias;
+import instantanea.Instantanea;
 import model.*;
 
 import java.io.BufferedReader;
@@ -7,19 +9,27 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import javax.persistence.*;
 
-import org.apache.commons.lang3.StringUtils;
-
 /**
  * Controlador para la gestión de regiones en la base de datos.
  */
 public class RegionController {
 
-    private int idCounter = 1;
+    private static final String SIN_INDICE = "El índice de pertenencias entre regiones y campeones no está disponible.";
+
+    private final AtomicInteger idCounter = new AtomicInteger(1);
     private EntityManagerFactory entityManagerFactory;
+    private Sesiones sesiones;
+    private BorradoEnGrafo borrado;
+    private ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+    private List<CatalogoListener> listeners = receptores.de(Region.class);
+    private volatile Instantanea instantanea;
+    private volatile IndicePertenencias indicePertenencias;
+    private ResumenRegiones resumenRegiones;
 
     /**
      * Constructor vacío de la clase RegionController.
@@ -28,11 +38,85 @@ public class RegionController {
 
     /**
      * Constructor que inicializa el controlador con una {@code EntityManagerFactory}.
+     * Cada operación abre su propio entity manager, así que el controlador puede usarse desde varios hilos.
      *
      * @param entityManagerFactory La fábrica de entity manager a utilizar.
      */
     public RegionController(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, new ReceptoresCatalogo());
+    }
+
+    /**
+     * Constructor que además recibe el registro de receptores compartido con los demás controladores, al que
+     * se avisa también de los campeones y habilidades eliminados en cascada con una región.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     * @param receptores           El registro de receptores compartido.
+     */
+    public RegionController(EntityManagerFactory entityManagerFactory, ReceptoresCatalogo receptores) {
         this.entityManagerFactory = entityManagerFactory;
+        this.sesiones = new Sesiones(entityManagerFactory);
+        this.receptores = receptores;
+        this.listeners = receptores.de(Region.class);
+        this.borrado = new BorradoEnGrafo(entityManagerFactory, receptores);
+        this.resumenRegiones = new ResumenRegiones(entityManagerFactory);
+        listeners.add(resumenRegiones);
+    }
+
+    /**
+     * Registra un receptor que será notificado de los cambios de regiones.
+     *
+     * @param listener El receptor a registrar.
+     */
+    public void addCatalogoListener(CatalogoListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sirve las consultas ({@code listar*}, {@code buscar*} y {@code obtener*}) desde una instantánea
+     * del catálogo en lugar de la base de datos, para el modo sin conexión.
+     *
+     * @param instantanea La instantánea a consultar, o {@code null} para volver a usar la base de datos.
+     */
+    public void usarInstantanea(Instantanea instantanea) {
+        this.instantanea = instantanea;
+    }
+
+    /**
+     * Resuelve las consultas de pertenencia entre regiones y campeones ({@code buscarCampeonesDe*},
+     * {@code buscarRegionesDeCampeones}) en un índice de mapas de bits en memoria.
+     * El índice se tiene que registrar también como receptor de este controlador y del de campeones.
+     *
+     * @param indicePertenencias El índice a consultar.
+     */
+    public void usarIndicePertenencias(IndicePertenencias indicePertenencias) {
+        this.indicePertenencias = indicePertenencias;
+        if (resumenRegiones != null) {
+            resumenRegiones.usarIndicePertenencias(indicePertenencias);
+        }
+    }
+
+    /**
+     * Vuelve a cargar el índice de pertenencias, de la instantánea en el modo sin conexión o de la base de
+     * datos con tres consultas de proyección, sin crear entidades. Solo es necesario al arrancar; después se mantiene al día como receptor.
+     */
+    public void reconstruirIndicePertenencias() {
+        IndicePertenencias indice = indicePertenencias;
+        if (indice == null) {
+            return;
+        }
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            indice.cargar(copia.idsCampeones(), copia.idsRegiones(), copia.pertenencias());
+            return;
+        }
+        sesiones.recorrer(session -> {
+            indice.cargar(session.createQuery("SELECT c.id_campeon FROM Campeon c", Integer.class).getResultList(),
+                    session.createQuery("SELECT r.id_region FROM Region r", Integer.class).getResultList(),
+                    session.createQuery("SELECT r.id_region, c.id_campeon FROM Region r JOIN r.campeones c", Object[].class)
+                            .getResultList());
+            return null;
+        });
     }
 
     /**
@@ -41,77 +125,122 @@ public class RegionController {
      * @return Una cadena que representa la lista de regiones.
      */
     public String listarRegiones() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            Query query = em.createQuery("SELECT r FROM Region r");
-            List<Region> regiones = query.getResultList();
-            em.getTransaction().commit();
-
-            // Determinar la longitud máxima para cada columna
-            int maxLengthId = 0;
-            int maxLengthNombre = 0;
-            int maxLengthDescripcion = 0;
-            int maxLengthHistorias = 0;
-            for (Region region : regiones) {
-                maxLengthId = Math.max(maxLengthId, String.valueOf(region.getId_region()).length());
-                maxLengthNombre = Math.max(maxLengthNombre, region.getNombre_region().length());
-                maxLengthDescripcion = Math.max(maxLengthDescripcion, region.getDescripcion().length());
-                maxLengthHistorias = Math.max(maxLengthHistorias, String.valueOf(region.getHistorias_relacionadas()).length());
-            }
+        return listarRegiones(0, Integer.MAX_VALUE);
+    }
 
-            // Construir la salida como una tabla formateada
-            StringBuilder builder = new StringBuilder();
-            builder.append(StringUtils.rightPad("ID", maxLengthId)).append(" | ");
-            builder.append(StringUtils.rightPad("Nombre", maxLengthNombre)).append(" | ");
-            builder.append(StringUtils.rightPad("Descripción", maxLengthDescripcion)).append(" | ");
-            builder.append(StringUtils.rightPad("Historias", maxLengthHistorias)).append(" | ");
-            builder.append("Campeones").append("\n");
-
-            for (Region region : regiones) {
-                builder.append(StringUtils.rightPad(String.valueOf(region.getId_region()), maxLengthId)).append(" | ");
-                builder.append(StringUtils.rightPad(region.getNombre_region(), maxLengthNombre)).append(" | ");
-                builder.append(StringUtils.rightPad(region.getDescripcion(), maxLengthDescripcion)).append(" | ");
-                builder.append(StringUtils.rightPad(String.valueOf(region.getHistorias_relacionadas()), maxLengthHistorias)).append(" | ");
-                // Añadir campeones
-                String campeones = region.getCampeones().stream().map(Campeon::getNombre).collect(Collectors.joining(", "));
-                builder.append(campeones).append("\n");
-            }
+    /**
+     * Obtiene una página del listado de regiones, ordenado por ID. Las filas se leen ya calculadas de la
+     * tabla {@code resumen_region} recorriendo su clave primaria, sin cargar los campeones de cada región.
+     * Para pedir la página siguiente se pasa como {@code desdeId} el último ID mostrado más uno.
+     *
+     * @param desdeId El ID a partir del cual se listan las regiones, incluido.
+     * @param limite  El número máximo de regiones a listar.
+     * @return Una cadena que representa la página de regiones.
+     */
+    public String listarRegiones(int desdeId, int limite) {
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return formatearListado(copia.regiones().stream()
+                    .filter(region -> region.getId_region() >= desdeId)
+                    .sorted(Comparator.comparingInt(Region::getId_region))
+                    .limit(limite)
+                    .map(RegionController::resumir)
+                    .collect(Collectors.toList()));
+        }
+        if (resumenRegiones != null) {
+            resumenRegiones.aplicarPendientes();
+        }
+        return sesiones.leer(em -> formatearListado(em.createNamedQuery(ResumenRegion.LISTADO, ResumenRegion.class)
+                .setParameter("desde", desdeId)
+                .setMaxResults(limite)
+                .getResultList()));
+    }
 
-            return builder.toString();
-        } finally {
-            em.close();
+    /**
+     * Obtiene el resumen precalculado del que lee {@link #listarRegiones()}. Este controlador ya lo tiene
+     * registrado como receptor; se tiene que registrar también en el de campeones, antes que el índice de
+     * pertenencias. No se registra en el bus de invalidación: la tabla la refresca la instancia que hace el cambio.
+     *
+     * @return El resumen de regiones, o {@code null} si el controlador no tiene base de datos.
+     */
+    public ResumenRegiones getResumenRegiones() {
+        return resumenRegiones;
+    }
+
+    /**
+     * Aplica los refrescos pendientes del resumen de regiones y detiene su hilo. Se llama antes de cerrar la
+     * fábrica de entity manager.
+     */
+    public void cerrar() {
+        if (resumenRegiones != null) {
+            resumenRegiones.cerrar();
         }
     }
 
+    /**
+     * Calcula la fila del listado de una región de la instantánea, igual que la tabla {@code resumen_region}.
+     */
+    private static ResumenRegion resumir(Region region) {
+        String nombres = region.getCampeones().stream().map(Campeon::getNombre).sorted().collect(Collectors.joining(", "));
+        return new ResumenRegion(region.getId_region(), region.getNombre_region(), region.getHistorias_relacionadas(),
+                region.getCampeones().size(), nombres.isEmpty() ? null : nombres);
+    }
+
+    /**
+     * Construye el listado de regiones con columnas de ancho fijo, así que se escribe en una sola pasada.
+     *
+     * @param regiones Las filas a listar.
+     * @return Una cadena que representa la lista de regiones.
+     */
+    private String formatearListado(List<ResumenRegion> regiones) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-4s | %-20s | %9s | %9s | %s%n", "ID", "Nombre", "Historias", "Campeones", "Nombres"));
+        for (ResumenRegion region : regiones) {
+            builder.append(String.format("%-4d | %-20s | %9d | %9d | %s%n", region.getId_region(), region.getNombre_region(),
+                    region.getHistorias_relacionadas(), region.getNumero_campeones(),
+                    region.getNombres_campeones() == null ? "" : region.getNombres_campeones()));
+        }
+        return builder.toString();
+    }
+
     /**
      * Lee datos de regiones desde un archivo CSV y los agrega a la base de datos.
      *
      * @param filePath La ruta del archivo CSV que contiene los datos de las regiones.
      */
     public void readRegionFromFile(String filePath) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        em.getTransaction().begin();
-
-        File csvFile = new File(filePath);
-
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
+        List<String> lineas = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(filePath)))) {
             br.readLine(); // Saltar la primera línea (encabezados)
-
             String line;
+            while ((line = br.readLine()) != null) {
+                lineas.add(line);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        // El fichero ya está leído: la transacción solo dura lo que tardan las inserciones
+        List<Region> importadas = sesiones.escribir(em -> {
+            // Los datos se conservan entre ejecuciones, así que las IDs nuevas siguen a la mayor existente
+            Integer maximo = em.createQuery("SELECT MAX(r.id_region) FROM Region r", Integer.class).getSingleResult();
+            idCounter.accumulateAndGet(maximo == null ? 1 : maximo + 1, Math::max);
+            List<Region> nuevas = new ArrayList<>();
             String cvsSplitBy = ",";
 
-            while ((line = br.readLine()) != null) {
+            for (String line : lineas) {
                 String[] data = line.split(cvsSplitBy);
 
-                System.out.println("Id " + idCounter);
+                int id = idCounter.getAndIncrement();
+                System.out.println("Id " + id);
                 System.out.println("Nombre: " + data[0]);
                 System.out.println("Descripción: " + data[1]);
                 System.out.println("Historias relacionadas: " + data[2]);
 
                 // Crear un objeto Región y asignar los valores desde el CSV
                 Region region = new Region();
-                region.setId_region(idCounter++);
+                region.setId_region(id);
                 region.setNombre_region(data[0]);
                 region.setDescripcion(data[1]);
                 region.setHistorias_relacionadas(Integer.parseInt(data[2]));
@@ -133,100 +262,64 @@ public class RegionController {
 
                 // Persistir la región en la base de datos
                 em.persist(region);
+                nuevas.add(region);
             }
-
-            // Commit de la transacción después de procesar todas las líneas del archivo
-            em.getTransaction().commit();
-        } catch (IOException e) {
-            e.printStackTrace();
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
+            return nuevas;
+        });
+        for (Region region : importadas) {
+            listeners.forEach(l -> l.regionGuardada(region));
         }
     }
 
     /**
-     * Elimina la tabla de regiones y la tabla intermedia de relación entre regiones y campeones de la base de datos.
+     * Elimina todas las regiones de la base de datos y sus pertenencias; los campeones se conservan.
+     * El esquema no se toca: lo mantienen las {@link Migraciones}.
      */
-    public void eliminarTablaRegion() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
+    public void vaciarTablaRegion() {
         try {
-            transaction.begin();
-            // Eliminar la tabla intermedia "region_campeon"
-            em.createNativeQuery("DROP TABLE IF EXISTS region_campeon").executeUpdate();
-            // Eliminar la tabla "region"
-            em.createNativeQuery("DROP TABLE IF EXISTS region").executeUpdate();
-            transaction.commit();
-            System.out.println("Tablas 'region' y 'region_campeon' eliminadas correctamente.");
-        } catch (PersistenceException e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
-            System.out.println("Error al eliminar las tablas: " + e.getMessage());
-        } finally {
-            em.close();
+            Map<String, Integer> filas = borrado.eliminarDonde(Region.class, PoliticaBorrado.DESVINCULAR, "1 = 1");
+            System.out.println("Regiones eliminadas correctamente. Filas eliminadas: " + filas);
+        } catch (Exception e) {
+            System.out.println("Error al vaciar la tabla 'region': " + e.getMessage());
         }
     }
 
     /**
-     * Crea la tabla de regiones y la tabla intermedia de relación entre regiones y campeones en la base de datos.
+     * Busca regiones cuyo nombre o descripción contengan el texto especificado.
+     * Devuelve como mucho {@link Sesiones#LIMITE_POR_DEFECTO} resultados.
+     *
+     * @param texto El texto a buscar en los nombres y descripciones de las regiones.
+     * @return Una cadena que representa las regiones encontradas.
      */
-    public void crearTablaRegion() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
-        try {
-            transaction.begin();
-            // Crear la tabla "region"
-            em.createNativeQuery("CREATE TABLE IF NOT EXISTS region (id_region INT PRIMARY KEY, nombre_region VARCHAR(255), descripcion_region TEXT, historias_relacionadas INT)").executeUpdate();
-            // Crear la tabla intermedia "region_campeon"
-            em.createNativeQuery("CREATE TABLE IF NOT EXISTS region_campeon (id_region INT, id_campeon INT, PRIMARY KEY (id_region, id_campeon), FOREIGN KEY (id_region) REFERENCES region(id_region), FOREIGN KEY (id_campeon) REFERENCES campeon(id_campeon))").executeUpdate();
-            transaction.commit();
-            System.out.println("Tablas 'region' y 'region_campeon' creadas correctamente.");
-        } catch (PersistenceException e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
-            System.out.println("Error al crear las tablas: " + e.getMessage());
-        } finally {
-            em.close();
-        }
+    public String buscarRegionPorTexto(String texto) {
+        return buscarRegionPorTexto(texto, Sesiones.LIMITE_POR_DEFECTO);
     }
 
     /**
-     * Busca regiones cuya descripción contenga el texto especificado.
+     * Busca regiones cuyo nombre o descripción contengan el texto especificado.
+     * Los resultados se ordenan en la base de datos: primero las regiones cuyo nombre coincide
+     * exactamente, después aquellas cuyo nombre empieza por el texto y por último el resto,
+     * y dentro de cada grupo por número de historias relacionadas. Solo se leen los {@code limite} primeros.
      *
-     * @param texto El texto a buscar en las descripciones de las regiones.
+     * @param texto  El texto a buscar en los nombres y descripciones de las regiones.
+     * @param limite El número máximo de regiones a devolver.
      * @return Una cadena que representa las regiones encontradas.
      */
-    public String buscarRegionPorTexto(String texto) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            String queryStr = "SELECT r FROM Region r WHERE r.descripcion LIKE :texto";
-            Query query = em.createQuery(queryStr);
+    public String buscarRegionPorTexto(String texto, int limite) {
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return formatearRegiones(copia.buscarRegiones(texto, limite));
+        }
+        return sesiones.leer(em -> {
+            TypedQuery<Region> query = em.createNamedQuery(Region.POR_TEXTO, Region.class);
             query.setParameter("texto", "%" + texto + "%");
+            query.setParameter("exacto", texto);
+            query.setParameter("prefijo", texto + "%");
+            query.setMaxResults(limite);
+            query.setHint(CampeonController.FETCH_GRAPH, em.getEntityGraph(Region.GRAFO_LISTADO));
             List<Region> regiones = query.getResultList();
-            em.getTransaction().commit();
-
-            StringBuilder result = new StringBuilder();
-            result.append("| ID | Nombre        | Descripción             | Historias |\n");
-            result.append("|----|---------------|-------------------------|-----------|\n");
-            for (Region region : regiones) {
-                result.append("| ")
-                        .append(region.getId_region())
-                        .append(" | ")
-                        .append(padRight(region.getNombre_region(), 13))
-                        .append(" | ")
-                        .append(padRight(region.getDescripcion(), 23))
-                        .append(" | ")
-                        .append(region.getHistorias_relacionadas())
-                        .append(" |\n");
-            }
-            return result.toString();
-        } finally {
-            em.close();
-        }
+            return formatearRegiones(regiones);
+        });
     }
 
     /**
@@ -236,33 +329,17 @@ public class RegionController {
      * @return Una cadena que representa las regiones encontradas.
      */
     public String buscarRegionesPorHistorias(int cantidadHistorias) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            String queryStr = "SELECT r FROM Region r WHERE r.historias_relacionadas > :cantidadHistorias";
-            Query query = em.createQuery(queryStr);
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return formatearRegiones(copia.regionesConMasHistorias(cantidadHistorias));
+        }
+        return sesiones.leer(em -> {
+            TypedQuery<Region> query = em.createNamedQuery(Region.CON_MAS_HISTORIAS_QUE, Region.class);
             query.setParameter("cantidadHistorias", cantidadHistorias);
+            query.setHint(CampeonController.FETCH_GRAPH, em.getEntityGraph(Region.GRAFO_LISTADO));
             List<Region> regiones = query.getResultList();
-            em.getTransaction().commit();
-
-            StringBuilder result = new StringBuilder();
-            result.append("| ID | Nombre        | Descripción             | Historias |\n");
-            result.append("|----|---------------|-------------------------|-----------|\n");
-            for (Region region : regiones) {
-                result.append("| ")
-                        .append(region.getId_region())
-                        .append(" | ")
-                        .append(padRight(region.getNombre_region(), 13))
-                        .append(" | ")
-                        .append(padRight(region.getDescripcion(), 23))
-                        .append(" | ")
-                        .append(region.getHistorias_relacionadas())
-                        .append(" |\n");
-            }
-            return result.toString();
-        } finally {
-            em.close();
-        }
+            return formatearRegiones(regiones);
+        });
     }
 
     /**
@@ -272,31 +349,165 @@ public class RegionController {
      * @return Una cadena que representa la información de la región encontrada.
      */
     public String obtenerRegionPorId(int id) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            em.getTransaction().begin();
-            Region region = em.find(Region.class, id);
-            em.getTransaction().commit();
-            StringBuilder result = new StringBuilder();
-            if (region != null) {
-                result.append("| ID | Nombre        | Descripción             | Historias |\n");
-                result.append("|----|---------------|-------------------------|-----------|\n");
-                result.append("| ")
-                        .append(region.getId_region())
-                        .append(" | ")
-                        .append(padRight(region.getNombre_region(), 13))
-                        .append(" | ")
-                        .append(padRight(region.getDescripcion(), 23))
-                        .append(" | ")
-                        .append(region.getHistorias_relacionadas())
-                        .append(" |\n");
-            } else {
-                result.append("No se encontró ninguna región con el ID: ").append(id);
-            }
-            return result.toString();
-        } finally {
-            em.close();
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return formatearRegion(copia.region(id), id);
+        }
+        return sesiones.leer(em -> {
+            Region region = em.find(Region.class, id,
+                    Collections.singletonMap(CampeonController.FETCH_GRAPH, em.getEntityGraph(Region.GRAFO_LISTADO)));
+            return formatearRegion(region, id);
+        });
+    }
+
+    /**
+     * Busca los campeones que pertenecen a la vez a todas las regiones indicadas,
+     * por ejemplo los compartidos por Demacia y Noxus.
+     *
+     * @param regiones Los IDs de las regiones.
+     * @return Una cadena que representa los campeones encontrados.
+     */
+    public String buscarCampeonesDeTodasLasRegiones(Collection<Integer> regiones) {
+        IndicePertenencias indice = indicePertenencias;
+        return indice == null ? SIN_INDICE : formatearCampeones(indice.campeonesDeTodas(regiones));
+    }
+
+    /**
+     * Busca los campeones que pertenecen a alguna de las regiones indicadas.
+     *
+     * @param regiones Los IDs de las regiones.
+     * @return Una cadena que representa los campeones encontrados.
+     */
+    public String buscarCampeonesDeAlgunaRegion(Collection<Integer> regiones) {
+        IndicePertenencias indice = indicePertenencias;
+        return indice == null ? SIN_INDICE : formatearCampeones(indice.campeonesDeAlguna(regiones));
+    }
+
+    /**
+     * Busca los campeones que no pertenecen a ninguna de las regiones indicadas,
+     * incluidos los que no tienen región.
+     *
+     * @param regiones Los IDs de las regiones.
+     * @return Una cadena que representa los campeones encontrados.
+     */
+    public String buscarCampeonesFueraDeRegiones(Collection<Integer> regiones) {
+        IndicePertenencias indice = indicePertenencias;
+        return indice == null ? SIN_INDICE : formatearCampeones(indice.campeonesDeNinguna(regiones));
+    }
+
+    /**
+     * Busca los campeones que pertenecen a alguna de las regiones incluidas pero a ninguna de las excluidas.
+     *
+     * @param incluidas Los IDs de las regiones cuyos campeones se buscan.
+     * @param excluidas Los IDs de las regiones cuyos campeones se descartan.
+     * @return Una cadena que representa los campeones encontrados.
+     */
+    public String buscarCampeonesDeRegionesSinLasDe(Collection<Integer> incluidas, Collection<Integer> excluidas) {
+        IndicePertenencias indice = indicePertenencias;
+        return indice == null ? SIN_INDICE : formatearCampeones(indice.campeonesDeAlgunaSinLasDe(incluidas, excluidas));
+    }
+
+    /**
+     * Busca las regiones a las que pertenece alguno de los campeones indicados.
+     *
+     * @param campeones Los IDs de los campeones.
+     * @return Una cadena que representa las regiones encontradas.
+     */
+    public String buscarRegionesDeCampeones(Collection<Integer> campeones) {
+        IndicePertenencias indice = indicePertenencias;
+        if (indice == null) {
+            return SIN_INDICE;
+        }
+        List<Integer> ids = indice.regionesDeAlguno(campeones).stream().boxed().collect(Collectors.toList());
+        return formatearRegiones(obtenerRegionesPorIds(ids)) + ids.size() + " regiones\n";
+    }
+
+    /**
+     * Construye la tabla con los primeros campeones de un conjunto de IDs, cargándolos por lotes,
+     * seguida del número total de campeones del conjunto.
+     *
+     * @param ids Los IDs de los campeones.
+     * @return Una cadena con la tabla y el total.
+     */
+    private String formatearCampeones(BitSet ids) {
+        List<Integer> mostrados = ids.stream().limit(Sesiones.LIMITE_POR_DEFECTO).boxed().collect(Collectors.toList());
+        Instantanea copia = instantanea;
+        List<Campeon> campeones = copia != null ? copia.campeones(mostrados)
+                : sesiones.leer(em -> CargaPorLotes.cargar(em, Campeon.class, "id_campeon", mostrados));
+
+        StringBuilder result = new StringBuilder();
+        result.append("| ID | Nombre                | Apodo                          |\n");
+        result.append("|----|-----------------------|--------------------------------|\n");
+        for (Campeon campeon : campeones) {
+            result.append("| ")
+                    .append(campeon.getId_campeon())
+                    .append(" | ")
+                    .append(padRight(campeon.getNombre(), 21))
+                    .append(" | ")
+                    .append(padRight(campeon.getApodo(), 30))
+                    .append(" |\n");
+        }
+        result.append(ids.cardinality()).append(" campeones");
+        if (ids.cardinality() > mostrados.size()) {
+            result.append(" (se muestran los ").append(mostrados.size()).append(" primeros)");
+        }
+        return result.append('\n').toString();
+    }
+
+    /**
+     * Construye la tabla de una sola fila con los datos de una región.
+     *
+     * @param region La región a representar, o {@code null} si no existe.
+     * @param id     El ID buscado, para el mensaje si no existe.
+     * @return Una cadena con la cabecera y la fila de la región.
+     */
+    private String formatearRegion(Region region, int id) {
+        if (region == null) {
+            return "No se encontró ninguna región con el ID: " + id;
+        }
+        return formatearRegiones(Collections.singletonList(region));
+    }
+
+    /**
+     * Construye la tabla con los datos de varias regiones.
+     *
+     * @param regiones Las regiones a representar.
+     * @return Una cadena con la cabecera y una fila por región.
+     */
+    private String formatearRegiones(List<Region> regiones) {
+        StringBuilder result = new StringBuilder();
+        result.append("| ID | Nombre        | Descripción             | Historias |\n");
+        result.append("|----|---------------|-------------------------|-----------|\n");
+        for (Region region : regiones) {
+            result.append("| ")
+                    .append(region.getId_region())
+                    .append(" | ")
+                    .append(padRight(region.getNombre_region(), 13))
+                    .append(" | ")
+                    .append(padRight(region.getDescripcion(), 23))
+                    .append(" | ")
+                    .append(region.getHistorias_relacionadas())
+                    .append(" |\n");
         }
+        return result.toString();
+    }
+
+    /**
+     * Obtiene varias regiones a partir de sus IDs con consultas {@code IN} por lotes,
+     * en lugar de una consulta y una transacción por región.
+     *
+     * @param ids Los IDs de las regiones a obtener.
+     * @return Las regiones encontradas, en el mismo orden que los IDs; los IDs inexistentes se omiten.
+     */
+    public List<Region> obtenerRegionesPorIds(Collection<Integer> ids) {
+        Instantanea copia = instantanea;
+        if (copia != null) {
+            return copia.regiones(ids);
+        }
+        return sesiones.leer(em -> {
+            List<Region> regiones = CargaPorLotes.cargar(em, Region.class, "id_region", ids);
+            return regiones;
+        });
     }
 
     /**
@@ -318,83 +529,97 @@ public class RegionController {
     }
 
     /**
-     * Modifica la información de una región por su ID.
+     * Modifica la información de una región por su ID, pidiendo los nuevos valores por la entrada estándar.
+     * Los valores se leen antes de abrir la transacción, así que no se retiene ninguna conexión mientras se espera al usuario.
      *
      * @param id El ID de la región a modificar.
      */
     public void modificarRegionPorId(int id) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
         Scanner scanner = new Scanner(System.in);
         try {
-            transaction.begin();
-            Region region = em.find(Region.class, id);
-            if (region != null) {
-                System.out.println("Ingrese los nuevos valores para la región con ID " + id + ":");
-
-                // Modificar el nombre
-                System.out.print("Nombre (dejar vacío para mantener el valor anterior): ");
-                String nombre = scanner.nextLine();
-                if (!nombre.isEmpty()) {
-                    region.setNombre_region(nombre);
-                }
-
-                // Modificar la descripción
-                System.out.print("Descripción (dejar vacío para mantener el valor anterior): ");
-                String descripcion = scanner.nextLine();
-                if (!descripcion.isEmpty()) {
-                    region.setDescripcion(descripcion);
-                }
-
-                // Modificar el número de historias relacionadas
-                System.out.print("Número de historias relacionadas (dejar vacío para mantener el valor anterior): ");
-                String historiasInput = scanner.nextLine();
-                if (!historiasInput.isEmpty()) {
-                    int historias = Integer.parseInt(historiasInput);
-                    region.setHistorias_relacionadas(historias);
-                }
-
-                em.merge(region);
-                transaction.commit();
+            if (!sesiones.leer(em -> em.find(Region.class, id) != null)) {
+                System.out.println("No se encontró ninguna región con la ID especificada.");
+                return;
+            }
+            System.out.println("Ingrese los nuevos valores para la región con ID " + id + ":");
+            System.out.print("Nombre (dejar vacío para mantener el valor anterior): ");
+            String nombre = scanner.nextLine();
+            System.out.print("Descripción (dejar vacío para mantener el valor anterior): ");
+            String descripcion = scanner.nextLine();
+            System.out.print("Número de historias relacionadas (dejar vacío para mantener el valor anterior): ");
+            String historiasInput = scanner.nextLine();
+            Integer historias = historiasInput.isEmpty() ? null : Integer.parseInt(historiasInput);
+
+            if (modificarRegion(id, nombre, descripcion, historias)) {
                 System.out.println("Registro modificado correctamente.");
             } else {
                 System.out.println("No se encontró ninguna región con la ID especificada.");
             }
         } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
             System.out.println("Error al modificar la región: " + e.getMessage());
-        } finally {
-            em.close();
         }
     }
 
+    /**
+     * Modifica el nombre, la descripción y las historias relacionadas de una región en una sola transacción.
+     * Los valores vacíos o {@code null} mantienen el valor anterior.
+     *
+     * @param id          El ID de la región a modificar.
+     * @param nombre      El nuevo nombre.
+     * @param descripcion La nueva descripción.
+     * @param historias   El nuevo número de historias relacionadas.
+     * @return {@code true} si la región existía y se ha modificado.
+     */
+    public boolean modificarRegion(int id, String nombre, String descripcion, Integer historias) {
+        Region region = sesiones.escribir(em -> {
+            Region encontrada = em.find(Region.class, id);
+            if (encontrada != null) {
+                if (nombre != null && !nombre.isEmpty()) {
+                    encontrada.setNombre_region(nombre);
+                }
+                if (descripcion != null && !descripcion.isEmpty()) {
+                    encontrada.setDescripcion(descripcion);
+                }
+                if (historias != null) {
+                    encontrada.setHistorias_relacionadas(historias);
+                }
+            }
+            return encontrada;
+        });
+        if (region == null) {
+            return false;
+        }
+        listeners.forEach(l -> l.regionGuardada(region));
+        return true;
+    }
+
     /**
      * Elimina una región de la base de datos por su ID.
+     * Solo se eliminan sus pertenencias; los campeones de la región se conservan.
      *
      * @param id El ID de la región a eliminar.
      */
     public void eliminarRegionPorId(int id) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        EntityTransaction transaction = em.getTransaction();
+        eliminarRegionPorId(id, PoliticaBorrado.DESVINCULAR);
+    }
+
+    /**
+     * Elimina una región de la base de datos por su ID con sentencias sobre conjuntos,
+     * sin cargar la región ni sus campeones.
+     *
+     * @param id       El ID de la región a eliminar.
+     * @param politica Si se desvinculan los campeones de la región o se eliminan junto con sus habilidades.
+     */
+    public void eliminarRegionPorId(int id, PoliticaBorrado politica) {
         try {
-            transaction.begin();
-            Region region = em.find(Region.class, id);
-            if (region != null) {
-                em.remove(region);
-                transaction.commit();
-                System.out.println("Registro eliminado correctamente.");
+            Map<String, Integer> filas = borrado.eliminar(Region.class, Collections.singletonList(id), politica);
+            if (filas.getOrDefault("region", 0) > 0) {
+                System.out.println("Registro eliminado correctamente. Filas eliminadas: " + filas);
             } else {
                 System.out.println("No se encontró ninguna región con la ID especificada.");
             }
         } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
             System.out.println("Error al eliminar la región: " + e.getMessage());
-        } finally {
-            em.close();
         }
     }
 }
@@ -0,0 +1,218 @@
+package controller;
+
+import index.IndicePertenencias;
+import model.Campeon;
+import model.Region;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantiene al día la tabla {@code resumen_region} de la que lee {@link RegionController#listarRegiones()}.
+ * <p>
+ * Como {@link CatalogoListener}, anota qué filas han quedado desfasadas: la de la región guardada o eliminada,
+ * las de las regiones del campeón que cambia, que da el {@link IndicePertenencias} (sin índice se anotan
+ * todas), y las de las regiones que han perdido campeones en un borrado. Estas últimas las devuelve el propio
+ * borrado de {@code region_campeon} ({@link CatalogoListener#relacionesEliminadas}), así que no dependen de
+ * que el índice conserve todavía las regiones de un campeón eliminado. Los avisos que llegan seguidos, como los de una importación, se agrupan en un solo refresco que se
+ * hace en segundo plano: bloquear las regiones afectadas, borrar sus filas y volver a calcularlas con un
+ * {@code GROUP BY}. Antes de leer la tabla, el listado aplica los refrescos que falten, así que nunca muestra
+ * datos anteriores a un cambio ya confirmado por este proceso.
+ * <p>
+ * La tabla es compartida, así que solo la refresca la instancia que hizo el cambio: el resumen se registra en
+ * los controladores, no en el bus de invalidación. El bloqueo de las filas de {@code region} ordena los
+ * refrescos de dos instancias que coinciden en alguna región. El hilo de refresco se crea con el primer aviso
+ * y se detiene con {@link #cerrar()}.
+ */
+public class ResumenRegiones implements CatalogoListener {
+
+    private static final String BORRAR = "DELETE FROM resumen_region";
+
+    private static final String CALCULAR = "INSERT INTO resumen_region "
+            + "(id_region, nombre_region, historias_relacionadas, numero_campeones, nombres_campeones) "
+            + "SELECT r.id_region, r.nombre_region, r.historias_relacionadas, COUNT(c.id_campeon), "
+            + "STRING_AGG(c.nombre_campeon, ', ' ORDER BY c.nombre_campeon) "
+            + "FROM region r "
+            + "LEFT JOIN region_campeon rc ON rc.id_region = r.id_region "
+            + "LEFT JOIN campeon c ON c.id_campeon = rc.id_campeon%s "
+            + "GROUP BY r.id_region, r.nombre_region, r.historias_relacionadas";
+
+    private static final String BLOQUEAR = "SELECT id_region FROM region%s ORDER BY id_region FOR UPDATE";
+
+    private final Sesiones sesiones;
+    private volatile IndicePertenencias indicePertenencias;
+    private ExecutorService executor;
+    private final ReentrantLock refresco = new ReentrantLock();
+    private final Set<Integer> pendientes = new HashSet<>();
+    private boolean todasPendientes;
+    private boolean programado;
+
+    /**
+     * Constructor que inicializa el resumen con una {@code EntityManagerFactory}.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     */
+    public ResumenRegiones(EntityManagerFactory entityManagerFactory) {
+        this.sesiones = new Sesiones(entityManagerFactory);
+    }
+
+    /**
+     * Calcula las regiones afectadas por el cambio de un campeón con el índice de pertenencias.
+     *
+     * @param indicePertenencias El índice a consultar, o {@code null} para refrescar todas las regiones.
+     */
+    public void usarIndicePertenencias(IndicePertenencias indicePertenencias) {
+        this.indicePertenencias = indicePertenencias;
+    }
+
+    /**
+     * Marca todo el resumen como desfasado y programa su refresco en segundo plano, por ejemplo al arrancar
+     * por si otra instancia terminó sin refrescarlo.
+     */
+    public void refrescarTodo() {
+        marcar(null);
+    }
+
+    /**
+     * Refresca ahora las filas desfasadas, si las hay. Si ya hay un refresco en curso, espera a que termine.
+     */
+    public void aplicarPendientes() {
+        refresco.lock();
+        try {
+            Set<Integer> regiones;
+            boolean todas;
+            synchronized (this) {
+                if (!todasPendientes && pendientes.isEmpty()) {
+                    return;
+                }
+                regiones = new HashSet<>(pendientes);
+                todas = todasPendientes;
+                pendientes.clear();
+                todasPendientes = false;
+            }
+            try {
+                refrescar(todas, regiones);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    todasPendientes |= todas;
+                    pendientes.addAll(regiones);
+                }
+                throw e;
+            }
+        } finally {
+            refresco.unlock();
+        }
+    }
+
+    /**
+     * Aplica los refrescos pendientes y detiene el hilo de refresco. Los avisos posteriores vuelven a crearlo.
+     */
+    public void cerrar() {
+        ExecutorService anterior;
+        synchronized (this) {
+            anterior = executor;
+            executor = null;
+            programado = false;
+        }
+        if (anterior != null) {
+            anterior.shutdown();
+        }
+        aplicarPendientes();
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        marcarRegionesDe(campeon.getId_campeon());
+    }
+
+    @Override
+    public void relacionesEliminadas(Class<?> entidad, Set<Object> claves) {
+        if (entidad == Region.class) {
+            for (Object region : claves) {
+                marcar(((Number) region).intValue());
+            }
+        }
+    }
+
+    @Override
+    public void regionGuardada(Region region) {
+        marcar(region.getId_region());
+    }
+
+    @Override
+    public void regionEliminada(int id) {
+        marcar(id);
+    }
+
+    /**
+     * Anota las regiones en las que aparece el campeón, o todas si no hay índice de pertenencias.
+     */
+    private void marcarRegionesDe(int campeon) {
+        IndicePertenencias indice = indicePertenencias;
+        if (indice == null) {
+            marcar(null);
+            return;
+        }
+        BitSet regiones = indice.regionesDeAlguno(Collections.singletonList(campeon));
+        for (int region = regiones.nextSetBit(0); region >= 0; region = regiones.nextSetBit(region + 1)) {
+            marcar(region);
+        }
+    }
+
+    /**
+     * Anota una región desfasada, o todas si es {@code null}, y programa un refresco si no hay ya uno esperando.
+     */
+    private synchronized void marcar(Integer region) {
+        if (region == null) {
+            todasPendientes = true;
+        } else if (!todasPendientes) {
+            pendientes.add(region);
+        }
+        if (!programado) {
+            programado = true;
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(tarea -> {
+                    Thread hilo = new Thread(tarea, "resumen-regiones");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+            }
+            executor.execute(this::refrescarEnSegundoPlano);
+        }
+    }
+
+    private void refrescarEnSegundoPlano() {
+        synchronized (this) {
+            programado = false;
+        }
+        try {
+            aplicarPendientes();
+        } catch (RuntimeException e) {
+            System.err.println("No se ha podido refrescar el resumen de regiones: " + e.getMessage());
+        }
+    }
+
+    private void refrescar(boolean todas, Set<Integer> regiones) {
+        sesiones.escribir(em -> {
+            if (todas) {
+                em.createNativeQuery(String.format(BLOQUEAR, "")).getResultList();
+                em.createNativeQuery(BORRAR).executeUpdate();
+                em.createNativeQuery(String.format(CALCULAR, "")).executeUpdate();
+            } else {
+                em.createNativeQuery(String.format(BLOQUEAR, " WHERE id_region IN (:regiones)"))
+                        .setParameter("regiones", regiones).getResultList();
+                em.createNativeQuery(BORRAR + " WHERE id_region IN (:regiones)")
+                        .setParameter("regiones", regiones).executeUpdate();
+                em.createNativeQuery(String.format(CALCULAR, " WHERE r.id_region IN (:regiones)"))
+                        .setParameter("regiones", regiones).executeUpdate();
+            }
+            return null;
+        });
+    }
+}
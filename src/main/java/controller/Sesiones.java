@@ -0,0 +1,122 @@
+package controller;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.function.Function;
+
+/**
+ * Plantillas de transacción para los controladores.
+ * Cada operación abre su propio {@link EntityManager}, lo usa dentro de una transacción y lo cierra
+ * siempre al terminar, también si la operación falla. Como ningún entity manager sobrevive a la
+ * operación que lo abrió, un mismo controlador puede atender llamadas desde varios hilos a la vez.
+ * Las lecturas se hacen en modo de solo lectura: Hibernate no guarda copias de las entidades para
+ * detectar cambios ni vacía el contexto antes de las consultas, y si hay réplicas configuradas
+ * {@link EnrutadorConexiones} las envía a una de ellas.
+ */
+public final class Sesiones {
+
+    /** Número máximo de resultados que devuelven las búsquedas por texto de los controladores si no se indica otro. */
+    public static final int LIMITE_POR_DEFECTO = 50;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructor de la clase Sesiones.
+     *
+     * @param entityManagerFactory La fábrica de entity manager a utilizar.
+     */
+    public Sesiones(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Ejecuta una operación de solo lectura. Las entidades y las consultas del entity manager son de
+     * solo lectura por defecto y el vaciado es manual, así que no se toman instantáneas para la
+     * comprobación de cambios. La transacción se deshace al terminar, de modo que cualquier cambio
+     * hecho por error sobre las entidades leídas se descarta.
+     *
+     * @param operacion La operación a ejecutar con el entity manager.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación.
+     */
+    public <T> T leer(Function<EntityManager, T> operacion) {
+        boolean anterior = EnrutadorConexiones.empezarLectura();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            return operacion.apply(em);
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            em.close();
+            EnrutadorConexiones.terminarLectura(anterior);
+        }
+    }
+
+    /**
+     * Ejecuta una operación de lectura y escritura. La transacción se confirma si la operación
+     * termina con normalidad y se deshace si lanza una excepción, que se propaga. Tras confirmarla, las
+     * lecturas de este hilo pueden ir a la primaria durante un tiempo (véase {@link EnrutadorConexiones}).
+     *
+     * @param operacion La operación a ejecutar con el entity manager.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación.
+     */
+    public <T> T escribir(Function<EntityManager, T> operacion) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            T resultado = operacion.apply(em);
+            transaction.commit();
+            EnrutadorConexiones.registrarEscritura();
+            return resultado;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Ejecuta un recorrido de solo lectura con una sesión sin estado, pensado para listados completos.
+     * La sesión no tiene contexto de persistencia: las entidades devueltas no quedan retenidas ni se
+     * comprueban sus cambios, y sus colecciones perezosas no se pueden recorrer.
+     *
+     * @param operacion La operación a ejecutar con la sesión.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación.
+     */
+    public <T> T recorrer(Function<StatelessSession, T> operacion) {
+        boolean anterior = EnrutadorConexiones.empezarLectura();
+        StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            Transaction transaction = session.beginTransaction();
+            try {
+                return operacion.apply(session);
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            }
+        } finally {
+            session.close();
+            EnrutadorConexiones.terminarLectura(anterior);
+        }
+    }
+}
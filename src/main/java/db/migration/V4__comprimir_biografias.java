@@ -0,0 +1,110 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Pasa la biografía de los campeones a una columna {@code bytea} comprimida en el formato de
+ * {@code model.TextoComprimido} con el primer diccionario. Es una migración en Java porque la compresión no
+ * se puede hacer en SQL.
+ * <p>
+ * La migración lleva su propia copia del compresor y del diccionario para dar siempre el mismo resultado:
+ * el conversor puede pasar a otro diccionario, pero los datos que deja esta versión del esquema no cambian.
+ */
+public class V4__comprimir_biografias extends BaseJavaMigration {
+
+    private static final int TAMANO_LOTE = 500;
+    private static final int UMBRAL = 512;
+    private static final byte SIN_COMPRIMIR = 0;
+    private static final byte DEFLATE_LORE = 1;
+    private static final String RECURSO_DICCIONARIO = "/db/migration/V4__comprimir_biografias.dict";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexion = context.getConnection();
+        try (Statement st = conexion.createStatement()) {
+            st.execute("ALTER TABLE campeon ADD COLUMN biografia_comprimida bytea");
+        }
+
+        byte[] diccionario = leerDiccionario();
+        try (Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id_campeon, biografia FROM campeon WHERE biografia IS NOT NULL");
+             PreparedStatement ps = conexion.prepareStatement("UPDATE campeon SET biografia_comprimida = ? WHERE id_campeon = ?")) {
+            int pendientes = 0;
+            while (rs.next()) {
+                ps.setBytes(1, comprimir(rs.getString(2), diccionario));
+                ps.setInt(2, rs.getInt(1));
+                ps.addBatch();
+                if (++pendientes == TAMANO_LOTE) {
+                    ps.executeBatch();
+                    pendientes = 0;
+                }
+            }
+            if (pendientes > 0) {
+                ps.executeBatch();
+            }
+        }
+
+        try (Statement st = conexion.createStatement()) {
+            st.execute("ALTER TABLE campeon DROP COLUMN biografia");
+            st.execute("ALTER TABLE campeon RENAME COLUMN biografia_comprimida TO biografia");
+        }
+    }
+
+    /**
+     * Comprime un texto con el diccionario en el formato {@value #DEFLATE_LORE}, o lo guarda sin comprimir
+     * si es corto o no se reduce.
+     */
+    private static byte[] comprimir(String texto, byte[] diccionario) {
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= UMBRAL) {
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+            try {
+                deflater.setDictionary(diccionario);
+                deflater.setInput(utf8);
+                deflater.finish();
+                byte[] salida = new byte[5 + utf8.length];
+                ByteBuffer.wrap(salida).put(DEFLATE_LORE).putInt(utf8.length);
+                int longitud = 5;
+                while (!deflater.finished() && longitud < salida.length) {
+                    longitud += deflater.deflate(salida, longitud, salida.length - longitud);
+                }
+                if (deflater.finished() && longitud < utf8.length) {
+                    return Arrays.copyOf(salida, longitud);
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        byte[] salida = new byte[utf8.length + 1];
+        salida[0] = SIN_COMPRIMIR;
+        System.arraycopy(utf8, 0, salida, 1, utf8.length);
+        return salida;
+    }
+
+    private static byte[] leerDiccionario() throws IOException {
+        try (InputStream in = V4__comprimir_biografias.class.getResourceAsStream(RECURSO_DICCIONARIO)) {
+            if (in == null) {
+                throw new IllegalStateException("No se encuentra el diccionario de la migración " + RECURSO_DICCIONARIO);
+            }
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            byte[] bloque = new byte[8192];
+            for (int leidos; (leidos = in.read(bloque)) > 0; ) {
+                salida.write(bloque, 0, leidos);
+            }
+            return salida.toByteArray();
+        }
+    }
+}
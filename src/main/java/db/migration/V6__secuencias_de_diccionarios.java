@@ -0,0 +1,38 @@
+package db.migration;
+
+import model.Diccionario;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Crea una secuencia por cada tabla de {@link Diccionario} para las claves de los valores nuevos, que empieza
+ * después de la mayor clave existente. Es una migración en Java porque el valor inicial de una secuencia tiene
+ * que ser una constante.
+ */
+public class V6__secuencias_de_diccionarios extends BaseJavaMigration {
+
+    private static final String[][] TABLAS = {
+            {"rol", "id_rol"},
+            {"raza", "id_raza"},
+            {"dificultad", "id_dificultad"}
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexion = context.getConnection();
+        try (Statement st = conexion.createStatement()) {
+            for (String[] tabla : TABLAS) {
+                long siguiente;
+                try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(" + tabla[1] + "), 0) + 1 FROM " + tabla[0])) {
+                    rs.next();
+                    siguiente = rs.getLong(1);
+                }
+                st.execute("CREATE SEQUENCE " + tabla[0] + "_id_seq START WITH " + siguiente + " MAXVALUE 32767");
+            }
+        }
+    }
+}
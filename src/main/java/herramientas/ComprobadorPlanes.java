@@ -0,0 +1,358 @@
+package herramientas;
+
+import controller.CampeonController;
+import controller.EnrutadorConexiones;
+import controller.EstadisticasController;
+import controller.FiltroCampeon;
+import controller.HabilidadController;
+import controller.RegionController;
+import controller.Sesiones;
+import index.BuscadorDifuso;
+import model.Campeon;
+import model.Diccionario;
+import model.Habilidad;
+import model.Region;
+import model.ResumenRegion;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.spi.ParameterInformation;
+import org.hibernate.hql.spi.ParameterTranslations;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.hibernate.query.Query;
+import org.hibernate.type.descriptor.converter.AttributeConverterTypeAdapter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Comprueba con {@code EXPLAIN} que las consultas JPQL de los controladores usan índices.
+ * <p>
+ * Cada consulta de {@link #CONSULTAS} se traduce al SQL que genera Hibernate, se le asignan valores de
+ * ejemplo y se pide su plan a PostgreSQL con los recorridos secuenciales desactivados
+ * ({@code enable_seqscan = off}), de modo que el planificador solo los elige si no hay ningún índice
+ * aplicable. Una consulta falla si su plan recorre secuencialmente una tabla con más filas que el umbral;
+ * las tablas pequeñas se ignoran porque para ellas un recorrido completo es lo más barato.
+ * Los listados completos, las agregaciones de todo el catálogo y las búsquedas de texto con
+ * {@code LIKE '%...%'} recorren la tabla por diseño, así que se explican pero no se comprueban.
+ * <p>
+ * Se ejecuta sobre una base de datos con datos: {@code java herramientas.ComprobadorPlanes [umbral]}
+ * carga los CSV si el catálogo está vacío y termina con código 1 si alguna consulta falla.
+ */
+public class ComprobadorPlanes {
+
+    /** Umbral de filas por defecto por encima del cual un recorrido secuencial se considera un fallo. */
+    public static final long UMBRAL_POR_DEFECTO = 100;
+
+    /** Número de filas que piden los controladores en las consultas paginadas. */
+    private static final int LIMITE = Sesiones.LIMITE_POR_DEFECTO;
+
+    /**
+     * Consultas de los controladores, con valores de ejemplo para sus parámetros. Las fijas son las consultas con
+     * nombre de las entidades, las mismas que ejecutan los controladores; las que se construyen según los
+     * argumentos usan el mismo código que los controladores para construirse.
+     */
+    public static final List<Consulta> CONSULTAS = Collections.unmodifiableList(Arrays.asList(
+            Consulta.conNombre("CampeonController.listarCampeones", Campeon.TODOS, true, 0),
+            Consulta.conNombre("CampeonController.buscarCampeonPorTexto", Campeon.POR_TEXTO, true, LIMITE,
+                    "texto", "%AH%", "exacto", "AH", "prefijo", "AH%"),
+            Consulta.conNombre("CampeonController.buscarCampeonesPorRol", Campeon.POR_ROL, false, 0, "rol", "LUCHADOR"),
+            Consulta.conNombre("CampeonController.obtenerDetalleCampeon", Campeon.POR_ID, false, 0, "id", 1),
+            Consulta.jpql("CampeonController.actualizarCampeones",
+                    () -> "SELECT c.id_campeon FROM Campeon c WHERE " + filtroDeEjemplo().condicion("c"), false, 0,
+                    "filtroRol", "LUCHADOR", "filtroRegion", 1),
+            Consulta.conNombre("HabilidadController.listarHabilidades", Habilidad.TODAS_CON_CAMPEON, true, 0),
+            Consulta.conNombre("HabilidadController.readHabilidadFromFile", Campeon.POR_NOMBRE, false, 0, "nombre", "AHRI"),
+            Consulta.conNombre("HabilidadController.buscarHabilidadPorTexto", Habilidad.POR_TEXTO, true, LIMITE,
+                    "texto", "%DAÑO%", "exacto", "DAÑO", "prefijo", "DAÑO%"),
+            Consulta.conNombre("HabilidadController.buscarHabilidadPorIdCampeon", Habilidad.DE_CAMPEON, false, 0, "idCampeon", 1),
+            Consulta.conNombre("RegionController.listarRegiones", ResumenRegion.LISTADO, false, LIMITE, "desde", 1),
+            Consulta.conNombre("RegionController.buscarRegionPorTexto", Region.POR_TEXTO, true, LIMITE,
+                    "texto", "%NOX%", "exacto", "NOX", "prefijo", "NOX%"),
+            Consulta.conNombre("RegionController.buscarRegionesPorHistorias", Region.CON_MAS_HISTORIAS_QUE, false, 0,
+                    "cantidadHistorias", 1000),
+            Consulta.conNombre("FichaCampeonController.datos", Campeon.FICHA, false, 0, "id", 1),
+            Consulta.conNombre("FichaCampeonController.habilidades", Habilidad.TECLAS_DE_CAMPEON, false, 0, "id", 1),
+            Consulta.conNombre("FichaCampeonController.regiones", Region.NOMBRES_DE_CAMPEON, false, 0, "id", 1),
+            Consulta.conNombre("FichaCampeonController.biografia", Campeon.BIOGRAFIA, false, 0, "id", 1),
+            Consulta.jpql("EstadisticasController.contarCampeonesPorRol", () -> EstadisticasController.conteoPor("rol"), true, 0),
+            Consulta.conNombre("EstadisticasController.contarCampeonesPorRegion", Region.CAMPEONES_POR_REGION, true, 0),
+            Consulta.conNombre("EstadisticasController.distribucionDeAspectos", Campeon.DISTRIBUCION_DE_ASPECTOS, true, 0),
+            Consulta.conNombre("EstadisticasController.regionesConMasHistorias", Region.POR_HISTORIAS, false, LIMITE)
+    ));
+
+    private static final Pattern RECORRIDO_SECUENCIAL = Pattern.compile("Seq Scan on (\\w+)");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final long umbralFilas;
+
+    /**
+     * Constructor de la clase ComprobadorPlanes.
+     *
+     * @param entityManagerFactory La fábrica de entity manager de una base de datos PostgreSQL con datos.
+     * @param umbralFilas          Filas a partir de las cuales un recorrido secuencial es un fallo.
+     */
+    public ComprobadorPlanes(EntityManagerFactory entityManagerFactory, long umbralFilas) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.umbralFilas = umbralFilas;
+    }
+
+    /**
+     * Explica todas las consultas de {@link #CONSULTAS}.
+     *
+     * @return Un mensaje por cada consulta que recorre secuencialmente una tabla mayor que el umbral; vacía si ninguna.
+     */
+    public List<String> comprobar() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (!(sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect)) {
+            throw new IllegalStateException("El comprobador de planes solo funciona con PostgreSQL");
+        }
+        List<String> fallos = new ArrayList<>();
+        Map<String, Long> filasPorTabla = new HashMap<>();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.unwrap(Session.class).doWork(conexion -> {
+                boolean autoCommit = conexion.getAutoCommit();
+                conexion.setAutoCommit(false);
+                try (Statement st = conexion.createStatement()) {
+                    st.execute("SET LOCAL enable_seqscan = off");
+                    for (Consulta consulta : CONSULTAS) {
+                        String sql = traducir(em, consulta);
+                        for (String tabla : recorridosSecuenciales(st, sql)) {
+                            long filas = filasPorTabla.computeIfAbsent(tabla, t -> contarFilas(conexion, t));
+                            if (!consulta.recorridoCompleto && filas > umbralFilas) {
+                                fallos.add(consulta.nombre + ": recorrido secuencial de '" + tabla + "' (" + filas + " filas)");
+                            }
+                        }
+                    }
+                } finally {
+                    conexion.rollback();
+                    conexion.setAutoCommit(autoCommit);
+                }
+            });
+        } finally {
+            em.close();
+        }
+        return fallos;
+    }
+
+    /**
+     * Traduce la consulta al SQL de Hibernate y sustituye cada parámetro por el literal de su valor de ejemplo.
+     */
+    static String traducir(EntityManager em, Consulta consulta) {
+        // Un plan propio, fuera de la caché de planes, que solo se usa aquí
+        QueryTranslator traductor = new HQLQueryPlan(consulta.getJpql(em), false, Collections.emptyMap(),
+                em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)).getTranslators()[0];
+        ParameterTranslations parametros = traductor.getParameterTranslations();
+        Map<Integer, String> literales = new HashMap<>();
+        consulta.parametros.forEach((nombre, valor) -> {
+            ParameterInformation informacion = parametros.getNamedParameterInformation(nombre);
+            if (informacion == null) {
+                // El filtro de un valor que no está en el diccionario se queda en "1 = 0", sin el parámetro
+                return;
+            }
+            // Los atributos con conversor, como el rol, se comparan por el valor ya convertido a la columna
+            Object valorColumna = informacion.getExpectedType() instanceof AttributeConverterTypeAdapter
+                    ? convertir((AttributeConverterTypeAdapter<?>) informacion.getExpectedType(), valor)
+                    : valor;
+            for (int posicion : informacion.getSourceLocations()) {
+                literales.put(posicion, literal(valorColumna));
+            }
+        });
+
+        String sql = traductor.getSQLString();
+        StringBuilder result = new StringBuilder();
+        int posicion = 0;
+        for (char caracter : sql.toCharArray()) {
+            if (caracter == '?') {
+                result.append(literales.get(posicion++));
+            } else {
+                result.append(caracter);
+            }
+        }
+        if (consulta.limite > 0) {
+            // Como el setMaxResults del controlador, que Hibernate añade al ejecutar y no en la traducción
+            result.append(" LIMIT ").append(consulta.limite);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Filtro con rol y región, el caso de {@code actualizarCampeones} que combina las dos condiciones. La
+     * condición depende de los valores del diccionario de roles, así que se construye al traducir la consulta.
+     */
+    private static FiltroCampeon filtroDeEjemplo() {
+        FiltroCampeon filtro = new FiltroCampeon();
+        filtro.setRol("LUCHADOR");
+        filtro.setIdRegion(1);
+        return filtro;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object convertir(AttributeConverterTypeAdapter<?> tipo, Object valor) {
+        Object conversor = tipo.getAttributeConverter().getConverterBean().getBeanInstance();
+        if (conversor instanceof Diccionario.Conversor) {
+            // Sin registrar el valor: uno que no está en el diccionario no coincide con ninguna fila
+            Short id = ((Diccionario.Conversor) conversor).getDiccionario().buscar((String) valor);
+            return id != null ? id : -1;
+        }
+        return ((AttributeConverter<Object, Object>) conversor).convertToDatabaseColumn(valor);
+    }
+
+    private static String literal(Object valor) {
+        if (valor instanceof Number || valor instanceof Boolean) {
+            return valor.toString();
+        }
+        return "'" + valor.toString().replace("'", "''") + "'";
+    }
+
+    private static List<String> recorridosSecuenciales(Statement st, String sql) throws SQLException {
+        List<String> tablas = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                Matcher matcher = RECORRIDO_SECUENCIAL.matcher(rs.getString(1));
+                if (matcher.find()) {
+                    tablas.add(matcher.group(1));
+                }
+            }
+        }
+        return tablas;
+    }
+
+    private static long contarFilas(Connection conexion, String tabla) {
+        try (Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + tabla)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudieron contar las filas de '" + tabla + "'", e);
+        }
+    }
+
+    /**
+     * Comprueba los planes de la unidad de persistencia del catálogo y termina con código 1 si alguno falla.
+     *
+     * @param args Opcionalmente, el umbral de filas; por defecto {@value #UMBRAL_POR_DEFECTO}.
+     * @throws IOException Si no se pueden leer los CSV con los que se carga un catálogo vacío.
+     */
+    public static void main(String[] args) throws IOException {
+        long umbral = args.length > 0 ? Long.parseLong(args[0]) : UMBRAL_POR_DEFECTO;
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("JPAMagazines");
+        Diccionario.conectar(EnrutadorConexiones.primaria(emf));
+        List<String> fallos;
+        try {
+            Long campeones = new Sesiones(emf).leer(em -> em.createQuery("SELECT COUNT(c) FROM Campeon c", Long.class).getSingleResult());
+            if (campeones == 0) {
+                System.out.println("Catálogo vacío, cargando datos desde archivos CSV...");
+                CampeonController campeonController = new CampeonController(emf);
+                campeonController.readCampeonFromFile("src/main/resources/Campeons.csv");
+                RegionController regionController = new RegionController(emf);
+                regionController.readRegionFromFile("src/main/resources/Regiones.csv");
+                // Termina el refresco del resumen de regiones antes de cerrar la fábrica
+                regionController.cerrar();
+                new HabilidadController(emf, campeonController, new BuscadorDifuso()).readHabilidadFromFile("src/main/resources/Habilidades.csv");
+                new Sesiones(emf).escribir(em -> em.createNativeQuery("ANALYZE").executeUpdate());
+            }
+            fallos = new ComprobadorPlanes(emf, umbral).comprobar();
+        } finally {
+            emf.close();
+        }
+
+        if (fallos.isEmpty()) {
+            System.out.println("Las " + CONSULTAS.size() + " consultas usan índices en las tablas de más de " + umbral + " filas.");
+        } else {
+            fallos.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Consulta de un controlador con valores de ejemplo para sus parámetros: una consulta con nombre de las
+     * entidades o, si el controlador la construye según sus argumentos, el JPQL que construye.
+     */
+    public static final class Consulta {
+        private final String nombre;
+        private final String consultaConNombre;
+        private final Supplier<String> jpql;
+        private final boolean recorridoCompleto;
+        private final int limite;
+        private final Map<String, Object> parametros = new LinkedHashMap<>();
+
+        private Consulta(String nombre, String consultaConNombre, Supplier<String> jpql, boolean recorridoCompleto, int limite,
+                         Object... parametros) {
+            this.nombre = nombre;
+            this.consultaConNombre = consultaConNombre;
+            this.jpql = jpql;
+            this.recorridoCompleto = recorridoCompleto;
+            this.limite = limite;
+            for (int i = 0; i < parametros.length; i += 2) {
+                this.parametros.put((String) parametros[i], parametros[i + 1]);
+            }
+        }
+
+        /**
+         * Crea una consulta a partir de una consulta con nombre de las entidades.
+         *
+         * @param nombre            El controlador y el método que ejecutan la consulta.
+         * @param consultaConNombre El nombre de la consulta, una constante de la entidad.
+         * @param recorridoCompleto Si la consulta recorre la tabla entera por diseño y no se comprueba.
+         * @param limite            Las filas que pide el controlador con {@code setMaxResults}, o 0 si todas.
+         * @param parametros        Pares de nombre de parámetro y valor de ejemplo.
+         * @return La consulta.
+         */
+        public static Consulta conNombre(String nombre, String consultaConNombre, boolean recorridoCompleto, int limite,
+                                         Object... parametros) {
+            return new Consulta(nombre, consultaConNombre, null, recorridoCompleto, limite, parametros);
+        }
+
+        /**
+         * Crea una consulta a partir del JPQL que construye un controlador.
+         *
+         * @param nombre            El controlador y el método que ejecutan la consulta.
+         * @param jpql              Construye la consulta cuando se traduce.
+         * @param recorridoCompleto Si la consulta recorre la tabla entera por diseño y no se comprueba.
+         * @param limite            Las filas que pide el controlador con {@code setMaxResults}, o 0 si todas.
+         * @param parametros        Pares de nombre de parámetro y valor de ejemplo.
+         * @return La consulta.
+         */
+        public static Consulta jpql(String nombre, Supplier<String> jpql, boolean recorridoCompleto, int limite, Object... parametros) {
+            return new Consulta(nombre, null, jpql, recorridoCompleto, limite, parametros);
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        /**
+         * Devuelve el JPQL de la consulta; el de una consulta con nombre se lee de la unidad de persistencia.
+         *
+         * @param em Un entity manager de la unidad de persistencia.
+         * @return El JPQL.
+         * @throws IllegalArgumentException Si no existe la consulta con nombre.
+         */
+        public String getJpql(EntityManager em) {
+            if (consultaConNombre == null) {
+                return jpql.get();
+            }
+            return em.createNamedQuery(consultaConNombre).unwrap(Query.class).getQueryString();
+        }
+    }
+}
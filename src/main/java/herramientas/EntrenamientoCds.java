@@ -0,0 +1,56 @@
+package herramientas;
+
+import controller.EnrutadorConexiones;
+import model.TextoComprimido;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recorre el arranque de Hibernate sin base de datos para generar el archivo AppCDS de la aplicación.
+ * <p>
+ * El perfil {@code arranque-rapido} del {@code pom.xml} lo ejecuta con {@code -XX:ArchiveClassesAtExit}, de modo
+ * que las clases que carga (Hibernate, el mapeo de las entidades, el compilador de JPQL...) quedan ya analizadas
+ * y verificadas en {@code target/catalogo.jsa}. Arrancando la aplicación con {@code -XX:SharedArchiveFile} esas
+ * clases se mapean del archivo en lugar de leerse y verificarse de los JAR.
+ * <p>
+ * La unidad de persistencia se construye sin conexiones: con el dialecto fijado, sin migraciones ni validación
+ * del esquema y sin consultar los metadatos de JDBC, Hibernate no necesita abrir ninguna.
+ */
+public class EntrenamientoCds {
+
+    /**
+     * Construye la unidad de persistencia, compila las consultas de los controladores y la cierra.
+     *
+     * @param args No se utilizan.
+     */
+    public static void main(String[] args) {
+        Map<String, String> propiedades = new HashMap<>();
+        propiedades.put("hibernate.connection.provider_class",
+                "org.hibernate.engine.jdbc.connections.internal.UserSuppliedConnectionProviderImpl");
+        propiedades.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQL10Dialect");
+        propiedades.put("hibernate.hbm2ddl.auto", "none");
+        propiedades.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        propiedades.put(EnrutadorConexiones.MIGRAR, "false");
+
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("JPAMagazines", propiedades);
+        EntityManager em = emf.createEntityManager();
+        try {
+            SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+            for (ComprobadorPlanes.Consulta consulta : ComprobadorPlanes.CONSULTAS) {
+                new HQLQueryPlan(consulta.getJpql(em), false, Collections.emptyMap(), sessionFactory);
+            }
+            TextoComprimido.diccionario();
+        } finally {
+            em.close();
+            emf.close();
+        }
+        System.out.println("Arranque recorrido con " + ComprobadorPlanes.CONSULTAS.size() + " consultas.");
+    }
+}
@@ -0,0 +1,97 @@
+package herramientas;
+
+import model.TextoComprimido;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Genera una nueva versión del diccionario de {@link TextoComprimido} a partir de todas las biografías del CSV
+ * de campeones.
+ * <p>
+ * {@code java herramientas.EntrenamientoDiccionario [fichero] [tamaño]} escribe el diccionario con
+ * {@value #TAMANO_DICCIONARIO} bytes por defecto. Sin fichero, lo escribe como la versión siguiente en
+ * {@value #DIRECTORIO_DICCIONARIOS} y la añade al final de la lista de diccionarios, así que los textos nuevos
+ * se comprimen con ella y los guardados se siguen leyendo con la suya. Nunca sobrescribe una versión existente.
+ */
+public class EntrenamientoDiccionario {
+
+    /** Directorio de las fuentes con los diccionarios y su lista. */
+    public static final String DIRECTORIO_DICCIONARIOS = "src/main/resources/compresion";
+
+    /** Fichero CSV con las biografías de los campeones. */
+    public static final String CSV_CAMPEONES = "src/main/resources/Campeons.csv";
+
+    /** Tamaño del diccionario instalado en bytes. */
+    public static final int TAMANO_DICCIONARIO = 32 * 1024;
+
+    /**
+     * Entrena y escribe el diccionario.
+     *
+     * @param args Opcionalmente, el fichero de destino y el tamaño del diccionario.
+     * @throws IOException Si no se puede leer el CSV o escribir el diccionario.
+     */
+    public static void main(String[] args) throws IOException {
+        int tamano = args.length > 1 ? Integer.parseInt(args[1]) : TAMANO_DICCIONARIO;
+        byte[] diccionario = TextoComprimido.entrenar(leerBiografias(CSV_CAMPEONES), tamano);
+        if (args.length > 0) {
+            Path destino = Paths.get(args[0]);
+            Files.createDirectories(destino.toAbsolutePath().getParent());
+            Files.write(destino, diccionario, StandardOpenOption.CREATE_NEW);
+            System.out.println("Diccionario de " + diccionario.length + " bytes escrito en " + destino);
+            return;
+        }
+
+        Path directorio = Paths.get(DIRECTORIO_DICCIONARIOS);
+        Path lista = directorio.resolve(Paths.get(TextoComprimido.RECURSO_DICCIONARIOS).getFileName());
+        List<String> versiones = new ArrayList<>();
+        for (String linea : Files.readAllLines(lista, StandardCharsets.UTF_8)) {
+            if (!linea.trim().isEmpty()) {
+                versiones.add(linea.trim());
+            }
+        }
+        int identificador = TextoComprimido.identificador(diccionario);
+        for (String version : versiones) {
+            if (TextoComprimido.identificador(Files.readAllBytes(directorio.resolve(version))) == identificador) {
+                // Dos diccionarios con el mismo identificador no se podrían distinguir al leer
+                throw new IllegalStateException("El diccionario generado tiene el mismo identificador que " + version);
+            }
+        }
+        String nombre = "lore-" + (versiones.size() + 1) + ".dict";
+        Files.write(directorio.resolve(nombre), diccionario, StandardOpenOption.CREATE_NEW);
+        Files.write(lista, (nombre + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        System.out.println("Diccionario de " + diccionario.length + " bytes escrito en " + directorio.resolve(nombre)
+                + " y añadido a " + lista);
+    }
+
+    /**
+     * Lee las biografías del CSV de campeones.
+     *
+     * @param filePath La ruta del CSV.
+     * @return Las biografías, en el orden del fichero.
+     * @throws IOException Si no se puede leer el fichero.
+     */
+    public static List<String> leerBiografias(String filePath) throws IOException {
+        List<String> biografias = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                // Misma separación que CampeonController.readCampeonFromFile
+                String[] data = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+                if (data.length == 10) {
+                    biografias.add(data[3].replaceAll("\"", "").trim());
+                }
+            }
+        }
+        return biografias;
+    }
+}
@@ -0,0 +1,544 @@
+package index;
+
+import controller.CatalogoListener;
+import model.Campeon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Copia en memoria de los atributos filtrables de los campeones, guardada por columnas.
+ * <p>
+ * Cada campeón ocupa una fila y cada atributo numérico es un array de enteros. Rol, raza y dificultad
+ * se codifican con un diccionario propio y, por cada valor, se guarda un mapa de bits con las filas que lo
+ * tienen. Un filtro combinado se evalúa por palabras de 64 filas: primero se cruzan los mapas de bits con
+ * operaciones AND y solo en las palabras que siguen teniendo filas se comparan los rangos numéricos, con
+ * un bucle sin saltos sobre el array de la columna que el compilador JIT puede desenrollar y vectorizar.
+ * Con muchas filas, las palabras se reparten entre los núcleos; cada tarea escribe solo sus palabras.
+ * <p>
+ * Las modificaciones sobrescriben la fila del campeón y las eliminaciones la dejan libre; cuando las filas
+ * libres superan a las ocupadas el almacén se compacta. Se mantiene sincronizado registrándolo como
+ * {@link CatalogoListener} en el controlador de campeones.
+ */
+public class AlmacenColumnar implements CatalogoListener {
+
+    /** Atributos de los campeones guardados en el almacén. */
+    public enum Columna {
+        ROL(true), RAZA(true), DIFICULTAD(true), RELACIONES(false), RELATOS(false), ASPECTOS(false);
+
+        private final boolean categorica;
+
+        Columna(boolean categorica) {
+            this.categorica = categorica;
+        }
+
+        /**
+         * Indica si la columna guarda textos codificados en lugar de números.
+         *
+         * @return {@code true} para rol, raza y dificultad.
+         */
+        public boolean isCategorica() {
+            return categorica;
+        }
+    }
+
+    private static final int SIN_VALOR = -1;
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int MINIMO_PARA_COMPACTAR = 1024;
+    /** Palabras de 64 filas que evalúa cada tarea en paralelo. */
+    private static final int PALABRAS_POR_TAREA = 1024;
+
+    private final boolean paralelo;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Integer> filaPorId = new HashMap<>();
+    private final Codificada roles = new Codificada();
+    private final Codificada razas = new Codificada();
+    private final Codificada dificultades = new Codificada();
+
+    private int[] ids = new int[CAPACIDAD_INICIAL];
+    private int[] relaciones = new int[CAPACIDAD_INICIAL];
+    private int[] relatos = new int[CAPACIDAD_INICIAL];
+    private int[] aspectos = new int[CAPACIDAD_INICIAL];
+    private long[] ocupadas = new long[CAPACIDAD_INICIAL >>> 6];
+    private int filas;
+    private int vivas;
+
+    /**
+     * Constructor que evalúa los filtros en paralelo cuando hay suficientes filas.
+     */
+    public AlmacenColumnar() {
+        this(true);
+    }
+
+    /**
+     * Constructor de la clase AlmacenColumnar.
+     *
+     * @param paralelo Si los filtros se reparten entre los núcleos cuando hay suficientes filas.
+     */
+    public AlmacenColumnar(boolean paralelo) {
+        this.paralelo = paralelo;
+        for (Codificada columna : Arrays.asList(roles, razas, dificultades)) {
+            columna.crecer(CAPACIDAD_INICIAL);
+        }
+    }
+
+    /**
+     * Sustituye todo el contenido del almacén por los campeones indicados.
+     *
+     * @param campeones Los campeones a cargar.
+     */
+    public void cargar(Collection<Campeon> campeones) {
+        lock.writeLock().lock();
+        try {
+            vaciar(Math.max(CAPACIDAD_INICIAL, campeones.size()));
+            for (Campeon campeon : campeones) {
+                guardar(campeon);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el almacén por completo.
+     */
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            vaciar(CAPACIDAD_INICIAL);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve el número de campeones del almacén.
+     *
+     * @return El número de filas ocupadas.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vivas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cuenta los campeones que cumplen el filtro.
+     *
+     * @param filtro Los criterios a cumplir.
+     * @return El número de campeones seleccionados.
+     */
+    public int contar(FiltroColumnar filtro) {
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (long palabra : seleccionar(filtro)) {
+                total += Long.bitCount(palabra);
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los IDs de los campeones que cumplen el filtro.
+     *
+     * @param filtro Los criterios a cumplir.
+     * @return Los IDs seleccionados, de menor a mayor.
+     */
+    public int[] ids(FiltroColumnar filtro) {
+        lock.readLock().lock();
+        try {
+            long[] seleccion = seleccionar(filtro);
+            int total = 0;
+            for (long palabra : seleccion) {
+                total += Long.bitCount(palabra);
+            }
+            int[] resultado = new int[total];
+            int siguiente = 0;
+            for (int palabra = 0; palabra < seleccion.length; palabra++) {
+                for (long bits = seleccion[palabra]; bits != 0; bits &= bits - 1) {
+                    resultado[siguiente++] = ids[(palabra << 6) + Long.numberOfTrailingZeros(bits)];
+                }
+            }
+            Arrays.sort(resultado);
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cuenta los campeones que cumplen el filtro agrupados por los valores de una columna de texto.
+     * Cada grupo se cuenta cruzando la selección con el mapa de bits de su valor.
+     *
+     * @param columna La columna por la que agrupar: {@code ROL}, {@code RAZA} o {@code DIFICULTAD}.
+     * @param filtro  Los criterios a cumplir.
+     * @return El número de campeones de cada valor, ordenado por valor; sin los valores que no tienen ninguno.
+     * @throws IllegalArgumentException Si la columna es numérica.
+     */
+    public Map<String, Integer> contarPor(Columna columna, FiltroColumnar filtro) {
+        if (!columna.isCategorica()) {
+            throw new IllegalArgumentException("La columna " + columna + " no es de texto");
+        }
+        lock.readLock().lock();
+        try {
+            long[] seleccion = seleccionar(filtro);
+            Codificada codificada = codificada(columna);
+            Map<String, Integer> grupos = new TreeMap<>();
+            for (int codigo = 0; codigo < codificada.valores.size(); codigo++) {
+                long[] mapa = codificada.mapas.get(codigo);
+                int total = 0;
+                for (int palabra = 0; palabra < seleccion.length; palabra++) {
+                    total += Long.bitCount(seleccion[palabra] & mapa[palabra]);
+                }
+                if (total > 0) {
+                    grupos.put(codificada.valores.get(codigo), total);
+                }
+            }
+            return grupos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula el mínimo, el máximo, la suma y la media de una columna numérica sobre los campeones que
+     * cumplen el filtro.
+     *
+     * @param columna La columna a resumir: {@code RELACIONES}, {@code RELATOS} o {@code ASPECTOS}.
+     * @param filtro  Los criterios a cumplir.
+     * @return El resumen de los valores seleccionados.
+     * @throws IllegalArgumentException Si la columna es de texto.
+     */
+    public IntSummaryStatistics resumir(Columna columna, FiltroColumnar filtro) {
+        if (columna.isCategorica()) {
+            throw new IllegalArgumentException("La columna " + columna + " no es numérica");
+        }
+        lock.readLock().lock();
+        try {
+            long[] seleccion = seleccionar(filtro);
+            int[] valores = numerica(columna);
+            return tareas(seleccion.length).mapToObj(tarea -> {
+                IntSummaryStatistics resumen = new IntSummaryStatistics();
+                int hasta = Math.min(seleccion.length, (tarea + 1) * PALABRAS_POR_TAREA);
+                for (int palabra = tarea * PALABRAS_POR_TAREA; palabra < hasta; palabra++) {
+                    for (long bits = seleccion[palabra]; bits != 0; bits &= bits - 1) {
+                        resumen.accept(valores[(palabra << 6) + Long.numberOfTrailingZeros(bits)]);
+                    }
+                }
+                return resumen;
+            }).collect(IntSummaryStatistics::new, IntSummaryStatistics::combine, IntSummaryStatistics::combine);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        lock.writeLock().lock();
+        try {
+            guardar(campeon);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        lock.writeLock().lock();
+        try {
+            Integer fila = filaPorId.remove(id);
+            if (fila == null) {
+                return;
+            }
+            ocupadas[fila >>> 6] &= ~(1L << fila);
+            roles.quitar(fila);
+            razas.quitar(fila);
+            dificultades.quitar(fila);
+            vivas--;
+            if (filas - vivas > vivas && filas - vivas >= MINIMO_PARA_COMPACTAR) {
+                compactar();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evalúa el filtro y devuelve el mapa de bits de las filas seleccionadas. Se llama con el bloqueo de lectura.
+     */
+    private long[] seleccionar(FiltroColumnar filtro) {
+        long[] resultado = new long[(filas + 63) >>> 6];
+        List<long[]> mapas = new ArrayList<>(3);
+        List<Rango> rangos = new ArrayList<>(3);
+        // Un texto que nadie tiene o un rango vacío no seleccionan ninguna fila
+        if (!roles.anadirMapa(mapas, filtro.getRol())
+                || !razas.anadirMapa(mapas, filtro.getRaza())
+                || !dificultades.anadirMapa(mapas, filtro.getDificultad())
+                || !Rango.anadir(rangos, aspectos, filtro.getMinimoAspectos(), filtro.getMaximoAspectos())
+                || !Rango.anadir(rangos, relatos, filtro.getMinimoRelatos(), filtro.getMaximoRelatos())
+                || !Rango.anadir(rangos, relaciones, filtro.getMinimoRelaciones(), filtro.getMaximoRelaciones())) {
+            return resultado;
+        }
+        long[][] mapasFiltro = mapas.toArray(new long[0][]);
+        Rango[] rangosFiltro = rangos.toArray(new Rango[0]);
+        tareas(resultado.length).forEach(tarea -> evaluar(resultado, tarea * PALABRAS_POR_TAREA,
+                Math.min(resultado.length, (tarea + 1) * PALABRAS_POR_TAREA), mapasFiltro, rangosFiltro));
+        return resultado;
+    }
+
+    /**
+     * Evalúa el filtro en las palabras {@code [desde, hasta)} del mapa de bits.
+     */
+    private void evaluar(long[] resultado, int desde, int hasta, long[][] mapas, Rango[] rangos) {
+        for (int palabra = desde; palabra < hasta; palabra++) {
+            long bits = ocupadas[palabra];
+            for (long[] mapa : mapas) {
+                bits &= mapa[palabra];
+            }
+            for (int i = 0; i < rangos.length && bits != 0; i++) {
+                bits &= rangos[i].evaluar(palabra << 6);
+            }
+            resultado[palabra] = bits;
+        }
+    }
+
+    /**
+     * Reparte las palabras del mapa de bits en tareas, en paralelo si hay más de una.
+     */
+    private IntStream tareas(int palabras) {
+        int tareas = (palabras + PALABRAS_POR_TAREA - 1) / PALABRAS_POR_TAREA;
+        IntStream indices = IntStream.range(0, tareas);
+        return paralelo && tareas > 1 ? indices.parallel() : indices;
+    }
+
+    private void guardar(Campeon campeon) {
+        Integer existente = filaPorId.get(campeon.getId_campeon());
+        int fila;
+        if (existente != null) {
+            fila = existente;
+            roles.quitar(fila);
+            razas.quitar(fila);
+            dificultades.quitar(fila);
+        } else {
+            if (filas == ids.length) {
+                crecer(ids.length * 2);
+            }
+            fila = filas++;
+            filaPorId.put(campeon.getId_campeon(), fila);
+            ocupadas[fila >>> 6] |= 1L << fila;
+            vivas++;
+        }
+        ids[fila] = campeon.getId_campeon();
+        relaciones[fila] = campeon.getCampeones_con_relacion();
+        relatos[fila] = campeon.getNumero_de_relatos_cortos();
+        aspectos[fila] = campeon.getNumero_de_aspectos();
+        roles.poner(fila, campeon.getRol());
+        razas.poner(fila, campeon.getRaza());
+        dificultades.poner(fila, campeon.getDificultad());
+    }
+
+    private void vaciar(int capacidad) {
+        int redondeada = (capacidad + 63) & ~63;
+        ids = new int[redondeada];
+        relaciones = new int[redondeada];
+        relatos = new int[redondeada];
+        aspectos = new int[redondeada];
+        ocupadas = new long[redondeada >>> 6];
+        for (Codificada columna : Arrays.asList(roles, razas, dificultades)) {
+            columna.vaciar();
+            columna.crecer(redondeada);
+        }
+        filaPorId.clear();
+        filas = 0;
+        vivas = 0;
+    }
+
+    private void crecer(int capacidad) {
+        ids = Arrays.copyOf(ids, capacidad);
+        relaciones = Arrays.copyOf(relaciones, capacidad);
+        relatos = Arrays.copyOf(relatos, capacidad);
+        aspectos = Arrays.copyOf(aspectos, capacidad);
+        ocupadas = Arrays.copyOf(ocupadas, capacidad >>> 6);
+        for (Codificada columna : Arrays.asList(roles, razas, dificultades)) {
+            columna.crecer(capacidad);
+        }
+    }
+
+    /**
+     * Copia las filas ocupadas al principio de las columnas, conservando su orden y los diccionarios.
+     */
+    private void compactar() {
+        int destino = 0;
+        for (int fila = 0; fila < filas; fila++) {
+            if ((ocupadas[fila >>> 6] & (1L << fila)) == 0) {
+                continue;
+            }
+            ids[destino] = ids[fila];
+            relaciones[destino] = relaciones[fila];
+            relatos[destino] = relatos[fila];
+            aspectos[destino] = aspectos[fila];
+            for (Codificada columna : Arrays.asList(roles, razas, dificultades)) {
+                int codigo = columna.codigos[fila];
+                columna.quitar(fila);
+                columna.marcar(destino, codigo);
+            }
+            filaPorId.put(ids[destino], destino);
+            destino++;
+        }
+        filas = destino;
+        Arrays.fill(ocupadas, 0);
+        for (int fila = 0; fila < filas; fila++) {
+            ocupadas[fila >>> 6] |= 1L << fila;
+        }
+    }
+
+    private Codificada codificada(Columna columna) {
+        switch (columna) {
+            case ROL:
+                return roles;
+            case RAZA:
+                return razas;
+            default:
+                return dificultades;
+        }
+    }
+
+    private int[] numerica(Columna columna) {
+        switch (columna) {
+            case RELACIONES:
+                return relaciones;
+            case RELATOS:
+                return relatos;
+            default:
+                return aspectos;
+        }
+    }
+
+    /**
+     * Columna de texto codificada con un diccionario: el código de cada fila y un mapa de bits por valor.
+     */
+    private static final class Codificada {
+        final Map<String, Integer> porValor = new HashMap<>();
+        final List<String> valores = new ArrayList<>();
+        final List<long[]> mapas = new ArrayList<>();
+        int[] codigos = new int[0];
+
+        void poner(int fila, String valor) {
+            int codigo = SIN_VALOR;
+            if (valor != null) {
+                codigo = porValor.computeIfAbsent(valor, v -> {
+                    valores.add(v);
+                    mapas.add(new long[codigos.length >>> 6]);
+                    return valores.size() - 1;
+                });
+            }
+            marcar(fila, codigo);
+        }
+
+        void marcar(int fila, int codigo) {
+            codigos[fila] = codigo;
+            if (codigo != SIN_VALOR) {
+                mapas.get(codigo)[fila >>> 6] |= 1L << fila;
+            }
+        }
+
+        void quitar(int fila) {
+            int codigo = codigos[fila];
+            if (codigo != SIN_VALOR) {
+                mapas.get(codigo)[fila >>> 6] &= ~(1L << fila);
+            }
+            codigos[fila] = SIN_VALOR;
+        }
+
+        /**
+         * Añade el mapa de bits de un valor del filtro.
+         *
+         * @return {@code false} si ninguna fila tiene ese valor.
+         */
+        boolean anadirMapa(List<long[]> mapasFiltro, String valor) {
+            if (valor == null) {
+                return true;
+            }
+            Integer codigo = porValor.get(valor);
+            if (codigo == null) {
+                return false;
+            }
+            mapasFiltro.add(mapas.get(codigo));
+            return true;
+        }
+
+        void crecer(int capacidad) {
+            int anterior = codigos.length;
+            codigos = Arrays.copyOf(codigos, capacidad);
+            Arrays.fill(codigos, anterior, capacidad, SIN_VALOR);
+            mapas.replaceAll(mapa -> Arrays.copyOf(mapa, capacidad >>> 6));
+        }
+
+        void vaciar() {
+            porValor.clear();
+            valores.clear();
+            mapas.clear();
+            codigos = new int[0];
+        }
+    }
+
+    /**
+     * Rango cerrado {@code [minimo, maximo]} sobre una columna numérica.
+     */
+    private static final class Rango {
+        final int[] columna;
+        final int minimo;
+        final long ancho;
+
+        Rango(int[] columna, int minimo, int maximo) {
+            this.columna = columna;
+            this.minimo = minimo;
+            this.ancho = (long) maximo - minimo;
+        }
+
+        /**
+         * Añade el rango del filtro si tiene algún extremo.
+         *
+         * @return {@code false} si el rango está vacío.
+         */
+        static boolean anadir(List<Rango> rangos, int[] columna, Integer minimo, Integer maximo) {
+            if (minimo == null && maximo == null) {
+                return true;
+            }
+            int desde = minimo != null ? minimo : Integer.MIN_VALUE;
+            int hasta = maximo != null ? maximo : Integer.MAX_VALUE;
+            if (desde > hasta) {
+                return false;
+            }
+            rangos.add(new Rango(columna, desde, hasta));
+            return true;
+        }
+
+        /**
+         * Compara las 64 filas que empiezan en {@code base}. Sin saltos: {@code valor - minimo} como entero
+         * sin signo está dentro del rango si no supera {@code ancho}, y el bit de signo de la resta lo indica.
+         */
+        long evaluar(int base) {
+            long bits = 0;
+            for (int i = 0; i < 64; i++) {
+                long desplazado = (columna[base + i] - minimo) & 0xFFFFFFFFL;
+                bits |= ((desplazado - ancho - 1) >>> 63) << i;
+            }
+            return bits;
+        }
+    }
+}
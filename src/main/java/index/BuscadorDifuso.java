@@ -0,0 +1,211 @@
+package index;
+
+import controller.CatalogoListener;
+import model.Campeon;
+import model.Habilidad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Buscador aproximado de nombres de campeones y habilidades.
+ * Los nombres normalizados se guardan en un árbol de prefijos que se recorre calculando una
+ * fila de la matriz de Levenshtein por nodo, lo que equivale a simular un autómata de
+ * Levenshtein sobre el trie: en cuanto el mínimo de la fila supera la distancia máxima se
+ * descarta la rama entera, y los prefijos comunes se calculan una sola vez.
+ * El coste depende de la distancia máxima y de la longitud del nombre, no del número de nombres.
+ */
+public class BuscadorDifuso implements CatalogoListener {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NodoTrie<Entrada> raiz = new NodoTrie<>();
+    private final Map<TipoEntidad, Map<Object, Entrada>> entradaPorClave = new EnumMap<>(TipoEntidad.class);
+
+    /**
+     * Constructor de la clase BuscadorDifuso.
+     */
+    public BuscadorDifuso() {
+        entradaPorClave.put(TipoEntidad.CAMPEON, new HashMap<>());
+        entradaPorClave.put(TipoEntidad.HABILIDAD, new HashMap<>());
+    }
+
+    /**
+     * Vacía el buscador por completo.
+     */
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            raiz.vaciar();
+            entradaPorClave.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los nombres a una distancia de edición como mucho {@code distanciaMaxima} del texto.
+     *
+     * @param nombre          El nombre escrito por el usuario; no distingue mayúsculas ni acentos.
+     * @param tipo            El tipo de entidad a buscar, o {@code null} para campeones y habilidades.
+     * @param distanciaMaxima La distancia de Levenshtein máxima admitida.
+     * @param limite          El número máximo de resultados.
+     * @return Los resultados ordenados de menor a mayor distancia; la puntuación es {@code 1 / (1 + distancia)}.
+     */
+    public List<Resultado> buscar(String nombre, TipoEntidad tipo, int distanciaMaxima, int limite) {
+        Busqueda busqueda = new Busqueda(Normalizador.normalizar(nombre), tipo, distanciaMaxima);
+        lock.readLock().lock();
+        try {
+            if (limite > 0) {
+                int[] primeraFila = busqueda.fila(0);
+                for (int j = 0; j < primeraFila.length; j++) {
+                    primeraFila[j] = j;
+                }
+                busqueda.recoger(raiz, primeraFila[busqueda.objetivo.length()]);
+                busqueda.recorrer(raiz, 1);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        busqueda.encontrados.sort(Comparator.comparingInt((Encontrado e) -> e.distancia)
+                .thenComparing(e -> e.entrada.texto));
+        List<Resultado> resultados = new ArrayList<>();
+        for (int i = 0; i < busqueda.encontrados.size() && i < limite; i++) {
+            Encontrado encontrado = busqueda.encontrados.get(i);
+            Entrada entrada = encontrado.entrada;
+            resultados.add(new Resultado(entrada.tipo, entrada.clave, entrada.texto, 1.0 / (1 + encontrado.distancia)));
+        }
+        return resultados;
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        guardar(TipoEntidad.CAMPEON, campeon.getId_campeon(), campeon.getNombre());
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        guardar(TipoEntidad.CAMPEON, id, null);
+    }
+
+    @Override
+    public void habilidadGuardada(Habilidad habilidad) {
+        guardar(TipoEntidad.HABILIDAD, habilidad.getNombre(), habilidad.getNombre());
+    }
+
+    @Override
+    public void habilidadEliminada(String nombre) {
+        guardar(TipoEntidad.HABILIDAD, nombre, null);
+    }
+
+    /**
+     * Sustituye el nombre indexado de una entidad; un texto {@code null} equivale a eliminarla.
+     */
+    private void guardar(TipoEntidad tipo, Object clave, String texto) {
+        lock.writeLock().lock();
+        try {
+            Entrada anterior = entradaPorClave.get(tipo).remove(clave);
+            if (anterior != null) {
+                raiz.quitar(anterior.normalizado, anterior);
+            }
+            if (texto != null && !texto.isEmpty()) {
+                Entrada entrada = new Entrada(tipo, clave, texto, Normalizador.normalizar(texto));
+                raiz.poner(entrada.normalizado, entrada);
+                entradaPorClave.get(tipo).put(clave, entrada);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Estado de una búsqueda: una fila de la matriz de Levenshtein por profundidad del trie.
+     */
+    private static final class Busqueda {
+        final String objetivo;
+        final TipoEntidad tipo;
+        final int distanciaMaxima;
+        final List<Encontrado> encontrados = new ArrayList<>();
+        int[][] filas = new int[16][];
+
+        Busqueda(String objetivo, TipoEntidad tipo, int distanciaMaxima) {
+            this.objetivo = objetivo;
+            this.tipo = tipo;
+            this.distanciaMaxima = distanciaMaxima;
+        }
+
+        int[] fila(int profundidad) {
+            if (profundidad == filas.length) {
+                filas = Arrays.copyOf(filas, profundidad * 2);
+            }
+            if (filas[profundidad] == null) {
+                filas[profundidad] = new int[objetivo.length() + 1];
+            }
+            return filas[profundidad];
+        }
+
+        void recorrer(NodoTrie<Entrada> nodo, int profundidad) {
+            int columnas = objetivo.length();
+            int[] anterior = filas[profundidad - 1];
+            for (int h = 0; h < nodo.hijos.length; h++) {
+                char letra = nodo.letras[h];
+                int[] actual = fila(profundidad);
+                actual[0] = anterior[0] + 1;
+                int minimo = actual[0];
+                for (int j = 1; j <= columnas; j++) {
+                    int sustitucion = anterior[j - 1] + (objetivo.charAt(j - 1) == letra ? 0 : 1);
+                    actual[j] = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+                    minimo = Math.min(minimo, actual[j]);
+                }
+                NodoTrie<Entrada> hijo = nodo.hijos[h];
+                recoger(hijo, actual[columnas]);
+                if (minimo <= distanciaMaxima) {
+                    recorrer(hijo, profundidad + 1);
+                }
+            }
+        }
+
+        void recoger(NodoTrie<Entrada> nodo, int distancia) {
+            if (nodo.entradas == null || distancia > distanciaMaxima) {
+                return;
+            }
+            for (Entrada entrada : nodo.entradas) {
+                if (tipo == null || entrada.tipo == tipo) {
+                    encontrados.add(new Encontrado(entrada, distancia));
+                }
+            }
+        }
+    }
+
+    private static final class Encontrado {
+        final Entrada entrada;
+        final int distancia;
+
+        Encontrado(Entrada entrada, int distancia) {
+            this.entrada = entrada;
+            this.distancia = distancia;
+        }
+    }
+
+    /**
+     * Nombre indexado de una entidad.
+     */
+    private static final class Entrada {
+        final TipoEntidad tipo;
+        final Object clave;
+        final String texto;
+        final String normalizado;
+
+        Entrada(TipoEntidad tipo, Object clave, String texto, String normalizado) {
+            this.tipo = tipo;
+            this.clave = clave;
+            this.texto = texto;
+            this.normalizado = normalizado;
+        }
+    }
+}
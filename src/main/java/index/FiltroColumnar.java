@@ -0,0 +1,110 @@
+package index;
+
+/**
+ * Predicado combinado sobre los campeones del {@link AlmacenColumnar}: todos los criterios con valor
+ * se tienen que cumplir a la vez (rol Y raza Y dificultad Y rangos numéricos).
+ * Los criterios sin valor ({@code null}) no se aplican; un filtro vacío selecciona todos los campeones.
+ * Los textos se comparan exactamente, igual que en la base de datos; los rangos incluyen sus extremos.
+ */
+public class FiltroColumnar {
+
+    private String rol;
+    private String raza;
+    private String dificultad;
+    private Integer minimoAspectos;
+    private Integer maximoAspectos;
+    private Integer minimoRelatos;
+    private Integer maximoRelatos;
+    private Integer minimoRelaciones;
+    private Integer maximoRelaciones;
+
+    /**
+     * Constructor vacío de la clase FiltroColumnar.
+     */
+    public FiltroColumnar() {
+    }
+
+    public String getRol() {
+        return rol;
+    }
+
+    public void setRol(String rol) {
+        this.rol = rol;
+    }
+
+    public String getRaza() {
+        return raza;
+    }
+
+    public void setRaza(String raza) {
+        this.raza = raza;
+    }
+
+    public String getDificultad() {
+        return dificultad;
+    }
+
+    public void setDificultad(String dificultad) {
+        this.dificultad = dificultad;
+    }
+
+    public Integer getMinimoAspectos() {
+        return minimoAspectos;
+    }
+
+    public void setMinimoAspectos(Integer minimoAspectos) {
+        this.minimoAspectos = minimoAspectos;
+    }
+
+    public Integer getMaximoAspectos() {
+        return maximoAspectos;
+    }
+
+    public void setMaximoAspectos(Integer maximoAspectos) {
+        this.maximoAspectos = maximoAspectos;
+    }
+
+    public Integer getMinimoRelatos() {
+        return minimoRelatos;
+    }
+
+    public void setMinimoRelatos(Integer minimoRelatos) {
+        this.minimoRelatos = minimoRelatos;
+    }
+
+    public Integer getMaximoRelatos() {
+        return maximoRelatos;
+    }
+
+    public void setMaximoRelatos(Integer maximoRelatos) {
+        this.maximoRelatos = maximoRelatos;
+    }
+
+    public Integer getMinimoRelaciones() {
+        return minimoRelaciones;
+    }
+
+    public void setMinimoRelaciones(Integer minimoRelaciones) {
+        this.minimoRelaciones = minimoRelaciones;
+    }
+
+    public Integer getMaximoRelaciones() {
+        return maximoRelaciones;
+    }
+
+    public void setMaximoRelaciones(Integer maximoRelaciones) {
+        this.maximoRelaciones = maximoRelaciones;
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroColumnar{" +
+                "rol='" + rol + '\'' +
+                ", raza='" + raza + '\'' +
+                ", dificultad='" + dificultad + '\'' +
+                ", aspectos=[" + minimoAspectos + ", " + maximoAspectos + ']' +
+                ", relatos=[" + minimoRelatos + ", " + maximoRelatos + ']' +
+                ", relaciones=[" + minimoRelaciones + ", " + maximoRelaciones + ']' +
+                '}';
+    }
+}
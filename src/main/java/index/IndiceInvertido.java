@@ -0,0 +1,387 @@
+package index;
+
+import controller.CatalogoListener;
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre campeones, regiones y habilidades.
+ * Cada documento recibe un identificador interno creciente, de modo que las listas
+ * de apariciones (postings) se guardan con codificación delta: pares
+ * {@code [distancia al documento anterior, frecuencia]} escritos como enteros de longitud variable
+ * (7 bits por byte) en un array de bytes, así que una aparición cercana a la anterior ocupa 2 bytes.
+ * Las modificaciones marcan el documento antiguo como eliminado y añaden uno nuevo;
+ * cuando los eliminados superan a los vivos, tras una modificación o un borrado, el índice se compacta.
+ * Se mantiene sincronizado registrándolo como {@link CatalogoListener} en los controladores.
+ */
+public class IndiceInvertido implements CatalogoListener {
+
+    /** Los términos de los nombres cuentan más que los de las descripciones. */
+    private static final int PESO_NOMBRE = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MINIMO_PARA_COMPACTAR = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> terminos = new HashMap<>();
+    private final Map<TipoEntidad, Map<Object, Integer>> documentoPorClave = new EnumMap<>(TipoEntidad.class);
+    private final BitSet eliminados = new BitSet();
+
+    private TipoEntidad[] tipos = new TipoEntidad[64];
+    private Object[] claves = new Object[64];
+    private String[] titulos = new String[64];
+    private int[] longitudes = new int[64];
+    private int numeroDocumentos;
+    private int documentosVivos;
+    private long longitudTotal;
+
+    /**
+     * Constructor de la clase IndiceInvertido.
+     */
+    public IndiceInvertido() {
+        for (TipoEntidad tipo : TipoEntidad.values()) {
+            documentoPorClave.put(tipo, new HashMap<>());
+        }
+    }
+
+    /**
+     * Busca en todas las entidades los documentos que contienen alguno de los términos
+     * de la consulta y devuelve los mejores ordenados por relevancia (BM25).
+     *
+     * @param consulta El texto a buscar.
+     * @param limite   El número máximo de resultados.
+     * @return Los resultados de mayor puntuación, de mayor a menor.
+     */
+    public List<Resultado> buscar(String consulta, int limite) {
+        if (limite <= 0) {
+            return Collections.emptyList();
+        }
+        List<String> consultaTerminos = new ArrayList<>(new LinkedHashSet<>(Normalizador.tokenizar(consulta)));
+        lock.readLock().lock();
+        try {
+            if (consultaTerminos.isEmpty() || documentosVivos == 0) {
+                return Collections.emptyList();
+            }
+            double longitudMedia = (double) longitudTotal / documentosVivos;
+            float[] puntuaciones = new float[numeroDocumentos];
+            int[] tocados = new int[16];
+            int numeroTocados = 0;
+
+            for (String termino : consultaTerminos) {
+                Postings postings = terminos.get(termino);
+                if (postings == null) {
+                    continue;
+                }
+                // Las apariciones de documentos eliminados no se descuentan hasta la siguiente compactación
+                int frecuenciaDocumental = Math.min(postings.documentos, documentosVivos);
+                double idf = Math.log(1 + (documentosVivos - frecuenciaDocumental + 0.5) / (frecuenciaDocumental + 0.5));
+                Lector lector = new Lector(postings);
+                while (lector.siguiente()) {
+                    int documento = lector.documento;
+                    if (eliminados.get(documento)) {
+                        continue;
+                    }
+                    int frecuencia = lector.frecuencia;
+                    double normalizacion = K1 * (1 - B + B * longitudes[documento] / longitudMedia);
+                    if (puntuaciones[documento] == 0) {
+                        if (numeroTocados == tocados.length) {
+                            tocados = Arrays.copyOf(tocados, numeroTocados * 2);
+                        }
+                        tocados[numeroTocados++] = documento;
+                    }
+                    puntuaciones[documento] += (float) (idf * frecuencia * (K1 + 1) / (frecuencia + normalizacion));
+                }
+            }
+
+            PriorityQueue<Integer> mejores = new PriorityQueue<>(limite + 1,
+                    Comparator.comparingDouble((Integer d) -> puntuaciones[d]).thenComparing(d -> -d));
+            for (int i = 0; i < numeroTocados; i++) {
+                mejores.offer(tocados[i]);
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+            Resultado[] resultados = new Resultado[mejores.size()];
+            for (int i = resultados.length - 1; i >= 0; i--) {
+                int documento = mejores.poll();
+                resultados[i] = new Resultado(tipos[documento], claves[documento], titulos[documento], puntuaciones[documento]);
+            }
+            return Arrays.asList(resultados);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve el número de documentos vivos en el índice.
+     *
+     * @return El número de entidades indexadas.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentosVivos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el índice por completo.
+     */
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            terminos.clear();
+            documentoPorClave.values().forEach(Map::clear);
+            eliminados.clear();
+            Arrays.fill(tipos, null);
+            Arrays.fill(claves, null);
+            Arrays.fill(titulos, null);
+            numeroDocumentos = 0;
+            documentosVivos = 0;
+            longitudTotal = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        contar(frecuencias, campeon.getNombre(), PESO_NOMBRE);
+        contar(frecuencias, campeon.getApodo(), PESO_NOMBRE);
+        contar(frecuencias, campeon.getRol(), 1);
+        contar(frecuencias, campeon.getRaza(), 1);
+        contar(frecuencias, campeon.getBiografia(), 1);
+        indexar(TipoEntidad.CAMPEON, campeon.getId_campeon(), campeon.getNombre(), frecuencias);
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        eliminar(TipoEntidad.CAMPEON, id);
+    }
+
+    @Override
+    public void regionGuardada(Region region) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        contar(frecuencias, region.getNombre_region(), PESO_NOMBRE);
+        contar(frecuencias, region.getDescripcion(), 1);
+        indexar(TipoEntidad.REGION, region.getId_region(), region.getNombre_region(), frecuencias);
+    }
+
+    @Override
+    public void regionEliminada(int id) {
+        eliminar(TipoEntidad.REGION, id);
+    }
+
+    @Override
+    public void habilidadGuardada(Habilidad habilidad) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        contar(frecuencias, habilidad.getNombre(), PESO_NOMBRE);
+        contar(frecuencias, habilidad.getDescripcion(), 1);
+        indexar(TipoEntidad.HABILIDAD, habilidad.getNombre(), habilidad.getNombre(), frecuencias);
+    }
+
+    @Override
+    public void habilidadEliminada(String nombre) {
+        eliminar(TipoEntidad.HABILIDAD, nombre);
+    }
+
+    private static void contar(Map<String, Integer> frecuencias, String texto, int peso) {
+        for (String termino : Normalizador.tokenizar(texto)) {
+            frecuencias.merge(termino, peso, Integer::sum);
+        }
+    }
+
+    private void indexar(TipoEntidad tipo, Object clave, String titulo, Map<String, Integer> frecuencias) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(tipo, clave);
+            int documento = numeroDocumentos++;
+            if (documento == tipos.length) {
+                int capacidad = documento * 2;
+                tipos = Arrays.copyOf(tipos, capacidad);
+                claves = Arrays.copyOf(claves, capacidad);
+                titulos = Arrays.copyOf(titulos, capacidad);
+                longitudes = Arrays.copyOf(longitudes, capacidad);
+            }
+            int longitud = 0;
+            for (Map.Entry<String, Integer> entrada : frecuencias.entrySet()) {
+                terminos.computeIfAbsent(entrada.getKey(), t -> new Postings()).anadir(documento, entrada.getValue());
+                longitud += entrada.getValue();
+            }
+            tipos[documento] = tipo;
+            claves[documento] = clave;
+            titulos[documento] = titulo;
+            longitudes[documento] = longitud;
+            longitudTotal += longitud;
+            documentosVivos++;
+            documentoPorClave.get(tipo).put(clave, documento);
+            compactarSiHaceFalta();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void eliminar(TipoEntidad tipo, Object clave) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(tipo, clave);
+            compactarSiHaceFalta();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compacta el índice si los documentos eliminados superan a los vivos. Las modificaciones también
+     * dejan un documento eliminado, así que se comprueba tanto al indexar como al eliminar.
+     */
+    private void compactarSiHaceFalta() {
+        int numeroEliminados = numeroDocumentos - documentosVivos;
+        if (numeroEliminados > MINIMO_PARA_COMPACTAR && numeroEliminados > documentosVivos) {
+            compactar();
+        }
+    }
+
+    private void eliminarSinBloqueo(TipoEntidad tipo, Object clave) {
+        Integer documento = documentoPorClave.get(tipo).remove(clave);
+        if (documento != null) {
+            eliminados.set(documento);
+            longitudTotal -= longitudes[documento];
+            documentosVivos--;
+        }
+    }
+
+    /**
+     * Renumera los documentos vivos de forma consecutiva y reconstruye las listas de apariciones
+     * descartando los documentos eliminados.
+     */
+    private void compactar() {
+        int[] nuevoId = new int[numeroDocumentos];
+        int siguiente = 0;
+        for (int documento = 0; documento < numeroDocumentos; documento++) {
+            if (eliminados.get(documento)) {
+                nuevoId[documento] = -1;
+            } else {
+                nuevoId[documento] = siguiente;
+                tipos[siguiente] = tipos[documento];
+                claves[siguiente] = claves[documento];
+                titulos[siguiente] = titulos[documento];
+                longitudes[siguiente] = longitudes[documento];
+                siguiente++;
+            }
+        }
+        Arrays.fill(tipos, siguiente, numeroDocumentos, null);
+        Arrays.fill(claves, siguiente, numeroDocumentos, null);
+        Arrays.fill(titulos, siguiente, numeroDocumentos, null);
+
+        Iterator<Postings> iterador = terminos.values().iterator();
+        while (iterador.hasNext()) {
+            Postings postings = iterador.next();
+            if (postings.renumerar(nuevoId) == 0) {
+                iterador.remove();
+            }
+        }
+        for (Map<Object, Integer> documentos : documentoPorClave.values()) {
+            documentos.replaceAll((clave, documento) -> nuevoId[documento]);
+        }
+        eliminados.clear();
+        numeroDocumentos = siguiente;
+    }
+
+    /**
+     * Lista de apariciones de un término codificada como pares delta/frecuencia de longitud variable.
+     */
+    private static final class Postings {
+        byte[] datos = new byte[8];
+        int tamano;
+        int ultimoDocumento = -1;
+        int documentos;
+
+        void anadir(int documento, int frecuencia) {
+            // Cada entero ocupa como mucho 5 bytes
+            if (tamano + 10 > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, tamano + 10));
+            }
+            escribir(documento - ultimoDocumento);
+            escribir(frecuencia);
+            ultimoDocumento = documento;
+            documentos++;
+        }
+
+        private void escribir(int valor) {
+            while ((valor & ~0x7F) != 0) {
+                datos[tamano++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            datos[tamano++] = (byte) valor;
+        }
+
+        int renumerar(int[] nuevoId) {
+            Lector lector = new Lector(this);
+            datos = new byte[Math.max(8, tamano)];
+            tamano = 0;
+            ultimoDocumento = -1;
+            documentos = 0;
+            while (lector.siguiente()) {
+                if (nuevoId[lector.documento] >= 0) {
+                    anadir(nuevoId[lector.documento], lector.frecuencia);
+                }
+            }
+            return documentos;
+        }
+    }
+
+    /**
+     * Recorre en orden las apariciones de una lista, deshaciendo la codificación delta.
+     */
+    private static final class Lector {
+        private final byte[] datos;
+        private final int fin;
+        private int posicion;
+        int documento = -1;
+        int frecuencia;
+
+        Lector(Postings postings) {
+            this.datos = postings.datos;
+            this.fin = postings.tamano;
+        }
+
+        boolean siguiente() {
+            if (posicion >= fin) {
+                return false;
+            }
+            documento += leer();
+            frecuencia = leer();
+            return true;
+        }
+
+        private int leer() {
+            int valor = 0;
+            for (int desplazamiento = 0; ; desplazamiento += 7) {
+                byte b = datos[posicion++];
+                valor |= (b & 0x7F) << desplazamiento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package index;
+
+import controller.CatalogoListener;
+import model.Campeon;
+import model.Region;
+
+import javax.persistence.Persistence;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de la relación entre regiones y campeones ({@code region_campeon}).
+ * <p>
+ * Cada región guarda un mapa de bits con los IDs de sus campeones y cada campeón uno con los IDs de sus
+ * regiones, así que las preguntas sobre conjuntos (campeones compartidos por varias regiones, regiones de
+ * una lista de campeones, campeones que no están en ninguna de unas regiones...) se responden con
+ * operaciones AND, OR y ANDNOT sobre palabras de 64 bits en lugar de recorrer las colecciones perezosas
+ * de las entidades. Los IDs son enteros pequeños y consecutivos, por lo que un {@link BitSet} ocupa pocas
+ * palabras. Además se guarda el conjunto de todos los campeones, para poder calcular complementos.
+ * <p>
+ * Se mantiene sincronizado registrándolo como {@link CatalogoListener} en los controladores de regiones
+ * y de campeones. Los métodos de consulta devuelven copias que el llamador puede modificar.
+ */
+public class IndicePertenencias implements CatalogoListener {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, BitSet> campeonesPorRegion = new HashMap<>();
+    private final Map<Integer, BitSet> regionesPorCampeon = new HashMap<>();
+    private final BitSet campeones = new BitSet();
+
+    /**
+     * Constructor de la clase IndicePertenencias.
+     */
+    public IndicePertenencias() {
+    }
+
+    /**
+     * Sustituye todo el contenido del índice.
+     *
+     * @param campeones    Los IDs de todos los campeones, pertenezcan o no a alguna región.
+     * @param regiones     Los IDs de todas las regiones, tengan o no campeones.
+     * @param pertenencias Pares {@code [ID de región, ID de campeón]} de la tabla {@code region_campeon}.
+     */
+    public void cargar(Collection<Integer> campeones, Collection<Integer> regiones, Collection<Object[]> pertenencias) {
+        lock.writeLock().lock();
+        try {
+            vaciar();
+            campeones.forEach(this.campeones::set);
+            regiones.forEach(region -> campeonesPorRegion.put(region, new BitSet()));
+            for (Object[] pertenencia : pertenencias) {
+                poner(((Number) pertenencia[0]).intValue(), ((Number) pertenencia[1]).intValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el índice por completo.
+     */
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            vaciar();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los campeones que pertenecen a todas las regiones indicadas (intersección).
+     *
+     * @param regiones Los IDs de las regiones; sin regiones no hay ningún campeón.
+     * @return Los IDs de los campeones.
+     */
+    public BitSet campeonesDeTodas(Collection<Integer> regiones) {
+        lock.readLock().lock();
+        try {
+            BitSet resultado = null;
+            for (Integer region : regiones) {
+                BitSet miembros = campeonesPorRegion.get(region);
+                if (miembros == null) {
+                    return new BitSet();
+                }
+                if (resultado == null) {
+                    resultado = (BitSet) miembros.clone();
+                } else {
+                    resultado.and(miembros);
+                }
+            }
+            return resultado == null ? new BitSet() : resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los campeones que pertenecen a alguna de las regiones indicadas (unión).
+     *
+     * @param regiones Los IDs de las regiones.
+     * @return Los IDs de los campeones.
+     */
+    public BitSet campeonesDeAlguna(Collection<Integer> regiones) {
+        lock.readLock().lock();
+        try {
+            return unir(campeonesPorRegion, regiones);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los campeones que no pertenecen a ninguna de las regiones indicadas (complemento de la unión),
+     * incluidos los que no pertenecen a ninguna región.
+     *
+     * @param regiones Los IDs de las regiones.
+     * @return Los IDs de los campeones.
+     */
+    public BitSet campeonesDeNinguna(Collection<Integer> regiones) {
+        lock.readLock().lock();
+        try {
+            BitSet resultado = (BitSet) campeones.clone();
+            resultado.andNot(unir(campeonesPorRegion, regiones));
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los campeones que pertenecen a alguna de las regiones incluidas pero a ninguna de las
+     * excluidas (diferencia).
+     *
+     * @param incluidas Los IDs de las regiones cuyos campeones se buscan.
+     * @param excluidas Los IDs de las regiones cuyos campeones se descartan.
+     * @return Los IDs de los campeones.
+     */
+    public BitSet campeonesDeAlgunaSinLasDe(Collection<Integer> incluidas, Collection<Integer> excluidas) {
+        lock.readLock().lock();
+        try {
+            BitSet resultado = unir(campeonesPorRegion, incluidas);
+            resultado.andNot(unir(campeonesPorRegion, excluidas));
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las regiones a las que pertenece alguno de los campeones indicados (unión).
+     *
+     * @param campeones Los IDs de los campeones.
+     * @return Los IDs de las regiones.
+     */
+    public BitSet regionesDeAlguno(Collection<Integer> campeones) {
+        lock.readLock().lock();
+        try {
+            return unir(regionesPorCampeon, campeones);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cuenta los campeones de una región sin copiar su mapa de bits.
+     *
+     * @param region El ID de la región.
+     * @return El número de campeones de la región, 0 si no existe.
+     */
+    public int contarCampeones(int region) {
+        lock.readLock().lock();
+        try {
+            BitSet miembros = campeonesPorRegion.get(region);
+            return miembros == null ? 0 : miembros.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        lock.writeLock().lock();
+        try {
+            campeones.set(campeon.getId_campeon());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        lock.writeLock().lock();
+        try {
+            campeones.clear(id);
+            BitSet regiones = regionesPorCampeon.remove(id);
+            if (regiones != null) {
+                for (int region = regiones.nextSetBit(0); region >= 0; region = regiones.nextSetBit(region + 1)) {
+                    campeonesPorRegion.get(region).clear(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void regionGuardada(Region region) {
+        BitSet miembros = null;
+        // Con los campeones sin cargar, como al modificar solo los datos propios de la región, se conservan sus pertenencias
+        if (Persistence.getPersistenceUtil().isLoaded(region, "campeones")) {
+            miembros = new BitSet();
+            for (Campeon campeon : region.getCampeones()) {
+                miembros.set(campeon.getId_campeon());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (miembros == null) {
+                campeonesPorRegion.putIfAbsent(region.getId_region(), new BitSet());
+                return;
+            }
+            quitarRegion(region.getId_region());
+            campeonesPorRegion.put(region.getId_region(), new BitSet());
+            campeones.or(miembros);
+            for (int campeon = miembros.nextSetBit(0); campeon >= 0; campeon = miembros.nextSetBit(campeon + 1)) {
+                poner(region.getId_region(), campeon);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void regionEliminada(int id) {
+        lock.writeLock().lock();
+        try {
+            quitarRegion(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void poner(int region, int campeon) {
+        campeonesPorRegion.computeIfAbsent(region, r -> new BitSet()).set(campeon);
+        regionesPorCampeon.computeIfAbsent(campeon, c -> new BitSet()).set(region);
+    }
+
+    private void quitarRegion(int id) {
+        BitSet miembros = campeonesPorRegion.remove(id);
+        if (miembros == null) {
+            return;
+        }
+        for (int campeon = miembros.nextSetBit(0); campeon >= 0; campeon = miembros.nextSetBit(campeon + 1)) {
+            BitSet regiones = regionesPorCampeon.get(campeon);
+            regiones.clear(id);
+            if (regiones.isEmpty()) {
+                regionesPorCampeon.remove(campeon);
+            }
+        }
+    }
+
+    private void vaciar() {
+        campeonesPorRegion.clear();
+        regionesPorCampeon.clear();
+        campeones.clear();
+    }
+
+    private static BitSet unir(Map<Integer, BitSet> mapas, Collection<Integer> claves) {
+        BitSet resultado = new BitSet();
+        for (Integer clave : claves) {
+            BitSet mapa = mapas.get(clave);
+            if (mapa != null) {
+                resultado.or(mapa);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,256 @@
+package index;
+
+import controller.CatalogoListener;
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Árbol de prefijos (trie) en memoria sobre los nombres del catálogo: nombre y apodo de los
+ * campeones, nombre de las regiones y nombre de las habilidades.
+ * Cada tipo de entidad tiene su propio trie y cada nodo guarda el peso máximo de su subárbol, lo que
+ * permite obtener las {@code k} mejores compleciones recorriendo los tries en orden de peso y sin
+ * visitar el resto, tampoco los subárboles de otros tipos.
+ * Los nodos son {@link NodoTrie}, los mismos que los de {@link BuscadorDifuso}.
+ */
+public class IndicePrefijos implements CatalogoListener {
+
+    private final ToIntFunction<Campeon> pesoCampeon;
+    private final ToIntFunction<Region> pesoRegion;
+    private final ToIntFunction<Habilidad> pesoHabilidad;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<TipoEntidad, NodoTrie<Entrada>> raices = new EnumMap<>(TipoEntidad.class);
+    private final Map<TipoEntidad, Map<Object, List<Entrada>>> entradasPorClave = new EnumMap<>(TipoEntidad.class);
+
+    /**
+     * Constructor que ordena las compleciones por número de aspectos para los campeones,
+     * por historias relacionadas para las regiones y por el número de aspectos del campeón
+     * propietario para las habilidades.
+     */
+    public IndicePrefijos() {
+        this(Campeon::getNumero_de_aspectos,
+                Region::getHistorias_relacionadas,
+                h -> h.getCampeon() != null ? h.getCampeon().getNumero_de_aspectos() : 0);
+    }
+
+    /**
+     * Constructor con funciones de peso configurables.
+     *
+     * @param pesoCampeon   el peso de las compleciones de campeones
+     * @param pesoRegion    el peso de las compleciones de regiones
+     * @param pesoHabilidad el peso de las compleciones de habilidades
+     */
+    public IndicePrefijos(ToIntFunction<Campeon> pesoCampeon, ToIntFunction<Region> pesoRegion, ToIntFunction<Habilidad> pesoHabilidad) {
+        this.pesoCampeon = pesoCampeon;
+        this.pesoRegion = pesoRegion;
+        this.pesoHabilidad = pesoHabilidad;
+        for (TipoEntidad tipo : TipoEntidad.values()) {
+            raices.put(tipo, new NodoTrie<>());
+            entradasPorClave.put(tipo, new HashMap<>());
+        }
+    }
+
+    /**
+     * Vacía el índice por completo.
+     */
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            raices.values().forEach(NodoTrie::vaciar);
+            entradasPorClave.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los nombres de mayor peso que empiezan por el prefijo indicado. Si varios textos de
+     * una misma entidad empiezan por el prefijo, como el nombre y el apodo de un campeón, la entidad
+     * solo se devuelve una vez, con el primero.
+     *
+     * @param prefijo El prefijo escrito por el usuario; no distingue mayúsculas ni acentos.
+     * @param tipo    El tipo de entidad a completar, o {@code null} para todos.
+     * @param limite  El número máximo de compleciones.
+     * @return Las compleciones ordenadas de mayor a menor peso.
+     */
+    public List<Resultado> completar(String prefijo, TipoEntidad tipo, int limite) {
+        String normalizado = Normalizador.normalizar(prefijo);
+        lock.readLock().lock();
+        try {
+            List<Resultado> resultados = new ArrayList<>();
+            if (limite <= 0) {
+                return resultados;
+            }
+
+            // Recorrido "primero el mejor": los nodos entran con la cota de su subárbol
+            // y las entradas con su peso real, así que cada entrada sale en orden definitivo.
+            PriorityQueue<Object> pendientes = new PriorityQueue<>(
+                    Comparator.comparingInt(IndicePrefijos::peso).reversed());
+            for (TipoEntidad tipoRaiz : tipo == null ? TipoEntidad.values() : new TipoEntidad[]{tipo}) {
+                NodoTrie<Entrada> nodo = raices.get(tipoRaiz);
+                for (int i = 0; i < normalizado.length() && nodo != null; i++) {
+                    nodo = nodo.hijo(normalizado.charAt(i));
+                }
+                if (nodo != null) {
+                    pendientes.add(nodo);
+                }
+            }
+            Map<TipoEntidad, Set<Object>> devueltas = new EnumMap<>(TipoEntidad.class);
+            while (!pendientes.isEmpty() && resultados.size() < limite) {
+                Object siguiente = pendientes.poll();
+                if (siguiente instanceof Entrada) {
+                    Entrada entrada = (Entrada) siguiente;
+                    if (devueltas.computeIfAbsent(entrada.tipo, t -> new HashSet<>()).add(entrada.clave)) {
+                        resultados.add(new Resultado(entrada.tipo, entrada.clave, entrada.texto, entrada.peso));
+                    }
+                } else {
+                    NodoTrie<?> actual = (NodoTrie<?>) siguiente;
+                    if (actual.entradas != null) {
+                        pendientes.addAll(actual.entradas);
+                    }
+                    for (NodoTrie<?> hijo : actual.hijos) {
+                        pendientes.add(hijo);
+                    }
+                }
+            }
+            return resultados;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        int peso = pesoCampeon.applyAsInt(campeon);
+        reemplazar(TipoEntidad.CAMPEON, campeon.getId_campeon(), peso, campeon.getNombre(), campeon.getApodo());
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        reemplazar(TipoEntidad.CAMPEON, id, 0);
+    }
+
+    @Override
+    public void regionGuardada(Region region) {
+        reemplazar(TipoEntidad.REGION, region.getId_region(), pesoRegion.applyAsInt(region), region.getNombre_region());
+    }
+
+    @Override
+    public void regionEliminada(int id) {
+        reemplazar(TipoEntidad.REGION, id, 0);
+    }
+
+    @Override
+    public void habilidadGuardada(Habilidad habilidad) {
+        reemplazar(TipoEntidad.HABILIDAD, habilidad.getNombre(), pesoHabilidad.applyAsInt(habilidad), habilidad.getNombre());
+    }
+
+    @Override
+    public void habilidadEliminada(String nombre) {
+        reemplazar(TipoEntidad.HABILIDAD, nombre, 0);
+    }
+
+    /**
+     * Sustituye los textos indexados de una entidad; sin textos equivale a eliminarla.
+     */
+    private void reemplazar(TipoEntidad tipo, Object clave, int peso, String... textos) {
+        lock.writeLock().lock();
+        try {
+            List<Entrada> anteriores = entradasPorClave.get(tipo).remove(clave);
+            if (anteriores != null) {
+                for (Entrada entrada : anteriores) {
+                    quitar(entrada);
+                }
+            }
+            List<Entrada> nuevas = new ArrayList<>(textos.length);
+            for (String texto : textos) {
+                if (texto == null || texto.isEmpty()) {
+                    continue;
+                }
+                Entrada entrada = new Entrada(tipo, clave, texto, Normalizador.normalizar(texto), peso);
+                poner(entrada);
+                nuevas.add(entrada);
+            }
+            if (!nuevas.isEmpty()) {
+                entradasPorClave.get(tipo).put(clave, nuevas);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void poner(Entrada entrada) {
+        NodoTrie<Entrada> nodo = raices.get(entrada.tipo);
+        nodo.pesoMaximo = Math.max(nodo.pesoMaximo, entrada.peso);
+        for (int i = 0; i < entrada.clavePrefijo.length(); i++) {
+            nodo = nodo.hijoOCrear(entrada.clavePrefijo.charAt(i));
+            nodo.pesoMaximo = Math.max(nodo.pesoMaximo, entrada.peso);
+        }
+        if (nodo.entradas == null) {
+            nodo.entradas = new ArrayList<>(1);
+        }
+        nodo.entradas.add(entrada);
+    }
+
+    private void quitar(Entrada entrada) {
+        NodoTrie<Entrada>[] camino = raices.get(entrada.tipo).quitar(entrada.clavePrefijo, entrada);
+        if (camino == null) {
+            return;
+        }
+        // Recalcular las cotas de abajo arriba en los nodos que no se han podado
+        for (int i = camino.length - 1; i >= 0; i--) {
+            if (camino[i] != null) {
+                recalcularPeso(camino[i]);
+            }
+        }
+    }
+
+    private static void recalcularPeso(NodoTrie<Entrada> nodo) {
+        int maximo = Integer.MIN_VALUE;
+        if (nodo.entradas != null) {
+            for (Entrada entrada : nodo.entradas) {
+                maximo = Math.max(maximo, entrada.peso);
+            }
+        }
+        for (NodoTrie<Entrada> hijo : nodo.hijos) {
+            maximo = Math.max(maximo, hijo.pesoMaximo);
+        }
+        nodo.pesoMaximo = maximo;
+    }
+
+    private static int peso(Object elemento) {
+        return elemento instanceof Entrada ? ((Entrada) elemento).peso : ((NodoTrie<?>) elemento).pesoMaximo;
+    }
+
+    /**
+     * Texto indexado de una entidad.
+     */
+    private static final class Entrada {
+        final TipoEntidad tipo;
+        final Object clave;
+        final String texto;
+        final String clavePrefijo;
+        final int peso;
+
+        Entrada(TipoEntidad tipo, Object clave, String texto, String clavePrefijo, int peso) {
+            this.tipo = tipo;
+            this.clave = clave;
+            this.texto = texto;
+            this.clavePrefijo = clavePrefijo;
+            this.peso = peso;
+        }
+    }
+}
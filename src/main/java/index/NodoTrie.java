@@ -0,0 +1,132 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Nodo de los árboles de prefijos de {@link IndicePrefijos} y {@link BuscadorDifuso}.
+ * Los hijos se guardan en dos arrays paralelos ordenados por carácter, que ocupan mucho menos que un
+ * mapa por nodo y se buscan con una búsqueda binaria. Cada nodo guarda las entradas de los textos que
+ * terminan en él.
+ *
+ * @param <E> El tipo de las entradas.
+ */
+final class NodoTrie<E> {
+
+    private static final char[] SIN_LETRAS = new char[0];
+    private static final NodoTrie<?>[] SIN_HIJOS = new NodoTrie<?>[0];
+
+    char[] letras = SIN_LETRAS;
+    NodoTrie<E>[] hijos = sinHijos();
+    List<E> entradas;
+
+    /** Peso máximo del subárbol; solo lo mantiene {@link IndicePrefijos}. */
+    int pesoMaximo = Integer.MIN_VALUE;
+
+    NodoTrie<E> hijo(char letra) {
+        int posicion = Arrays.binarySearch(letras, letra);
+        return posicion >= 0 ? hijos[posicion] : null;
+    }
+
+    NodoTrie<E> hijoOCrear(char letra) {
+        int posicion = Arrays.binarySearch(letras, letra);
+        if (posicion >= 0) {
+            return hijos[posicion];
+        }
+        int insercion = -posicion - 1;
+        char[] nuevasLetras = new char[letras.length + 1];
+        NodoTrie<E>[] nuevosHijos = Arrays.copyOf(hijos, hijos.length + 1);
+        System.arraycopy(letras, 0, nuevasLetras, 0, insercion);
+        System.arraycopy(letras, insercion, nuevasLetras, insercion + 1, letras.length - insercion);
+        System.arraycopy(hijos, insercion, nuevosHijos, insercion + 1, hijos.length - insercion);
+        NodoTrie<E> nuevo = new NodoTrie<>();
+        nuevasLetras[insercion] = letra;
+        nuevosHijos[insercion] = nuevo;
+        letras = nuevasLetras;
+        hijos = nuevosHijos;
+        return nuevo;
+    }
+
+    /**
+     * Deja el nodo sin hijos ni entradas, como recién creado.
+     */
+    void vaciar() {
+        letras = SIN_LETRAS;
+        hijos = sinHijos();
+        entradas = null;
+        pesoMaximo = Integer.MIN_VALUE;
+    }
+
+    void quitarHijo(char letra) {
+        int posicion = Arrays.binarySearch(letras, letra);
+        if (posicion < 0) {
+            return;
+        }
+        if (letras.length == 1) {
+            letras = SIN_LETRAS;
+            hijos = sinHijos();
+            return;
+        }
+        char[] nuevasLetras = new char[letras.length - 1];
+        NodoTrie<E>[] nuevosHijos = Arrays.copyOf(hijos, hijos.length - 1);
+        System.arraycopy(letras, 0, nuevasLetras, 0, posicion);
+        System.arraycopy(letras, posicion + 1, nuevasLetras, posicion, letras.length - posicion - 1);
+        System.arraycopy(hijos, posicion + 1, nuevosHijos, posicion, hijos.length - posicion - 1);
+        letras = nuevasLetras;
+        hijos = nuevosHijos;
+    }
+
+    /**
+     * Añade una entrada al nodo del texto, creando los nodos que falten.
+     *
+     * @param texto   El texto normalizado.
+     * @param entrada La entrada.
+     * @return El nodo en el que termina el texto.
+     */
+    NodoTrie<E> poner(String texto, E entrada) {
+        NodoTrie<E> nodo = this;
+        for (int i = 0; i < texto.length(); i++) {
+            nodo = nodo.hijoOCrear(texto.charAt(i));
+        }
+        if (nodo.entradas == null) {
+            nodo.entradas = new ArrayList<>(1);
+        }
+        nodo.entradas.add(entrada);
+        return nodo;
+    }
+
+    /**
+     * Quita una entrada del nodo del texto y devuelve el camino desde este nodo, para que quien llama recalcule
+     * lo que dependa de él. Las ramas que se quedan sin entradas ni hijos se podan.
+     *
+     * @param texto   El texto normalizado.
+     * @param entrada La entrada.
+     * @return Los nodos del camino, empezando por este; las posiciones podadas quedan a {@code null}. Si el texto
+     * no está en el trie, {@code null}.
+     */
+    NodoTrie<E>[] quitar(String texto, E entrada) {
+        NodoTrie<E>[] camino = Arrays.copyOf(sinHijos(), texto.length() + 1);
+        camino[0] = this;
+        for (int i = 0; i < texto.length(); i++) {
+            camino[i + 1] = camino[i].hijo(texto.charAt(i));
+            if (camino[i + 1] == null) {
+                return null;
+            }
+        }
+        NodoTrie<E> terminal = camino[texto.length()];
+        if (terminal.entradas != null && terminal.entradas.remove(entrada) && terminal.entradas.isEmpty()) {
+            terminal.entradas = null;
+        }
+        for (int i = texto.length(); i > 0 && camino[i].entradas == null && camino[i].hijos.length == 0; i--) {
+            camino[i - 1].quitarHijo(texto.charAt(i - 1));
+            camino[i] = null;
+        }
+        return camino;
+    }
+
+    @SuppressWarnings("unchecked") // El array vacío no contiene ningún nodo, así que vale para cualquier E
+    private static <E> NodoTrie<E>[] sinHijos() {
+        return (NodoTrie<E>[]) SIN_HIJOS;
+    }
+}
@@ -0,0 +1,58 @@
+package index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidades de normalización de texto compartidas por los índices en memoria.
+ * Todas las búsquedas ignoran mayúsculas y acentos.
+ */
+public final class Normalizador {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private Normalizador() { }
+
+    /**
+     * Pasa el texto a minúsculas y elimina los acentos.
+     *
+     * @param texto El texto a normalizar.
+     * @return El texto normalizado, o una cadena vacía si es {@code null}.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Divide el texto normalizado en términos formados por letras y dígitos.
+     *
+     * @param texto El texto a dividir.
+     * @return La lista de términos en el orden en que aparecen.
+     */
+    public static List<String> tokenizar(String texto) {
+        String normalizado = normalizar(texto);
+        List<String> terminos = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i < normalizado.length(); i++) {
+            if (Character.isLetterOrDigit(normalizado.charAt(i))) {
+                if (inicio < 0) {
+                    inicio = i;
+                }
+            } else if (inicio >= 0) {
+                terminos.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        if (inicio >= 0) {
+            terminos.add(normalizado.substring(inicio));
+        }
+        return terminos;
+    }
+}
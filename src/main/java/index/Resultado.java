@@ -0,0 +1,54 @@
+package index;
+
+/**
+ * Resultado de una búsqueda en los índices en memoria del catálogo.
+ * Identifica la entidad por su tipo y su clave primaria.
+ */
+public final class Resultado {
+
+    private final TipoEntidad tipo;
+    private final Object clave;
+    private final String titulo;
+    private final double puntuacion;
+
+    /**
+     * Constructor de la clase Resultado.
+     *
+     * @param tipo       el tipo de la entidad encontrada
+     * @param clave      la clave primaria de la entidad (ID o nombre de la habilidad)
+     * @param titulo     el nombre visible de la entidad
+     * @param puntuacion la relevancia del resultado; mayor es mejor
+     */
+    public Resultado(TipoEntidad tipo, Object clave, String titulo, double puntuacion) {
+        this.tipo = tipo;
+        this.clave = clave;
+        this.titulo = titulo;
+        this.puntuacion = puntuacion;
+    }
+
+    public TipoEntidad getTipo() {
+        return tipo;
+    }
+
+    public Object getClave() {
+        return clave;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public double getPuntuacion() {
+        return puntuacion;
+    }
+
+    @Override
+    public String toString() {
+        return "Resultado{" +
+                "tipo=" + tipo +
+                ", clave=" + clave +
+                ", titulo='" + titulo + '\'' +
+                ", puntuacion=" + puntuacion +
+                '}';
+    }
+}
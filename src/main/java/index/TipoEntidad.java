@@ -0,0 +1,10 @@
+package index;
+
+/**
+ * Tipos de entidad del catálogo que pueden aparecer en los índices en memoria.
+ */
+public enum TipoEntidad {
+    CAMPEON,
+    REGION,
+    HABILIDAD
+}
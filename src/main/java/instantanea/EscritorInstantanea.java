@@ -0,0 +1,184 @@
+package instantanea;
+
+import controller.Sesiones;
+import model.Campeon;
+import model.Region;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Escribe una {@link Instantanea} con el contenido actual de la base de datos.
+ * <p>
+ * Todo se lee en una única transacción de solo lectura, así que la instantánea es coherente aunque otros
+ * usuarios estén modificando el catálogo. El fichero se escribe primero con otro nombre y después se
+ * renombra, de modo que quien tenga mapeada la instantánea anterior la sigue leyendo entera.
+ */
+public final class EscritorInstantanea {
+
+    private EscritorInstantanea() { }
+
+    /**
+     * Guarda el catálogo en una instantánea.
+     *
+     * @param entityManagerFactory La fábrica de entity manager de la base de datos a copiar.
+     * @param ruta                 El fichero de la instantánea; si ya existe se sustituye.
+     * @return El tamaño del fichero escrito, en bytes.
+     * @throws IOException Si no se puede escribir el fichero.
+     */
+    public static long escribir(EntityManagerFactory entityManagerFactory, Path ruta) throws IOException {
+        Catalogo catalogo = new Sesiones(entityManagerFactory).recorrer(session -> {
+            Catalogo leido = new Catalogo();
+            leido.campeones = session.createQuery("SELECT c FROM Campeon c ORDER BY c.id_campeon", Campeon.class).getResultList();
+            leido.regiones = session.createQuery("SELECT r FROM Region r ORDER BY r.id_region", Region.class).getResultList();
+            leido.pertenencias = session.createQuery(
+                    "SELECT r.id_region, c.id_campeon FROM Region r JOIN r.campeones c ORDER BY r.id_region, c.id_campeon", Object[].class)
+                    .getResultList();
+            leido.habilidades = session.createQuery(
+                    "SELECT h.nombre, h.pasiva, h.asignacion_de_tecla, h.descripcion, h.link, c.id_campeon "
+                            + "FROM Habilidad h LEFT JOIN h.campeon c", Object[].class)
+                    .getResultList();
+            return leido;
+        });
+        byte[] contenido = codificar(catalogo, System.currentTimeMillis());
+
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        Files.write(temporal, contenido);
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return contenido.length;
+    }
+
+    /**
+     * Codifica el catálogo en el formato descrito en {@link Instantanea}.
+     */
+    static byte[] codificar(Catalogo catalogo, long creada) {
+        // Tabla de textos ordenada: el número de cada texto respeta el orden alfabético
+        TreeSet<String> distintos = new TreeSet<>();
+        for (Campeon c : catalogo.campeones) {
+            agregar(distintos, c.getNombre(), c.getApodo(), c.getBiografia(), c.getApariencion_en_cinematicas(),
+                    c.getRol(), c.getRaza(), c.getDificultad());
+        }
+        for (Region r : catalogo.regiones) {
+            agregar(distintos, r.getNombre_region(), r.getDescripcion());
+        }
+        for (Object[] h : catalogo.habilidades) {
+            agregar(distintos, (String) h[0], (String) h[3], (String) h[4]);
+        }
+        Map<String, Integer> numeros = new HashMap<>();
+        List<byte[]> textos = new ArrayList<>();
+        int bytesTextos = 0;
+        for (String texto : distintos) {
+            numeros.put(texto, textos.size());
+            byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+            textos.add(utf8);
+            bytesTextos += utf8.length;
+        }
+
+        Map<Integer, List<Integer>> campeonesPorRegion = new TreeMap<>();
+        for (Object[] pertenencia : catalogo.pertenencias) {
+            campeonesPorRegion.computeIfAbsent((Integer) pertenencia[0], k -> new ArrayList<>()).add((Integer) pertenencia[1]);
+        }
+        List<Object[]> habilidades = catalogo.habilidades;
+        List<Integer> porNombre = new ArrayList<>();
+        for (int fila = 0; fila < habilidades.size(); fila++) {
+            porNombre.add(fila);
+        }
+        porNombre.sort(Comparator.comparing(fila -> (String) habilidades.get(fila)[0]));
+
+        int posicionTextos = Instantanea.CABECERA;
+        int posicionCampeones = posicionTextos + 4 * (textos.size() + 1) + bytesTextos;
+        int posicionRegiones = posicionCampeones + 4 * Instantanea.CAMPOS_CAMPEON * catalogo.campeones.size();
+        int posicionPertenencias = posicionRegiones + 4 * Instantanea.CAMPOS_REGION * catalogo.regiones.size();
+        int posicionHabilidades = posicionPertenencias + 4 * catalogo.pertenencias.size();
+        int posicionNombresHabilidades = posicionHabilidades + 4 * Instantanea.CAMPOS_HABILIDAD * habilidades.size();
+        int tamano = posicionNombresHabilidades + 4 * habilidades.size();
+
+        ByteBuffer salida = ByteBuffer.allocate(tamano);
+        salida.putInt(Instantanea.MAGIA).putInt(Instantanea.VERSION).putLong(creada)
+                .putInt(textos.size()).putInt(posicionTextos)
+                .putInt(catalogo.campeones.size()).putInt(posicionCampeones)
+                .putInt(catalogo.regiones.size()).putInt(posicionRegiones)
+                .putInt(catalogo.pertenencias.size()).putInt(posicionPertenencias)
+                .putInt(habilidades.size()).putInt(posicionHabilidades).putInt(posicionNombresHabilidades);
+
+        int inicio = 0;
+        for (byte[] texto : textos) {
+            salida.putInt(inicio);
+            inicio += texto.length;
+        }
+        salida.putInt(inicio);
+        textos.forEach(salida::put);
+
+        for (Campeon c : catalogo.campeones) {
+            salida.putInt(c.getId_campeon())
+                    .putInt(numero(numeros, c.getNombre()))
+                    .putInt(numero(numeros, c.getApodo()))
+                    .putInt(c.getCampeones_con_relacion())
+                    .putInt(numero(numeros, c.getBiografia()))
+                    .putInt(numero(numeros, c.getApariencion_en_cinematicas()))
+                    .putInt(c.getNumero_de_relatos_cortos())
+                    .putInt(numero(numeros, c.getRol()))
+                    .putInt(numero(numeros, c.getRaza()))
+                    .putInt(c.getNumero_de_aspectos())
+                    .putInt(numero(numeros, c.getDificultad()));
+        }
+        int primera = 0;
+        for (Region r : catalogo.regiones) {
+            int campeones = campeonesPorRegion.getOrDefault(r.getId_region(), List.of()).size();
+            salida.putInt(r.getId_region())
+                    .putInt(numero(numeros, r.getNombre_region()))
+                    .putInt(numero(numeros, r.getDescripcion()))
+                    .putInt(r.getHistorias_relacionadas())
+                    .putInt(primera)
+                    .putInt(campeones);
+            primera += campeones;
+        }
+        for (Region r : catalogo.regiones) {
+            campeonesPorRegion.getOrDefault(r.getId_region(), List.of()).forEach(salida::putInt);
+        }
+        for (Object[] h : habilidades) {
+            salida.putInt(numero(numeros, (String) h[0]))
+                    .putInt(Boolean.TRUE.equals(h[1]) ? 1 : 0)
+                    .putInt((Character) h[2])
+                    .putInt(numero(numeros, (String) h[3]))
+                    .putInt(numero(numeros, (String) h[4]))
+                    .putInt(h[5] == null ? Instantanea.SIN_VALOR : (Integer) h[5]);
+        }
+        porNombre.forEach(salida::putInt);
+        return salida.array();
+    }
+
+    private static void agregar(TreeSet<String> textos, String... valores) {
+        for (String valor : valores) {
+            if (valor != null) {
+                textos.add(valor);
+            }
+        }
+    }
+
+    private static int numero(Map<String, Integer> numeros, String texto) {
+        return texto == null ? Instantanea.SIN_VALOR : numeros.get(texto);
+    }
+
+    /**
+     * Contenido de la base de datos leído para escribir la instantánea.
+     */
+    static final class Catalogo {
+        List<Campeon> campeones;
+        List<Region> regiones;
+        List<Object[]> pertenencias;
+        List<Object[]> habilidades;
+    }
+}
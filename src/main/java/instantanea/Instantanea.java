@@ -0,0 +1,667 @@
+package instantanea;
+
+import controller.CatalogoListener;
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Copia binaria de solo lectura del catálogo (campeones, regiones, pertenencias y habilidades),
+ * mapeada en memoria para consultarla sin base de datos.
+ * <p>
+ * El fichero lo escribe {@link EscritorInstantanea} y tiene este formato (enteros de 4 bytes big-endian):
+ * <ul>
+ *     <li>Cabecera de {@value #CABECERA} bytes: la marca {@code LOLS}, la versión, la fecha de creación
+ *     (8 bytes) y, por cada sección, su número de elementos y su posición en el fichero.</li>
+ *     <li>Textos: todos los textos distintos, ordenados, con un índice de posiciones seguido de los bytes
+ *     en UTF-8. Los registros guardan el número de texto, o {@value #SIN_VALOR} si es nulo.</li>
+ *     <li>Campeones, regiones y habilidades: registros de tamaño fijo. Los de campeones y regiones están
+ *     ordenados por ID, para buscarlos por bisección; los de habilidades, en el orden en que los devolvió la
+ *     base de datos, y a continuación hay un índice con sus filas ordenadas por nombre.</li>
+ *     <li>Pertenencias: los IDs de los campeones de cada región, seguidos; cada región guarda dónde
+ *     empiezan los suyos y cuántos son.</li>
+ * </ul>
+ * Abrir el fichero solo comprueba la cabecera: los campos se leen directamente del mapeo al filtrar y
+ * solo las filas del resultado se convierten en entidades. Las entidades devueltas no están gestionadas
+ * por ningún entity manager; modificarlas no cambia ni la instantánea ni la base de datos.
+ */
+public final class Instantanea {
+
+    /** Fichero en el que se guarda la instantánea si no se indica otro. */
+    public static final String RUTA_POR_DEFECTO = "catalogo.instantanea";
+
+    static final int MAGIA = 0x4C4F4C53;
+    static final int VERSION = 1;
+    static final int CABECERA = 60;
+    static final int SIN_VALOR = -1;
+
+    // Campos de cada registro, en enteros
+    static final int CAMPOS_CAMPEON = 11;
+    static final int C_ID = 0, C_NOMBRE = 1, C_APODO = 2, C_RELACION = 3, C_BIOGRAFIA = 4, C_CINEMATICAS = 5,
+            C_RELATOS = 6, C_ROL = 7, C_RAZA = 8, C_ASPECTOS = 9, C_DIFICULTAD = 10;
+    static final int CAMPOS_REGION = 6;
+    static final int R_ID = 0, R_NOMBRE = 1, R_DESCRIPCION = 2, R_HISTORIAS = 3, R_PRIMERA = 4, R_CAMPEONES = 5;
+    static final int CAMPOS_HABILIDAD = 6;
+    static final int H_NOMBRE = 0, H_PASIVA = 1, H_TECLA = 2, H_DESCRIPCION = 3, H_ENLACE = 4, H_CAMPEON = 5;
+
+    private final ByteBuffer datos;
+    private final long creada;
+    private final int numeroTextos;
+    private final int posicionTextos;
+    private final int posicionBytesTextos;
+    private final int numeroCampeones;
+    private final int posicionCampeones;
+    private final int numeroRegiones;
+    private final int posicionRegiones;
+    private final int posicionPertenencias;
+    private final int numeroHabilidades;
+    private final int posicionHabilidades;
+    private final int posicionNombresHabilidades;
+
+    private Instantanea(ByteBuffer datos) throws IOException {
+        if (datos.capacity() < CABECERA || datos.getInt(0) != MAGIA) {
+            throw new IOException("El fichero no es una instantánea del catálogo");
+        }
+        if (datos.getInt(4) != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + datos.getInt(4));
+        }
+        this.datos = datos;
+        this.creada = datos.getLong(8);
+        this.numeroTextos = datos.getInt(16);
+        this.posicionTextos = datos.getInt(20);
+        this.posicionBytesTextos = posicionTextos + 4 * (numeroTextos + 1);
+        this.numeroCampeones = datos.getInt(24);
+        this.posicionCampeones = datos.getInt(28);
+        this.numeroRegiones = datos.getInt(32);
+        this.posicionRegiones = datos.getInt(36);
+        this.posicionPertenencias = datos.getInt(44);
+        this.numeroHabilidades = datos.getInt(48);
+        this.posicionHabilidades = datos.getInt(52);
+        this.posicionNombresHabilidades = datos.getInt(56);
+    }
+
+    /**
+     * Mapea en memoria una instantánea guardada.
+     *
+     * @param ruta El fichero de la instantánea.
+     * @return La instantánea, lista para consultar.
+     * @throws IOException Si no se puede leer el fichero o no tiene el formato esperado.
+     */
+    public static Instantanea abrir(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new Instantanea(mapeo);
+        }
+    }
+
+    /**
+     * Obtiene una descripción breve de la instantánea: cuándo se creó y cuántos elementos tiene.
+     *
+     * @return La descripción.
+     */
+    public String describir() {
+        return "Instantánea del " + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date(creada)) + ": "
+                + numeroCampeones + " campeones, " + numeroRegiones + " regiones y " + numeroHabilidades + " habilidades";
+    }
+
+    public long getCreada() {
+        return creada;
+    }
+
+    // ----- Campeones -----
+
+    /**
+     * Obtiene todos los campeones, ordenados por ID.
+     *
+     * @return Los campeones.
+     */
+    public List<Campeon> campeones() {
+        return campeones(fila -> true);
+    }
+
+    /**
+     * Obtiene un campeón por su ID.
+     *
+     * @param id El ID del campeón.
+     * @return El campeón, o {@code null} si no existe.
+     */
+    public Campeon campeon(int id) {
+        int fila = filaCampeon(id);
+        return fila < 0 ? null : crearCampeon(fila);
+    }
+
+    /**
+     * Obtiene varios campeones por sus IDs.
+     *
+     * @param ids Los IDs de los campeones.
+     * @return Los campeones encontrados, en el mismo orden que los IDs; los IDs inexistentes se omiten.
+     */
+    public List<Campeon> campeones(Collection<Integer> ids) {
+        List<Campeon> campeones = new ArrayList<>();
+        for (int id : new LinkedHashSet<>(ids)) {
+            Campeon campeon = campeon(id);
+            if (campeon != null) {
+                campeones.add(campeon);
+            }
+        }
+        return campeones;
+    }
+
+    /**
+     * Busca campeones cuyo nombre o apodo contienen el texto, con el mismo orden que la consulta de
+     * {@code CampeonController}: coincidencias exactas, después prefijos y después el resto, y dentro
+     * de cada grupo por número de aspectos.
+     *
+     * @param texto  El texto a buscar.
+     * @param limite El número máximo de campeones a devolver.
+     * @return Los campeones encontrados.
+     */
+    public List<Campeon> buscarCampeones(String texto, int limite) {
+        List<Integer> filas = new ArrayList<>();
+        for (int fila = 0; fila < numeroCampeones; fila++) {
+            if (contiene(campoCampeon(fila, C_NOMBRE), texto) || contiene(campoCampeon(fila, C_APODO), texto)) {
+                filas.add(fila);
+            }
+        }
+        filas.sort(Comparator.<Integer>comparingInt(fila -> rango(texto, campoCampeon(fila, C_NOMBRE), campoCampeon(fila, C_APODO)))
+                .thenComparingInt(fila -> -campoCampeon(fila, C_ASPECTOS))
+                .thenComparingInt(fila -> campoCampeon(fila, C_ID)));
+        List<Campeon> campeones = new ArrayList<>();
+        for (int i = 0; i < filas.size() && i < limite; i++) {
+            campeones.add(crearCampeon(filas.get(i)));
+        }
+        return campeones;
+    }
+
+    /**
+     * Obtiene los campeones de un rol. El rol se compara por su número de texto, sin decodificar
+     * el rol de cada campeón.
+     *
+     * @param rol El rol a buscar.
+     * @return Los campeones del rol, ordenados por ID.
+     */
+    public List<Campeon> campeonesPorRol(String rol) {
+        int texto = numeroTexto(rol);
+        if (texto == SIN_VALOR) {
+            return new ArrayList<>();
+        }
+        return campeones(fila -> campoCampeon(fila, C_ROL) == texto);
+    }
+
+    // ----- Regiones -----
+
+    /**
+     * Obtiene todas las regiones con sus campeones, ordenadas por ID.
+     *
+     * @return Las regiones.
+     */
+    public List<Region> regiones() {
+        List<Region> regiones = new ArrayList<>();
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            regiones.add(crearRegion(fila, true));
+        }
+        return regiones;
+    }
+
+    /**
+     * Obtiene una región por su ID, sin sus campeones.
+     *
+     * @param id El ID de la región.
+     * @return La región, o {@code null} si no existe.
+     */
+    public Region region(int id) {
+        int fila = filaRegion(id);
+        return fila < 0 ? null : crearRegion(fila, false);
+    }
+
+    /**
+     * Obtiene varias regiones por sus IDs, sin sus campeones.
+     *
+     * @param ids Los IDs de las regiones.
+     * @return Las regiones encontradas, en el mismo orden que los IDs; los IDs inexistentes se omiten.
+     */
+    public List<Region> regiones(Collection<Integer> ids) {
+        List<Region> regiones = new ArrayList<>();
+        for (int id : new LinkedHashSet<>(ids)) {
+            Region region = region(id);
+            if (region != null) {
+                regiones.add(region);
+            }
+        }
+        return regiones;
+    }
+
+    /**
+     * Busca regiones cuyo nombre o descripción contienen el texto, con el mismo orden que la consulta
+     * de {@code RegionController}: nombre exacto, después prefijo y después el resto, y dentro de cada
+     * grupo por número de historias relacionadas.
+     *
+     * @param texto  El texto a buscar.
+     * @param limite El número máximo de regiones a devolver.
+     * @return Las regiones encontradas, sin sus campeones.
+     */
+    public List<Region> buscarRegiones(String texto, int limite) {
+        List<Integer> filas = new ArrayList<>();
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            if (contiene(campoRegion(fila, R_NOMBRE), texto) || contiene(campoRegion(fila, R_DESCRIPCION), texto)) {
+                filas.add(fila);
+            }
+        }
+        filas.sort(Comparator.<Integer>comparingInt(fila -> rango(texto, campoRegion(fila, R_NOMBRE), SIN_VALOR))
+                .thenComparingInt(fila -> -campoRegion(fila, R_HISTORIAS))
+                .thenComparingInt(fila -> campoRegion(fila, R_ID)));
+        List<Region> regiones = new ArrayList<>();
+        for (int i = 0; i < filas.size() && i < limite; i++) {
+            regiones.add(crearRegion(filas.get(i), false));
+        }
+        return regiones;
+    }
+
+    /**
+     * Obtiene las regiones con más historias relacionadas que la cantidad indicada.
+     *
+     * @param cantidadHistorias La cantidad que hay que superar.
+     * @return Las regiones, sin sus campeones, ordenadas por ID.
+     */
+    public List<Region> regionesConMasHistorias(int cantidadHistorias) {
+        List<Region> regiones = new ArrayList<>();
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            if (campoRegion(fila, R_HISTORIAS) > cantidadHistorias) {
+                regiones.add(crearRegion(fila, false));
+            }
+        }
+        return regiones;
+    }
+
+    /**
+     * Obtiene las regiones a las que pertenece un campeón.
+     *
+     * @param idCampeon El ID del campeón.
+     * @return Las regiones, sin sus campeones, ordenadas por nombre.
+     */
+    public List<Region> regionesDeCampeon(int idCampeon) {
+        List<Region> regiones = new ArrayList<>();
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            int primera = campoRegion(fila, R_PRIMERA);
+            int ultima = primera + campoRegion(fila, R_CAMPEONES);
+            for (int i = primera; i < ultima; i++) {
+                if (datos.getInt(posicionPertenencias + 4 * i) == idCampeon) {
+                    regiones.add(crearRegion(fila, false));
+                    break;
+                }
+            }
+        }
+        regiones.sort(Comparator.comparing(Region::getNombre_region));
+        return regiones;
+    }
+
+    // ----- Pertenencias -----
+
+    /**
+     * Obtiene los IDs de todos los campeones sin crear las entidades.
+     *
+     * @return Los IDs, de menor a mayor.
+     */
+    public List<Integer> idsCampeones() {
+        List<Integer> ids = new ArrayList<>(numeroCampeones);
+        for (int fila = 0; fila < numeroCampeones; fila++) {
+            ids.add(campoCampeon(fila, C_ID));
+        }
+        return ids;
+    }
+
+    /**
+     * Obtiene los IDs de todas las regiones sin crear las entidades.
+     *
+     * @return Los IDs, de menor a mayor.
+     */
+    public List<Integer> idsRegiones() {
+        List<Integer> ids = new ArrayList<>(numeroRegiones);
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            ids.add(campoRegion(fila, R_ID));
+        }
+        return ids;
+    }
+
+    /**
+     * Obtiene la relación entre regiones y campeones tal como está en la tabla {@code region_campeon}.
+     *
+     * @return Pares {@code [ID de región, ID de campeón]}, ordenados por región y campeón.
+     */
+    public List<Object[]> pertenencias() {
+        List<Object[]> pertenencias = new ArrayList<>();
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            Integer region = campoRegion(fila, R_ID);
+            int primera = campoRegion(fila, R_PRIMERA);
+            int ultima = primera + campoRegion(fila, R_CAMPEONES);
+            for (int i = primera; i < ultima; i++) {
+                pertenencias.add(new Object[]{region, datos.getInt(posicionPertenencias + 4 * i)});
+            }
+        }
+        return pertenencias;
+    }
+
+    // ----- Habilidades -----
+
+    /**
+     * Obtiene todas las habilidades con su campeón.
+     *
+     * @return Las habilidades.
+     */
+    public List<Habilidad> habilidades() {
+        return habilidades(fila -> true);
+    }
+
+    /**
+     * Obtiene una habilidad por su nombre.
+     *
+     * @param nombre El nombre de la habilidad.
+     * @return La habilidad con su campeón, o {@code null} si no existe.
+     */
+    public Habilidad habilidad(String nombre) {
+        int fila = filaHabilidad(nombre);
+        return fila < 0 ? null : crearHabilidad(fila);
+    }
+
+    /**
+     * Obtiene varias habilidades por sus nombres.
+     *
+     * @param nombres Los nombres de las habilidades.
+     * @return Las habilidades encontradas, en el mismo orden que los nombres; los inexistentes se omiten.
+     */
+    public List<Habilidad> habilidades(Collection<String> nombres) {
+        List<Habilidad> habilidades = new ArrayList<>();
+        for (String nombre : new LinkedHashSet<>(nombres)) {
+            Habilidad habilidad = habilidad(nombre);
+            if (habilidad != null) {
+                habilidades.add(habilidad);
+            }
+        }
+        return habilidades;
+    }
+
+    /**
+     * Busca habilidades cuyo nombre o descripción contienen el texto, con el mismo orden que la consulta
+     * de {@code HabilidadController}: nombre exacto, después prefijo y después el resto, y dentro de cada
+     * grupo por número de aspectos del campeón.
+     *
+     * @param texto  El texto a buscar.
+     * @param limite El número máximo de habilidades a devolver.
+     * @return Las habilidades encontradas.
+     */
+    public List<Habilidad> buscarHabilidades(String texto, int limite) {
+        List<Integer> filas = new ArrayList<>();
+        for (int fila = 0; fila < numeroHabilidades; fila++) {
+            if (contiene(campoHabilidad(fila, H_NOMBRE), texto) || contiene(campoHabilidad(fila, H_DESCRIPCION), texto)) {
+                filas.add(fila);
+            }
+        }
+        filas.sort(Comparator.<Integer>comparingInt(fila -> rango(texto, campoHabilidad(fila, H_NOMBRE), SIN_VALOR))
+                .thenComparingInt(fila -> -aspectosDelCampeon(fila))
+                .thenComparingInt(fila -> campoHabilidad(fila, H_NOMBRE)));
+        List<Habilidad> habilidades = new ArrayList<>();
+        for (int i = 0; i < filas.size() && i < limite; i++) {
+            habilidades.add(crearHabilidad(filas.get(i)));
+        }
+        return habilidades;
+    }
+
+    /**
+     * Obtiene las habilidades de un campeón.
+     *
+     * @param idCampeon El ID del campeón.
+     * @return Sus habilidades.
+     */
+    public List<Habilidad> habilidadesDeCampeon(int idCampeon) {
+        return habilidades(fila -> campoHabilidad(fila, H_CAMPEON) == idCampeon);
+    }
+
+    /**
+     * Notifica todo el contenido de la instantánea como guardado, por ejemplo para cargar los índices
+     * de búsqueda sin consultar la base de datos. Cada elemento se decodifica una sola vez para todos los receptores.
+     *
+     * @param receptores Los receptores a notificar.
+     */
+    public void notificar(CatalogoListener... receptores) {
+        for (Campeon campeon : campeones()) {
+            for (CatalogoListener receptor : receptores) {
+                receptor.campeonGuardado(campeon);
+            }
+        }
+        for (int fila = 0; fila < numeroRegiones; fila++) {
+            Region region = crearRegion(fila, false);
+            for (CatalogoListener receptor : receptores) {
+                receptor.regionGuardada(region);
+            }
+        }
+        for (Habilidad habilidad : habilidades()) {
+            for (CatalogoListener receptor : receptores) {
+                receptor.habilidadGuardada(habilidad);
+            }
+        }
+    }
+
+    // ----- Lectura de registros -----
+
+    private List<Campeon> campeones(IntPredicate filtro) {
+        List<Campeon> campeones = new ArrayList<>();
+        for (int fila = 0; fila < numeroCampeones; fila++) {
+            if (filtro.test(fila)) {
+                campeones.add(crearCampeon(fila));
+            }
+        }
+        return campeones;
+    }
+
+    private List<Habilidad> habilidades(IntPredicate filtro) {
+        List<Habilidad> habilidades = new ArrayList<>();
+        for (int fila = 0; fila < numeroHabilidades; fila++) {
+            if (filtro.test(fila)) {
+                habilidades.add(crearHabilidad(fila));
+            }
+        }
+        return habilidades;
+    }
+
+    private Campeon crearCampeon(int fila) {
+        return new Campeon(
+                campoCampeon(fila, C_ID),
+                texto(campoCampeon(fila, C_NOMBRE)),
+                texto(campoCampeon(fila, C_APODO)),
+                campoCampeon(fila, C_RELACION),
+                texto(campoCampeon(fila, C_BIOGRAFIA)),
+                texto(campoCampeon(fila, C_CINEMATICAS)),
+                campoCampeon(fila, C_RELATOS),
+                texto(campoCampeon(fila, C_ROL)),
+                texto(campoCampeon(fila, C_RAZA)),
+                campoCampeon(fila, C_ASPECTOS),
+                texto(campoCampeon(fila, C_DIFICULTAD)),
+                new ArrayList<>());
+    }
+
+    private Region crearRegion(int fila, boolean conCampeones) {
+        Set<Campeon> campeones = new HashSet<>();
+        if (conCampeones) {
+            int primera = campoRegion(fila, R_PRIMERA);
+            int ultima = primera + campoRegion(fila, R_CAMPEONES);
+            for (int i = primera; i < ultima; i++) {
+                Campeon campeon = campeon(datos.getInt(posicionPertenencias + 4 * i));
+                if (campeon != null) {
+                    campeones.add(campeon);
+                }
+            }
+        }
+        return new Region(campoRegion(fila, R_ID), texto(campoRegion(fila, R_NOMBRE)),
+                texto(campoRegion(fila, R_DESCRIPCION)), campoRegion(fila, R_HISTORIAS), campeones);
+    }
+
+    private Habilidad crearHabilidad(int fila) {
+        Habilidad habilidad = new Habilidad();
+        habilidad.setNombre(texto(campoHabilidad(fila, H_NOMBRE)));
+        habilidad.setPasiva(campoHabilidad(fila, H_PASIVA) != 0);
+        habilidad.setAsignacion_de_tecla((char) campoHabilidad(fila, H_TECLA));
+        habilidad.setDescripcion(texto(campoHabilidad(fila, H_DESCRIPCION)));
+        habilidad.setLink(texto(campoHabilidad(fila, H_ENLACE)));
+        int idCampeon = campoHabilidad(fila, H_CAMPEON);
+        habilidad.setCampeon(idCampeon == SIN_VALOR ? null : campeon(idCampeon));
+        return habilidad;
+    }
+
+    private int aspectosDelCampeon(int filaHabilidad) {
+        int campeon = filaCampeon(campoHabilidad(filaHabilidad, H_CAMPEON));
+        return campeon < 0 ? 0 : campoCampeon(campeon, C_ASPECTOS);
+    }
+
+    /**
+     * Clasifica una coincidencia como en las consultas de los controladores: 0 si alguno de los
+     * textos es igual, 1 si alguno empieza por el texto buscado y 2 en otro caso.
+     */
+    private int rango(String buscado, int texto, int otroTexto) {
+        String a = texto(texto);
+        String b = texto(otroTexto);
+        if (buscado.equals(a) || buscado.equals(b)) {
+            return 0;
+        }
+        return a != null && a.startsWith(buscado) || b != null && b.startsWith(buscado) ? 1 : 2;
+    }
+
+    private boolean contiene(int texto, String buscado) {
+        return texto != SIN_VALOR && texto(texto).contains(buscado);
+    }
+
+    private int campoCampeon(int fila, int campo) {
+        return datos.getInt(posicionCampeones + 4 * (fila * CAMPOS_CAMPEON + campo));
+    }
+
+    private int campoRegion(int fila, int campo) {
+        return datos.getInt(posicionRegiones + 4 * (fila * CAMPOS_REGION + campo));
+    }
+
+    private int campoHabilidad(int fila, int campo) {
+        return datos.getInt(posicionHabilidades + 4 * (fila * CAMPOS_HABILIDAD + campo));
+    }
+
+    private int filaCampeon(int id) {
+        int bajo = 0;
+        int alto = numeroCampeones - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int actual = campoCampeon(medio, C_ID);
+            if (actual < id) {
+                bajo = medio + 1;
+            } else if (actual > id) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    private int filaRegion(int id) {
+        int bajo = 0;
+        int alto = numeroRegiones - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int actual = campoRegion(medio, R_ID);
+            if (actual < id) {
+                bajo = medio + 1;
+            } else if (actual > id) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca una habilidad por nombre en el índice por nombre. Como la tabla de textos está ordenada,
+     * basta con comparar los números de texto de los nombres, sin decodificarlos.
+     */
+    private int filaHabilidad(String nombre) {
+        int texto = numeroTexto(nombre);
+        if (texto == SIN_VALOR) {
+            return -1;
+        }
+        int bajo = 0;
+        int alto = numeroHabilidades - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int fila = datos.getInt(posicionNombresHabilidades + 4 * medio);
+            int actual = campoHabilidad(fila, H_NOMBRE);
+            if (actual < texto) {
+                bajo = medio + 1;
+            } else if (actual > texto) {
+                alto = medio - 1;
+            } else {
+                return fila;
+            }
+        }
+        return -1;
+    }
+
+    // ----- Textos -----
+
+    /**
+     * Decodifica un texto de la tabla de textos.
+     *
+     * @param numero El número de texto.
+     * @return El texto, o {@code null} si el número es {@value #SIN_VALOR}.
+     */
+    private String texto(int numero) {
+        if (numero == SIN_VALOR) {
+            return null;
+        }
+        int inicio = datos.getInt(posicionTextos + 4 * numero);
+        int fin = datos.getInt(posicionTextos + 4 * (numero + 1));
+        byte[] utf8 = new byte[fin - inicio];
+        datos.get(posicionBytesTextos + inicio, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Busca un texto por bisección en la tabla de textos, que está ordenada.
+     *
+     * @param texto El texto a buscar.
+     * @return Su número, o {@value #SIN_VALOR} si no está en la instantánea.
+     */
+    private int numeroTexto(String texto) {
+        if (texto == null) {
+            return SIN_VALOR;
+        }
+        int bajo = 0;
+        int alto = numeroTextos - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int comparacion = texto(medio).compareTo(texto);
+            if (comparacion < 0) {
+                bajo = medio + 1;
+            } else if (comparacion > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return SIN_VALOR;
+    }
+}
@@ -0,0 +1,230 @@
+package invalidacion;
+
+import controller.CatalogoListener;
+import index.TipoEntidad;
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus de invalidación entre instancias de la aplicación que comparten la misma base de datos.
+ * <p>
+ * Se registra como {@link CatalogoListener} en los controladores: cada cambio confirmado en esta instancia
+ * se anota y, pasado {@link #RETARDO_MS}, todos los cambios anotados se publican juntos con un mensaje por
+ * tipo de entidad, de modo que una importación masiva genera un único aviso y no uno por fila.
+ * <p>
+ * Al recibir un aviso de otra instancia se vuelven a leer las entidades de la base de datos primaria y se pasan a los receptores locales
+ * (los índices en memoria): las que siguen existiendo como guardadas y las que ya no como eliminadas.
+ * <p>
+ * Formato del mensaje: identificador de la instancia de origen, tipo de entidad y una clave por línea.
+ */
+public class BusInvalidacion implements CatalogoListener {
+
+    /** Tiempo durante el que se agrupan los cambios antes de publicarlos, en milisegundos. */
+    public static final long RETARDO_MS = 100;
+
+    /** Tamaño máximo de un mensaje; {@code NOTIFY} admite hasta 8000 bytes. */
+    static final int TAMANO_MAXIMO = 7900;
+
+    private static final int TAMANO_LOTE = 512;
+
+    private final String origen = UUID.randomUUID().toString();
+    private final EntityManagerFactory entityManagerFactory;
+    private final Transporte transporte;
+    private final List<CatalogoListener> receptores = new CopyOnWriteArrayList<>();
+    private final Map<TipoEntidad, Set<Object>> pendientes = new EnumMap<>(TipoEntidad.class);
+    private final ScheduledExecutorService publicador;
+    private boolean programado;
+
+    /**
+     * Constructor de la clase BusInvalidacion. Se suscribe al transporte inmediatamente.
+     *
+     * @param entityManagerFactory La fábrica de entity manager con la que releer las entidades cambiadas.
+     * @param transporte           El canal compartido con el resto de instancias.
+     */
+    public BusInvalidacion(EntityManagerFactory entityManagerFactory, Transporte transporte) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.transporte = transporte;
+        this.publicador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "invalidacion-publicador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        transporte.suscribir(this::recibir);
+    }
+
+    /**
+     * Registra un receptor que se actualizará con los cambios hechos por otras instancias.
+     *
+     * @param receptor El receptor a registrar, normalmente un índice en memoria.
+     */
+    public void addReceptor(CatalogoListener receptor) {
+        receptores.add(receptor);
+    }
+
+    /**
+     * Publica en el momento los cambios anotados que aún no se han enviado.
+     */
+    public void publicarPendientes() {
+        Map<TipoEntidad, Set<Object>> cambios;
+        synchronized (pendientes) {
+            cambios = new EnumMap<>(pendientes);
+            pendientes.clear();
+            programado = false;
+        }
+        cambios.forEach((tipo, claves) -> {
+            for (String mensaje : codificar(tipo, claves)) {
+                transporte.publicar(mensaje);
+            }
+        });
+    }
+
+    /**
+     * Publica los cambios pendientes y deja de publicar y de recibir avisos.
+     */
+    public void cerrar() {
+        publicarPendientes();
+        publicador.shutdownNow();
+        transporte.cerrar();
+    }
+
+    @Override
+    public void campeonGuardado(Campeon campeon) {
+        anotar(TipoEntidad.CAMPEON, campeon.getId_campeon());
+    }
+
+    @Override
+    public void campeonEliminado(int id) {
+        anotar(TipoEntidad.CAMPEON, id);
+    }
+
+    @Override
+    public void regionGuardada(Region region) {
+        anotar(TipoEntidad.REGION, region.getId_region());
+    }
+
+    @Override
+    public void regionEliminada(int id) {
+        anotar(TipoEntidad.REGION, id);
+    }
+
+    @Override
+    public void habilidadGuardada(Habilidad habilidad) {
+        anotar(TipoEntidad.HABILIDAD, habilidad.getNombre());
+    }
+
+    @Override
+    public void habilidadEliminada(String nombre) {
+        anotar(TipoEntidad.HABILIDAD, nombre);
+    }
+
+    private void anotar(TipoEntidad tipo, Object clave) {
+        synchronized (pendientes) {
+            pendientes.computeIfAbsent(tipo, t -> new LinkedHashSet<>()).add(clave);
+            if (!programado) {
+                programado = true;
+                publicador.schedule(this::publicarPendientes, RETARDO_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Reparte las claves en los mensajes necesarios para no superar {@link #TAMANO_MAXIMO}.
+     */
+    private List<String> codificar(TipoEntidad tipo, Set<Object> claves) {
+        List<String> mensajes = new ArrayList<>();
+        String cabecera = origen + "\n" + tipo.name();
+        StringBuilder mensaje = new StringBuilder(cabecera);
+        int bytes = cabecera.length();
+        for (Object clave : claves) {
+            String linea = "\n" + clave;
+            int longitud = linea.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + longitud > TAMANO_MAXIMO && mensaje.length() > cabecera.length()) {
+                mensajes.add(mensaje.toString());
+                mensaje = new StringBuilder(cabecera);
+                bytes = cabecera.length();
+            }
+            mensaje.append(linea);
+            bytes += longitud;
+        }
+        mensajes.add(mensaje.toString());
+        return mensajes;
+    }
+
+    private void recibir(String mensaje) {
+        String[] lineas = mensaje.split("\n");
+        if (lineas.length < 3 || origen.equals(lineas[0])) {
+            return;
+        }
+        try {
+            TipoEntidad tipo = TipoEntidad.valueOf(lineas[1]);
+            List<Object> claves = new ArrayList<>();
+            for (int i = 2; i < lineas.length; i++) {
+                claves.add(tipo == TipoEntidad.HABILIDAD ? lineas[i] : Integer.valueOf(lineas[i]));
+            }
+            invalidar(tipo, claves);
+        } catch (RuntimeException e) {
+            System.err.println("Error al aplicar el aviso de invalidación: " + e.getMessage());
+        }
+    }
+
+    private void invalidar(TipoEntidad tipo, List<Object> claves) {
+        Class<?> clase = tipo == TipoEntidad.CAMPEON ? Campeon.class : tipo == TipoEntidad.REGION ? Region.class : Habilidad.class;
+        String atributo = tipo == TipoEntidad.CAMPEON ? "id_campeon" : tipo == TipoEntidad.REGION ? "id_region" : "nombre";
+        if (receptores.isEmpty()) {
+            return;
+        }
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            Set<Object> eliminadas = new HashSet<>(claves);
+            for (int i = 0; i < claves.size(); i += TAMANO_LOTE) {
+                List<?> entidades = em.createQuery("SELECT e FROM " + clase.getSimpleName() + " e WHERE e." + atributo + " IN :claves")
+                        .setParameter("claves", claves.subList(i, Math.min(i + TAMANO_LOTE, claves.size())))
+                        .getResultList();
+                for (Object entidad : entidades) {
+                    if (entidad instanceof Campeon) {
+                        Campeon campeon = (Campeon) entidad;
+                        eliminadas.remove(campeon.getId_campeon());
+                        receptores.forEach(r -> r.campeonGuardado(campeon));
+                    } else if (entidad instanceof Region) {
+                        Region region = (Region) entidad;
+                        eliminadas.remove(region.getId_region());
+                        receptores.forEach(r -> r.regionGuardada(region));
+                    } else {
+                        Habilidad habilidad = (Habilidad) entidad;
+                        eliminadas.remove(habilidad.getNombre());
+                        receptores.forEach(r -> r.habilidadGuardada(habilidad));
+                    }
+                }
+            }
+            for (Object clave : eliminadas) {
+                if (tipo == TipoEntidad.CAMPEON) {
+                    receptores.forEach(r -> r.campeonEliminado((Integer) clave));
+                } else if (tipo == TipoEntidad.REGION) {
+                    receptores.forEach(r -> r.regionEliminada((Integer) clave));
+                } else {
+                    receptores.forEach(r -> r.habilidadEliminada((String) clave));
+                }
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
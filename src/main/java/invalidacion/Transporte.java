@@ -0,0 +1,29 @@
+package invalidacion;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal por el que las instancias de la aplicación se envían los avisos de invalidación.
+ * Todas las instancias suscritas reciben cada mensaje publicado, incluida la que lo publica.
+ */
+public interface Transporte {
+
+    /**
+     * Envía un mensaje a todas las instancias suscritas.
+     *
+     * @param mensaje El mensaje a enviar.
+     */
+    void publicar(String mensaje);
+
+    /**
+     * Registra el receptor de los mensajes que lleguen por este canal.
+     *
+     * @param receptor El receptor de los mensajes.
+     */
+    void suscribir(Consumer<String> receptor);
+
+    /**
+     * Libera los recursos del canal. Después de cerrarlo no se envían ni se reciben mensajes.
+     */
+    void cerrar();
+}
@@ -0,0 +1,34 @@
+package invalidacion;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte dentro de la misma JVM: los mensajes se entregan directamente a los receptores suscritos
+ * en el hilo que los publica. Sirve para una única instancia y para probar varias instancias
+ * compartiendo el mismo objeto.
+ */
+public class TransporteLocal implements Transporte {
+
+    private final List<Consumer<String>> receptores = new CopyOnWriteArrayList<>();
+    private volatile boolean cerrado;
+
+    @Override
+    public void publicar(String mensaje) {
+        if (!cerrado) {
+            receptores.forEach(r -> r.accept(mensaje));
+        }
+    }
+
+    @Override
+    public void suscribir(Consumer<String> receptor) {
+        receptores.add(receptor);
+    }
+
+    @Override
+    public void cerrar() {
+        cerrado = true;
+        receptores.clear();
+    }
+}
@@ -0,0 +1,139 @@
+package invalidacion;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte sobre {@code LISTEN/NOTIFY} de PostgreSQL.
+ * Usa dos conexiones propias fuera del pool: una queda escuchando el canal desde un hilo en segundo
+ * plano y la otra publica con {@code pg_notify}. Si la conexión de escucha se pierde, se vuelve
+ * a abrir; los avisos enviados mientras tanto se pierden.
+ */
+public class TransportePostgres implements Transporte {
+
+    /** Nombre del canal de PostgreSQL por el que viajan los avisos. */
+    public static final String CANAL = "catalogo_cambios";
+
+    private static final int ESPERA_MS = 500;
+
+    private final String url;
+    private final String usuario;
+    private final String clave;
+    private final List<Consumer<String>> receptores = new CopyOnWriteArrayList<>();
+    private final Thread escucha;
+    private Connection conexionPublicacion;
+    private volatile boolean cerrado;
+
+    /**
+     * Constructor de la clase TransportePostgres. Empieza a escuchar el canal inmediatamente.
+     *
+     * @param url     La URL JDBC de la base de datos.
+     * @param usuario El usuario de la base de datos.
+     * @param clave   La contraseña del usuario.
+     */
+    public TransportePostgres(String url, String usuario, String clave) {
+        this.url = url;
+        this.usuario = usuario;
+        this.clave = clave;
+        this.escucha = new Thread(this::escuchar, "invalidacion-" + CANAL);
+        this.escucha.setDaemon(true);
+        this.escucha.start();
+    }
+
+    /**
+     * Crea un transporte con los datos de conexión de la unidad de persistencia.
+     *
+     * @param entityManagerFactory La fábrica de entity manager de la aplicación.
+     * @return El transporte creado.
+     */
+    public static TransportePostgres desde(EntityManagerFactory entityManagerFactory) {
+        Map<String, Object> propiedades = entityManagerFactory.getProperties();
+        return new TransportePostgres(
+                (String) propiedades.get("javax.persistence.jdbc.url"),
+                (String) propiedades.get("javax.persistence.jdbc.user"),
+                (String) propiedades.get("javax.persistence.jdbc.password"));
+    }
+
+    @Override
+    public synchronized void publicar(String mensaje) {
+        if (cerrado) {
+            return;
+        }
+        try {
+            if (conexionPublicacion == null || conexionPublicacion.isClosed()) {
+                conexionPublicacion = DriverManager.getConnection(url, usuario, clave);
+            }
+            try (PreparedStatement ps = conexionPublicacion.prepareStatement("SELECT pg_notify(?, ?)")) {
+                ps.setString(1, CANAL);
+                ps.setString(2, mensaje);
+                ps.execute();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al publicar el aviso de invalidación: " + e.getMessage());
+            cerrarSinError(conexionPublicacion);
+            conexionPublicacion = null;
+        }
+    }
+
+    @Override
+    public void suscribir(Consumer<String> receptor) {
+        receptores.add(receptor);
+    }
+
+    @Override
+    public synchronized void cerrar() {
+        cerrado = true;
+        escucha.interrupt();
+        cerrarSinError(conexionPublicacion);
+        conexionPublicacion = null;
+    }
+
+    private void escuchar() {
+        while (!cerrado) {
+            try (Connection conexion = DriverManager.getConnection(url, usuario, clave)) {
+                try (Statement st = conexion.createStatement()) {
+                    st.execute("LISTEN " + CANAL);
+                }
+                PGConnection pg = conexion.unwrap(PGConnection.class);
+                while (!cerrado) {
+                    PGNotification[] avisos = pg.getNotifications(ESPERA_MS);
+                    if (avisos != null) {
+                        for (PGNotification aviso : avisos) {
+                            receptores.forEach(r -> r.accept(aviso.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!cerrado) {
+                    System.err.println("Se perdió la escucha de avisos de invalidación, reintentando: " + e.getMessage());
+                    try {
+                        Thread.sleep(ESPERA_MS * 4L);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void cerrarSinError(Connection conexion) {
+        if (conexion != null) {
+            try {
+                conexion.close();
+            } catch (SQLException e) {
+                // La conexión ya no se va a usar
+            }
+        }
+    }
+}
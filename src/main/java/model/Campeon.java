@@ -8,11 +8,71 @@ import java.util.Set;
 /**
  * Esta clase representa a un campeón en el sistema.
  * Cada campeón puede tener asociadas varias habilidades y pertenecer a múltiples regiones.
+ * Los grafos de entidad con nombre indican qué colecciones carga cada caso de uso.
+ * Las consultas con nombre son las de los controladores; {@code herramientas.ComprobadorPlanes} explica
+ * estas mismas, así que no pueden quedar desfasadas.
  */
 @Entity
-@Table(name = "campeon")
+@Table(name = "campeon", indexes = {
+        @Index(name = "idx_campeon_rol", columnList = "id_rol"),
+        @Index(name = "idx_campeon_nombre", columnList = "nombre_campeon")
+})
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Campeon.GRAFO_LISTADO),
+        @NamedEntityGraph(name = Campeon.GRAFO_CON_HABILIDADES, attributeNodes = @NamedAttributeNode("habilidades")),
+        @NamedEntityGraph(name = Campeon.GRAFO_CON_REGIONES, attributeNodes = @NamedAttributeNode("regiones"))
+})
+@NamedQueries({
+        @NamedQuery(name = Campeon.TODOS, query = "SELECT c FROM Campeon c"),
+        @NamedQuery(name = Campeon.POR_ID, query = "SELECT c FROM Campeon c WHERE c.id_campeon = :id"),
+        @NamedQuery(name = Campeon.POR_NOMBRE, query = "SELECT c FROM Campeon c WHERE c.nombre = :nombre"),
+        @NamedQuery(name = Campeon.POR_ROL, query = "SELECT c FROM Campeon c WHERE c.rol = :rol"),
+        @NamedQuery(name = Campeon.POR_TEXTO, query = "SELECT c FROM Campeon c WHERE c.nombre LIKE :texto OR c.apodo LIKE :texto "
+                + "ORDER BY CASE WHEN c.nombre = :exacto OR c.apodo = :exacto THEN 0 "
+                + "WHEN c.nombre LIKE :prefijo OR c.apodo LIKE :prefijo THEN 1 ELSE 2 END, "
+                + "c.numero_de_aspectos DESC, c.id_campeon"),
+        @NamedQuery(name = Campeon.FICHA, query = "SELECT c.id_campeon, c.nombre, c.apodo, c.rol, c.dificultad FROM Campeon c WHERE c.id_campeon = :id"),
+        @NamedQuery(name = Campeon.BIOGRAFIA, query = "SELECT c.biografia FROM Campeon c WHERE c.id_campeon = :id"),
+        @NamedQuery(name = Campeon.DISTRIBUCION_DE_ASPECTOS, query = "SELECT c.numero_de_aspectos, COUNT(c) FROM Campeon c GROUP BY c.numero_de_aspectos")
+})
 public class Campeon {
 
+    /** Grafo para listados: solo los atributos del campeón, sin colecciones. */
+    public static final String GRAFO_LISTADO = "Campeon.listado";
+
+    /** Grafo para la ficha del campeón con sus habilidades. */
+    public static final String GRAFO_CON_HABILIDADES = "Campeon.conHabilidades";
+
+    /** Grafo para la ficha del campeón con las regiones a las que pertenece. */
+    public static final String GRAFO_CON_REGIONES = "Campeon.conRegiones";
+
+    /** Todos los campeones. */
+    public static final String TODOS = "Campeon.todos";
+
+    /** El campeón con el ID {@code :id}. */
+    public static final String POR_ID = "Campeon.porId";
+
+    /** Los campeones que se llaman {@code :nombre}. */
+    public static final String POR_NOMBRE = "Campeon.porNombre";
+
+    /** Los campeones con el rol {@code :rol}. */
+    public static final String POR_ROL = "Campeon.porRol";
+
+    /**
+     * Los campeones cuyo nombre o apodo contiene {@code :texto}: primero los que coinciden con {@code :exacto},
+     * después los que empiezan por {@code :prefijo}, y dentro de cada grupo por número de aspectos.
+     */
+    public static final String POR_TEXTO = "Campeon.porTexto";
+
+    /** ID, nombre, apodo, rol y dificultad del campeón con el ID {@code :id}. */
+    public static final String FICHA = "Campeon.ficha";
+
+    /** La biografía del campeón con el ID {@code :id}. */
+    public static final String BIOGRAFIA = "Campeon.biografia";
+
+    /** Cuántos campeones tienen cada número de aspectos. */
+    public static final String DISTRIBUCION_DE_ASPECTOS = "Campeon.distribucionDeAspectos";
+
     @Id
     @Column(name = "id_campeon")
     int id_campeon;
@@ -26,7 +86,8 @@ public class Campeon {
     @Column(name = "campeones_con_relacion")
     int campeones_con_relacion;
 
-    @Column(name = "biografia",length = 10485760)
+    @Column(name = "biografia")
+    @Convert(converter = TextoComprimido.class)
     String biografia;
 
     @Column(name = "apariencion_en_cinematicas")
@@ -35,16 +96,19 @@ public class Campeon {
     @Column(name = "numero_de_relatos_cortos")
     int numero_de_relatos_cortos;
 
-    @Column(name = "rol")
+    @Column(name = "id_rol")
+    @Convert(converter = Diccionario.ConversorRol.class)
     String rol;
 
-    @Column(name = "raza")
+    @Column(name = "id_raza")
+    @Convert(converter = Diccionario.ConversorRaza.class)
     String raza;
 
     @Column(name = "numero_de_aspectos")
     int numero_de_aspectos;
 
-    @Column(name = "dificultad")
+    @Column(name = "id_dificultad")
+    @Convert(converter = Diccionario.ConversorDificultad.class)
     String dificultad;
 
     @ManyToMany(fetch = FetchType.LAZY, mappedBy = "campeones", cascade = CascadeType.ALL)
@@ -110,6 +174,14 @@ public class Campeon {
         this.apodo = apodo;
     }
 
+    public int getCampeones_con_relacion() {
+        return campeones_con_relacion;
+    }
+
+    public void setCampeones_con_relacion(int campeones_con_relacion) {
+        this.campeones_con_relacion = campeones_con_relacion;
+    }
+
     public String getBiografia() {
         return biografia;
     }
@@ -118,6 +190,22 @@ public class Campeon {
         this.biografia = biografia;
     }
 
+    public String getApariencion_en_cinematicas() {
+        return apariencion_en_cinematicas;
+    }
+
+    public void setApariencion_en_cinematicas(String apariencion_en_cinematicas) {
+        this.apariencion_en_cinematicas = apariencion_en_cinematicas;
+    }
+
+    public int getNumero_de_relatos_cortos() {
+        return numero_de_relatos_cortos;
+    }
+
+    public void setNumero_de_relatos_cortos(int numero_de_relatos_cortos) {
+        this.numero_de_relatos_cortos = numero_de_relatos_cortos;
+    }
+
     public String getRol() {
         return rol;
     }
@@ -134,6 +222,14 @@ public class Campeon {
         this.raza = raza;
     }
 
+    public int getNumero_de_aspectos() {
+        return numero_de_aspectos;
+    }
+
+    public void setNumero_de_aspectos(int numero_de_aspectos) {
+        this.numero_de_aspectos = numero_de_aspectos;
+    }
+
     public String getDificultad() {
         return dificultad;
     }
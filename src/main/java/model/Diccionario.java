@@ -0,0 +1,303 @@
+package model;
+
+import org.hibernate.Session;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.sql.DataSource;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla de consulta en memoria para una columna de pocos valores distintos (rol, raza y dificultad del campeón).
+ * <p>
+ * En la base de datos cada valor se guarda una sola vez en su tabla ({@code rol}, {@code raza}, {@code dificultad})
+ * y {@code campeon} solo guarda su clave {@code smallint}. El diccionario se carga entero al arrancar y convierte
+ * en ambos sentidos sin consultar la base de datos; los textos que devuelve son siempre la misma instancia,
+ * así que todos los campeones con el mismo rol comparten una única cadena en memoria.
+ * <p>
+ * Los valores nuevos se registran con {@link #registrar(EntityManager, String)} dentro de la transacción de
+ * escritura que los usa, así que si se deshace no queda ninguna fila huérfana. La clave sale de una secuencia
+ * ({@code rol_id_seq}, etc.) y la inserción no hace nada si otra transacción ya ha registrado el mismo texto,
+ * de modo que varias instancias de la aplicación pueden registrar valores a la vez. La clave nueva solo la ve
+ * la transacción que la registra hasta que se confirma; después pasa al diccionario compartido. Si otra
+ * instancia ha añadido valores, el diccionario se recarga al encontrar una clave desconocida.
+ * Hay un único juego de diccionarios por proceso, ligado a la base de datos indicada en
+ * {@link #conectar(DataSource)}, que se llama al arrancar la aplicación.
+ */
+public final class Diccionario {
+
+    public static final Diccionario ROL = new Diccionario("rol", "id_rol", "nombre_rol");
+    public static final Diccionario RAZA = new Diccionario("raza", "id_raza", "nombre_raza");
+    public static final Diccionario DIFICULTAD = new Diccionario("dificultad", "id_dificultad", "nombre_dificultad");
+
+    private static final List<Diccionario> TODOS = Arrays.asList(ROL, RAZA, DIFICULTAD);
+
+    private static volatile DataSource dataSource;
+
+    /** Claves registradas por la transacción en curso de cada hilo y todavía sin confirmar. */
+    private static final ThreadLocal<Map<Diccionario, Map<String, Short>>> PENDIENTES = new ThreadLocal<>();
+
+    private final String tabla;
+    private final String columnaId;
+    private final String columnaNombre;
+    private final String secuencia;
+    private final Map<String, Short> ids = new ConcurrentHashMap<>();
+    private volatile String[] textos = new String[0];
+
+    private Diccionario(String tabla, String columnaId, String columnaNombre) {
+        this.tabla = tabla;
+        this.columnaId = columnaId;
+        this.columnaNombre = columnaNombre;
+        this.secuencia = tabla + "_id_seq";
+    }
+
+    /**
+     * Carga todos los diccionarios de la base de datos y la usa para registrar los valores nuevos.
+     *
+     * @param dataSource La base de datos primaria, con el esquema ya migrado.
+     */
+    public static void conectar(DataSource dataSource) {
+        Diccionario.dataSource = dataSource;
+        for (Diccionario diccionario : TODOS) {
+            synchronized (diccionario) {
+                diccionario.textos = new String[0];
+                diccionario.ids.clear();
+                diccionario.recargar();
+            }
+        }
+    }
+
+    /**
+     * Registra el rol, la raza y la dificultad de un campeón en la transacción de escritura y los sustituye por
+     * las instancias compartidas. Hay que llamarlo antes de guardar el campeón.
+     *
+     * @param em      El entity manager de la transacción de escritura.
+     * @param campeon El campeón a guardar.
+     */
+    public static void registrar(EntityManager em, Campeon campeon) {
+        campeon.setRol(ROL.registrar(em, campeon.getRol()));
+        campeon.setRaza(RAZA.registrar(em, campeon.getRaza()));
+        campeon.setDificultad(DIFICULTAD.registrar(em, campeon.getDificultad()));
+    }
+
+    /**
+     * Registra un texto en la transacción de escritura si aún no está en el diccionario.
+     *
+     * @param em    El entity manager de la transacción de escritura.
+     * @param texto El texto a registrar.
+     * @return La instancia compartida del texto si ya estaba registrado; si no, el propio texto.
+     * @throws IllegalStateException Si no hay ninguna transacción activa.
+     */
+    public String registrar(EntityManager em, String texto) {
+        if (texto == null) {
+            return null;
+        }
+        Short id = ids.get(texto);
+        if (id != null) {
+            return textos[id];
+        }
+        if (!em.getTransaction().isActive()) {
+            throw new IllegalStateException("Los valores de la tabla '" + tabla + "' se registran dentro de una transacción");
+        }
+        Map<String, Short> pendientes = pendientes(em).computeIfAbsent(this, d -> new HashMap<>());
+        if (!pendientes.containsKey(texto)) {
+            // Si otra transacción registra el mismo texto a la vez, esta espera a que termine y no inserta nada.
+            // Las tablas del diccionario no son entidades, así que no hace falta vaciar antes los cambios pendientes.
+            em.createNativeQuery("INSERT INTO " + tabla + " (" + columnaId + ", " + columnaNombre + ") "
+                            + "VALUES (nextval('" + secuencia + "'), ?1) ON CONFLICT DO NOTHING")
+                    .setParameter(1, texto)
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .executeUpdate();
+            Number nuevo = (Number) em.createNativeQuery("SELECT " + columnaId + " FROM " + tabla + " WHERE " + columnaNombre + " = ?1")
+                    .setParameter(1, texto)
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .getSingleResult();
+            pendientes.put(texto, nuevo.shortValue());
+        }
+        return texto;
+    }
+
+    /**
+     * Obtiene la clave de un texto registrado, también si lo ha registrado la transacción en curso de este hilo.
+     *
+     * @param texto El texto a buscar.
+     * @return La clave del texto, o {@code null} si el texto es {@code null}.
+     * @throws IllegalArgumentException Si el texto no está registrado ni tras recargar el diccionario.
+     */
+    public Short id(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        Short id = ids.get(texto);
+        if (id != null) {
+            return id;
+        }
+        Map<Diccionario, Map<String, Short>> pendientes = PENDIENTES.get();
+        if (pendientes != null && pendientes.containsKey(this) && pendientes.get(this).containsKey(texto)) {
+            return pendientes.get(this).get(texto);
+        }
+        // Puede haberlo registrado otra instancia de la aplicación
+        recargar();
+        id = ids.get(texto);
+        if (id == null) {
+            throw new IllegalArgumentException("'" + texto + "' no está registrado en la tabla '" + tabla
+                    + "': hay que registrarlo en la transacción que lo guarda");
+        }
+        return id;
+    }
+
+    /**
+     * Obtiene la clave de un texto sin registrarlo.
+     *
+     * @param texto El texto a buscar.
+     * @return La clave del texto, o {@code null} si no está en el diccionario.
+     */
+    public Short buscar(String texto) {
+        return texto == null ? null : ids.get(texto);
+    }
+
+    /**
+     * Obtiene el texto de una clave.
+     *
+     * @param id La clave a buscar.
+     * @return La instancia compartida del texto, o {@code null} si la clave es {@code null}.
+     * @throws IllegalArgumentException Si la clave no existe ni tras recargar el diccionario.
+     */
+    public String texto(Short id) {
+        if (id == null) {
+            return null;
+        }
+        String[] actuales = textos;
+        if (id >= 0 && id < actuales.length && actuales[id] != null) {
+            return actuales[id];
+        }
+        recargar();
+        actuales = textos;
+        if (id < 0 || id >= actuales.length || actuales[id] == null) {
+            throw new IllegalArgumentException("Clave desconocida en la tabla '" + tabla + "': " + id);
+        }
+        return actuales[id];
+    }
+
+    private synchronized void recargar() {
+        try (Connection conexion = conexion();
+             Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT " + columnaId + ", " + columnaNombre + " FROM " + tabla)) {
+            // Las entradas ya cargadas conservan su instancia; las claves se publican después que los textos
+            String[] nuevos = textos.clone();
+            while (rs.next()) {
+                short id = rs.getShort(1);
+                if (id >= nuevos.length) {
+                    nuevos = Arrays.copyOf(nuevos, id + 1);
+                }
+                if (nuevos[id] == null) {
+                    nuevos[id] = rs.getString(2);
+                }
+            }
+            textos = nuevos;
+            for (short id = 0; id < nuevos.length; id++) {
+                if (nuevos[id] != null) {
+                    ids.put(nuevos[id], id);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo cargar la tabla '" + tabla + "'", e);
+        }
+    }
+
+    /**
+     * Claves pendientes de la transacción del entity manager. La primera vez se programa su publicación en el
+     * diccionario compartido cuando la transacción se confirme; si se deshace, se descartan.
+     */
+    private static Map<Diccionario, Map<String, Short>> pendientes(EntityManager em) {
+        Map<Diccionario, Map<String, Short>> pendientes = PENDIENTES.get();
+        if (pendientes == null) {
+            Map<Diccionario, Map<String, Short>> nuevas = new HashMap<>();
+            em.unwrap(Session.class).getTransaction().registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int estado) {
+                    PENDIENTES.remove();
+                    if (estado == Status.STATUS_COMMITTED) {
+                        nuevas.keySet().forEach(Diccionario::recargar);
+                    }
+                }
+            });
+            PENDIENTES.set(nuevas);
+            pendientes = nuevas;
+        }
+        return pendientes;
+    }
+
+    private static Connection conexion() throws SQLException {
+        if (dataSource == null) {
+            throw new IllegalStateException("Los diccionarios no están conectados a ninguna base de datos");
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Conversor JPA entre el texto de la entidad y la clave de la columna.
+     */
+    public abstract static class Conversor implements AttributeConverter<String, Short> {
+        private final Diccionario diccionario;
+
+        Conversor(Diccionario diccionario) {
+            this.diccionario = diccionario;
+        }
+
+        /**
+         * Obtiene el diccionario del conversor.
+         *
+         * @return El diccionario.
+         */
+        public Diccionario getDiccionario() {
+            return diccionario;
+        }
+
+        @Override
+        public Short convertToDatabaseColumn(String texto) {
+            return diccionario.id(texto);
+        }
+
+        @Override
+        public String convertToEntityAttribute(Short id) {
+            return diccionario.texto(id);
+        }
+    }
+
+    /** Conversor de {@link Campeon#getRol()}. */
+    public static class ConversorRol extends Conversor {
+        public ConversorRol() {
+            super(ROL);
+        }
+    }
+
+    /** Conversor de {@link Campeon#getRaza()}. */
+    public static class ConversorRaza extends Conversor {
+        public ConversorRaza() {
+            super(RAZA);
+        }
+    }
+
+    /** Conversor de {@link Campeon#getDificultad()}. */
+    public static class ConversorDificultad extends Conversor {
+        public ConversorDificultad() {
+            super(DIFICULTAD);
+        }
+    }
+}
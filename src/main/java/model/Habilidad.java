@@ -5,11 +5,40 @@ import javax.persistence.*;
 /**
  * Esta clase representa una habilidad en el sistema.
  * Una habilidad puede pertenecer a un único campeón.
+ * Las consultas con nombre son las de los controladores, compartidas con {@code herramientas.ComprobadorPlanes}.
  */
 @Entity
-@Table(name = "habilidad")
+@Table(name = "habilidad", indexes = {
+        @Index(name = "idx_habilidad_tecla", columnList = "asignacion_de_tecla"),
+        @Index(name = "idx_habilidad_campeon", columnList = "id_campeon")
+})
+@NamedQueries({
+        @NamedQuery(name = Habilidad.TODAS_CON_CAMPEON, query = "SELECT h FROM Habilidad h LEFT JOIN FETCH h.campeon"),
+        @NamedQuery(name = Habilidad.DE_CAMPEON, query = "SELECT h FROM Habilidad h WHERE h.campeon.id_campeon = :idCampeon"),
+        @NamedQuery(name = Habilidad.TECLAS_DE_CAMPEON, query = "SELECT h.asignacion_de_tecla, h.nombre FROM Habilidad h WHERE h.campeon.id_campeon = :id"),
+        @NamedQuery(name = Habilidad.POR_TEXTO, query = "SELECT h FROM Habilidad h LEFT JOIN h.campeon c "
+                + "WHERE h.nombre LIKE :texto OR h.descripcion LIKE :texto "
+                + "ORDER BY CASE WHEN h.nombre = :exacto THEN 0 "
+                + "WHEN h.nombre LIKE :prefijo THEN 1 ELSE 2 END, "
+                + "c.numero_de_aspectos DESC, h.nombre")
+})
 public class Habilidad {
 
+    /** Todas las habilidades junto con su campeón. */
+    public static final String TODAS_CON_CAMPEON = "Habilidad.todasConCampeon";
+
+    /** Las habilidades del campeón con el ID {@code :idCampeon}. */
+    public static final String DE_CAMPEON = "Habilidad.deCampeon";
+
+    /** Tecla y nombre de las habilidades del campeón con el ID {@code :id}. */
+    public static final String TECLAS_DE_CAMPEON = "Habilidad.teclasDeCampeon";
+
+    /**
+     * Las habilidades cuyo nombre o descripción contiene {@code :texto}: primero la que se llama {@code :exacto},
+     * después las que empiezan por {@code :prefijo}, y dentro de cada grupo por los aspectos de su campeón.
+     */
+    public static final String POR_TEXTO = "Habilidad.porTexto";
+
     @Id
     @Column(name = "nombre_habilidad")
     String nombre;
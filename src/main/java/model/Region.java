@@ -7,11 +7,53 @@ import java.util.Set;
 /**
  * Esta clase representa una región en el sistema.
  * Una región puede tener varios campeones asociados.
+ * Los grafos de entidad con nombre indican si cada caso de uso carga o no los campeones.
+ * Las consultas con nombre son las de los controladores, compartidas con {@code herramientas.ComprobadorPlanes}.
  */
 @Entity
-@Table(name = "region")
+@Table(name = "region", indexes = @Index(name = "idx_region_historias", columnList = "historias_relacionadas"))
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Region.GRAFO_LISTADO),
+        @NamedEntityGraph(name = Region.GRAFO_CON_CAMPEONES, attributeNodes = @NamedAttributeNode("campeones"))
+})
+@NamedQueries({
+        @NamedQuery(name = Region.POR_TEXTO, query = "SELECT r FROM Region r WHERE r.nombre_region LIKE :texto OR r.descripcion LIKE :texto "
+                + "ORDER BY CASE WHEN r.nombre_region = :exacto THEN 0 "
+                + "WHEN r.nombre_region LIKE :prefijo THEN 1 ELSE 2 END, "
+                + "r.historias_relacionadas DESC, r.id_region"),
+        @NamedQuery(name = Region.CON_MAS_HISTORIAS_QUE, query = "SELECT r FROM Region r WHERE r.historias_relacionadas > :cantidadHistorias"),
+        @NamedQuery(name = Region.NOMBRES_DE_CAMPEON, query = "SELECT r.nombre_region FROM Region r JOIN r.campeones c WHERE c.id_campeon = :id ORDER BY r.nombre_region"),
+        @NamedQuery(name = Region.CAMPEONES_POR_REGION, query = "SELECT r.id_region, r.nombre_region, COUNT(c) FROM Region r LEFT JOIN r.campeones c "
+                + "GROUP BY r.id_region, r.nombre_region"),
+        @NamedQuery(name = Region.POR_HISTORIAS, query = "SELECT r.id_region, r.nombre_region, r.historias_relacionadas FROM Region r "
+                + "ORDER BY r.historias_relacionadas DESC, r.id_region")
+})
 public class Region {
 
+    /** Grafo para listados: solo los atributos de la región, sin campeones. */
+    public static final String GRAFO_LISTADO = "Region.listado";
+
+    /** Grafo para mostrar la región junto con sus campeones. */
+    public static final String GRAFO_CON_CAMPEONES = "Region.conCampeones";
+
+    /**
+     * Las regiones cuyo nombre o descripción contiene {@code :texto}: primero la que se llama {@code :exacto},
+     * después las que empiezan por {@code :prefijo}, y dentro de cada grupo por historias relacionadas.
+     */
+    public static final String POR_TEXTO = "Region.porTexto";
+
+    /** Las regiones con más de {@code :cantidadHistorias} historias relacionadas. */
+    public static final String CON_MAS_HISTORIAS_QUE = "Region.conMasHistoriasQue";
+
+    /** Los nombres de las regiones del campeón con el ID {@code :id}, por orden alfabético. */
+    public static final String NOMBRES_DE_CAMPEON = "Region.nombresDeCampeon";
+
+    /** Nombre y número de campeones de cada región, incluidas las que no tienen campeones. */
+    public static final String CAMPEONES_POR_REGION = "Region.campeonesPorRegion";
+
+    /** Nombre e historias relacionadas de las regiones, de más a menos historias y a igualdad por ID. */
+    public static final String POR_HISTORIAS = "Region.porHistorias";
+
     @Id
     @Column(name = "id_region")
     int id_region;
@@ -29,7 +71,8 @@ public class Region {
     @JoinTable(
             name = "region_campeon",
             joinColumns = @JoinColumn(name = "id_region"),
-            inverseJoinColumns = @JoinColumn(name = "id_campeon")
+            inverseJoinColumns = @JoinColumn(name = "id_campeon"),
+            indexes = @Index(name = "idx_region_campeon_campeon", columnList = "id_campeon")
     )
     private Set<Campeon> campeones = new HashSet<>();
 
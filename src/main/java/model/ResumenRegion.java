@@ -0,0 +1,114 @@
+package model;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+/**
+ * Fila precalculada del listado de regiones: los datos de la región junto con el número de campeones
+ * y sus nombres ya unidos y ordenados, para listar las regiones sin cargar sus colecciones de campeones.
+ * La aplicación no la modifica como entidad; la tabla se refresca con SQL desde {@code controller.ResumenRegiones}.
+ */
+@Entity
+@Immutable
+@Table(name = "resumen_region")
+@NamedQuery(name = ResumenRegion.LISTADO, query = "SELECT r FROM ResumenRegion r WHERE r.id_region >= :desde ORDER BY r.id_region")
+public class ResumenRegion {
+
+    /** Las filas a partir del ID {@code :desde}, por ID. */
+    public static final String LISTADO = "ResumenRegion.listado";
+
+    @Id
+    @Column(name = "id_region")
+    int id_region;
+
+    @Column(name = "nombre_region")
+    String nombre_region;
+
+    @Column(name = "historias_relacionadas")
+    int historias_relacionadas;
+
+    @Column(name = "numero_campeones")
+    int numero_campeones;
+
+    @Column(name = "nombres_campeones", length = 10485760)
+    String nombres_campeones;
+
+    /**
+     * Constructor vacío de la clase ResumenRegion.
+     */
+    public ResumenRegion() {
+    }
+
+    /**
+     * Constructor de la clase ResumenRegion.
+     *
+     * @param id_region              el ID de la región
+     * @param nombre_region          el nombre de la región
+     * @param historias_relacionadas el número de historias relacionadas con la región
+     * @param numero_campeones       el número de campeones de la región
+     * @param nombres_campeones      los nombres de los campeones separados por comas, o {@code null} si no tiene
+     */
+    public ResumenRegion(int id_region, String nombre_region, int historias_relacionadas, int numero_campeones, String nombres_campeones) {
+        this.id_region = id_region;
+        this.nombre_region = nombre_region;
+        this.historias_relacionadas = historias_relacionadas;
+        this.numero_campeones = numero_campeones;
+        this.nombres_campeones = nombres_campeones;
+    }
+
+    /**
+     * Obtiene el ID de la región.
+     *
+     * @return el ID de la región
+     */
+    public int getId_region() {
+        return id_region;
+    }
+
+    /**
+     * Obtiene el nombre de la región.
+     *
+     * @return el nombre de la región
+     */
+    public String getNombre_region() {
+        return nombre_region;
+    }
+
+    /**
+     * Obtiene el número de historias relacionadas con la región.
+     *
+     * @return el número de historias relacionadas
+     */
+    public int getHistorias_relacionadas() {
+        return historias_relacionadas;
+    }
+
+    /**
+     * Obtiene el número de campeones de la región.
+     *
+     * @return el número de campeones
+     */
+    public int getNumero_campeones() {
+        return numero_campeones;
+    }
+
+    /**
+     * Obtiene los nombres de los campeones de la región, ordenados y separados por comas.
+     *
+     * @return los nombres de los campeones, o {@code null} si la región no tiene campeones
+     */
+    public String getNombres_campeones() {
+        return nombres_campeones;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenRegion{" +
+                "id_region=" + id_region +
+                ", nombre_region='" + nombre_region + '\'' +
+                ", historias_relacionadas=" + historias_relacionadas +
+                ", numero_campeones=" + numero_campeones +
+                '}';
+    }
+}
@@ -0,0 +1,318 @@
+package model;
+
+import javax.persistence.AttributeConverter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Conversor JPA que guarda los textos largos comprimidos con {@link Deflater} en una columna {@code bytea}.
+ * <p>
+ * El primer byte indica el formato: {@value #SIN_COMPRIMIR} para el texto en UTF-8 tal cual,
+ * {@value #DEFLATE_DICCIONARIO} para el texto comprimido con un diccionario, seguido del identificador del
+ * diccionario en 4 bytes, y {@value #DEFLATE} para el comprimido sin diccionario; después va la longitud
+ * original en 4 bytes y los datos comprimidos. {@value #DEFLATE_LORE} es el formato anterior, sin
+ * identificador, de los textos comprimidos con el primer diccionario. Los textos de menos de {@link #UMBRAL}
+ * bytes, o que no se reducen al comprimirlos, se guardan sin comprimir.
+ * <p>
+ * Los diccionarios contienen las frases más repetidas de la historia de los campeones, generadas con
+ * {@link #entrenar(Collection, int)}; así los textos empiezan a comprimirse bien desde el primer párrafo.
+ * La lista {@value #RECURSO_DICCIONARIOS} enumera todas las versiones y los textos nuevos se comprimen con
+ * la última. Una versión publicada no se modifica nunca: los textos guardan el Adler-32 de su diccionario
+ * como identificador y se leen siempre con el mismo, aunque después se haya entrenado otro.
+ */
+@javax.persistence.Converter
+public class TextoComprimido implements AttributeConverter<String, byte[]> {
+
+    /** Tamaño en bytes a partir del cual se comprime un texto. */
+    public static final int UMBRAL = 512;
+
+    /** Recurso del classpath con la lista de diccionarios, uno por línea y del más antiguo al más reciente. */
+    public static final String RECURSO_DICCIONARIOS = "/compresion/diccionarios";
+
+    static final byte SIN_COMPRIMIR = 0;
+    static final byte DEFLATE_LORE = 1;
+    static final byte DEFLATE = 2;
+    static final byte DEFLATE_DICCIONARIO = 3;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    @Override
+    public byte[] convertToDatabaseColumn(String texto) {
+        return texto == null ? null : comprimir(texto, Diccionarios.ACTUAL);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] datos) {
+        return datos == null ? null : descomprimir(datos);
+    }
+
+    /**
+     * Codifica un texto en el formato de la columna.
+     *
+     * @param texto       El texto a codificar.
+     * @param diccionario El diccionario de compresión, vacío para comprimir sin diccionario; al descomprimir
+     *                    hay que usar el mismo.
+     * @return Los bytes a guardar.
+     */
+    public static byte[] comprimir(String texto, byte[] diccionario) {
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= UMBRAL) {
+            Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            if (diccionario.length > 0) {
+                deflater.setDictionary(diccionario);
+            }
+            deflater.setInput(utf8);
+            deflater.finish();
+            int cabecera = diccionario.length > 0 ? 9 : 5;
+            byte[] salida = new byte[cabecera + utf8.length];
+            ByteBuffer buffer = ByteBuffer.wrap(salida);
+            if (diccionario.length > 0) {
+                buffer.put(DEFLATE_DICCIONARIO).putInt(identificador(diccionario));
+            } else {
+                buffer.put(DEFLATE);
+            }
+            buffer.putInt(utf8.length);
+            int longitud = cabecera;
+            while (!deflater.finished() && longitud < salida.length) {
+                longitud += deflater.deflate(salida, longitud, salida.length - longitud);
+            }
+            if (deflater.finished() && longitud < utf8.length) {
+                return Arrays.copyOf(salida, longitud);
+            }
+        }
+        byte[] salida = new byte[utf8.length + 1];
+        salida[0] = SIN_COMPRIMIR;
+        System.arraycopy(utf8, 0, salida, 1, utf8.length);
+        return salida;
+    }
+
+    /**
+     * Decodifica los bytes de la columna con el diccionario que indica su cabecera.
+     *
+     * @param datos Los bytes guardados.
+     * @return El texto original.
+     * @throws IllegalArgumentException Si los datos están truncados o dañados, o su diccionario no está en
+     *                                  la lista de diccionarios.
+     */
+    public static String descomprimir(byte[] datos) {
+        return descomprimir(datos, Diccionarios.para(datos));
+    }
+
+    /**
+     * Decodifica los bytes de la columna.
+     *
+     * @param datos       Los bytes guardados.
+     * @param diccionario El diccionario con el que se comprimieron; no se usa si se comprimieron sin diccionario.
+     * @return El texto original.
+     * @throws IllegalArgumentException Si los datos están truncados o dañados, o se comprimieron con un
+     *                                  diccionario y no se indica ninguno o se indica otro.
+     */
+    public static String descomprimir(byte[] datos, byte[] diccionario) {
+        if (datos.length == 0) {
+            throw new IllegalArgumentException("Texto comprimido vacío");
+        }
+        if (datos[0] == SIN_COMPRIMIR) {
+            return new String(datos, 1, datos.length - 1, StandardCharsets.UTF_8);
+        }
+        if (datos[0] != DEFLATE_LORE && datos[0] != DEFLATE && datos[0] != DEFLATE_DICCIONARIO) {
+            throw new IllegalArgumentException("Formato de texto comprimido desconocido: " + datos[0]);
+        }
+        boolean conDiccionario = datos[0] != DEFLATE;
+        if (conDiccionario && diccionario.length == 0) {
+            throw new IllegalArgumentException("El texto se comprimió con diccionario y no se ha indicado ninguno");
+        }
+        int cabecera = datos[0] == DEFLATE_DICCIONARIO ? 9 : 5;
+        if (datos.length < cabecera) {
+            throw new IllegalArgumentException("Texto comprimido truncado");
+        }
+        if (datos[0] == DEFLATE_DICCIONARIO && ByteBuffer.wrap(datos, 1, 4).getInt() != identificador(diccionario)) {
+            throw new IllegalArgumentException("El texto se comprimió con otro diccionario");
+        }
+        byte[] utf8 = new byte[ByteBuffer.wrap(datos, cabecera - 4, 4).getInt()];
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        if (conDiccionario) {
+            inflater.setDictionary(diccionario);
+        }
+        inflater.setInput(datos, cabecera, datos.length - cabecera);
+        try {
+            int longitud = 0;
+            while (longitud < utf8.length && !inflater.finished()) {
+                int leidos = inflater.inflate(utf8, longitud, utf8.length - longitud);
+                if (leidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // Sin más entrada no se puede avanzar: los datos se han cortado o el diccionario no es el suyo
+                    throw new IllegalArgumentException("Texto comprimido truncado o dañado");
+                }
+                longitud += leidos;
+            }
+            if (longitud < utf8.length) {
+                throw new IllegalArgumentException("Texto comprimido truncado: faltan " + (utf8.length - longitud) + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Texto comprimido dañado", e);
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Obtiene el diccionario de compresión en uso, el último de la lista.
+     *
+     * @return Una copia del diccionario.
+     */
+    public static byte[] diccionario() {
+        return Diccionarios.ACTUAL.clone();
+    }
+
+    /**
+     * Calcula el identificador de un diccionario que se guarda en la cabecera de los textos comprimidos con él:
+     * su Adler-32, el mismo que usa zlib para identificar diccionarios.
+     *
+     * @param diccionario El diccionario.
+     * @return El identificador.
+     */
+    public static int identificador(byte[] diccionario) {
+        Adler32 adler = new Adler32();
+        adler.update(diccionario);
+        return (int) adler.getValue();
+    }
+
+    /**
+     * Genera un diccionario de compresión a partir de textos de ejemplo.
+     * Se cuentan las frases de una a cuatro palabras y se eligen las que más bytes ahorrarían
+     * (repeticiones por longitud) hasta llenar el tamaño pedido. Las más valiosas quedan al final,
+     * que es la parte del diccionario más cercana al texto y la que más tarda en salir de la ventana de Deflate.
+     *
+     * @param textos Los textos de ejemplo.
+     * @param tamano El tamaño máximo del diccionario en bytes; Deflate solo aprovecha 32 KB.
+     * @return El diccionario.
+     */
+    public static byte[] entrenar(Collection<String> textos, int tamano) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        for (String texto : textos) {
+            String[] palabras = texto.split("\\s+");
+            for (int i = 0; i < palabras.length; i++) {
+                StringBuilder frase = new StringBuilder();
+                for (int n = 0; n < 4 && i + n < palabras.length; n++) {
+                    frase.append(n == 0 ? "" : " ").append(palabras[i + n]);
+                    frecuencias.merge(frase.toString(), 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> candidatas = new ArrayList<>();
+        for (Map.Entry<String, Integer> entrada : frecuencias.entrySet()) {
+            if (entrada.getValue() > 2 && entrada.getKey().length() > 3) {
+                candidatas.add(entrada);
+            }
+        }
+        candidatas.sort((a, b) -> Long.compare(ahorro(b), ahorro(a)));
+
+        List<String> elegidas = new ArrayList<>();
+        StringBuilder contenido = new StringBuilder();
+        int bytes = 0;
+        for (Map.Entry<String, Integer> candidata : candidatas) {
+            if (bytes > tamano - 8) {
+                break;
+            }
+            String frase = candidata.getKey() + " ";
+            int longitud = frase.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + longitud > tamano) {
+                continue;
+            }
+            if (contenido.indexOf(frase) < 0) {
+                elegidas.add(frase);
+                contenido.append(frase);
+                bytes += longitud;
+            }
+        }
+        Collections.reverse(elegidas);
+        return String.join("", elegidas).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long ahorro(Map.Entry<String, Integer> frase) {
+        return (long) (frase.getValue() - 1) * frase.getKey().length();
+    }
+
+    /**
+     * Carga los diccionarios la primera vez que se usan, para poder entrenar uno nuevo aunque aún no exista ninguno.
+     */
+    private static final class Diccionarios {
+        static final List<byte[]> VERSIONES = leerDiccionarios();
+        static final Map<Integer, byte[]> POR_IDENTIFICADOR = new HashMap<>();
+        static final byte[] ACTUAL = VERSIONES.get(VERSIONES.size() - 1);
+
+        static {
+            for (byte[] version : VERSIONES) {
+                POR_IDENTIFICADOR.put(identificador(version), version);
+            }
+        }
+
+        /**
+         * El diccionario con el que se comprimieron los datos: el primero para el formato sin identificador,
+         * el de su identificador para el actual y ninguno para el resto.
+         */
+        static byte[] para(byte[] datos) {
+            if (datos.length == 0 || datos[0] == DEFLATE_LORE) {
+                return VERSIONES.get(0);
+            }
+            if (datos[0] != DEFLATE_DICCIONARIO) {
+                return new byte[0];
+            }
+            if (datos.length < 5) {
+                throw new IllegalArgumentException("Texto comprimido truncado");
+            }
+            int identificador = ByteBuffer.wrap(datos, 1, 4).getInt();
+            byte[] diccionario = POR_IDENTIFICADOR.get(identificador);
+            if (diccionario == null) {
+                throw new IllegalArgumentException("Diccionario de compresión desconocido: " + Integer.toHexString(identificador));
+            }
+            return diccionario;
+        }
+    }
+
+    private static List<byte[]> leerDiccionarios() {
+        List<byte[]> versiones = new ArrayList<>();
+        for (String linea : new String(leerRecurso(RECURSO_DICCIONARIOS), StandardCharsets.UTF_8).split("\n")) {
+            if (!linea.trim().isEmpty()) {
+                versiones.add(leerRecurso("/compresion/" + linea.trim()));
+            }
+        }
+        if (versiones.isEmpty()) {
+            throw new IllegalStateException("La lista de diccionarios de compresión " + RECURSO_DICCIONARIOS + " está vacía");
+        }
+        return versiones;
+    }
+
+    private static byte[] leerRecurso(String recurso) {
+        try (InputStream in = TextoComprimido.class.getResourceAsStream(recurso)) {
+            if (in == null) {
+                throw new IllegalStateException("No se encuentra el recurso de compresión " + recurso);
+            }
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            byte[] bloque = new byte[8192];
+            for (int leidos; (leidos = in.read(bloque)) > 0; ) {
+                salida.write(bloque, 0, leidos);
+            }
+            return salida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class Menu {
             System.out.println("1. Listar Regiones");
             System.out.println("2. Listar Campeones");
             System.out.println("3. Listar Habilidades");
-            System.out.println("4. Borrar y crear todas las tablas");
+            System.out.println("4. Vaciar el catálogo");
             System.out.println("5. Buscar Regiones por texto");
             System.out.println("6. Buscar Regiones por número de historias");
             System.out.println("7. Buscar Región por ID");
@@ -52,6 +52,11 @@ public class Menu {
             System.out.println("20. Eliminar Habilidad por tecla asignada");
             System.out.println("21. Eliminar Campeones por aparición en cinemáticas");
             System.out.println("22. Cargar datos desde archivos CSV");
+            System.out.println("23. Buscar en todo el catálogo");
+            System.out.println("24. Ver el estado del pool de conexiones");
+            System.out.println("25. Filtrar campeones por rol, dificultad y aspectos");
+            System.out.println("26. Consultar campeones compartidos entre regiones");
+            System.out.println("27. Ver estadísticas del catálogo");
             System.out.println("0. Salir");
 
             System.out.println("Elige opción: ");
@@ -61,7 +66,7 @@ public class Menu {
                 System.out.println("Valor no válido");
                 e.printStackTrace();
             }
-        } while (option < 0 || option > 22);
+        } while (option < 0 || option > 27);
 
         return option;
     }
@@ -0,0 +1,49 @@
+-- Esquema inicial del catálogo, equivalente al que generaba hbm2ddl a partir de las entidades.
+
+create table campeon (
+    id_campeon                 int4 not null,
+    apariencion_en_cinematicas varchar(255),
+    apodo                      varchar(255),
+    biografia                  varchar(10485760),
+    campeones_con_relacion     int4,
+    dificultad                 varchar(255),
+    nombre_campeon             varchar(255),
+    numero_de_aspectos         int4,
+    numero_de_relatos_cortos   int4,
+    raza                       varchar(255),
+    rol                        varchar(255),
+    primary key (id_campeon)
+);
+
+create table habilidad (
+    nombre_habilidad      varchar(255) not null,
+    asignacion_de_tecla   char(1),
+    descripcion_habilidad varchar(10485760),
+    link                  varchar(255),
+    pasiva                boolean,
+    id_campeon            int4,
+    primary key (nombre_habilidad)
+);
+
+create table region (
+    id_region              int4 not null,
+    descripcion_region     varchar(10485760),
+    historias_relacionadas int4,
+    nombre_region          varchar(255),
+    primary key (id_region)
+);
+
+create table region_campeon (
+    id_region  int4 not null,
+    id_campeon int4 not null,
+    primary key (id_region, id_campeon)
+);
+
+alter table habilidad
+    add constraint fk_habilidad_campeon foreign key (id_campeon) references campeon;
+
+alter table region_campeon
+    add constraint fk_region_campeon_campeon foreign key (id_campeon) references campeon;
+
+alter table region_campeon
+    add constraint fk_region_campeon_region foreign key (id_region) references region;
@@ -0,0 +1,11 @@
+-- Índices secundarios para los filtros de los controladores; se declaran también en el mapeo de las entidades.
+-- La clave primaria de region_campeon empieza por id_region, así que no sirve para buscar las regiones de un campeón.
+
+create index idx_campeon_rol on campeon (rol);
+create index idx_campeon_nombre on campeon (nombre_campeon);
+
+create index idx_habilidad_tecla on habilidad (asignacion_de_tecla);
+create index idx_habilidad_campeon on habilidad (id_campeon);
+
+create index idx_region_historias on region (historias_relacionadas);
+create index idx_region_campeon_campeon on region_campeon (id_campeon);
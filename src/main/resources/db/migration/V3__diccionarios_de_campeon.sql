@@ -0,0 +1,56 @@
+-- Rol, raza y dificultad pasan a tablas de consulta; campeon guarda solo la clave de cada valor.
+
+create table rol (
+    id_rol     int2         not null,
+    nombre_rol varchar(255) not null,
+    primary key (id_rol),
+    constraint uk_rol_nombre unique (nombre_rol)
+);
+
+create table raza (
+    id_raza     int2         not null,
+    nombre_raza varchar(255) not null,
+    primary key (id_raza),
+    constraint uk_raza_nombre unique (nombre_raza)
+);
+
+create table dificultad (
+    id_dificultad     int2         not null,
+    nombre_dificultad varchar(255) not null,
+    primary key (id_dificultad),
+    constraint uk_dificultad_nombre unique (nombre_dificultad)
+);
+
+insert into rol (id_rol, nombre_rol)
+select row_number() over (order by rol), rol from (select distinct rol from campeon where rol is not null) valores;
+
+insert into raza (id_raza, nombre_raza)
+select row_number() over (order by raza), raza from (select distinct raza from campeon where raza is not null) valores;
+
+insert into dificultad (id_dificultad, nombre_dificultad)
+select row_number() over (order by dificultad), dificultad from (select distinct dificultad from campeon where dificultad is not null) valores;
+
+alter table campeon add column id_rol int2;
+alter table campeon add column id_raza int2;
+alter table campeon add column id_dificultad int2;
+
+update campeon set
+    id_rol = (select r.id_rol from rol r where r.nombre_rol = campeon.rol),
+    id_raza = (select r.id_raza from raza r where r.nombre_raza = campeon.raza),
+    id_dificultad = (select d.id_dificultad from dificultad d where d.nombre_dificultad = campeon.dificultad);
+
+drop index idx_campeon_rol;
+alter table campeon drop column rol;
+alter table campeon drop column raza;
+alter table campeon drop column dificultad;
+
+alter table campeon
+    add constraint fk_campeon_rol foreign key (id_rol) references rol;
+
+alter table campeon
+    add constraint fk_campeon_raza foreign key (id_raza) references raza;
+
+alter table campeon
+    add constraint fk_campeon_dificultad foreign key (id_dificultad) references dificultad;
+
+create index idx_campeon_rol on campeon (id_rol);
@@ -0,0 +1,20 @@
+-- Resumen precalculado de cada región para el listado: historias, número de campeones y sus nombres ya unidos.
+-- Es una tabla normal y no una vista materializada para poder refrescar solo las regiones que cambian;
+-- la aplicación la mantiene al día después de cada importación o edición (controller.ResumenRegiones).
+
+create table resumen_region (
+    id_region              int4              not null,
+    nombre_region          varchar(255),
+    historias_relacionadas int4,
+    numero_campeones       int4              not null,
+    nombres_campeones      varchar(10485760),
+    primary key (id_region)
+);
+
+insert into resumen_region (id_region, nombre_region, historias_relacionadas, numero_campeones, nombres_campeones)
+select r.id_region, r.nombre_region, r.historias_relacionadas, count(c.id_campeon),
+       string_agg(c.nombre_campeon, ', ' order by c.nombre_campeon)
+from region r
+         left join region_campeon rc on rc.id_region = r.id_region
+         left join campeon c on c.id_campeon = rc.id_campeon
+group by r.id_region, r.nombre_region, r.historias_relacionadas;
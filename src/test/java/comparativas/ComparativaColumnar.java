@@ -0,0 +1,159 @@
+package comparativas;
+
+import index.AlmacenColumnar;
+import index.FiltroColumnar;
+import model.Campeon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Mide con JMH cuánto tardan los filtros combinados sobre campeones en el {@link AlmacenColumnar} frente a
+ * recorrer los objetos {@link Campeon}, que es lo que hace cualquier filtro en memoria sobre entidades.
+ * <p>
+ * Se generan campeones sintéticos (un millón por defecto, parámetro {@code campeones}) con una semilla fija y
+ * cada filtro se evalúa con cuatro variantes: recorrer la lista con un stream secuencial, con un stream
+ * paralelo, y el almacén columnar en un solo hilo y repartido entre los núcleos. Antes de medir se comprueba
+ * que todas las variantes seleccionan los mismos campeones.
+ * <p>
+ * {@code mvn -P comparativas test-compile exec:exec -Dcomparativa="org.openjdk.jmh.Main ComparativaColumnar"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ComparativaColumnar {
+
+    private static final String[] ROLES = {"LUCHADOR", "MAGO", "TIRADOR", "ASESINO", "TANQUE", "APOYO"};
+    private static final String[] DIFICULTADES = {"MODERADA", "ALTA", "BAJA"};
+    private static final String[] RAZAS = {"Desconocida", "VASTAYA", "OSCUROS", "YORDLE", "ASCENDIDO", "DRAGÓN"};
+
+    @Param("1000000")
+    public int campeones;
+
+    /** rol Y dificultad Y aspectos > 10; aspectos entre 5 y 8 Y relatos >= 2; raza poco frecuente Y rol; sin criterios. */
+    @Param({"combinado", "rango", "raro", "vacio"})
+    public String filtro;
+
+    private List<Campeon> lista;
+    private AlmacenColumnar secuencial;
+    private AlmacenColumnar paralelo;
+    private FiltroColumnar criterios;
+    private Predicate<Campeon> predicado;
+
+    @Setup
+    public void preparar() {
+        lista = generar(campeones, new Random(42));
+        secuencial = new AlmacenColumnar(false);
+        secuencial.cargar(lista);
+        paralelo = new AlmacenColumnar(true);
+        paralelo.cargar(lista);
+        criterios = filtro(filtro);
+        predicado = predicado(criterios);
+
+        int esperado = (int) lista.stream().filter(predicado).count();
+        if (secuencial.contar(criterios) != esperado || paralelo.contar(criterios) != esperado
+                || !Arrays.equals(secuencial.ids(criterios), lista.stream().filter(predicado).mapToInt(Campeon::getId_campeon).sorted().toArray())) {
+            throw new IllegalStateException("Las variantes no seleccionan los mismos campeones con el filtro " + criterios);
+        }
+    }
+
+    @Benchmark
+    public long objetos() {
+        return lista.stream().filter(predicado).count();
+    }
+
+    @Benchmark
+    public long objetosParalelo() {
+        return lista.parallelStream().filter(predicado).count();
+    }
+
+    @Benchmark
+    public int columnar() {
+        return secuencial.contar(criterios);
+    }
+
+    @Benchmark
+    public int columnarParalelo() {
+        return paralelo.contar(criterios);
+    }
+
+    private static FiltroColumnar filtro(String nombre) {
+        FiltroColumnar filtro = new FiltroColumnar();
+        switch (nombre) {
+            case "combinado":
+                filtro.setRol("MAGO");
+                filtro.setDificultad("ALTA");
+                filtro.setMinimoAspectos(11);
+                break;
+            case "rango":
+                filtro.setMinimoAspectos(5);
+                filtro.setMaximoAspectos(8);
+                filtro.setMinimoRelatos(2);
+                break;
+            case "raro":
+                filtro.setRaza("OSCUROS");
+                filtro.setRol("TANQUE");
+                break;
+            default:
+        }
+        return filtro;
+    }
+
+    /**
+     * El mismo filtro como predicado sobre los objetos, para la variante que los recorre.
+     */
+    private static Predicate<Campeon> predicado(FiltroColumnar filtro) {
+        Predicate<Campeon> predicado = c -> true;
+        if (filtro.getRol() != null) {
+            predicado = predicado.and(c -> filtro.getRol().equals(c.getRol()));
+        }
+        if (filtro.getRaza() != null) {
+            predicado = predicado.and(c -> filtro.getRaza().equals(c.getRaza()));
+        }
+        if (filtro.getDificultad() != null) {
+            predicado = predicado.and(c -> filtro.getDificultad().equals(c.getDificultad()));
+        }
+        predicado = predicado.and(rango(Campeon::getNumero_de_aspectos, filtro.getMinimoAspectos(), filtro.getMaximoAspectos()));
+        predicado = predicado.and(rango(Campeon::getNumero_de_relatos_cortos, filtro.getMinimoRelatos(), filtro.getMaximoRelatos()));
+        return predicado.and(rango(Campeon::getCampeones_con_relacion, filtro.getMinimoRelaciones(), filtro.getMaximoRelaciones()));
+    }
+
+    private static Predicate<Campeon> rango(ToIntFunction<Campeon> atributo, Integer minimo, Integer maximo) {
+        return c -> (minimo == null || atributo.applyAsInt(c) >= minimo) && (maximo == null || atributo.applyAsInt(c) <= maximo);
+    }
+
+    /**
+     * Genera campeones con distribuciones parecidas a las del catálogo: casi todos de raza desconocida,
+     * dificultad moderada más frecuente y hasta 30 aspectos.
+     */
+    private static List<Campeon> generar(int numero, Random random) {
+        List<Campeon> campeones = new ArrayList<>(numero);
+        for (int id = 1; id <= numero; id++) {
+            String raza = random.nextInt(100) < 90 ? RAZAS[0] : RAZAS[1 + random.nextInt(RAZAS.length - 1)];
+            int dificultad = random.nextInt(10);
+            campeones.add(new Campeon(id, "CAMPEÓN " + id, "APODO " + id, random.nextInt(9), null, "no",
+                    random.nextInt(11), ROLES[random.nextInt(ROLES.length)], raza, random.nextInt(31),
+                    DIFICULTADES[dificultad < 6 ? 0 : dificultad < 8 ? 1 : 2], null));
+        }
+        return campeones;
+    }
+}
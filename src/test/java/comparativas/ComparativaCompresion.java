@@ -0,0 +1,131 @@
+package comparativas;
+
+import herramientas.EntrenamientoDiccionario;
+import model.TextoComprimido;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cuánto espacio ahorra {@link TextoComprimido} con las biografías de los campeones y cuánto cuesta leerlas.
+ * <p>
+ * Compara el texto sin comprimir, Deflate sin diccionario, Deflate con el diccionario instalado y Deflate con un
+ * diccionario entrenado solo con la mitad de las biografías y medido con la otra mitad, que indica cómo se
+ * comprimirán las biografías nuevas. {@code main} escribe primero la tabla de tamaños y después mide con JMH
+ * el tiempo de leer todas las biografías de cada variante:
+ * {@code mvn -P comparativas test-compile exec:exec -Dcomparativa=comparativas.ComparativaCompresion}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ComparativaCompresion {
+
+    /** Variantes en el orden de la tabla de tamaños. */
+    private static final String[] VARIANTES = {"SIN_COMPRIMIR", "SIN_DICCIONARIO", "DICCIONARIO_INSTALADO", "DICCIONARIO_OTRA_MITAD"};
+
+    @Param({"SIN_COMPRIMIR", "SIN_DICCIONARIO", "DICCIONARIO_INSTALADO", "DICCIONARIO_OTRA_MITAD"})
+    public String variante;
+
+    private byte[] diccionario;
+    private List<byte[]> guardados;
+
+    /**
+     * Escribe la tabla de tamaños de cada variante y mide las lecturas con JMH.
+     *
+     * @param args No se utilizan.
+     * @throws IOException     Si no se puede leer el CSV de campeones.
+     * @throws RunnerException Si falla la ejecución de JMH.
+     */
+    public static void main(String[] args) throws IOException, RunnerException {
+        System.out.println("| Variante               | Textos | Bytes originales | Bytes guardados | Ratio  |");
+        System.out.println("|------------------------|--------|------------------|-----------------|--------|");
+        for (String variante : VARIANTES) {
+            ComparativaCompresion comparativa = new ComparativaCompresion();
+            comparativa.variante = variante;
+            List<String> textos = comparativa.textos();
+            long originales = textos.stream().mapToLong(texto -> texto.getBytes(StandardCharsets.UTF_8).length).sum();
+            long guardados = comparativa.guardar(textos).stream().mapToLong(datos -> datos.length).sum();
+            System.out.println(String.format("| %-22s | %6d | %16d | %15d | %5.1f%% |",
+                    variante, textos.size(), originales, guardados, 100.0 * guardados / originales));
+        }
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(ComparativaCompresion.class.getName()).build()).run();
+    }
+
+    @Setup
+    public void preparar() throws IOException {
+        guardados = guardar(textos());
+    }
+
+    /**
+     * Lee todas las biografías guardadas con la variante.
+     */
+    @Benchmark
+    public long leer() {
+        long caracteres = 0;
+        for (byte[] datos : guardados) {
+            String texto = diccionario == null ? new String(datos, StandardCharsets.UTF_8) : TextoComprimido.descomprimir(datos, diccionario);
+            caracteres += texto.length();
+        }
+        return caracteres;
+    }
+
+    /**
+     * Elige el diccionario de la variante y devuelve los textos con los que se mide.
+     */
+    private List<String> textos() throws IOException {
+        List<String> biografias = EntrenamientoDiccionario.leerBiografias(EntrenamientoDiccionario.CSV_CAMPEONES);
+        switch (variante) {
+            case "SIN_COMPRIMIR":
+                diccionario = null;
+                return biografias;
+            case "SIN_DICCIONARIO":
+                diccionario = new byte[0];
+                return biografias;
+            case "DICCIONARIO_INSTALADO":
+                diccionario = TextoComprimido.diccionario();
+                return biografias;
+            default:
+                List<String> entrenamiento = new ArrayList<>();
+                List<String> prueba = new ArrayList<>();
+                for (int i = 0; i < biografias.size(); i++) {
+                    (i % 2 == 0 ? entrenamiento : prueba).add(biografias.get(i));
+                }
+                diccionario = TextoComprimido.entrenar(entrenamiento, EntrenamientoDiccionario.TAMANO_DICCIONARIO);
+                return prueba;
+        }
+    }
+
+    /**
+     * Guarda los textos con la variante y comprueba que se recuperan intactos.
+     */
+    private List<byte[]> guardar(List<String> textos) {
+        List<byte[]> guardados = new ArrayList<>();
+        for (String texto : textos) {
+            byte[] datos = diccionario == null ? texto.getBytes(StandardCharsets.UTF_8) : TextoComprimido.comprimir(texto, diccionario);
+            if (diccionario != null && !TextoComprimido.descomprimir(datos, diccionario).equals(texto)) {
+                throw new IllegalStateException("El texto no se recupera intacto con la variante " + variante);
+            }
+            guardados.add(datos);
+        }
+        return guardados;
+    }
+}
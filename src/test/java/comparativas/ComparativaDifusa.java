@@ -0,0 +1,134 @@
+package comparativas;
+
+import index.BuscadorDifuso;
+import index.Normalizador;
+import index.Resultado;
+import index.TipoEntidad;
+import model.Habilidad;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide con JMH la búsqueda aproximada de {@link BuscadorDifuso} con 1.000, 100.000 y 1.000.000 de nombres de
+ * habilidad, frente a calcular la distancia de Levenshtein con cada nombre, que es lo que cuesta sin el trie.
+ * <p>
+ * Los nombres son sílabas aleatorias con una semilla fija y cada búsqueda es un nombre existente con una
+ * errata. El tiempo del buscador debe crecer mucho más despacio que el número de nombres, mientras que el del
+ * recorrido completo crece con él. Antes de medir se comprueba que las dos variantes encuentran lo mismo.
+ * <p>
+ * {@code mvn -P comparativas test-compile exec:exec -Dcomparativa="org.openjdk.jmh.Main ComparativaDifusa"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ComparativaDifusa {
+
+    private static final String[] SILABAS = {"ka", "ri", "mo", "zel", "un", "tha", "dra", "ve", "sin", "lo", "gar", "ne", "ash", "qui", "bor", "fe"};
+    private static final int BUSQUEDAS = 64;
+
+    @Param({"1000", "100000", "1000000"})
+    public int nombres;
+
+    @Param({"1", "2"})
+    public int distancia;
+
+    private BuscadorDifuso buscador;
+    private List<String> normalizados;
+    private String[] busquedas;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        Set<String> generados = new LinkedHashSet<>();
+        while (generados.size() < nombres) {
+            StringBuilder nombre = new StringBuilder();
+            for (int silabas = 2 + random.nextInt(4); silabas > 0; silabas--) {
+                nombre.append(SILABAS[random.nextInt(SILABAS.length)]);
+            }
+            generados.add(nombre.toString());
+        }
+        buscador = new BuscadorDifuso();
+        normalizados = new ArrayList<>(nombres);
+        for (String nombre : generados) {
+            buscador.habilidadGuardada(new Habilidad(nombre, false, 'Q', "", "", null));
+            normalizados.add(Normalizador.normalizar(nombre));
+        }
+
+        List<String> lista = new ArrayList<>(generados);
+        busquedas = new String[BUSQUEDAS];
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            StringBuilder nombre = new StringBuilder(lista.get(random.nextInt(lista.size())));
+            nombre.setCharAt(random.nextInt(nombre.length()), (char) ('a' + random.nextInt(26)));
+            busquedas[i] = nombre.toString();
+        }
+        for (String busqueda : busquedas) {
+            if (buscador.buscar(busqueda, TipoEntidad.HABILIDAD, distancia, Integer.MAX_VALUE).size() != contarRecorriendo(busqueda)) {
+                throw new IllegalStateException("El buscador y el recorrido completo no encuentran lo mismo para " + busqueda);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Resultado> buscador() {
+        return buscador.buscar(siguienteBusqueda(), TipoEntidad.HABILIDAD, distancia, 5);
+    }
+
+    @Benchmark
+    public int recorridoCompleto() {
+        return contarRecorriendo(siguienteBusqueda());
+    }
+
+    private String siguienteBusqueda() {
+        siguiente = (siguiente + 1) % BUSQUEDAS;
+        return busquedas[siguiente];
+    }
+
+    /**
+     * Cuenta los nombres a la distancia máxima calculando la matriz de Levenshtein con cada uno.
+     */
+    private int contarRecorriendo(String busqueda) {
+        String objetivo = Normalizador.normalizar(busqueda);
+        int[] anterior = new int[objetivo.length() + 1];
+        int[] actual = new int[objetivo.length() + 1];
+        int encontrados = 0;
+        for (String nombre : normalizados) {
+            for (int j = 0; j < anterior.length; j++) {
+                anterior[j] = j;
+            }
+            for (int i = 1; i <= nombre.length(); i++) {
+                actual[0] = i;
+                for (int j = 1; j <= objetivo.length(); j++) {
+                    int sustitucion = anterior[j - 1] + (objetivo.charAt(j - 1) == nombre.charAt(i - 1) ? 0 : 1);
+                    actual[j] = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+                }
+                int[] fila = anterior;
+                anterior = actual;
+                actual = fila;
+            }
+            if (anterior[objetivo.length()] <= distancia) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+}
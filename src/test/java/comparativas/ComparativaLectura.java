@@ -0,0 +1,148 @@
+package comparativas;
+
+import controller.BaseDeDatosPrueba;
+import controller.Sesiones;
+import model.Campeon;
+import model.Habilidad;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Mide con JMH cuánta memoria reserva cada consulta según cómo la ejecute {@link Sesiones}, sobre el catálogo
+ * cargado en una base de datos H2 en memoria. La base de datos se sirve desde otro proceso: si estuviera en el
+ * mismo, lo que reserva H2 para ejecutar la consulta se sumaría a lo que reserva Hibernate y taparía la diferencia.
+ * <p>
+ * Cada consulta se ejecuta de tres formas: en una transacción de lectura y escritura con {@link Sesiones#escribir},
+ * que es como se ejecutaban antes las lecturas, con {@link Sesiones#leer} y con {@link Sesiones#recorrer}. La
+ * columna que interesa es {@code gc.alloc.rate.norm}, los bytes reservados por consulta, que {@code main}
+ * obtiene con el perfilador de memoria de JMH:
+ * {@code mvn -P comparativas test-compile exec:exec -Dcomparativa=comparativas.ComparativaLectura}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ComparativaLectura {
+
+    /** Todos los campeones; todas las habilidades, que traen a su campeón; un campeón por su identificador. */
+    @Param({"campeones", "habilidades", "campeon"})
+    public String consulta;
+
+    private static final int PUERTO = 9123;
+
+    private Process servidor;
+    private EntityManagerFactory entityManagerFactory;
+    private Sesiones sesiones;
+    private int idCampeon;
+
+    /**
+     * Mide las tres formas de ejecutar las consultas con el perfilador de memoria.
+     *
+     * @param args No se utilizan.
+     * @throws RunnerException Si falla la ejecución de JMH.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(ComparativaLectura.class.getName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+
+    @Setup
+    public void preparar() throws IOException, InterruptedException {
+        // La base de datos corre en otro proceso para que no se cuenten sus reservas de memoria, solo las del cliente
+        servidor = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), "org.h2.tools.Server",
+                "-tcp", "-tcpPort", String.valueOf(PUERTO), "-ifNotExists").inheritIO().start();
+        Map<String, String> propiedades = new HashMap<>();
+        propiedades.put("javax.persistence.jdbc.url", "jdbc:h2:tcp://localhost:" + PUERTO + "/mem:comparativa-lectura;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        for (int intento = 0; ; intento++) {
+            try {
+                entityManagerFactory = BaseDeDatosPrueba.crear("comparativa-lectura", propiedades);
+                break;
+            } catch (PersistenceException e) {
+                // El servidor todavía no escucha
+                if (intento == 50) {
+                    throw e;
+                }
+                Thread.sleep(200);
+            }
+        }
+        BaseDeDatosPrueba.cargarCatalogo(entityManagerFactory);
+        sesiones = new Sesiones(entityManagerFactory);
+        idCampeon = sesiones.leer(em -> em.createQuery("SELECT MIN(c.id_campeon) FROM Campeon c", Integer.class).getSingleResult());
+    }
+
+    @TearDown
+    public void cerrar() {
+        entityManagerFactory.close();
+        servidor.destroy();
+    }
+
+    /**
+     * La consulta en una transacción de lectura y escritura: instantáneas para comprobar cambios y vaciado al confirmar.
+     */
+    @Benchmark
+    public int escribir() {
+        return sesiones.escribir(consulta());
+    }
+
+    /**
+     * La consulta en modo de solo lectura.
+     */
+    @Benchmark
+    public int leer() {
+        return sesiones.leer(consulta());
+    }
+
+    /**
+     * La consulta con una sesión sin estado.
+     */
+    @Benchmark
+    public int recorrer() {
+        return sesiones.recorrer(session -> {
+            switch (consulta) {
+                case "campeones":
+                    return session.createQuery("SELECT c FROM Campeon c", Campeon.class).getResultList().size();
+                case "habilidades":
+                    return session.createQuery("SELECT h FROM Habilidad h JOIN FETCH h.campeon", Habilidad.class).getResultList().size();
+                default:
+                    return session.get(Campeon.class, idCampeon) != null ? 1 : 0;
+            }
+        });
+    }
+
+    private Function<EntityManager, Integer> consulta() {
+        switch (consulta) {
+            case "campeones":
+                return em -> em.createQuery("SELECT c FROM Campeon c", Campeon.class).getResultList().size();
+            case "habilidades":
+                return em -> em.createQuery("SELECT h FROM Habilidad h JOIN FETCH h.campeon", Habilidad.class).getResultList().size();
+            default:
+                return em -> em.find(Campeon.class, idCampeon) != null ? 1 : 0;
+        }
+    }
+}
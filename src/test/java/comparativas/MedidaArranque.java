@@ -0,0 +1,167 @@
+package comparativas;
+
+import controller.CampeonController;
+import controller.EnrutadorConexiones;
+import controller.FabricaDiferida;
+import controller.RegionController;
+import model.Diccionario;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mide cuánto tarda la aplicación en mostrar el menú y en responder a la primera consulta.
+ * <p>
+ * {@code mvn -P comparativas test-compile exec:exec -Dcomparativa="comparativas.MedidaArranque [repeticiones]"} lanza varias JVM nuevas por cada variante de arranque
+ * y mide, desde que se crea el proceso, cuándo se mostraría el menú y cuándo termina la primera consulta
+ * ({@code SELECT COUNT(c) FROM Campeon c}). Las variantes son:
+ * <ul>
+ *     <li>síncrono: la fábrica se construye antes del menú, como hacía {@code Main} antes de {@link FabricaDiferida};</li>
+ *     <li>diferido: la fábrica se construye en segundo plano con {@link FabricaDiferida};</li>
+ *     <li>diferido con AppCDS: además se usa el archivo {@value #ARCHIVO_CDS} que genera el perfil
+ *     {@code arranque-rapido}, si existe.</li>
+ * </ul>
+ * Las propiedades de sistema {@code javax.persistence.*}, {@code hibernate.*} y {@code catalogo.*} se pasan a la
+ * unidad de persistencia, así que se puede medir contra otra base de datos sin tocar el {@code persistence.xml}.
+ */
+public class MedidaArranque {
+
+    /** Archivo AppCDS que genera el perfil {@code arranque-rapido}. */
+    public static final String ARCHIVO_CDS = "target/catalogo.jsa";
+
+    private static final String MENU = "arranque:menu";
+    private static final String CONSULTA = "arranque:consulta";
+
+    /**
+     * Ejecuta la comparativa, o una sola medida si el primer argumento es {@code medir}.
+     *
+     * @param args Vacío o el número de repeticiones; {@code medir sincrono|diferido} para una medida.
+     * @throws IOException          Si no se puede lanzar la JVM de una medida.
+     * @throws InterruptedException Si se interrumpe la espera a una medida.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 1 && args[0].equals("medir")) {
+            medir(args[1].equals("diferido"));
+            return;
+        }
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        System.out.println("| Variante             | Menú (mediana) | Primera consulta (mediana) |");
+        System.out.println("|----------------------|----------------|----------------------------|");
+        comparar("Síncrono", repeticiones, "sincrono");
+        comparar("Diferido", repeticiones, "diferido");
+        if (new File(ARCHIVO_CDS).isFile()) {
+            comparar("Diferido con AppCDS", repeticiones, "diferido", "-XX:SharedArchiveFile=" + ARCHIVO_CDS);
+        } else {
+            System.out.println("(Sin " + ARCHIVO_CDS + ": se genera con mvn -P arranque-rapido package)");
+        }
+    }
+
+    private static void comparar(String variante, int repeticiones, String modo, String... opcionesJvm) throws IOException, InterruptedException {
+        long[] menu = new long[repeticiones];
+        long[] consulta = new long[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            long[] tiempos = lanzar(modo, opcionesJvm);
+            menu[i] = tiempos[0];
+            consulta[i] = tiempos[1];
+        }
+        System.out.println(String.format("| %-20s | %11d ms | %23d ms |", variante, mediana(menu), mediana(consulta)));
+    }
+
+    /**
+     * Lanza una JVM que hace una medida y anota cuándo escribe cada marca.
+     *
+     * @return Los milisegundos hasta el menú y hasta la primera consulta.
+     */
+    private static long[] lanzar(String modo, String... opcionesJvm) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        comando.addAll(Arrays.asList(opcionesJvm));
+        for (String propiedad : System.getProperties().stringPropertyNames()) {
+            if (esDeLaUnidad(propiedad)) {
+                comando.add("-D" + propiedad + "=" + System.getProperty(propiedad));
+            }
+        }
+        comando.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), MedidaArranque.class.getName(), "medir", modo));
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        long[] tiempos = {-1, -1};
+        try (BufferedReader salida = new BufferedReader(new InputStreamReader(proceso.getInputStream()))) {
+            String linea;
+            while ((linea = salida.readLine()) != null) {
+                long transcurrido = (System.nanoTime() - inicio) / 1_000_000;
+                if (linea.equals(MENU)) {
+                    tiempos[0] = transcurrido;
+                } else if (linea.equals(CONSULTA)) {
+                    tiempos[1] = transcurrido;
+                }
+            }
+        }
+        if (proceso.waitFor() != 0 || tiempos[1] < 0) {
+            throw new IllegalStateException("La medida '" + modo + "' ha fallado (código " + proceso.exitValue() + ")");
+        }
+        return tiempos;
+    }
+
+    /**
+     * Arranca como lo hace {@code Main} y hace la primera consulta, escribiendo una marca en cada paso.
+     */
+    private static void medir(boolean diferido) {
+        Map<String, String> propiedades = new HashMap<>();
+        for (String propiedad : System.getProperties().stringPropertyNames()) {
+            if (esDeLaUnidad(propiedad)) {
+                propiedades.put(propiedad, System.getProperty(propiedad));
+            }
+        }
+        EntityManagerFactory entityManagerFactory;
+        if (diferido) {
+            FabricaDiferida fabrica = new FabricaDiferida(() -> crear(propiedades));
+            fabrica.iniciar(construida -> { });
+            entityManagerFactory = fabrica;
+        } else {
+            entityManagerFactory = crear(propiedades);
+        }
+        new CampeonController(entityManagerFactory);
+        new RegionController(entityManagerFactory);
+        System.out.println(MENU);
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.createQuery("SELECT COUNT(c) FROM Campeon c", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+        System.out.println(CONSULTA);
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Crea la fábrica como al arrancar la aplicación, conectando los diccionarios.
+     */
+    private static EntityManagerFactory crear(Map<String, String> propiedades) {
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("JPAMagazines", propiedades);
+        Diccionario.conectar(EnrutadorConexiones.primaria(entityManagerFactory));
+        return entityManagerFactory;
+    }
+
+    private static boolean esDeLaUnidad(String propiedad) {
+        return propiedad.startsWith("javax.persistence.") || propiedad.startsWith("hibernate.") || propiedad.startsWith("catalogo.");
+    }
+
+    private static long mediana(long[] valores) {
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+}
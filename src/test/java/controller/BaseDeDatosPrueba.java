@@ -0,0 +1,106 @@
+package controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import index.BuscadorDifuso;
+import model.Diccionario;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unidad de persistencia del catálogo sobre una base de datos H2 en memoria en modo PostgreSQL, para las pruebas.
+ * Usa el mismo {@code persistence.xml} y las mismas migraciones que la aplicación; solo cambian la URL, el
+ * controlador JDBC, el dialecto y el nombre del pool, que es el de la base de datos para que no se repita. Como al
+ * arrancar la aplicación, los {@link Diccionario} se conectan a la última base de datos creada.
+ * Hibernate no valida el esquema: H2 informa de {@code bytea} como {@code VARBINARY} y no como el tipo que espera
+ * el mapeo, aunque las columnas sean las que crean las migraciones.
+ */
+public final class BaseDeDatosPrueba {
+
+    private BaseDeDatosPrueba() {
+    }
+
+    /**
+     * URL JDBC de una base de datos en memoria que dura hasta que termina la JVM.
+     *
+     * @param nombre El nombre de la base de datos.
+     * @return La URL.
+     */
+    public static String url(String nombre) {
+        return "jdbc:h2:mem:" + nombre + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Crea la fábrica de entity manager sobre la base de datos en memoria indicada, aplicando las migraciones.
+     *
+     * @param nombre      El nombre de la base de datos.
+     * @param propiedades Propiedades que se añaden o sustituyen a las del {@code persistence.xml}.
+     * @return La fábrica de entity manager.
+     */
+    public static EntityManagerFactory crear(String nombre, Map<String, String> propiedades) {
+        Map<String, String> configuracion = new HashMap<>();
+        configuracion.put("javax.persistence.jdbc.url", url(nombre));
+        configuracion.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        configuracion.put("javax.persistence.jdbc.user", "sa");
+        configuracion.put("javax.persistence.jdbc.password", "");
+        configuracion.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        configuracion.put("hibernate.hbm2ddl.auto", "none");
+        configuracion.put("hibernate.hikari.poolName", nombre);
+        configuracion.put("hibernate.hikari.registerMbeans", "false");
+        configuracion.putAll(propiedades);
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("JPAMagazines", configuracion);
+        Diccionario.conectar(EnrutadorConexiones.primaria(entityManagerFactory));
+        return entityManagerFactory;
+    }
+
+    /**
+     * Crea la fábrica de entity manager sobre la base de datos en memoria indicada, aplicando las migraciones.
+     *
+     * @param nombre El nombre de la base de datos.
+     * @return La fábrica de entity manager.
+     */
+    public static EntityManagerFactory crear(String nombre) {
+        return crear(nombre, new HashMap<>());
+    }
+
+    /**
+     * Carga los CSV del catálogo sin escribir en la salida estándar los mensajes de cada fila importada.
+     *
+     * @param entityManagerFactory La fábrica de entity manager de la base de datos a cargar.
+     * @throws IOException Si no se pueden leer los CSV.
+     */
+    public static void cargarCatalogo(EntityManagerFactory entityManagerFactory) throws IOException {
+        PrintStream salida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            CampeonController campeonController = new CampeonController(entityManagerFactory);
+            campeonController.readCampeonFromFile("src/main/resources/Campeons.csv");
+            RegionController regionController = new RegionController(entityManagerFactory);
+            regionController.readRegionFromFile("src/main/resources/Regiones.csv");
+            regionController.cerrar();
+            new HabilidadController(entityManagerFactory, campeonController, new BuscadorDifuso())
+                    .readHabilidadFromFile("src/main/resources/Habilidades.csv");
+        } finally {
+            System.setOut(salida);
+        }
+    }
+
+    /**
+     * Obtiene el estado del pool de la base de datos primaria de la fábrica.
+     *
+     * @param entityManagerFactory La fábrica de entity manager.
+     * @return El estado del pool HikariCP.
+     */
+    public static HikariPoolMXBean pool(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+    }
+}
@@ -0,0 +1,205 @@
+package controller;
+
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ejecuta los planes de {@link BorradoEnGrafo} con las dos políticas sobre una base de datos en memoria con el
+ * catálogo cargado, y comprueba las filas borradas de cada tabla y los avisos a los receptores de cada entidad.
+ * Cada prueba calcula lo que espera justo antes de borrar, así que no depende de lo que hayan borrado las demás.
+ */
+class BorradoEnGrafoTest {
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static Sesiones sesiones;
+
+    @BeforeAll
+    static void cargar() throws IOException {
+        entityManagerFactory = BaseDeDatosPrueba.crear("borrado-en-grafo");
+        BaseDeDatosPrueba.cargarCatalogo(entityManagerFactory);
+        sesiones = new Sesiones(entityManagerFactory);
+    }
+
+    @AfterAll
+    static void cerrar() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void unaRegionConSusDependientesAvisaALosReceptoresDeCadaEntidad() {
+        int region = regionConCampeones(0);
+        Set<Integer> campeones = enteros("SELECT id_campeon FROM region_campeon WHERE id_region = " + region);
+        String enCampeones = enLista(campeones);
+        Set<Integer> otrasRegiones = enteros("SELECT id_region FROM region_campeon WHERE id_campeon IN " + enCampeones);
+        int pertenencias = contar("SELECT COUNT(*) FROM region_campeon WHERE id_region = " + region
+                + " OR id_campeon IN " + enCampeones);
+        int habilidades = contar("SELECT COUNT(*) FROM habilidad WHERE id_campeon IN " + enCampeones);
+
+        ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+        Receptor deRegiones = new Receptor();
+        Receptor deCampeones = new Receptor();
+        Receptor deHabilidades = new Receptor();
+        receptores.addCatalogoListener(Region.class, deRegiones);
+        receptores.addCatalogoListener(Campeon.class, deCampeones);
+        receptores.addCatalogoListener(Habilidad.class, deHabilidades);
+        Map<String, Integer> filas = new BorradoEnGrafo(entityManagerFactory, receptores)
+                .eliminar(Region.class, Collections.singletonList(region), PoliticaBorrado.ELIMINAR_DEPENDIENTES);
+
+        assertEquals(1, filas.get("region"));
+        assertEquals(campeones.size(), filas.get("campeon"));
+        assertEquals(habilidades, filas.get("habilidad"));
+        assertEquals(pertenencias, filas.get("region_campeon"));
+        assertEquals(Collections.singletonList(region), deRegiones.regiones);
+        assertEquals(campeones, new HashSet<>(deCampeones.campeones));
+        assertEquals(habilidades, deHabilidades.habilidades.size());
+        assertEquals(otrasRegiones, deRegiones.relacionadas);
+        assertEquals(0, contar("SELECT COUNT(*) FROM campeon WHERE id_campeon IN " + enCampeones));
+    }
+
+    @Test
+    void desvincularUnaRegionConservaSusCampeones() {
+        int region = regionConCampeones(1);
+        Set<Integer> campeones = enteros("SELECT id_campeon FROM region_campeon WHERE id_region = " + region);
+
+        ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+        Receptor deRegiones = new Receptor();
+        Receptor deCampeones = new Receptor();
+        receptores.addCatalogoListener(Region.class, deRegiones);
+        receptores.addCatalogoListener(Campeon.class, deCampeones);
+        Map<String, Integer> filas = new BorradoEnGrafo(entityManagerFactory, receptores)
+                .eliminar(Region.class, Collections.singletonList(region), PoliticaBorrado.DESVINCULAR);
+
+        assertEquals(1, filas.get("region"));
+        assertEquals(campeones.size(), filas.get("region_campeon"));
+        assertEquals(2, filas.size());
+        assertEquals(Collections.singletonList(region), deRegiones.regiones);
+        assertTrue(deCampeones.campeones.isEmpty());
+        assertEquals(campeones, deCampeones.relacionadas);
+        assertEquals(campeones.size(), contar("SELECT COUNT(*) FROM campeon WHERE id_campeon IN " + enLista(campeones)));
+    }
+
+    @Test
+    void unaHabilidadSeBorraPorCondicionSinLeerAntesSusClaves() {
+        Set<Object> esperadas = new HashSet<>(sesiones.leer(em -> em.createNativeQuery(
+                "SELECT nombre_habilidad FROM habilidad WHERE asignacion_de_tecla = 'W'").getResultList()));
+
+        ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+        Receptor deHabilidades = new Receptor();
+        receptores.addCatalogoListener(Habilidad.class, deHabilidades);
+        BorradoEnGrafo borrado = new BorradoEnGrafo(entityManagerFactory, receptores);
+        Map<String, Integer> filas = borrado.eliminarDonde(Habilidad.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES,
+                "asignacion_de_tecla = ?", "W");
+
+        assertEquals(Collections.singletonMap("habilidad", esperadas.size()), filas);
+        assertEquals(esperadas, new HashSet<>(deHabilidades.habilidades));
+        assertEquals(1, borrado.describirPlan(Habilidad.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES).size());
+        assertEquals(0, contar("SELECT COUNT(*) FROM habilidad WHERE asignacion_de_tecla = 'W'"));
+    }
+
+    @Test
+    void unBorradoPorCondicionSigueElPlanDeLaEntidad() {
+        Set<Integer> campeones = enteros("SELECT id_campeon FROM campeon WHERE nombre_campeon LIKE 'S%'");
+        String enCampeones = enLista(campeones);
+        int habilidades = contar("SELECT COUNT(*) FROM habilidad WHERE id_campeon IN " + enCampeones);
+        int pertenencias = contar("SELECT COUNT(*) FROM region_campeon WHERE id_campeon IN " + enCampeones);
+
+        ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+        Receptor deCampeones = new Receptor();
+        Receptor deHabilidades = new Receptor();
+        receptores.addCatalogoListener(Campeon.class, deCampeones);
+        receptores.addCatalogoListener(Habilidad.class, deHabilidades);
+        Map<String, Integer> filas = new BorradoEnGrafo(entityManagerFactory, receptores)
+                .eliminarDonde(Campeon.class, PoliticaBorrado.ELIMINAR_DEPENDIENTES, "nombre_campeon LIKE ?", "S%");
+
+        assertEquals(campeones.size(), filas.get("campeon"));
+        assertEquals(habilidades, filas.get("habilidad"));
+        assertEquals(pertenencias, filas.get("region_campeon"));
+        assertEquals(campeones, new HashSet<>(deCampeones.campeones));
+        assertEquals(habilidades, deHabilidades.habilidades.size());
+    }
+
+    @Test
+    void losControladoresQueCompartenReceptoresAvisanDeLasCascadas() {
+        int region = regionConCampeones(0);
+        Set<Integer> campeones = enteros("SELECT id_campeon FROM region_campeon WHERE id_region = " + region);
+
+        ReceptoresCatalogo receptores = new ReceptoresCatalogo();
+        RegionController regionController = new RegionController(entityManagerFactory, receptores);
+        CampeonController campeonController = new CampeonController(entityManagerFactory, receptores);
+        Receptor deCampeones = new Receptor();
+        campeonController.addCatalogoListener(deCampeones);
+        regionController.eliminarRegionPorId(region, PoliticaBorrado.ELIMINAR_DEPENDIENTES);
+        regionController.cerrar();
+
+        assertEquals(campeones, new HashSet<>(deCampeones.campeones));
+    }
+
+    /**
+     * La región con campeones en la posición indicada, por ID; cada prueba que borra regiones usa una distinta.
+     */
+    private static int regionConCampeones(int posicion) {
+        List<Integer> regiones = new ArrayList<>(enteros("SELECT DISTINCT id_region FROM region_campeon"));
+        Collections.sort(regiones);
+        return regiones.get(posicion);
+    }
+
+    private static Set<Integer> enteros(String sql) {
+        List<?> filas = sesiones.leer(em -> em.createNativeQuery(sql).getResultList());
+        return filas.stream().map(fila -> ((Number) fila).intValue()).collect(Collectors.toSet());
+    }
+
+    private static int contar(String sql) {
+        return sesiones.leer(em -> ((Number) em.createNativeQuery(sql).getSingleResult()).intValue());
+    }
+
+    private static String enLista(Set<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * Guarda los avisos recibidos.
+     */
+    private static final class Receptor implements CatalogoListener {
+        final List<Integer> regiones = new ArrayList<>();
+        final List<Integer> campeones = new ArrayList<>();
+        final List<String> habilidades = new ArrayList<>();
+        final Set<Object> relacionadas = new HashSet<>();
+
+        @Override
+        public void regionEliminada(int id) {
+            regiones.add(id);
+        }
+
+        @Override
+        public void campeonEliminado(int id) {
+            campeones.add(id);
+        }
+
+        @Override
+        public void habilidadEliminada(String nombre) {
+            habilidades.add(nombre);
+        }
+
+        @Override
+        public void relacionesEliminadas(Class<?> entidad, Set<Object> claves) {
+            claves.forEach(clave -> relacionadas.add(((Number) clave).intValue()));
+        }
+    }
+}
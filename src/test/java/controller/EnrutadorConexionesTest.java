@@ -0,0 +1,108 @@
+package controller;
+
+import model.Region;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Enruta entre dos bases de datos en memoria, una primaria y una réplica que no se sincronizan: la misma región
+ * tiene un nombre distinto en cada una, así que el nombre leído indica a qué base de datos ha ido la lectura.
+ */
+class EnrutadorConexionesTest {
+
+    private static final String REPLICA = "enrutador-replica";
+    private static final String EN_PRIMARIA = "REGION DE LA PRIMARIA";
+    private static final String EN_REPLICA = "REGION DE LA REPLICA";
+
+    private static EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void crear() {
+        // La réplica se crea con su propia fábrica para aplicarle las migraciones
+        EntityManagerFactory replica = BaseDeDatosPrueba.crear(REPLICA);
+        guardarRegion(new Sesiones(replica), EN_REPLICA);
+        replica.close();
+
+        entityManagerFactory = BaseDeDatosPrueba.crear("enrutador-primaria", propiedades(BaseDeDatosPrueba.url(REPLICA)));
+        guardarRegion(new Sesiones(entityManagerFactory), EN_PRIMARIA);
+    }
+
+    @AfterAll
+    static void cerrar() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void lasLecturasVanALaReplicaYLasEscriturasALaPrimaria() throws Exception {
+        Sesiones sesiones = new Sesiones(entityManagerFactory);
+        assertEquals(EN_REPLICA, enOtroHilo(() -> leerRegion(sesiones)));
+        assertEquals(EN_PRIMARIA, enOtroHilo(() -> sesiones.escribir(em -> em.find(Region.class, 1).getNombre_region())));
+    }
+
+    @Test
+    void soloElHiloQueEscribeLeeDeLaPrimaria() throws Exception {
+        Sesiones sesiones = new Sesiones(entityManagerFactory);
+        assertEquals(EN_PRIMARIA, enOtroHilo(() -> {
+            sesiones.escribir(em -> em.find(Region.class, 1).getHistorias_relacionadas());
+            return leerRegion(sesiones);
+        }));
+        assertEquals(EN_REPLICA, enOtroHilo(() -> leerRegion(sesiones)));
+    }
+
+    @Test
+    void unaReplicaCaidaPasaALaSiguienteSinEsperar() throws Exception {
+        // IFEXISTS hace que la conexión a una base de datos en memoria que no existe falle en lugar de crearla
+        EntityManagerFactory conCaida = BaseDeDatosPrueba.crear("enrutador-caida",
+                propiedades("jdbc:h2:mem:enrutador-inexistente;IFEXISTS=TRUE," + BaseDeDatosPrueba.url(REPLICA)));
+        try {
+            Sesiones sesiones = new Sesiones(conCaida);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                assertEquals(EN_REPLICA, enOtroHilo(() -> leerRegion(sesiones)));
+            }
+            // Solo la primera lectura espera a la réplica caída, y como mucho ESPERA_REPLICA_MS
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 10 * EnrutadorConexiones.ESPERA_REPLICA_MS);
+        } finally {
+            conCaida.close();
+        }
+    }
+
+    private static Map<String, String> propiedades(String replicas) {
+        Map<String, String> propiedades = new HashMap<>();
+        propiedades.put(EnrutadorConexiones.REPLICAS, replicas);
+        propiedades.put(EnrutadorConexiones.LECTURA_TRAS_ESCRITURA, "60000");
+        // Sin comprobaciones periódicas durante la prueba, salvo la inicial
+        propiedades.put(EnrutadorConexiones.COMPROBACION, "600000");
+        return propiedades;
+    }
+
+    private static void guardarRegion(Sesiones sesiones, String nombre) {
+        sesiones.escribir(em -> {
+            em.persist(new Region(1, nombre, "", 0, new HashSet<>()));
+            return null;
+        });
+    }
+
+    private static String leerRegion(Sesiones sesiones) {
+        return sesiones.leer(em -> em.find(Region.class, 1).getNombre_region());
+    }
+
+    /**
+     * Ejecuta la operación en un hilo nuevo, para que las escrituras de los demás hilos no la manden a la primaria.
+     */
+    private static <T> T enOtroHilo(Supplier<T> operacion) throws Exception {
+        return CompletableFuture.supplyAsync(operacion, tarea -> new Thread(tarea).start()).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,170 @@
+package controller;
+
+import index.BuscadorDifuso;
+import model.Campeon;
+import model.Region;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Usa los tres controladores a la vez desde muchos hilos sobre una base de datos en memoria. Como cada operación
+ * de {@link Sesiones} abre y cierra su propio entity manager, ninguna tiene que fallar, cada escritura tiene que
+ * quedar guardada y al terminar no puede quedar ninguna conexión del pool en uso.
+ */
+class SesionesConcurrenciaTest {
+
+    private static final int HILOS = 16;
+    private static final int OPERACIONES_POR_HILO = 150;
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static CampeonController campeonController;
+    private static RegionController regionController;
+    private static HabilidadController habilidadController;
+    private static List<Integer> campeones;
+    private static List<Integer> regiones;
+    private static List<String> habilidades;
+
+    @BeforeAll
+    static void cargar() throws IOException {
+        entityManagerFactory = BaseDeDatosPrueba.crear("concurrencia");
+        BaseDeDatosPrueba.cargarCatalogo(entityManagerFactory);
+        campeonController = new CampeonController(entityManagerFactory);
+        regionController = new RegionController(entityManagerFactory);
+        habilidadController = new HabilidadController(entityManagerFactory, campeonController, new BuscadorDifuso());
+        Sesiones sesiones = new Sesiones(entityManagerFactory);
+        campeones = sesiones.leer(em -> em.createQuery("SELECT c.id_campeon FROM Campeon c ORDER BY c.id_campeon", Integer.class).getResultList());
+        regiones = sesiones.leer(em -> em.createQuery("SELECT r.id_region FROM Region r ORDER BY r.id_region", Integer.class).getResultList());
+        habilidades = sesiones.leer(em -> em.createQuery("SELECT h.nombre FROM Habilidad h ORDER BY h.nombre", String.class).getResultList());
+    }
+
+    @AfterAll
+    static void cerrar() {
+        regionController.cerrar();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void losTresControladoresDesdeVariosHilos() throws Exception {
+        // Cada hilo escribe solo en sus propias filas, así que el último valor que escribe es el que debe quedar
+        Map<Integer, String> apodos = new ConcurrentHashMap<>();
+        Map<Integer, Integer> historias = new ConcurrentHashMap<>();
+        Map<String, String> descripciones = new ConcurrentHashMap<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger maximoEnUso = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            int numero = hilo;
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    int campeon = campeones.get((numero + i * HILOS) % campeones.size());
+                    int region = regiones.get((numero + i * HILOS) % regiones.size());
+                    String habilidad = habilidades.get((numero + i * HILOS) % habilidades.size());
+                    switch (i % 6) {
+                        case 0:
+                            assertFalse(campeonController.obtenerCampeonPorId(campeon).isEmpty());
+                            assertFalse(campeonController.buscarCampeonPorTexto("A", 5).isEmpty());
+                            break;
+                        case 1:
+                            if (campeon % HILOS == numero) {
+                                String apodo = "APODO " + numero + "-" + i;
+                                assertTrue(campeonController.modificarCampeon(campeon, null, apodo, null, null));
+                                apodos.put(campeon, apodo);
+                            }
+                            break;
+                        case 2:
+                            assertFalse(regionController.obtenerRegionPorId(region).isEmpty());
+                            assertFalse(regionController.listarRegiones().isEmpty());
+                            break;
+                        case 3:
+                            if (region % HILOS == numero) {
+                                assertTrue(regionController.modificarRegion(region, null, null, i));
+                                historias.put(region, i);
+                            }
+                            break;
+                        case 4:
+                            assertFalse(habilidadController.obtenerHabilidadPorNombre(habilidad).isEmpty());
+                            assertFalse(habilidadController.buscarHabilidadPorIdCampeon(campeon).isEmpty());
+                            break;
+                        default:
+                            if (Math.floorMod(habilidad.hashCode(), HILOS) == numero) {
+                                String descripcion = "DESCRIPCION " + numero + "-" + i;
+                                assertTrue(habilidadController.modificarHabilidad(habilidad, null, null, null, descripcion, null));
+                                descripciones.put(habilidad, descripcion);
+                            }
+                    }
+                    maximoEnUso.accumulateAndGet(BaseDeDatosPrueba.pool(entityManagerFactory).getActiveConnections(), Math::max);
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertFalse(apodos.isEmpty());
+        Sesiones sesiones = new Sesiones(entityManagerFactory);
+        apodos.forEach((id, apodo) -> assertEquals(apodo, sesiones.leer(em -> em.find(Campeon.class, id).getApodo())));
+        historias.forEach((id, valor) -> assertEquals(valor, sesiones.leer(em -> em.find(Region.class, id).getHistorias_relacionadas())));
+        descripciones.forEach((nombre, descripcion) -> assertEquals(descripcion, sesiones.leer(em ->
+                em.createQuery("SELECT h.descripcion FROM Habilidad h WHERE h.nombre = :nombre", String.class)
+                        .setParameter("nombre", nombre).getSingleResult())));
+        assertTrue(maximoEnUso.get() <= BaseDeDatosPrueba.pool(entityManagerFactory).getTotalConnections());
+        assertEquals(0, BaseDeDatosPrueba.pool(entityManagerFactory).getActiveConnections());
+    }
+
+    @Test
+    void laModificacionInteractivaNoRetieneConexionesMientrasEspera() throws Exception {
+        int id = campeones.get(0);
+        PipedOutputStream teclado = new PipedOutputStream();
+        InputStream entrada = System.in;
+        PrintStream salida = System.out;
+        System.setIn(new PipedInputStream(teclado));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Thread modificacion = new Thread(() -> campeonController.modificarCampeonPorId(id));
+            modificacion.start();
+            // El controlador está esperando el nombre: no debe tener ninguna conexión en uso
+            Thread.sleep(500);
+            assertTrue(modificacion.isAlive());
+            assertEquals(0, BaseDeDatosPrueba.pool(entityManagerFactory).getActiveConnections());
+
+            teclado.write("NOMBRE MODIFICADO\n\n\n\n".getBytes(StandardCharsets.UTF_8));
+            teclado.flush();
+            modificacion.join(10_000);
+            assertFalse(modificacion.isAlive());
+        } finally {
+            System.setIn(entrada);
+            System.setOut(salida);
+            teclado.close();
+        }
+        assertEquals("NOMBRE MODIFICADO", new Sesiones(entityManagerFactory).leer(em -> em.find(Campeon.class, id).getNombre()));
+    }
+}
@@ -0,0 +1,168 @@
+package instantanea;
+
+import controller.BaseDeDatosPrueba;
+import controller.Sesiones;
+import model.Campeon;
+import model.Habilidad;
+import model.Region;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Escribe una {@link Instantanea} del catálogo cargado en una base de datos en memoria, la vuelve a abrir y
+ * comprueba que devuelve lo mismo que la base de datos: las entidades campo a campo, las pertenencias y el
+ * orden de las búsquedas por texto, que debe ser el de las consultas de los controladores.
+ */
+class InstantaneaTest {
+
+    /** Textos de búsqueda: un nombre exacto, prefijos y fragmentos de los nombres, en mayúsculas, y de las descripciones. */
+    private static final List<String> TEXTOS = Arrays.asList("AHRI", "AR", "A", "a", "DE", "de", "IA", "NOXUS", "Z", "xyz");
+    private static final int LIMITE = 20;
+
+    @TempDir
+    static Path directorio;
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static Sesiones sesiones;
+    private static Instantanea instantanea;
+
+    @BeforeAll
+    static void escribir() throws IOException {
+        entityManagerFactory = BaseDeDatosPrueba.crear("instantanea");
+        BaseDeDatosPrueba.cargarCatalogo(entityManagerFactory);
+        sesiones = new Sesiones(entityManagerFactory);
+        Path ruta = directorio.resolve(Instantanea.RUTA_POR_DEFECTO);
+        long tamano = EscritorInstantanea.escribir(entityManagerFactory, ruta);
+        assertEquals(Files.size(ruta), tamano);
+        instantanea = Instantanea.abrir(ruta);
+    }
+
+    @AfterAll
+    static void cerrar() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void losCampeonesSonLosDeLaBaseDeDatos() {
+        List<Campeon> esperados = sesiones.leer(em -> em.createQuery(
+                "SELECT c FROM Campeon c ORDER BY c.id_campeon", Campeon.class).getResultList());
+
+        assertFalse(esperados.isEmpty());
+        assertEquals(describirCampeones(esperados), describirCampeones(instantanea.campeones()));
+        Campeon primero = esperados.get(0);
+        assertEquals(describir(primero), describir(instantanea.campeon(primero.getId_campeon())));
+        assertNull(instantanea.campeon(-1));
+    }
+
+    @Test
+    void lasRegionesSonLasDeLaBaseDeDatos() {
+        List<List<Object>> esperadas = sesiones.leer(em -> em.createQuery(
+                "SELECT r FROM Region r ORDER BY r.id_region", Region.class).getResultList()
+                .stream().map(InstantaneaTest::describir).collect(Collectors.toList()));
+
+        assertFalse(esperadas.isEmpty());
+        assertEquals(esperadas, instantanea.regiones().stream().map(InstantaneaTest::describir).collect(Collectors.toList()));
+    }
+
+    @Test
+    void lasPertenenciasSonLasDeLaTablaDeRelacion() {
+        List<?> filas = sesiones.leer(em -> em.createNativeQuery(
+                "SELECT id_region, id_campeon FROM region_campeon ORDER BY id_region, id_campeon").getResultList());
+        List<List<Object>> esperadas = filas.stream().map(fila -> enteros((Object[]) fila)).collect(Collectors.toList());
+
+        assertFalse(esperadas.isEmpty());
+        assertEquals(esperadas, instantanea.pertenencias().stream().map(InstantaneaTest::enteros).collect(Collectors.toList()));
+        for (Region region : instantanea.regiones()) {
+            List<Integer> campeones = region.getCampeones().stream().map(Campeon::getId_campeon).sorted().collect(Collectors.toList());
+            List<Integer> deLaTabla = esperadas.stream()
+                    .filter(fila -> fila.get(0).equals(region.getId_region()))
+                    .map(fila -> (Integer) fila.get(1))
+                    .collect(Collectors.toList());
+            assertEquals(deLaTabla, campeones);
+        }
+    }
+
+    @Test
+    void cadaHabilidadSeRecuperaPorSuNombreConSuCampeon() {
+        List<Habilidad> esperadas = sesiones.leer(em -> em.createNamedQuery(Habilidad.TODAS_CON_CAMPEON, Habilidad.class)
+                .getResultList());
+
+        assertFalse(esperadas.isEmpty());
+        assertEquals(esperadas.size(), instantanea.habilidades().size());
+        for (Habilidad esperada : esperadas) {
+            assertEquals(describir(esperada), describir(instantanea.habilidad(esperada.getNombre())));
+        }
+        assertNull(instantanea.habilidad("No existe"));
+    }
+
+    @Test
+    void lasBusquedasTienenElOrdenDeLasConsultas() {
+        for (String texto : TEXTOS) {
+            List<Integer> campeones = sesiones.leer(em -> buscar(em.createNamedQuery(Campeon.POR_TEXTO, Campeon.class), texto))
+                    .stream().map(Campeon::getId_campeon).collect(Collectors.toList());
+            List<Integer> regiones = sesiones.leer(em -> buscar(em.createNamedQuery(Region.POR_TEXTO, Region.class), texto))
+                    .stream().map(Region::getId_region).collect(Collectors.toList());
+            List<String> habilidades = sesiones.leer(em -> buscar(em.createNamedQuery(Habilidad.POR_TEXTO, Habilidad.class), texto))
+                    .stream().map(Habilidad::getNombre).collect(Collectors.toList());
+
+            assertEquals(campeones, instantanea.buscarCampeones(texto, LIMITE).stream()
+                    .map(Campeon::getId_campeon).collect(Collectors.toList()), "Campeones con " + texto);
+            assertEquals(regiones, instantanea.buscarRegiones(texto, LIMITE).stream()
+                    .map(Region::getId_region).collect(Collectors.toList()), "Regiones con " + texto);
+            assertEquals(habilidades, instantanea.buscarHabilidades(texto, LIMITE).stream()
+                    .map(Habilidad::getNombre).collect(Collectors.toList()), "Habilidades con " + texto);
+        }
+        assertEquals(LIMITE, instantanea.buscarCampeones("A", LIMITE).size());
+        assertEquals(LIMITE, instantanea.buscarHabilidades("a", LIMITE).size());
+        assertFalse(instantanea.buscarRegiones("a", LIMITE).isEmpty());
+    }
+
+    /**
+     * Ejecuta una consulta de búsqueda por texto con los mismos parámetros que los controladores.
+     */
+    private static <T> List<T> buscar(TypedQuery<T> query, String texto) {
+        return query.setParameter("texto", "%" + texto + "%")
+                .setParameter("exacto", texto)
+                .setParameter("prefijo", texto + "%")
+                .setMaxResults(LIMITE)
+                .getResultList();
+    }
+
+    private static List<List<Object>> describirCampeones(List<Campeon> campeones) {
+        return campeones.stream().map(InstantaneaTest::describir).collect(Collectors.toList());
+    }
+
+    private static List<Object> describir(Campeon c) {
+        return Arrays.asList(c.getId_campeon(), c.getNombre(), c.getApodo(), c.getCampeones_con_relacion(), c.getBiografia(),
+                c.getApariencion_en_cinematicas(), c.getNumero_de_relatos_cortos(), c.getRol(), c.getRaza(),
+                c.getNumero_de_aspectos(), c.getDificultad());
+    }
+
+    private static List<Object> describir(Region r) {
+        return Arrays.asList(r.getId_region(), r.getNombre_region(), r.getDescripcion(), r.getHistorias_relacionadas());
+    }
+
+    private static List<Object> describir(Habilidad h) {
+        Integer campeon = h.getCampeon() == null ? null : h.getCampeon().getId_campeon();
+        return Arrays.asList(h.getNombre(), h.isPasiva(), h.getAsignacion_de_tecla(), h.getDescripcion(), h.getLink(), campeon);
+    }
+
+    private static List<Object> enteros(Object[] fila) {
+        return Arrays.asList(((Number) fila[0]).intValue(), ((Number) fila[1]).intValue());
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import controller.BaseDeDatosPrueba;
+import controller.CampeonController;
+import controller.Sesiones;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Registra valores nuevos de rol en el diccionario dentro de la transacción de escritura, sobre una base de
+ * datos en memoria con el catálogo cargado.
+ */
+class DiccionarioTest {
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static Sesiones sesiones;
+    private static int idCampeon;
+
+    @BeforeAll
+    static void cargar() throws IOException {
+        entityManagerFactory = BaseDeDatosPrueba.crear("diccionario");
+        BaseDeDatosPrueba.cargarCatalogo(entityManagerFactory);
+        sesiones = new Sesiones(entityManagerFactory);
+        idCampeon = sesiones.leer(em -> em.createQuery("SELECT MIN(c.id_campeon) FROM Campeon c", Integer.class).getSingleResult());
+    }
+
+    @AfterAll
+    static void cerrar() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void unValorNuevoSeGuardaConLaTransaccion() {
+        new CampeonController(entityManagerFactory).modificarCampeon(idCampeon, null, null, "ROL CONFIRMADO", null);
+
+        assertNotNull(Diccionario.ROL.buscar("ROL CONFIRMADO"));
+        assertEquals(1L, filasDeRol("ROL CONFIRMADO"));
+        assertEquals("ROL CONFIRMADO", sesiones.leer(em -> em.find(Campeon.class, idCampeon).getRol()));
+    }
+
+    @Test
+    void unaTransaccionDeshechaNoDejaFilasNiClaves() {
+        assertThrows(IllegalStateException.class, () -> sesiones.escribir(em -> {
+            Campeon campeon = em.find(Campeon.class, idCampeon);
+            campeon.setRol("ROL DESHECHO");
+            Diccionario.registrar(em, campeon);
+            em.flush();
+            throw new IllegalStateException("Fallo después de guardar el campeón");
+        }));
+
+        assertNull(Diccionario.ROL.buscar("ROL DESHECHO"));
+        assertEquals(0L, filasDeRol("ROL DESHECHO"));
+    }
+
+    @Test
+    void unValorSinRegistrarNoSeGuarda() {
+        PersistenceException error = assertThrows(PersistenceException.class, () -> sesiones.escribir(em -> {
+            em.find(Campeon.class, idCampeon).setRol("ROL SIN REGISTRAR");
+            em.flush();
+            return null;
+        }));
+        Throwable causa = error;
+        while (causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        assertInstanceOf(IllegalArgumentException.class, causa);
+        assertEquals(0L, filasDeRol("ROL SIN REGISTRAR"));
+    }
+
+    private static long filasDeRol(String nombre) {
+        return sesiones.leer(em -> ((Number) em.createNativeQuery("SELECT COUNT(*) FROM rol WHERE nombre_rol = ?1")
+                .setParameter(1, nombre).getSingleResult()).longValue());
+    }
+}
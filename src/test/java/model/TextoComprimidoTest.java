@@ -0,0 +1,114 @@
+package model;
+
+import herramientas.EntrenamientoDiccionario;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Comprueba que {@link TextoComprimido} recupera los textos en todos sus formatos y rechaza los datos truncados
+ * o comprimidos con un diccionario distinto, con la biografía más larga del CSV de campeones.
+ */
+class TextoComprimidoTest {
+
+    private static final TextoComprimido CONVERSOR = new TextoComprimido();
+
+    private static String biografia;
+
+    @BeforeAll
+    static void leer() throws IOException {
+        biografia = EntrenamientoDiccionario.leerBiografias(EntrenamientoDiccionario.CSV_CAMPEONES).stream()
+                .max(Comparator.comparingInt(String::length))
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    @Test
+    void unTextoCortoSeGuardaSinComprimir() {
+        byte[] datos = CONVERSOR.convertToDatabaseColumn("Un texto corto");
+
+        assertEquals(TextoComprimido.SIN_COMPRIMIR, datos[0]);
+        assertEquals("Un texto corto", CONVERSOR.convertToEntityAttribute(datos));
+    }
+
+    @Test
+    void conDiccionarioSeGuardaSuIdentificador() {
+        byte[] datos = CONVERSOR.convertToDatabaseColumn(biografia);
+
+        assertEquals(TextoComprimido.DEFLATE_DICCIONARIO, datos[0]);
+        assertEquals(TextoComprimido.identificador(TextoComprimido.diccionario()), ByteBuffer.wrap(datos, 1, 4).getInt());
+        assertEquals(biografia, CONVERSOR.convertToEntityAttribute(datos));
+    }
+
+    @Test
+    void sinDiccionarioSeRecuperaSinIndicarlo() {
+        byte[] datos = TextoComprimido.comprimir(biografia, new byte[0]);
+
+        assertEquals(TextoComprimido.DEFLATE, datos[0]);
+        assertEquals(biografia, TextoComprimido.descomprimir(datos));
+        assertEquals(biografia, TextoComprimido.descomprimir(datos, new byte[0]));
+    }
+
+    @Test
+    void elFormatoSinIdentificadorSeLeeConElPrimerDiccionario() throws IOException {
+        // Mismo formato que deja la migración V4, con su copia del primer diccionario
+        byte[] datos = comprimirFormatoAnterior(biografia, leerDiccionarioDeV4());
+
+        assertEquals(biografia, CONVERSOR.convertToEntityAttribute(datos));
+    }
+
+    @Test
+    void losDatosTruncadosSeRechazan() {
+        byte[] datos = CONVERSOR.convertToDatabaseColumn(biografia);
+
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(Arrays.copyOf(datos, datos.length - 10)));
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(Arrays.copyOf(datos, 7)));
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(Arrays.copyOf(datos, 3)));
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(new byte[0]));
+    }
+
+    @Test
+    void otroDiccionarioSeRechaza() {
+        byte[] datos = CONVERSOR.convertToDatabaseColumn(biografia);
+        byte[] otro = TextoComprimido.entrenar(Arrays.asList(biografia, biografia, biografia), 1024);
+
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(datos, otro));
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(datos, new byte[0]));
+        byte[] desconocido = TextoComprimido.comprimir(biografia, otro);
+        assertThrows(IllegalArgumentException.class, () -> TextoComprimido.descomprimir(desconocido));
+        assertEquals(biografia, TextoComprimido.descomprimir(desconocido, otro));
+    }
+
+    private static byte[] comprimirFormatoAnterior(String texto, byte[] diccionario) {
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        deflater.setDictionary(diccionario);
+        deflater.setInput(utf8);
+        deflater.finish();
+        byte[] salida = new byte[5 + utf8.length];
+        ByteBuffer.wrap(salida).put(TextoComprimido.DEFLATE_LORE).putInt(utf8.length);
+        int longitud = 5;
+        while (!deflater.finished()) {
+            longitud += deflater.deflate(salida, longitud, salida.length - longitud);
+        }
+        deflater.end();
+        return Arrays.copyOf(salida, longitud);
+    }
+
+    private static byte[] leerDiccionarioDeV4() throws IOException {
+        try (InputStream in = TextoComprimidoTest.class.getResourceAsStream("/db/migration/V4__comprimir_biografias.dict")) {
+            assertNotNull(in);
+            return in.readAllBytes();
+        }
+    }
+}